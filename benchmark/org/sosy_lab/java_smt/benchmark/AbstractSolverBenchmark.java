@@ -0,0 +1,88 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.SolverContextFactory;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.IntegerFormulaManager;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * Abstract base class for benchmarks that use an SMT solver.
+ * It creates the solver context once per trial and runs every benchmark for every solver,
+ * a single solver can be selected with the JMH option {@code -p solver=Z3}.
+ */
+@State(Scope.Benchmark)
+public abstract class AbstractSolverBenchmark {
+
+  @Param({"MATHSAT5", "SMTINTERPOL", "Z3", "PRINCESS"})
+  public Solvers solver;
+
+  protected SolverContext context;
+  protected FormulaManager mgr;
+  protected BooleanFormulaManager bmgr;
+  protected IntegerFormulaManager imgr;
+
+  @Setup(Level.Trial)
+  public final void setUpSolver()
+      throws InvalidConfigurationException, InterruptedException, SolverException {
+    context =
+        SolverContextFactory.createSolverContext(
+            getConfiguration(),
+            LogManager.createNullLogManager(),
+            ShutdownNotifier.createDummy(),
+            solver);
+    mgr = context.getFormulaManager();
+    bmgr = mgr.getBooleanFormulaManager();
+    imgr = mgr.getIntegerFormulaManager();
+    setUp();
+  }
+
+  @TearDown(Level.Trial)
+  public final void closeSolver() {
+    tearDown();
+    context.close();
+  }
+
+  /** The configuration of the solver context, benchmarks can override it to compare options. */
+  protected Configuration getConfiguration() throws InvalidConfigurationException {
+    return Configuration.defaultConfiguration();
+  }
+
+  /** Create the input of the benchmarks, called once per trial after the context is created. */
+  protected abstract void setUp()
+      throws InvalidConfigurationException, InterruptedException, SolverException;
+
+  /** Release resources of the benchmark, called before the context is closed. */
+  protected void tearDown() {}
+}
@@ -0,0 +1,157 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.java_smt.SolverContextFactory;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.visitors.DefaultFormulaVisitor;
+import org.sosy_lab.java_smt.api.visitors.FormulaTransformationVisitor;
+import org.sosy_lab.java_smt.api.visitors.TraversalProcess;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for formula construction and traversal, without calls to the SAT check.
+ * The input is a conjunction of {@link #size} linear constraints over {@link #size} + 1 variables.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FormulaBenchmark extends AbstractSolverBenchmark {
+
+  @Param({"100", "1000"})
+  public int size;
+
+  private BooleanFormula conjunction;
+  private Map<Formula, Formula> renaming;
+  private String dump;
+  private SolverContext otherContext;
+
+  @Override
+  protected void setUp() throws InvalidConfigurationException {
+    conjunction = buildConjunction();
+    renaming = new HashMap<>();
+    for (Map.Entry<String, Formula> var : mgr.extractVariables(conjunction).entrySet()) {
+      renaming.put(var.getValue(), imgr.makeVariable(var.getKey() + "'"));
+    }
+    dump = mgr.dumpFormula(conjunction).toString();
+    otherContext = SolverContextFactory.createSolverContext(solver);
+  }
+
+  @Override
+  protected void tearDown() {
+    otherContext.close();
+  }
+
+  /** Build the conjunction of {@code x_i + x_(i+1) <= i} for all i. */
+  @Benchmark
+  public BooleanFormula buildConjunction() {
+    List<BooleanFormula> constraints = new ArrayList<>(size);
+    IntegerFormula previous = imgr.makeVariable("x0");
+    for (int i = 0; i < size; i++) {
+      IntegerFormula next = imgr.makeVariable("x" + (i + 1));
+      constraints.add(imgr.lessOrEquals(imgr.add(previous, next), imgr.makeNumber(i)));
+      previous = next;
+    }
+    return bmgr.and(constraints);
+  }
+
+  @Benchmark
+  public int visitRecursively() {
+    NodeCounter counter = new NodeCounter();
+    mgr.visitRecursively(conjunction, counter);
+    return counter.count;
+  }
+
+  @Benchmark
+  public BooleanFormula transformRecursively() {
+    return mgr.transformRecursively(conjunction, new VariableRenamer(mgr));
+  }
+
+  @Benchmark
+  public BooleanFormula substitute() {
+    return mgr.substitute(conjunction, renaming);
+  }
+
+  @Benchmark
+  public Map<String, Formula> extractVariables() {
+    return mgr.extractVariables(conjunction);
+  }
+
+  @Benchmark
+  public String dumpFormula() {
+    return mgr.dumpFormula(conjunction).toString();
+  }
+
+  @Benchmark
+  public BooleanFormula parse() {
+    return mgr.parse(dump);
+  }
+
+  @Benchmark
+  public BooleanFormula translateFrom() {
+    return otherContext.getFormulaManager().translateFrom(conjunction, mgr);
+  }
+
+  private static class NodeCounter extends DefaultFormulaVisitor<TraversalProcess> {
+
+    private int count = 0;
+
+    @Override
+    protected TraversalProcess visitDefault(Formula f) {
+      count++;
+      return TraversalProcess.CONTINUE;
+    }
+  }
+
+  private static class VariableRenamer extends FormulaTransformationVisitor {
+
+    private final FormulaManager fmgr;
+
+    VariableRenamer(FormulaManager pFmgr) {
+      super(pFmgr);
+      fmgr = pFmgr;
+    }
+
+    @Override
+    public Formula visitFreeVariable(Formula f, String name) {
+      return fmgr.makeVariable(fmgr.getFormulaType(f), name + "'");
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.sosy_lab.java_smt.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the overhead of creating provers and of push and pop
+ * in a context with many declared symbols, of which each query uses only a few.
+ * The parameter {@link #reuseProvers} sets the option {@code solver.princess.reuseProvers},
+ * which is ignored by the other solvers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProverBenchmark extends AbstractSolverBenchmark {
+
+  /** The number of symbols declared before the benchmark. */
+  @Param({"100", "10000"})
+  public int symbols;
+
+  @Param({"true", "false"})
+  public boolean reuseProvers;
+
+  /** The number of symbols used by the query. */
+  private static final int QUERY_SYMBOLS = 10;
+
+  private BooleanFormula query;
+
+  @Override
+  protected Configuration getConfiguration() throws InvalidConfigurationException {
+    return Configuration.builder()
+        .setOption("solver.princess.reuseProvers", Boolean.toString(reuseProvers))
+        .build();
+  }
+
+  @Override
+  protected void setUp() {
+    List<IntegerFormula> vars = new ArrayList<>(symbols);
+    for (int i = 0; i < symbols; i++) {
+      vars.add(imgr.makeVariable("v" + i));
+    }
+
+    // v0 < v1 < ... < v9, which uses only the first few symbols
+    List<BooleanFormula> constraints = new ArrayList<>(QUERY_SYMBOLS);
+    for (int i = 1; i < QUERY_SYMBOLS; i++) {
+      constraints.add(imgr.lessThan(vars.get(i - 1), vars.get(i)));
+    }
+    query = bmgr.and(constraints);
+  }
+
+  @Benchmark
+  public boolean newProver() throws InterruptedException, SolverException {
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      prover.push(query);
+      return prover.isUnsat();
+    }
+  }
+
+  @Benchmark
+  public boolean pushPop(OpenProver pProver) throws InterruptedException, SolverException {
+    ProverEnvironment prover = pProver.prover;
+    prover.push(query);
+    boolean result = prover.isUnsat();
+    prover.pop();
+    return result;
+  }
+
+  /** A prover that stays open during the trial, such that only push and pop are measured. */
+  @State(Scope.Benchmark)
+  public static class OpenProver {
+
+    private ProverEnvironment prover;
+
+    @Setup(Level.Trial)
+    public void setUp(ProverBenchmark pBenchmark) {
+      prover = pBenchmark.context.newProverEnvironment();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+      prover.close();
+    }
+  }
+}
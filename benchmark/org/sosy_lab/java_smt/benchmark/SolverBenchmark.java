@@ -0,0 +1,200 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.Model.ValueAssignment;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.ProverEnvironment.AllSatCallback;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.test.Fuzzer;
+import org.sosy_lab.java_smt.test.HardIntegerFormulaGenerator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the solving operations of the prover environments.
+ * Each benchmark creates a fresh prover, such that no results are cached between invocations,
+ * except for model iteration, which reuses one satisfiable prover from {@link SatisfiedProver}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SolverBenchmark extends AbstractSolverBenchmark {
+
+  /** The number of steps of the counter in {@link HardIntegerFormulaGenerator}. */
+  @Param({"6"})
+  public int hardIntegerSize;
+
+  /** The size of the random formulas and the length of the interpolation sequence. */
+  @Param({"50"})
+  public int size;
+
+  private static final int FUZZER_VARIABLES = 10;
+  private static final long SEED = 42;
+
+  private BooleanFormula hardInteger;
+  private BooleanFormula fuzzed;
+  private List<BooleanFormula> predicates;
+  private List<BooleanFormula> chain;
+
+  @Override
+  protected void setUp() throws InterruptedException, SolverException {
+    hardInteger = new HardIntegerFormulaGenerator(imgr, bmgr).generate(hardIntegerSize);
+
+    predicates = new ArrayList<>(FUZZER_VARIABLES);
+    for (int i = 0; i < FUZZER_VARIABLES; i++) {
+      predicates.add(bmgr.makeVariable("p" + i));
+    }
+    Fuzzer fuzzer = new Fuzzer(mgr, new Random(SEED));
+    fuzzed = fuzzer.fuzz(size, predicates.toArray(new BooleanFormula[predicates.size()]));
+
+    // x0 = 0, x1 = x0 + 1, ..., x(n) = x(n-1) + 1, x(n) < 0
+    chain = new ArrayList<>(size + 1);
+    IntegerFormula previous = imgr.makeVariable("x0");
+    chain.add(imgr.equal(previous, imgr.makeNumber(0)));
+    for (int i = 1; i <= size; i++) {
+      IntegerFormula next = imgr.makeVariable("x" + i);
+      chain.add(imgr.equal(next, imgr.add(previous, imgr.makeNumber(1))));
+      previous = next;
+    }
+    chain.add(imgr.lessThan(previous, imgr.makeNumber(0)));
+  }
+
+  @Benchmark
+  public boolean isUnsatHardInteger() throws InterruptedException, SolverException {
+    return isUnsat(hardInteger);
+  }
+
+  @Benchmark
+  public boolean isUnsatFuzzer() throws InterruptedException, SolverException {
+    return isUnsat(fuzzed);
+  }
+
+  private boolean isUnsat(BooleanFormula f) throws InterruptedException, SolverException {
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      prover.push(f);
+      return prover.isUnsat();
+    }
+  }
+
+  @Benchmark
+  public int allSat() throws InterruptedException, SolverException {
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      prover.push(fuzzed);
+      return prover.allSat(new CountingCallback(), predicates);
+    }
+  }
+
+  @Benchmark
+  public List<BooleanFormula> seqInterpolants() throws InterruptedException, SolverException {
+    try (InterpolatingProverEnvironment<?> prover =
+        context.newProverEnvironmentWithInterpolation()) {
+      return seqInterpolants(prover);
+    }
+  }
+
+  private <T> List<BooleanFormula> seqInterpolants(InterpolatingProverEnvironment<T> prover)
+      throws InterruptedException, SolverException {
+    List<Set<T>> partitions = new ArrayList<>(chain.size());
+    for (BooleanFormula f : chain) {
+      partitions.add(Collections.singleton(prover.push(f)));
+    }
+    if (!prover.isUnsat()) {
+      throw new AssertionError("interpolation query is satisfiable");
+    }
+    return prover.getSeqInterpolants(partitions);
+  }
+
+  @Benchmark
+  public int modelIteration(SatisfiedProver pProver) throws SolverException {
+    int count = 0;
+    try (Model model = pProver.prover.getModel()) {
+      for (@SuppressWarnings("unused") ValueAssignment assignment : model) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * A prover with the satisfiable prefix of the interpolation chain.
+   * This is a separate state, because some solvers do not support
+   * several provers with non-empty stacks at the same time.
+   */
+  @State(Scope.Benchmark)
+  public static class SatisfiedProver {
+
+    private ProverEnvironment prover;
+
+    @Setup(Level.Trial)
+    public void setUp(SolverBenchmark pBenchmark) throws InterruptedException, SolverException {
+      prover = pBenchmark.context.newProverEnvironment(ProverOptions.GENERATE_MODELS);
+      prover.push(pBenchmark.bmgr.and(pBenchmark.chain.subList(0, pBenchmark.chain.size() - 1)));
+      if (prover.isUnsat()) {
+        throw new AssertionError("model query is unsatisfiable");
+      }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+      prover.close();
+    }
+  }
+
+  private static class CountingCallback implements AllSatCallback<Integer> {
+
+    private int count = 0;
+
+    @Override
+    public void apply(List<BooleanFormula> model) {
+      count++;
+    }
+
+    @Override
+    public Integer getResult() {
+      return count;
+    }
+  }
+}
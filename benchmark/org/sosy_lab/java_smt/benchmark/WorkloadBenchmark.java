@@ -0,0 +1,120 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.test.WorkloadGenerator;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the satisfiability check of the workloads of {@link WorkloadGenerator},
+ * one per theory. Combinations of a solver and a theory it does not support fail during setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WorkloadBenchmark extends AbstractSolverBenchmark {
+
+  public enum Workload {
+    LINEAR_INTEGERS,
+    LINEAR_RATIONALS,
+    BITVECTOR_UNROLLING,
+    FLOATING_POINT_SUM,
+    ARRAY_STORES,
+    UF_CHAINS,
+    PIGEONHOLE,
+    INTERPOLATION_CHAIN,
+  }
+
+  @Param({
+    "LINEAR_INTEGERS",
+    "LINEAR_RATIONALS",
+    "BITVECTOR_UNROLLING",
+    "FLOATING_POINT_SUM",
+    "ARRAY_STORES",
+    "UF_CHAINS",
+    "PIGEONHOLE",
+    "INTERPOLATION_CHAIN"
+  })
+  public Workload workload;
+
+  /** The scaling parameter of the workload, pigeonhole uses a seventh of it. */
+  @Param({"20", "50"})
+  public int size;
+
+  private static final long SEED = 42;
+
+  private BooleanFormula formula;
+
+  @Override
+  protected void setUp() {
+    WorkloadGenerator gen = new WorkloadGenerator(mgr, new Random(SEED));
+    switch (workload) {
+      case LINEAR_INTEGERS:
+        formula = gen.linearIntegers(size, size);
+        break;
+      case LINEAR_RATIONALS:
+        formula = gen.linearRationals(size, size);
+        break;
+      case BITVECTOR_UNROLLING:
+        formula = bmgr.and(gen.bitvectorUnrolling(16, size));
+        break;
+      case FLOATING_POINT_SUM:
+        formula = gen.floatingPointSum(size);
+        break;
+      case ARRAY_STORES:
+        formula = gen.arrayStores(size);
+        break;
+      case UF_CHAINS:
+        formula = gen.ufChains(size);
+        break;
+      case PIGEONHOLE:
+        formula = gen.pigeonhole(Math.max(size / 7, 2));
+        break;
+      case INTERPOLATION_CHAIN:
+        formula = bmgr.and(gen.interpolationChain(size));
+        break;
+      default:
+        throw new AssertionError("unexpected workload " + workload);
+    }
+  }
+
+  @Benchmark
+  public boolean isUnsat() throws InterruptedException, SolverException {
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      prover.push(formula);
+      return prover.isUnsat();
+    }
+  }
+}
@@ -0,0 +1,57 @@
+#!/usr/bin/env python3
+# vim: set tabstop=4 shiftwidth=4 expandtab :
+
+"""
+Compare two JSON result files of the JMH benchmarks of JavaSMT,
+e.g., the results of "ant benchmark" for two different commits:
+
+  build/compare-benchmarks.py benchmark-results/jmh-OLD.json benchmark-results/jmh-NEW.json
+
+For each benchmark and parameter combination the scores and their ratio are printed.
+A ratio above 1 means that the second run took longer (for time-based modes).
+"""
+
+import argparse
+import json
+import sys
+
+
+def load(path):
+    with open(path) as f:
+        results = json.load(f)
+    scores = {}
+    for result in results:
+        name = result['benchmark'].rsplit('.', 2)[-2:]
+        params = ','.join('%s=%s' % item for item in sorted(result.get('params', {}).items()))
+        metric = result['primaryMetric']
+        scores[('.'.join(name), params)] = (
+            metric['score'], metric['scoreError'], metric['scoreUnit'])
+    return scores
+
+
+def main(argv):
+    parser = argparse.ArgumentParser(description=__doc__,
+                                     formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument('old', help='JSON result file of the baseline')
+    parser.add_argument('new', help='JSON result file to compare against the baseline')
+    args = parser.parse_args(argv)
+
+    old = load(args.old)
+    new = load(args.new)
+
+    row = '{:<45} {:<40} {:>20} {:>20} {:>7}'
+    print(row.format('Benchmark', 'Parameters', 'Old', 'New', 'Ratio'))
+    for key in sorted(set(old) | set(new)):
+        def fmt(scores):
+            if key not in scores:
+                return '-'
+            score, error, unit = scores[key]
+            return '%.3f ± %.3f %s' % (score, error, unit)
+        ratio = '-'
+        if key in old and key in new and old[key][0] > 0:
+            ratio = '%.2f' % (new[key][0] / old[key][0])
+        print(row.format(key[0], key[1], fmt(old), fmt(new), ratio))
+
+
+if __name__ == '__main__':
+    sys.exit(main(sys.argv[1:]))
@@ -0,0 +1,171 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.events;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import org.sosy_lab.java_smt.api.BasicProverEnvironment;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.Model.ValueAssignment;
+import org.sosy_lab.java_smt.api.ResourceLimitException;
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Wraps a prover environment and emits {@link CheckSatEvent}s and {@link ModelEvent}s.
+ * The wrapper tracks the stack depth and the number of assertions for the event attributes.
+ */
+class EventBasicProverEnvironment<T, P extends BasicProverEnvironment<T>>
+    implements BasicProverEnvironment<T> {
+
+  final P delegate;
+  final String solver;
+
+  /** Number of assertions on the levels below the current one, up to {@link #stackDepth}. */
+  private int[] assertionsPerLevel = new int[16];
+
+  int stackDepth = 0;
+
+  int assertions = 0;
+
+  EventBasicProverEnvironment(P pDelegate, String pSolver) {
+    delegate = checkNotNull(pDelegate);
+    solver = checkNotNull(pSolver);
+  }
+
+  @Override
+  public void push() {
+    delegate.push();
+    if (stackDepth == assertionsPerLevel.length) {
+      assertionsPerLevel = Arrays.copyOf(assertionsPerLevel, 2 * stackDepth);
+    }
+    assertionsPerLevel[stackDepth++] = assertions;
+  }
+
+  @Override
+  public void pop() {
+    delegate.pop();
+    assertions = assertionsPerLevel[--stackDepth];
+  }
+
+  @Override
+  public T addConstraint(BooleanFormula constraint) {
+    T result = delegate.addConstraint(constraint);
+    assertions++;
+    return result;
+  }
+
+  @Override
+  public boolean isUnsat() throws SolverException, InterruptedException {
+    CheckSatEvent event = new CheckSatEvent();
+    event.begin();
+    String result = "error";
+    try {
+      boolean unsat = delegate.isUnsat();
+      result = unsat ? "unsat" : "sat";
+      return unsat;
+    } finally {
+      commit(event, 0, result);
+    }
+  }
+
+  @Override
+  public boolean isUnsat(Duration pTimeout) throws SolverException, InterruptedException {
+    CheckSatEvent event = new CheckSatEvent();
+    event.begin();
+    String result = "error";
+    try {
+      boolean unsat = delegate.isUnsat(pTimeout);
+      result = unsat ? "unsat" : "sat";
+      return unsat;
+    } catch (ResourceLimitException e) {
+      result = "timeout";
+      throw e;
+    } finally {
+      commit(event, 0, result);
+    }
+  }
+
+  @Override
+  public void interrupt() {
+    delegate.interrupt();
+  }
+
+  /** Commit a check-sat event, the attributes are only set if the event is recorded. */
+  final void commit(CheckSatEvent event, int assumptions, String result) {
+    event.end();
+    if (event.shouldCommit()) {
+      event.solver = solver;
+      event.stackDepth = stackDepth;
+      event.assertions = assertions;
+      event.assumptions = assumptions;
+      event.result = result;
+      event.commit();
+    }
+  }
+
+  @Override
+  public Model getModel() throws SolverException {
+    ModelEvent event = new ModelEvent();
+    event.begin();
+    try {
+      return delegate.getModel();
+    } finally {
+      commit(event);
+    }
+  }
+
+  @Override
+  public ImmutableList<ValueAssignment> getModelAssignments() throws SolverException {
+    ModelEvent event = new ModelEvent();
+    event.begin();
+    try {
+      return delegate.getModelAssignments();
+    } finally {
+      commit(event);
+    }
+  }
+
+  private void commit(ModelEvent event) {
+    event.end();
+    if (event.shouldCommit()) {
+      event.solver = solver;
+      event.stackDepth = stackDepth;
+      event.assertions = assertions;
+      event.commit();
+    }
+  }
+
+  @Override
+  public ImmutableMap<String, Object> getStatistics() {
+    return delegate.getStatistics();
+  }
+
+  @Override
+  public void close() {
+    delegate.close();
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.events;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import org.sosy_lab.common.Appender;
+import org.sosy_lab.common.Appenders;
+import org.sosy_lab.java_smt.api.ArrayFormulaManager;
+import org.sosy_lab.java_smt.api.BitvectorFormulaManager;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.FloatingPointFormulaManager;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.FormulaType;
+import org.sosy_lab.java_smt.api.FunctionDeclaration;
+import org.sosy_lab.java_smt.api.IntegerFormulaManager;
+import org.sosy_lab.java_smt.api.QuantifiedFormulaManager;
+import org.sosy_lab.java_smt.api.RationalFormulaManager;
+import org.sosy_lab.java_smt.api.Tactic;
+import org.sosy_lab.java_smt.api.UFManager;
+import org.sosy_lab.java_smt.api.visitors.FormulaTransformationVisitor;
+import org.sosy_lab.java_smt.api.visitors.FormulaVisitor;
+import org.sosy_lab.java_smt.api.visitors.TraversalProcess;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wraps a {@link FormulaManager} and emits {@link FormulaManagerEvent}s for parsing, dumping,
+ * translation, and tactics. All other operations are delegated directly.
+ */
+class EventFormulaManager implements FormulaManager {
+
+  private final FormulaManager delegate;
+  private final String solver;
+
+  EventFormulaManager(FormulaManager pDelegate, String pSolver) {
+    delegate = checkNotNull(pDelegate);
+    solver = checkNotNull(pSolver);
+  }
+
+  @Override
+  public IntegerFormulaManager getIntegerFormulaManager() {
+    return delegate.getIntegerFormulaManager();
+  }
+
+  @Override
+  public RationalFormulaManager getRationalFormulaManager() {
+    return delegate.getRationalFormulaManager();
+  }
+
+  @Override
+  public BooleanFormulaManager getBooleanFormulaManager() {
+    return delegate.getBooleanFormulaManager();
+  }
+
+  @Override
+  public ArrayFormulaManager getArrayFormulaManager() {
+    return delegate.getArrayFormulaManager();
+  }
+
+  @Override
+  public BitvectorFormulaManager getBitvectorFormulaManager() {
+    return delegate.getBitvectorFormulaManager();
+  }
+
+  @Override
+  public FloatingPointFormulaManager getFloatingPointFormulaManager() {
+    return delegate.getFloatingPointFormulaManager();
+  }
+
+  @Override
+  public UFManager getUFManager() {
+    return delegate.getUFManager();
+  }
+
+  @Override
+  public QuantifiedFormulaManager getQuantifiedFormulaManager() {
+    return delegate.getQuantifiedFormulaManager();
+  }
+
+  @Override
+  public <T extends Formula> T makeVariable(FormulaType<T> formulaType, String name) {
+    return delegate.makeVariable(formulaType, name);
+  }
+
+  @Override
+  public <T extends Formula> T makeApplication(
+      FunctionDeclaration<T> declaration, List<? extends Formula> args) {
+    return delegate.makeApplication(declaration, args);
+  }
+
+  @Override
+  public <T extends Formula> T makeApplication(
+      FunctionDeclaration<T> declaration, Formula... args) {
+    return delegate.makeApplication(declaration, args);
+  }
+
+  @Override
+  public <T extends Formula> FormulaType<T> getFormulaType(T formula) {
+    return delegate.getFormulaType(formula);
+  }
+
+  @Override
+  public BooleanFormula parse(String s) throws IllegalArgumentException {
+    FormulaManagerEvent event = new FormulaManagerEvent();
+    event.begin();
+    try {
+      return delegate.parse(s);
+    } finally {
+      event.finish(solver, "parse", s.length());
+    }
+  }
+
+  @Override
+  public Appender dumpFormula(BooleanFormula pT) {
+    final Appender dump = delegate.dumpFormula(pT);
+    // the actual work is done lazily when the appender is used
+    return new Appenders.AbstractAppender() {
+      @Override
+      public void appendTo(Appendable out) throws IOException {
+        FormulaManagerEvent event = new FormulaManagerEvent();
+        event.begin();
+        try {
+          dump.appendTo(out);
+        } finally {
+          event.finish(solver, "dump", -1);
+        }
+      }
+    };
+  }
+
+  @Override
+  public BooleanFormula applyTactic(BooleanFormula input, Tactic tactic)
+      throws InterruptedException {
+    FormulaManagerEvent event = new FormulaManagerEvent();
+    event.begin();
+    try {
+      return delegate.applyTactic(input, tactic);
+    } finally {
+      event.finish(solver, tactic.name(), -1);
+    }
+  }
+
+  @Override
+  public <T extends Formula> T simplify(T input) throws InterruptedException {
+    return delegate.simplify(input);
+  }
+
+  @Override
+  @CanIgnoreReturnValue
+  public <R> R visit(Formula f, FormulaVisitor<R> rFormulaVisitor) {
+    return delegate.visit(f, rFormulaVisitor);
+  }
+
+  @Override
+  public void visitRecursively(Formula f, FormulaVisitor<TraversalProcess> rFormulaVisitor) {
+    delegate.visitRecursively(f, rFormulaVisitor);
+  }
+
+  @Override
+  public <T extends Formula> T transformRecursively(
+      T f, FormulaTransformationVisitor pFormulaVisitor) {
+    return delegate.transformRecursively(f, pFormulaVisitor);
+  }
+
+  @Override
+  public Map<String, Formula> extractVariables(Formula f) {
+    return delegate.extractVariables(f);
+  }
+
+  @Override
+  public Map<String, Formula> extractVariablesAndUFs(Formula f) {
+    return delegate.extractVariablesAndUFs(f);
+  }
+
+  @Override
+  public <T extends Formula> T substitute(
+      T f, Map<? extends Formula, ? extends Formula> fromToMapping) {
+    return delegate.substitute(f, fromToMapping);
+  }
+
+  @Override
+  public BooleanFormula translateFrom(BooleanFormula formula, FormulaManager otherContext) {
+    // Unwrap the other manager, such that the solver can use its direct translation.
+    if (otherContext instanceof EventFormulaManager) {
+      otherContext = ((EventFormulaManager) otherContext).delegate;
+    }
+    FormulaManagerEvent event = new FormulaManagerEvent();
+    event.begin();
+    try {
+      return delegate.translateFrom(formula, otherContext);
+    } finally {
+      event.finish(solver, "translate", -1);
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.events;
+
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/** Wraps an {@link InterpolatingProverEnvironment} and emits Java Flight Recorder events. */
+class EventInterpolatingProverEnvironment<T>
+    extends EventBasicProverEnvironment<T, InterpolatingProverEnvironment<T>>
+    implements InterpolatingProverEnvironment<T> {
+
+  EventInterpolatingProverEnvironment(
+      InterpolatingProverEnvironment<T> pDelegate, String pSolver) {
+    super(pDelegate, pSolver);
+  }
+
+  @Override
+  public boolean isUnsatWithAssumptions(Collection<BooleanFormula> assumptions)
+      throws SolverException, InterruptedException {
+    CheckSatEvent event = new CheckSatEvent();
+    event.begin();
+    String result = "error";
+    try {
+      boolean unsat = delegate.isUnsatWithAssumptions(assumptions);
+      result = unsat ? "unsat" : "sat";
+      return unsat;
+    } finally {
+      commit(event, assumptions.size(), result);
+    }
+  }
+
+  @Override
+  public BooleanFormula getInterpolant(List<T> formulasOfA)
+      throws SolverException, InterruptedException {
+    InterpolationEvent event = new InterpolationEvent();
+    event.begin();
+    try {
+      return delegate.getInterpolant(formulasOfA);
+    } finally {
+      commit(event, "binary", 2);
+    }
+  }
+
+  @Override
+  public List<BooleanFormula> getInterpolants(List<List<T>> cuts)
+      throws SolverException, InterruptedException {
+    InterpolationEvent event = new InterpolationEvent();
+    event.begin();
+    try {
+      return delegate.getInterpolants(cuts);
+    } finally {
+      commit(event, "cuts", cuts.size() + 1);
+    }
+  }
+
+  @Override
+  public List<BooleanFormula> getSeqInterpolants(List<Set<T>> partitionedFormulas)
+      throws SolverException, InterruptedException {
+    InterpolationEvent event = new InterpolationEvent();
+    event.begin();
+    try {
+      return delegate.getSeqInterpolants(partitionedFormulas);
+    } finally {
+      commit(event, "sequence", partitionedFormulas.size());
+    }
+  }
+
+  @Override
+  public List<BooleanFormula> getTreeInterpolants(
+      List<Set<T>> partitionedFormulas, int[] startOfSubTree)
+      throws SolverException, InterruptedException {
+    InterpolationEvent event = new InterpolationEvent();
+    event.begin();
+    try {
+      return delegate.getTreeInterpolants(partitionedFormulas, startOfSubTree);
+    } finally {
+      commit(event, "tree", partitionedFormulas.size());
+    }
+  }
+
+  private void commit(InterpolationEvent event, String kind, int partitions) {
+    event.end();
+    if (event.shouldCommit()) {
+      event.solver = solver;
+      event.kind = kind;
+      event.partitions = partitions;
+      event.stackDepth = stackDepth;
+      event.assertions = assertions;
+      event.commit();
+    }
+  }
+}
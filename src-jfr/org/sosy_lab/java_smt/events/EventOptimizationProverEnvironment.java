@@ -0,0 +1,73 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.events;
+
+import com.google.common.base.Ascii;
+
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.util.Optional;
+
+/** Wraps an {@link OptimizationProverEnvironment} and emits Java Flight Recorder events. */
+class EventOptimizationProverEnvironment
+    extends EventBasicProverEnvironment<Void, OptimizationProverEnvironment>
+    implements OptimizationProverEnvironment {
+
+  EventOptimizationProverEnvironment(OptimizationProverEnvironment pDelegate, String pSolver) {
+    super(pDelegate, pSolver);
+  }
+
+  @Override
+  public int maximize(Formula objective) {
+    return delegate.maximize(objective);
+  }
+
+  @Override
+  public int minimize(Formula objective) {
+    return delegate.minimize(objective);
+  }
+
+  @Override
+  public OptStatus check() throws InterruptedException, SolverException {
+    CheckSatEvent event = new CheckSatEvent();
+    event.begin();
+    String result = "error";
+    try {
+      OptStatus status = delegate.check();
+      result = Ascii.toLowerCase(status.name());
+      return status;
+    } finally {
+      commit(event, 0, result);
+    }
+  }
+
+  @Override
+  public Optional<Rational> upper(int handle, Rational epsilon) {
+    return delegate.upper(handle, epsilon);
+  }
+
+  @Override
+  public Optional<Rational> lower(int handle, Rational epsilon) {
+    return delegate.lower(handle, epsilon);
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.events;
+
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/** Wraps a {@link ProverEnvironment} and emits Java Flight Recorder events. */
+class EventProverEnvironment extends EventBasicProverEnvironment<Void, ProverEnvironment>
+    implements ProverEnvironment {
+
+  EventProverEnvironment(ProverEnvironment pDelegate, String pSolver) {
+    super(pDelegate, pSolver);
+  }
+
+  @Override
+  public boolean isUnsatWithAssumptions(Collection<BooleanFormula> assumptions)
+      throws SolverException, InterruptedException {
+    CheckSatEvent event = new CheckSatEvent();
+    event.begin();
+    String result = "error";
+    try {
+      boolean unsat = delegate.isUnsatWithAssumptions(assumptions);
+      result = unsat ? "unsat" : "sat";
+      return unsat;
+    } finally {
+      commit(event, assumptions.size(), result);
+    }
+  }
+
+  @Override
+  public List<BooleanFormula> getUnsatCore() {
+    return delegate.getUnsatCore();
+  }
+
+  @Override
+  public Optional<List<BooleanFormula>> unsatCoreOverAssumptions(
+      Collection<BooleanFormula> assumptions) throws SolverException, InterruptedException {
+    CheckSatEvent event = new CheckSatEvent();
+    event.begin();
+    String result = "error";
+    try {
+      Optional<List<BooleanFormula>> core = delegate.unsatCoreOverAssumptions(assumptions);
+      result = core.isPresent() ? "unsat" : "sat";
+      return core;
+    } finally {
+      commit(event, assumptions.size(), result);
+    }
+  }
+
+  @Override
+  public <R> R allSat(AllSatCallback<R> callback, List<BooleanFormula> important)
+      throws InterruptedException, SolverException {
+    return delegate.allSat(callback, important);
+  }
+
+  @Override
+  public <R> R allSatPolarities(
+      AllSatPolarityCallback<R> callback, List<BooleanFormula> important)
+      throws InterruptedException, SolverException {
+    return delegate.allSatPolarities(callback, important);
+  }
+}
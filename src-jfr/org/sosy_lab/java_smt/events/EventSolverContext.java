@@ -0,0 +1,99 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.events;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+/**
+ * {@link SolverContext} that wraps all prover environments and the formula manager
+ * in versions that emit Java Flight Recorder events.
+ *
+ * <p>This class must only be used if the Java Flight Recorder API (module jdk.jfr)
+ * is available, cf. {@link #isAvailable()}.
+ */
+public final class EventSolverContext implements SolverContext {
+
+  private final SolverContext delegate;
+  private final FormulaManager formulaManager;
+  private final String solver;
+
+  public EventSolverContext(SolverContext pDelegate) {
+    delegate = checkNotNull(pDelegate);
+    solver = delegate.getSolverName().name();
+    formulaManager = new EventFormulaManager(delegate.getFormulaManager(), solver);
+  }
+
+  /**
+   * Check whether the Java Flight Recorder API is available in the running JVM.
+   * This method does not load any event class.
+   */
+  public static boolean isAvailable() {
+    try {
+      Class.forName("jdk.jfr.Event", false, EventSolverContext.class.getClassLoader());
+      return true;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  @Override
+  public FormulaManager getFormulaManager() {
+    return formulaManager;
+  }
+
+  @Override
+  public ProverEnvironment newProverEnvironment(ProverOptions... pOptions) {
+    return new EventProverEnvironment(delegate.newProverEnvironment(pOptions), solver);
+  }
+
+  @Override
+  public InterpolatingProverEnvironment<?> newProverEnvironmentWithInterpolation() {
+    return new EventInterpolatingProverEnvironment<>(
+        delegate.newProverEnvironmentWithInterpolation(), solver);
+  }
+
+  @Override
+  public OptimizationProverEnvironment newOptimizationProverEnvironment() {
+    return new EventOptimizationProverEnvironment(
+        delegate.newOptimizationProverEnvironment(), solver);
+  }
+
+  @Override
+  public String getVersion() {
+    return delegate.getVersion();
+  }
+
+  @Override
+  public Solvers getSolverName() {
+    return delegate.getSolverName();
+  }
+
+  @Override
+  public void close() {
+    delegate.close();
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.events;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Operations of the formula manager: parsing, dumping, translation, and tactics.
+ *
+ * <p>Usage: create the event, call {@link #begin()} before the operation
+ * and {@link #finish} after it.
+ */
+@Name("org.sosy_lab.java_smt.FormulaManager")
+@Label("Formula Manager Operation")
+final class FormulaManagerEvent extends SolverEvent {
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Input Length")
+  long inputLength;
+
+  /**
+   * End the event and record it, if enabled.
+   * The attributes are only computed if the event is recorded.
+   *
+   * @param pSolver the name of the solver
+   * @param pOperation the name of the operation, e.g., "parse"
+   * @param pInputLength the length of the input, e.g., of the parsed string, or -1 if unknown
+   */
+  void finish(String pSolver, String pOperation, long pInputLength) {
+    end();
+    if (shouldCommit()) {
+      solver = pSolver;
+      operation = pOperation;
+      inputLength = pInputLength;
+      commit();
+    }
+  }
+}
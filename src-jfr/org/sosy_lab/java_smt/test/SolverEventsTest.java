@@ -0,0 +1,170 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment.OptStatus;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.events.EventSolverContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+@RunWith(Parameterized.class)
+public class SolverEventsTest extends SolverBasedTest0 {
+
+  @Parameters(name = "{0}")
+  public static Object[] getAllSolvers() {
+    return Solvers.values();
+  }
+
+  @Parameter(0)
+  public Solvers solver;
+
+  @Override
+  protected Solvers solverToUse() {
+    return solver;
+  }
+
+  private EventSolverContext eventContext;
+
+  @Before
+  public void wrapContext() {
+    eventContext = new EventSolverContext(context);
+  }
+
+  @Test
+  public void checkSatEventTest() throws Exception {
+    BooleanFormula a = bmgr.makeVariable("a");
+    Path file = Files.createTempFile("javasmt", ".jfr");
+    try {
+      try (Recording recording = new Recording()) {
+        recording.enable("org.sosy_lab.java_smt.CheckSat").withoutThreshold();
+        recording.enable("org.sosy_lab.java_smt.FormulaManager").withoutThreshold();
+        recording.start();
+
+        try (ProverEnvironment prover = eventContext.newProverEnvironment()) {
+          prover.push(a);
+          prover.push(bmgr.not(a));
+          assertThat(prover.isUnsat()).isTrue();
+        }
+        FormulaManager emgr = eventContext.getFormulaManager();
+        emgr.parse(emgr.dumpFormula(a).toString());
+
+        recording.stop();
+        recording.dump(file);
+      }
+
+      List<RecordedEvent> checks = new ArrayList<>();
+      List<String> operations = new ArrayList<>();
+      for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+        if (event.getEventType().getName().equals("org.sosy_lab.java_smt.CheckSat")) {
+          checks.add(event);
+        } else {
+          operations.add(event.getString("operation"));
+        }
+      }
+
+      assertThat(checks).hasSize(1);
+      RecordedEvent check = checks.get(0);
+      assertThat(check.getString("solver")).isEqualTo(solver.name());
+      assertThat(check.getString("result")).isEqualTo("unsat");
+      assertThat(check.getInt("stackDepth")).isEqualTo(2);
+      assertThat(check.getInt("assertions")).isEqualTo(2);
+      assertThat(operations).containsExactly("dump", "parse");
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void optimizationCheckEventTest() throws Exception {
+    requireOptimization();
+
+    IntegerFormula x = imgr.makeVariable("x");
+    Path file = Files.createTempFile("javasmt", ".jfr");
+    try {
+      try (Recording recording = new Recording()) {
+        recording.enable("org.sosy_lab.java_smt.CheckSat").withoutThreshold();
+        recording.start();
+
+        try (OptimizationProverEnvironment prover =
+            eventContext.newOptimizationProverEnvironment()) {
+          prover.push(imgr.lessOrEquals(x, imgr.makeNumber(3)));
+          prover.maximize(x);
+          assertThat(prover.check()).isEqualTo(OptStatus.OPT);
+        }
+
+        recording.stop();
+        recording.dump(file);
+      }
+
+      List<RecordedEvent> checks = RecordingFile.readAllEvents(file);
+      assertThat(checks).hasSize(1);
+      RecordedEvent check = checks.get(0);
+      assertThat(check.getString("result")).isEqualTo("opt");
+      assertThat(check.getInt("stackDepth")).isEqualTo(1);
+      assertThat(check.getInt("assertions")).isEqualTo(1);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void unwrappedContextEmitsNoEvents() throws Exception {
+    BooleanFormula a = bmgr.makeVariable("a");
+    Path file = Files.createTempFile("javasmt", ".jfr");
+    try {
+      try (Recording recording = new Recording()) {
+        recording.enable("org.sosy_lab.java_smt.CheckSat").withoutThreshold();
+        recording.start();
+
+        try (ProverEnvironment prover = context.newProverEnvironment()) {
+          prover.push(a);
+          assertThat(prover.isUnsat()).isFalse();
+        }
+
+        recording.stop();
+        recording.dump(file);
+      }
+      assertThat(RecordingFile.readAllEvents(file)).isEmpty();
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
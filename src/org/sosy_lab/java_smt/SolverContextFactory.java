@@ -32,18 +32,26 @@ import org.sosy_lab.common.configuration.FileOption.Type;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.io.MoreFiles;
 import org.sosy_lab.common.io.PathCounterTemplate;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.java_smt.api.FloatingPointRoundingMode;
 import org.sosy_lab.java_smt.api.SolverContext;
 import org.sosy_lab.java_smt.logging.LoggingSolverContext;
+import org.sosy_lab.java_smt.remote.RemoteSolverContext;
+import org.sosy_lab.java_smt.remote.SmtLibSolverContext;
 import org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5SolverContext;
 import org.sosy_lab.java_smt.solvers.princess.PrincessSolverContext;
 import org.sosy_lab.java_smt.solvers.smtinterpol.SmtInterpolSolverContext;
+import org.sosy_lab.java_smt.statistics.StatisticsSolverContext;
+import org.sosy_lab.java_smt.trace.TraceRecorder;
 
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.net.URLClassLoader;
+import java.nio.file.Path;
 import java.util.Set;
+import java.util.logging.Level;
 import java.util.regex.Pattern;
 
 import javax.annotation.Nullable;
@@ -82,10 +90,55 @@ public class SolverContextFactory {
   @Option(secure = true, description = "Log solver actions, this may be slow!")
   private boolean useLogger = false;
 
+  @Option(
+    secure = true,
+    description = "Collect statistics about the number and time of solver operations."
+  )
+  private boolean collectStatistics = false;
+
+  @Option(
+    secure = true,
+    description =
+        "Emit Java Flight Recorder events for solver operations. "
+            + "This requires Java 11 or newer."
+  )
+  private boolean emitEvents = false;
+
+  @Option(
+    secure = true,
+    description =
+        "Record all API calls into a binary trace file, which can be replayed for benchmarking."
+  )
+  @FileOption(Type.OUTPUT_FILE)
+  private @Nullable PathCounterTemplate traceFile = null;
+
   @Option(secure = true, description = "Default rounding mode for floating point operations.")
   private FloatingPointRoundingMode floatingPointRoundingMode =
       FloatingPointRoundingMode.NEAREST_TIES_TO_EVEN;
 
+  @Option(
+    secure = true,
+    description =
+        "Run the solver in separate worker processes, "
+            + "such that crashes of the solver do not affect the JVM "
+            + "and provers can run in parallel (cf. solver.remote.*)."
+  )
+  private boolean useWorkerProcesses = false;
+
+  @Option(
+    secure = true,
+    description = "Which SMT solver creates the formulas if solver.useWorkerProcesses is set."
+  )
+  private Solvers workerFormulaSolver = Solvers.SMTINTERPOL;
+
+  @Option(
+    secure = true,
+    description =
+        "Run the provers in processes of an external SMT-LIB2 solver "
+            + "(cf. solver.smtlib2.command), the formulas are created with solver.solver."
+  )
+  private boolean useExternalSolver = false;
+
   private final LogManager logger;
   private final ShutdownNotifier shutdownNotifier;
   private final Configuration config;
@@ -118,7 +171,11 @@ public class SolverContextFactory {
       throws InvalidConfigurationException {
     SolverContext context;
     try {
-      context = generateContext0(solverToCreate);
+      if (useExternalSolver || useWorkerProcesses) {
+        context = generateProcessContext(solverToCreate);
+      } else {
+        context = generateContext0(solverToCreate);
+      }
     } catch (UnsatisfiedLinkError e) {
       throw new InvalidConfigurationException(
           String.format(
@@ -133,9 +190,42 @@ public class SolverContextFactory {
     if (useLogger) {
       context = new LoggingSolverContext(logger, context);
     }
+    if (collectStatistics) {
+      context = new StatisticsSolverContext(context);
+    }
+    if (emitEvents) {
+      context = wrapWithEvents(context);
+    }
+    if (traceFile != null) {
+      Path file = traceFile.getFreshPath();
+      try {
+        MoreFiles.createParentDirs(file);
+        context = TraceRecorder.record(context, file);
+      } catch (IOException e) {
+        logger.logUserException(Level.WARNING, e, "Cannot write trace file, tracing is disabled");
+      }
+    }
     return context;
   }
 
+  /** Create a context whose provers run in other processes, cf. package remote. */
+  private SolverContext generateProcessContext(Solvers solverToCreate)
+      throws InvalidConfigurationException {
+    SolverContext formulaContext =
+        generateContext0(useExternalSolver ? solverToCreate : workerFormulaSolver);
+    try {
+      if (useExternalSolver) {
+        return SmtLibSolverContext.create(config, shutdownNotifier, formulaContext);
+      } else {
+        return RemoteSolverContext.create(
+            config, logger, shutdownNotifier, solverToCreate, formulaContext);
+      }
+    } catch (InvalidConfigurationException e) {
+      formulaContext.close();
+      throw e;
+    }
+  }
+
   private SolverContext generateContext0(Solvers solverToCreate)
       throws InvalidConfigurationException {
     switch (solverToCreate) {
@@ -254,6 +344,32 @@ public class SolverContextFactory {
     }
   }
 
+  private static final String EVENT_CONTEXT_CLASS =
+      "org.sosy_lab.java_smt.events.EventSolverContext";
+
+  /**
+   * Wrap the given context in the EventSolverContext, if available.
+   * The events are built from the separate source directory src-jfr only with Java 11 or newer,
+   * such that this library still runs on Java 8, thus the class is loaded reflectively.
+   */
+  private SolverContext wrapWithEvents(SolverContext context) {
+    try {
+      Class<?> eventContextClass = Class.forName(EVENT_CONTEXT_CLASS);
+      if ((Boolean) eventContextClass.getMethod("isAvailable").invoke(null)) {
+        return (SolverContext)
+            eventContextClass.getConstructor(SolverContext.class).newInstance(context);
+      }
+    } catch (ClassNotFoundException | LinkageError e) {
+      // not built or not loadable in this JVM, handled below
+    } catch (ReflectiveOperationException e) {
+      throw new Classes.UnexpectedCheckedException("Failed to load " + EVENT_CONTEXT_CLASS, e);
+    }
+    logger.log(
+        Level.WARNING,
+        "Java Flight Recorder is not available in this JVM, solver events are not emitted.");
+    return context;
+  }
+
   private static ClassLoader createZ3ClassLoader() {
     ClassLoader parentClassLoader = SolverContextFactory.class.getClassLoader();
 
@@ -20,8 +20,11 @@
 package org.sosy_lab.java_smt.api;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 
+import java.time.Duration;
+
 import javax.annotation.Nullable;
 
 /**
@@ -66,6 +69,37 @@ public interface BasicProverEnvironment<T> extends AutoCloseable {
    */
   boolean isUnsat() throws SolverException, InterruptedException;
 
+  /**
+   * Check whether the conjunction of all formulas on the stack is unsatisfiable,
+   * but give up after the given amount of time.
+   *
+   * <p>Exceeding the time limit aborts only this query:
+   * the stack of the environment stays unchanged, and the environment can be used
+   * for further queries (e.g., after popping some of its formulas).
+   * Other environments and the {@link org.sosy_lab.common.ShutdownNotifier}
+   * of the solver context are not affected.
+   *
+   * @param timeout the maximal wall time for this query, has to be positive.
+   * @throws ResourceLimitException if the solver did not finish within the time limit.
+   */
+  boolean isUnsat(Duration timeout) throws SolverException, InterruptedException;
+
+  /**
+   * Interrupt the satisfiability check that is currently running in this environment,
+   * or the next one if none is running.
+   * The interrupted check throws an {@link InterruptedException},
+   * afterwards the environment can be used as before.
+   *
+   * <p>In contrast to a shutdown request of the {@link org.sosy_lab.common.ShutdownNotifier}
+   * of the solver context, other environments of the same context are not affected.
+   * This method can be called from another thread.
+   * Solvers without a native way to stop a single check (currently Princess)
+   * run the check in the background and block the calling thread until it finishes.
+   * The interruption wakes that thread up with {@link Thread#interrupt()},
+   * which then stops the solver.
+   */
+  void interrupt();
+
   /**
    * Get a satisfying assignment.
    * This should be called only immediately after an {@link #isUnsat()} call
@@ -87,6 +121,21 @@ public interface BasicProverEnvironment<T> extends AutoCloseable {
    */
   ImmutableList<Model.ValueAssignment> getModelAssignments() throws SolverException;
 
+  /**
+   * Get the statistics of the underlying solver,
+   * e.g., the number of conflicts, decisions, or restarts.
+   * The keys and values depend on the solver, values are usually instances of
+   * {@link Long}, {@link Double}, or {@link String}.
+   * The values are cumulative since the creation of the prover
+   * (or of the solver context, if the solver shares its statistics between provers),
+   * use {@link org.sosy_lab.java_smt.utils.StatisticsTracker} for the changes between two calls.
+   *
+   * <p>Solvers without statistics return an empty map.
+   */
+  default ImmutableMap<String, Object> getStatistics() {
+    return ImmutableMap.of();
+  }
+
   /**
    * Closes the prover environment.
    * The object should be discarded, and should not be used after closing.
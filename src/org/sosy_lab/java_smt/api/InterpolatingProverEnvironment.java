@@ -21,6 +21,7 @@ package org.sosy_lab.java_smt.api;
 
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
@@ -67,6 +68,34 @@ public interface InterpolatingProverEnvironment<T> extends BasicProverEnvironmen
    */
   BooleanFormula getInterpolant(List<T> formulasOfA) throws SolverException, InterruptedException;
 
+  /**
+   * Get interpolants for several cuts of the formulas on the stack,
+   * e.g., for all prefixes of a path.
+   * The interpolant at index i is an interpolant for group A {@code cuts.get(i)}
+   * and the remaining formulas, as returned by {@link #getInterpolant(List)},
+   * and all interpolants are computed after the same SAT-check.
+   * This should be called only immediately after an {@link #isUnsat()} call
+   * that returned <code>true</code>.
+   *
+   * <p>If the cuts are nested, i.e., each cut is contained in the next larger one,
+   * solvers with support for {@link #getSeqInterpolants(List)} compute all interpolants
+   * from a single proof, which is faster than calling {@link #getInterpolant(List)}
+   * for each cut.
+   *
+   * @param cuts For each interpolant a list of values returned by {@link #push(BooleanFormula)}.
+   * @return An interpolant for each cut, in the same order as the cuts.
+   * @throws SolverException if an interpolant cannot be computed,
+   *     for example because interpolation procedure is incomplete
+   */
+  default List<BooleanFormula> getInterpolants(List<List<T>> cuts)
+      throws SolverException, InterruptedException {
+    List<BooleanFormula> result = new ArrayList<>(cuts.size());
+    for (List<T> cut : cuts) {
+      result.add(getInterpolant(cut));
+    }
+    return result;
+  }
+
   /**
    * This method returns interpolants of an 'inductive sequence'.
    * This property must be supported by the interpolation-strategy of the underlying SMT-solver!
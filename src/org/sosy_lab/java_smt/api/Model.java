@@ -31,7 +31,9 @@ import org.sosy_lab.java_smt.api.NumeralFormula.RationalFormula;
 import java.math.BigInteger;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
+import java.util.OptionalLong;
 
 import javax.annotation.Nullable;
 
@@ -78,14 +80,58 @@ public interface Model extends Iterable<ValueAssignment>, AutoCloseable {
   @Nullable
   BigInteger evaluate(BitvectorFormula f);
 
+  /**
+   * Evaluate a list of formulas substituting the values from the model.
+   * This is equivalent to calling {@link #evaluate(Formula)} for each formula,
+   * but cheaper for solvers that can reuse state across the evaluations.
+   *
+   * @param formulas Input formulas, none of them may be an array formula.
+   * @return The values in the same order as the input formulas,
+   *    where an entry is {@code null} if its value is not relevant.
+   */
+  List<Object> evaluateAll(List<? extends Formula> formulas);
+
+  /**
+   * Evaluation for integer formulas whose value fits into a {@code long},
+   * without creating a {@link BigInteger}.
+   *
+   * @return The value, or an empty optional if the value is not relevant.
+   * @throws ArithmeticException if the value does not fit into a {@code long}.
+   */
+  OptionalLong evaluateLong(IntegerFormula f);
+
+  /**
+   * Evaluation for bitvector formulas with at most 64 bits,
+   * without creating a {@link BigInteger}.
+   * The returned {@code long} contains the bits of the unsigned value,
+   * i.e., values of 64-bit bitvectors above {@link Long#MAX_VALUE} are negative.
+   *
+   * @return The value, or an empty optional if the value is not relevant.
+   * @throws ArithmeticException if the value does not fit into 64 bits.
+   */
+  OptionalLong evaluateLong(BitvectorFormula f);
+
   /**
    * Iterate over all values present in the model.
    * Note that iterating multiple times may be inefficient for some solvers, it is recommended
    * to use {@link BasicProverEnvironment#getModelAssignments()} instead in this case.
+   *
+   * <p>Some solvers convert the values on demand while iterating,
+   * thus the iterator must not be used after the model was closed.
    */
   @Override
   Iterator<ValueAssignment> iterator();
 
+  /**
+   * Get all values in the model with the given name, i.e.,
+   * the value of a variable, or the values of all applications of an uninterpreted function
+   * or all positions of an array with that name.
+   * The index for the lookup is built once on the first call.
+   *
+   * @return The assignments in the order of {@link #iterator()}, or an empty list.
+   */
+  List<ValueAssignment> lookup(String name);
+
   /**
    * Pretty-printing of the model values.
    */
@@ -22,9 +22,13 @@ package org.sosy_lab.java_smt.api;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
 
+import java.math.BigInteger;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * An interface to an incremental SMT solver
@@ -62,6 +66,118 @@ public interface ProverEnvironment extends BasicProverEnvironment<Void> {
   <T> T allSat(AllSatCallback<T> callback, List<BooleanFormula> important)
       throws InterruptedException, SolverException;
 
+  /**
+   * Get all satisfying assignments of the current environment with regards
+   * to a subset of terms, like {@link #allSat(AllSatCallback, List)},
+   * but pass each assignment as bitsets over the indices of {@code important}.
+   * All solvers implement this method directly, without creating objects per model,
+   * which makes a difference when enumerating a large number of models.
+   *
+   * <p>The default implementation is based on {@link #allSat(AllSatCallback, List)}
+   * and matches each literal of a model against the predicates, independent of their order.
+   * Literals that are not a predicate are negated predicates. These can only be mapped
+   * if the model assigns all predicates, otherwise the default implementation throws
+   * an {@link UnsupportedOperationException}.
+   *
+   * @param important A set of variables appearing in f.
+   *     The bits of the callback refer to the positions in this list.
+   * @return The result of {@link AllSatPolarityCallback#getResult()}.
+   */
+  default <T> T allSatPolarities(
+      AllSatPolarityCallback<T> callback, List<BooleanFormula> important)
+      throws InterruptedException, SolverException {
+    final Set<BooleanFormula> predicates = new HashSet<>(important);
+    final Set<BooleanFormula> positive = new HashSet<>();
+    final BitSet values = new BitSet(important.size());
+    final BitSet assigned = new BitSet(important.size());
+    return allSat(
+        new AllSatCallback<T>() {
+
+          @Override
+          public void apply(List<BooleanFormula> model) {
+            positive.clear();
+            int negated = 0;
+            for (BooleanFormula literal : model) {
+              if (predicates.contains(literal)) {
+                positive.add(literal);
+              } else {
+                negated++;
+              }
+            }
+            if (negated > 0 && positive.size() + negated != predicates.size()) {
+              throw new UnsupportedOperationException(
+                  "Cannot map the negated predicates of a partial model to their positions");
+            }
+            values.clear();
+            assigned.clear();
+            for (int i = 0; i < important.size(); i++) {
+              if (positive.contains(important.get(i))) {
+                assigned.set(i);
+                values.set(i);
+              } else if (negated > 0) {
+                // all predicates are assigned, so all others are negated
+                assigned.set(i);
+              }
+            }
+            callback.apply(values, assigned);
+          }
+
+          @Override
+          public T getResult() throws InterruptedException {
+            return callback.getResult();
+          }
+        },
+        important);
+  }
+
+  /**
+   * Count the satisfying assignments of the current environment
+   * projected onto the given predicates.
+   *
+   * <p>The count is computed with {@link #allSat} without storing the models.
+   * If the solver reports a partial assignment (a cube) that does not mention
+   * all predicates, it is counted with weight 2^(number of unassigned predicates).
+   * For large model counts consider an approximate counter like
+   * {@link org.sosy_lab.java_smt.utils.ApproximateModelCounter}.
+   *
+   * @param projection A set of variables appearing in the asserted formulas.
+   * @return The number of distinct assignments to the projection that can be extended
+   *     to a model of the current environment.
+   */
+  default BigInteger countModels(List<BooleanFormula> projection)
+      throws InterruptedException, SolverException {
+    final int size = projection.size();
+    // some solvers keep their blocking clauses, thus we use a separate level
+    push();
+    try {
+      return allSat(
+          new AllSatCallback<BigInteger>() {
+
+            // total models are counted in a primitive, only partial cubes need big numbers
+            private long count = 0;
+            private BigInteger weightedCount = BigInteger.ZERO;
+
+            @Override
+            public void apply(List<BooleanFormula> model) {
+              int dontCares = size - model.size();
+              if (dontCares == 0 && count < Long.MAX_VALUE) {
+                count++;
+              } else {
+                weightedCount = weightedCount.add(BigInteger.ONE.shiftLeft(dontCares));
+              }
+            }
+
+            @Override
+            public BigInteger getResult() {
+              return weightedCount.add(BigInteger.valueOf(count));
+            }
+          },
+          projection);
+    } finally {
+      pop();
+    }
+  }
+
   /**
    * Check whether the conjunction of all formulas on the stack together with the
    * list of assumptions is satisfiable.
@@ -105,4 +221,28 @@ public interface ProverEnvironment extends BasicProverEnvironment<Void> {
      */
     T getResult() throws InterruptedException;
   }
+
+  /**
+   * Interface for the {@link #allSatPolarities} callback.
+   * @param <T> The result type of the callback, passed through by {@link #allSatPolarities}.
+   */
+  interface AllSatPolarityCallback<T> {
+
+    /**
+     * Callback for each possible satisfying assignment to given
+     * {@code important} predicates.
+     * Bit {@code i} of {@code assigned} is set if the predicate at position {@code i}
+     * is part of the assignment, and bit {@code i} of {@code values} is set
+     * if it is assigned {@code true}.
+     * Both bitsets are reused for the next assignment,
+     * they must not be modified or stored, copy them if necessary.
+     */
+    void apply(BitSet values, BitSet assigned);
+
+    /**
+     * Returning the result generated after all the {@link #apply} calls have
+     * went through.
+     */
+    T getResult() throws InterruptedException;
+  }
 }
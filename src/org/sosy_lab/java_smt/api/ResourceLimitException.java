@@ -0,0 +1,42 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.sosy_lab.java_smt.api;
+
+import javax.annotation.Nullable;
+
+/**
+ * Exception thrown if a satisfiability check was aborted because it exceeded its time limit,
+ * cf. {@link BasicProverEnvironment#isUnsat(java.time.Duration)}.
+ * In contrast to a shutdown request, this affects only the aborted query:
+ * the prover environment keeps its stack and can be used for further queries.
+ */
+public class ResourceLimitException extends SolverException {
+
+  private static final long serialVersionUID = 4395721086631264578L;
+
+  public ResourceLimitException(@Nullable String msg) {
+    super(msg);
+  }
+
+  public ResourceLimitException(@Nullable String msg, @Nullable Throwable t) {
+    super(msg, t);
+  }
+}
@@ -21,7 +21,10 @@ package org.sosy_lab.java_smt.basicimpl;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Multimaps;
 
 import org.sosy_lab.common.rationals.Rational;
 import org.sosy_lab.java_smt.api.ArrayFormula;
@@ -33,7 +36,12 @@ import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
 import org.sosy_lab.java_smt.api.NumeralFormula.RationalFormula;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.OptionalLong;
 
 import javax.annotation.Nullable;
 
@@ -78,17 +86,100 @@ public abstract class AbstractModel<TFormulaInfo, TType, TEnv> implements Model
     return evaluateImpl(creator.extractInfo(f));
   }
 
+  @Override
+  public final List<Object> evaluateAll(List<? extends Formula> formulas) {
+    List<TFormulaInfo> infos = new ArrayList<>(formulas.size());
+    for (Formula f : formulas) {
+      Preconditions.checkArgument(
+          !(f instanceof ArrayFormula),
+          "cannot compute a simple constant evaluation for an array-formula");
+      infos.add(creator.extractInfo(f));
+    }
+    return Collections.unmodifiableList(Arrays.asList(evaluateAllImpl(infos)));
+  }
+
+  @Override
+  public OptionalLong evaluateLong(IntegerFormula f) {
+    return evaluateLongImpl(creator.extractInfo(f), false);
+  }
+
+  @Override
+  public OptionalLong evaluateLong(BitvectorFormula f) {
+    return evaluateLongImpl(creator.extractInfo(f), true);
+  }
+
   protected abstract Object evaluateImpl(TFormulaInfo f);
 
+  /**
+   * Evaluate several formulas at once.
+   * The default implementation calls {@link #evaluateImpl(Object)} for each formula,
+   * solvers can override this if they can avoid some overhead per formula.
+   */
+  protected Object[] evaluateAllImpl(List<TFormulaInfo> fs) {
+    Object[] values = new Object[fs.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = evaluateImpl(fs.get(i));
+    }
+    return values;
+  }
+
+  /**
+   * Evaluate an integer or bitvector formula to a {@code long}.
+   * The default implementation converts the result of {@link #evaluateImpl(Object)},
+   * solvers can override this with a path that does not create a {@link BigInteger}.
+   *
+   * @param isBitvector whether the value is an unsigned bitvector value
+   */
+  protected OptionalLong evaluateLongImpl(TFormulaInfo f, boolean isBitvector) {
+    return toOptionalLong((BigInteger) evaluateImpl(f), isBitvector);
+  }
+
+  /**
+   * Convert the value of an integer or bitvector formula to a {@code long}.
+   *
+   * @param value the value, {@code null} if the formula has no value in the model
+   * @param isBitvector whether the value is an unsigned bitvector value
+   */
+  protected static OptionalLong toOptionalLong(@Nullable BigInteger value, boolean isBitvector) {
+    if (value == null) {
+      return OptionalLong.empty();
+    }
+    if (!isBitvector) {
+      return OptionalLong.of(value.longValueExact());
+    }
+    if (value.bitLength() > Long.SIZE) {
+      throw new ArithmeticException("bitvector value does not fit into 64 bits: " + value);
+    }
+    return OptionalLong.of(value.longValue());
+  }
+
   @Override
   public String toString() {
     return Joiner.on('\n').join(iterator());
   }
 
+  @Override
+  public List<ValueAssignment> lookup(String name) {
+    ImmutableList.Builder<ValueAssignment> result = ImmutableList.builder();
+    for (ValueAssignment assignment : this) {
+      if (assignment.getName().equals(name)) {
+        result.add(assignment);
+      }
+    }
+    return result.build();
+  }
+
+  /**
+   * A model that caches its assignments after they were computed once.
+   * Subclasses can override {@link #modelIterator()} to produce the assignments on demand,
+   * such that a caller who only reads a few entries does not pay for converting all of them.
+   * The assignments are cached as soon as one iteration is completed.
+   */
   public abstract static class CachingAbstractModel<TFormulaInfo, TType, TEnv>
       extends AbstractModel<TFormulaInfo, TType, TEnv> {
 
     private @Nullable ImmutableList<ValueAssignment> modelAssignments = null;
+    private @Nullable ImmutableListMultimap<String, ValueAssignment> nameIndex = null;
 
     protected CachingAbstractModel(FormulaCreator<TFormulaInfo, TType, TEnv, ?> pCreator) {
       super(pCreator);
@@ -96,12 +187,45 @@ public abstract class AbstractModel<TFormulaInfo, TType, TEnv> implements Model
 
     @Override
     public final Iterator<ValueAssignment> iterator() {
-      if (modelAssignments == null) {
-        modelAssignments = modelToList();
+      if (modelAssignments != null) {
+        return modelAssignments.iterator();
       }
-      return modelAssignments.iterator();
+      final Iterator<ValueAssignment> delegate = modelIterator();
+      return new AbstractIterator<ValueAssignment>() {
+
+        private final ImmutableList.Builder<ValueAssignment> seen = ImmutableList.builder();
+
+        @Override
+        protected ValueAssignment computeNext() {
+          if (delegate.hasNext()) {
+            ValueAssignment next = delegate.next();
+            seen.add(next);
+            return next;
+          }
+          if (modelAssignments == null) {
+            modelAssignments = seen.build();
+          }
+          return endOfData();
+        }
+      };
+    }
+
+    @Override
+    public final List<ValueAssignment> lookup(String name) {
+      if (nameIndex == null) {
+        nameIndex = Multimaps.index(this, ValueAssignment::getName);
+      }
+      return nameIndex.get(name);
     }
 
     protected abstract ImmutableList<ValueAssignment> modelToList();
+
+    /**
+     * Produce the assignments of the model.
+     * The default implementation computes all of them at once with {@link #modelToList()}.
+     */
+    protected Iterator<ValueAssignment> modelIterator() {
+      return modelToList().iterator();
+    }
   }
 }
@@ -0,0 +1,67 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.basicimpl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.sosy_lab.java_smt.api.BasicProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.time.Duration;
+
+/**
+ * Base class for prover environments that implements the time limit of
+ * {@link #isUnsat(Duration)}.
+ * The deadline of the running check is stored here, such that solvers
+ * that are stopped by a termination callback can poll {@link #isTimeLimitExceeded()}.
+ */
+public abstract class AbstractProver<T> implements BasicProverEnvironment<T> {
+
+  /** Whether the current satisfiability check has a deadline, cf. {@link #isUnsat(Duration)}. */
+  private volatile boolean timeLimited = false;
+
+  /** The deadline of the current satisfiability check as given by {@link System#nanoTime()}. */
+  private volatile long deadline;
+
+  @Override
+  public final boolean isUnsat(Duration pTimeout) throws SolverException, InterruptedException {
+    checkArgument(
+        !pTimeout.isNegative() && !pTimeout.isZero(), "Timeout has to be positive: %s", pTimeout);
+    deadline = System.nanoTime() + pTimeout.toNanos();
+    timeLimited = true;
+    try {
+      return isUnsatWithTimeout(pTimeout);
+    } finally {
+      timeLimited = false;
+    }
+  }
+
+  /**
+   * Check satisfiability like {@link #isUnsat()}, but stop at the deadline of the given
+   * (positive) timeout and throw a {@link org.sosy_lab.java_smt.api.ResourceLimitException}.
+   */
+  protected abstract boolean isUnsatWithTimeout(Duration pTimeout)
+      throws SolverException, InterruptedException;
+
+  /** Whether the running check has a deadline and it has passed. */
+  protected final boolean isTimeLimitExceeded() {
+    return timeLimited && System.nanoTime() - deadline >= 0;
+  }
+}
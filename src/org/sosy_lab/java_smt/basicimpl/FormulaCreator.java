@@ -48,6 +48,7 @@ import org.sosy_lab.java_smt.basicimpl.AbstractFormula.FloatingPointRoundingMode
 import org.sosy_lab.java_smt.basicimpl.AbstractFormula.IntegerFormulaImpl;
 import org.sosy_lab.java_smt.basicimpl.AbstractFormula.RationalFormulaImpl;
 
+import java.math.BigInteger;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.HashMap;
@@ -70,6 +71,17 @@ import javax.annotation.Nullable;
  */
 public abstract class FormulaCreator<TFormulaInfo, TType, TEnv, TFuncDecl> {
 
+  /** Small numbers occur often in models (counters, indices), so we share their instances. */
+  private static final int SMALL_VALUES_MIN = -128;
+
+  private static final BigInteger[] SMALL_VALUES = new BigInteger[1024 - SMALL_VALUES_MIN];
+
+  static {
+    for (int i = 0; i < SMALL_VALUES.length; i++) {
+      SMALL_VALUES[i] = BigInteger.valueOf(i + SMALL_VALUES_MIN);
+    }
+  }
+
   private final TType boolType;
   private final @Nullable TType integerType;
   private final @Nullable TType rationalType;
@@ -83,6 +95,33 @@ public abstract class FormulaCreator<TFormulaInfo, TType, TEnv, TFuncDecl> {
     this.rationalType = pRationalType;
   }
 
+  /**
+   * Convert a primitive value from the solver into a {@link BigInteger},
+   * re-using the instances of small values.
+   */
+  protected static BigInteger toBigInteger(long value) {
+    long idx = value - SMALL_VALUES_MIN;
+    if (idx >= 0 && idx < SMALL_VALUES.length) {
+      return SMALL_VALUES[(int) idx];
+    }
+    return BigInteger.valueOf(value);
+  }
+
+  /**
+   * Parse a decimal number from the solver into a {@link BigInteger},
+   * without the costly string conversion of {@link BigInteger} if the number fits into a long.
+   */
+  protected static BigInteger parseBigInteger(String value) {
+    if (value.length() <= 18) { // at most 18 characters always fit into a long
+      try {
+        return toBigInteger(Long.parseLong(value));
+      } catch (NumberFormatException e) {
+        // fall through and let BigInteger report the error
+      }
+    }
+    return new BigInteger(value);
+  }
+
   public final TEnv getEnv() {
     return environment;
   }
@@ -0,0 +1,131 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.basicimpl;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Sets;
+
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * Helper for implementing {@link InterpolatingProverEnvironment#getInterpolants(List)}
+ * with a single call to {@link InterpolatingProverEnvironment#getSeqInterpolants(List)}.
+ */
+public final class InterpolationCuts {
+
+  private InterpolationCuts() {}
+
+  /**
+   * Compute the binary interpolants for all given cuts.
+   * If the cuts are nested, i.e., each cut is contained in the next larger one,
+   * the differences between the cuts are the partitions of a sequence interpolant,
+   * which is computed from a single proof.
+   * Otherwise, or if the solver does not support sequence interpolants,
+   * {@link InterpolatingProverEnvironment#getInterpolant(List)} is called for each cut.
+   *
+   * @param prover the prover with the unsatisfiable stack.
+   * @param cuts the formulas of group A for each requested interpolant.
+   * @param assertedFormulas all formulas on the stack of the prover.
+   * @return the interpolant for each cut, in the same order as the cuts.
+   */
+  public static <T> List<BooleanFormula> getInterpolants(
+      InterpolatingProverEnvironment<T> prover, List<List<T>> cuts, Collection<T> assertedFormulas)
+      throws SolverException, InterruptedException {
+    checkNotNull(prover);
+
+    Set<T> all = new HashSet<>(assertedFormulas);
+    Map<Set<T>, BooleanFormula> interpolants = new HashMap<>();
+    // with equal formulas on the stack, the cuts can not be represented as sets
+    List<Set<T>> nestedCuts =
+        all.size() == assertedFormulas.size() ? getNestedCuts(cuts, all) : null;
+    if (nestedCuts != null) {
+      List<Set<T>> partitions = new ArrayList<>(nestedCuts.size() + 1);
+      Set<T> previous = new HashSet<>();
+      for (Set<T> cut : nestedCuts) {
+        partitions.add(new LinkedHashSet<>(Sets.difference(cut, previous)));
+        previous = cut;
+      }
+      partitions.add(new LinkedHashSet<>(Sets.difference(all, previous)));
+
+      try {
+        // the i-th interpolant of the sequence belongs to the union of the first i+1 partitions
+        List<BooleanFormula> sequence = prover.getSeqInterpolants(partitions);
+        for (int i = 0; i < nestedCuts.size(); i++) {
+          interpolants.put(nestedCuts.get(i), sequence.get(i));
+        }
+      } catch (UnsupportedOperationException e) {
+        // the solver does not support sequence interpolants, use binary interpolants below
+      }
+    }
+
+    List<BooleanFormula> result = new ArrayList<>(cuts.size());
+    for (List<T> cut : cuts) {
+      BooleanFormula itp = interpolants.get(new HashSet<>(cut));
+      result.add(itp != null ? itp : prover.getInterpolant(cut));
+    }
+    return result;
+  }
+
+  /**
+   * Return the distinct non-trivial cuts ordered by inclusion,
+   * or null if the cuts are not nested and thus can not be computed as sequence interpolant.
+   * Cuts that are empty or contain all formulas have trivial interpolants
+   * and are not part of the sequence.
+   */
+  private static @Nullable <T> List<Set<T>> getNestedCuts(List<List<T>> cuts, Set<T> all) {
+    Set<Set<T>> distinctCuts = new LinkedHashSet<>();
+    for (List<T> cut : cuts) {
+      Set<T> cutSet = new HashSet<>(cut);
+      if (cutSet.size() != cut.size() || !all.containsAll(cutSet)) {
+        return null;
+      }
+      if (!cutSet.isEmpty() && cutSet.size() < all.size()) {
+        distinctCuts.add(cutSet);
+      }
+    }
+    if (distinctCuts.isEmpty()) {
+      return null;
+    }
+
+    List<Set<T>> nestedCuts = new ArrayList<>(distinctCuts);
+    nestedCuts.sort(Comparator.comparingInt(Set::size));
+    for (int i = 1; i < nestedCuts.size(); i++) {
+      if (!nestedCuts.get(i).containsAll(nestedCuts.get(i - 1))) {
+        return null;
+      }
+    }
+    return nestedCuts;
+  }
+}
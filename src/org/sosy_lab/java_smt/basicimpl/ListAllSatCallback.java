@@ -0,0 +1,75 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.basicimpl;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment.AllSatCallback;
+import org.sosy_lab.java_smt.api.ProverEnvironment.AllSatPolarityCallback;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Helper for implementing {@link org.sosy_lab.java_smt.api.ProverEnvironment#allSat}
+ * on top of {@link org.sosy_lab.java_smt.api.ProverEnvironment#allSatPolarities}:
+ * layers the formula-based {@link AllSatCallback} on top of the polarity bitsets.
+ * The negated predicates are created once and shared between all models.
+ */
+public final class ListAllSatCallback<T> implements AllSatPolarityCallback<T> {
+  private final AllSatCallback<T> clientCallback;
+  private final List<BooleanFormula> important;
+  private final Function<BooleanFormula, BooleanFormula> negation;
+  private final BooleanFormula[] negated;
+
+  public ListAllSatCallback(
+      AllSatCallback<T> pClientCallback,
+      List<BooleanFormula> pImportant,
+      Function<BooleanFormula, BooleanFormula> pNegation) {
+    clientCallback = checkNotNull(pClientCallback);
+    important = checkNotNull(pImportant);
+    negation = checkNotNull(pNegation);
+    negated = new BooleanFormula[pImportant.size()];
+  }
+
+  @Override
+  public void apply(BitSet values, BitSet assigned) {
+    List<BooleanFormula> model = new ArrayList<>(assigned.cardinality());
+    for (int i = assigned.nextSetBit(0); i >= 0; i = assigned.nextSetBit(i + 1)) {
+      model.add(values.get(i) ? important.get(i) : getNegated(i));
+    }
+    clientCallback.apply(model);
+  }
+
+  private BooleanFormula getNegated(int index) {
+    if (negated[index] == null) {
+      negated[index] = negation.apply(important.get(index));
+    }
+    return negated[index];
+  }
+
+  @Override
+  public T getResult() throws InterruptedException {
+    return clientCallback.getResult();
+  }
+}
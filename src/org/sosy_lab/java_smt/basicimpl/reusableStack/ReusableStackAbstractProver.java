@@ -23,12 +23,15 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import org.sosy_lab.java_smt.api.BasicProverEnvironment;
 import org.sosy_lab.java_smt.api.Model;
 import org.sosy_lab.java_smt.api.Model.ValueAssignment;
 import org.sosy_lab.java_smt.api.SolverException;
 
+import java.time.Duration;
+
 abstract class ReusableStackAbstractProver<T, D extends BasicProverEnvironment<T>>
     implements BasicProverEnvironment<T> {
 
@@ -46,6 +49,17 @@ abstract class ReusableStackAbstractProver<T, D extends BasicProverEnvironment<T
     return delegate.isUnsat();
   }
 
+  @Override
+  public boolean isUnsat(Duration pTimeout) throws SolverException, InterruptedException {
+    Preconditions.checkState(size >= 0);
+    return delegate.isUnsat(pTimeout);
+  }
+
+  @Override
+  public void interrupt() {
+    delegate.interrupt();
+  }
+
   @Override
   public final void push() {
     size++;
@@ -71,6 +85,11 @@ abstract class ReusableStackAbstractProver<T, D extends BasicProverEnvironment<T
     return delegate.getModelAssignments();
   }
 
+  @Override
+  public ImmutableMap<String, Object> getStatistics() {
+    return delegate.getStatistics();
+  }
+
   @Override
   public void close() {
     while (size > 0) {
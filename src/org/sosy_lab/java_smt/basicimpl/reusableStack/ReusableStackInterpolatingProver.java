@@ -46,6 +46,12 @@ public class ReusableStackInterpolatingProver<T>
     return delegate.getInterpolant(pFormulasOfA);
   }
 
+  @Override
+  public List<BooleanFormula> getInterpolants(List<List<T>> pCuts)
+      throws SolverException, InterruptedException {
+    return delegate.getInterpolants(pCuts);
+  }
+
   @Override
   public List<BooleanFormula> getSeqInterpolants(List<Set<T>> pPartitionedFormulas)
       throws SolverException, InterruptedException {
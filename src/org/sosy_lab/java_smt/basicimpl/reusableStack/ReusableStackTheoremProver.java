@@ -50,6 +50,13 @@ public class ReusableStackTheoremProver extends ReusableStackAbstractProver<Void
     return delegate.allSat(callback, important);
   }
 
+  @Override
+  public <T> T allSatPolarities(
+      ProverEnvironment.AllSatPolarityCallback<T> callback, List<BooleanFormula> important)
+      throws InterruptedException, SolverException {
+    return delegate.allSatPolarities(callback, important);
+  }
+
   @Override
   public boolean isUnsatWithAssumptions(Collection<BooleanFormula> assumptions)
       throws SolverException, InterruptedException {
@@ -20,12 +20,14 @@
 package org.sosy_lab.java_smt.basicimpl.withAssumptionsWrapper;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import org.sosy_lab.java_smt.api.BasicProverEnvironment;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.Model;
 import org.sosy_lab.java_smt.api.SolverException;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -69,6 +71,17 @@ public class BasicProverWithAssumptionsWrapper<T, P extends BasicProverEnvironme
     return delegate.isUnsat();
   }
 
+  @Override
+  public boolean isUnsat(Duration pTimeout) throws SolverException, InterruptedException {
+    clearAssumptions();
+    return delegate.isUnsat(pTimeout);
+  }
+
+  @Override
+  public void interrupt() {
+    delegate.interrupt();
+  }
+
   @Override
   public Model getModel() throws SolverException {
     return delegate.getModel();
@@ -79,6 +92,11 @@ public class BasicProverWithAssumptionsWrapper<T, P extends BasicProverEnvironme
     return delegate.getModelAssignments();
   }
 
+  @Override
+  public ImmutableMap<String, Object> getStatistics() {
+    return delegate.getStatistics();
+  }
+
   @Override
   public void close() {
     delegate.close();
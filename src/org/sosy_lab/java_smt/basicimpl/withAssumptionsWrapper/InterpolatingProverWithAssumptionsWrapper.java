@@ -69,6 +69,30 @@ public class InterpolatingProverWithAssumptionsWrapper<T>
     return interpolant;
   }
 
+  @Override
+  public List<BooleanFormula> getInterpolants(List<List<T>> pCuts)
+      throws SolverException, InterruptedException {
+    List<List<T>> completeCuts = new ArrayList<>(pCuts.size());
+    for (List<T> cut : pCuts) {
+      List<T> completeListOfA = Lists.newArrayList(cut);
+      completeListOfA.addAll(solverAssumptionsFromPush);
+      completeCuts.add(completeListOfA);
+    }
+    List<BooleanFormula> interpolants = delegate.getInterpolants(completeCuts);
+
+    // remove assumption variables from the rawInterpolants if necessary
+    if (!solverAssumptionsAsFormula.isEmpty()) {
+      List<BooleanFormula> result = new ArrayList<>(interpolants.size());
+      for (BooleanFormula interpolant : interpolants) {
+        result.add(
+            bmgr.transformRecursively(interpolant, new RemoveAssumptionsFromFormulaVisitor()));
+      }
+      interpolants = result;
+    }
+
+    return interpolants;
+  }
+
   @Override
   public List<BooleanFormula> getSeqInterpolants(List<Set<T>> pPartitionedFormulas)
       throws SolverException, InterruptedException {
@@ -60,6 +60,14 @@ public class ProverWithAssumptionsWrapper
     return delegate.allSat(pCallback, pImportant);
   }
 
+  @Override
+  public <T> T allSatPolarities(
+      AllSatPolarityCallback<T> pCallback, List<BooleanFormula> pImportant)
+      throws InterruptedException, SolverException {
+    clearAssumptions();
+    return delegate.allSatPolarities(pCallback, pImportant);
+  }
+
   @Override
   public Optional<List<BooleanFormula>> unsatCoreOverAssumptions(
       Collection<BooleanFormula> pAssumptions) throws SolverException, InterruptedException {
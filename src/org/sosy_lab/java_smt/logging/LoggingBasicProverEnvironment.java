@@ -22,6 +22,7 @@ package org.sosy_lab.java_smt.logging;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.java_smt.api.BasicProverEnvironment;
@@ -30,6 +31,7 @@ import org.sosy_lab.java_smt.api.Model;
 import org.sosy_lab.java_smt.api.Model.ValueAssignment;
 import org.sosy_lab.java_smt.api.SolverException;
 
+import java.time.Duration;
 import java.util.logging.Level;
 
 /**
@@ -78,6 +80,20 @@ class LoggingBasicProverEnvironment<T> implements BasicProverEnvironment<T> {
     return result;
   }
 
+  @Override
+  public boolean isUnsat(Duration pTimeout) throws SolverException, InterruptedException {
+    logger.log(Level.FINE, "unsat-check with timeout", pTimeout);
+    boolean result = wrapped.isUnsat(pTimeout);
+    logger.log(Level.FINE, "unsat-check returned:", result);
+    return result;
+  }
+
+  @Override
+  public void interrupt() {
+    logger.log(Level.FINE, "interrupting unsat-check");
+    wrapped.interrupt();
+  }
+
   @Override
   public Model getModel() throws SolverException {
     Model m = wrapped.getModel();
@@ -92,6 +108,11 @@ class LoggingBasicProverEnvironment<T> implements BasicProverEnvironment<T> {
     return m;
   }
 
+  @Override
+  public ImmutableMap<String, Object> getStatistics() {
+    return wrapped.getStatistics();
+  }
+
   @Override
   public void close() {
     wrapped.close();
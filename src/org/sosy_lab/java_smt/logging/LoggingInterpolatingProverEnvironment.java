@@ -59,6 +59,15 @@ class LoggingInterpolatingProverEnvironment<T> extends LoggingBasicProverEnviron
     return bf;
   }
 
+  @Override
+  public List<BooleanFormula> getInterpolants(List<List<T>> cuts)
+      throws SolverException, InterruptedException {
+    logger.log(Level.FINE, "cuts:", cuts);
+    List<BooleanFormula> bf = wrapped.getInterpolants(cuts);
+    logger.log(Level.FINE, "interpolants:", bf);
+    return bf;
+  }
+
   @Override
   public List<BooleanFormula> getSeqInterpolants(List<Set<T>> partitionedFormulas)
       throws SolverException, InterruptedException {
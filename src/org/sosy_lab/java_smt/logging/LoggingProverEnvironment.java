@@ -82,4 +82,13 @@ class LoggingProverEnvironment extends LoggingBasicProverEnvironment<Void>
     logger.log(Level.FINE, "allsat-result:", result);
     return result;
   }
+
+  @Override
+  public <T> T allSatPolarities(
+      AllSatPolarityCallback<T> callback, List<BooleanFormula> important)
+      throws InterruptedException, SolverException {
+    T result = wrapped.allSatPolarities(callback, important);
+    logger.log(Level.FINE, "allsat-result:", result);
+    return result;
+  }
 }
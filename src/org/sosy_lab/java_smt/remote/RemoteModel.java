@@ -0,0 +1,144 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.sosy_lab.java_smt.remote;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.ArrayFormula;
+import org.sosy_lab.java_smt.api.BitvectorFormula;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.NumeralFormula.RationalFormula;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+/**
+ * Model of a prover that runs in another process.
+ * The assignments are transferred at once, other terms are evaluated by the process.
+ * The latter is only possible until the prover is changed or queried again.
+ */
+final class RemoteModel implements Model {
+
+  private final Function<Formula, Object> evaluator;
+  private final ImmutableList<ValueAssignment> assignments;
+
+  RemoteModel(Function<Formula, Object> pEvaluator, ImmutableList<ValueAssignment> pAssignments) {
+    evaluator = pEvaluator;
+    assignments = pAssignments;
+  }
+
+  @Nullable
+  @Override
+  public Object evaluate(Formula f) {
+    Preconditions.checkArgument(
+        !(f instanceof ArrayFormula),
+        "cannot compute a simple constant evaluation for an array-formula");
+    return evaluator.apply(f);
+  }
+
+  @Nullable
+  @Override
+  public BigInteger evaluate(IntegerFormula f) {
+    return (BigInteger) evaluate((Formula) f);
+  }
+
+  @Nullable
+  @Override
+  public Rational evaluate(RationalFormula f) {
+    return (Rational) evaluate((Formula) f);
+  }
+
+  @Nullable
+  @Override
+  public Boolean evaluate(BooleanFormula f) {
+    return (Boolean) evaluate((Formula) f);
+  }
+
+  @Nullable
+  @Override
+  public BigInteger evaluate(BitvectorFormula f) {
+    return (BigInteger) evaluate((Formula) f);
+  }
+
+  @Override
+  public List<Object> evaluateAll(List<? extends Formula> formulas) {
+    List<Object> values = new ArrayList<>(formulas.size());
+    for (Formula f : formulas) {
+      values.add(evaluate(f));
+    }
+    return Collections.unmodifiableList(values);
+  }
+
+  @Override
+  public OptionalLong evaluateLong(IntegerFormula f) {
+    BigInteger value = evaluate(f);
+    return value == null ? OptionalLong.empty() : OptionalLong.of(value.longValueExact());
+  }
+
+  @Override
+  public OptionalLong evaluateLong(BitvectorFormula f) {
+    BigInteger value = evaluate(f);
+    if (value == null) {
+      return OptionalLong.empty();
+    }
+    if (value.bitLength() > Long.SIZE) {
+      throw new ArithmeticException("bitvector value does not fit into 64 bits: " + value);
+    }
+    return OptionalLong.of(value.longValue());
+  }
+
+  @Override
+  public Iterator<ValueAssignment> iterator() {
+    return assignments.iterator();
+  }
+
+  @Override
+  public List<ValueAssignment> lookup(String name) {
+    ImmutableList.Builder<ValueAssignment> result = ImmutableList.builder();
+    for (ValueAssignment assignment : assignments) {
+      if (assignment.getName().equals(name)) {
+        result.add(assignment);
+      }
+    }
+    return result.build();
+  }
+
+  @Override
+  public String toString() {
+    return Joiner.on('\n').join(assignments);
+  }
+
+  @Override
+  public void close() {}
+}
@@ -0,0 +1,316 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.sosy_lab.java_smt.remote;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.Iterables;
+import com.google.common.io.ByteArrayDataInput;
+import com.google.common.io.ByteArrayDataOutput;
+
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.ArrayFormula;
+import org.sosy_lab.java_smt.api.BitvectorFormula;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.FloatingPointFormula;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.FormulaType;
+import org.sosy_lab.java_smt.api.FunctionDeclaration;
+import org.sosy_lab.java_smt.api.NumeralFormula;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.ResourceLimitException;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.api.visitors.DefaultFormulaVisitor;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Constants and helpers for the protocol between {@link RemoteSolverContext}
+ * and {@link RemoteSolverWorker}.
+ *
+ * <p>The client writes requests to the standard input of the worker,
+ * each consisting of a command, the id of the prover, and a length-prefixed payload.
+ * Only queries are answered on the standard output, with a status and a length-prefixed payload.
+ * All other commands (e.g., push, pop, and assertions) are sent without waiting,
+ * and errors for them are reported with the next query of the same prover.
+ * After starting, the worker writes {@link #HELLO} and the version of its solver.
+ *
+ * <p>Formulas are shipped as SMT-LIB2 dumps, terms of other sorts are wrapped into
+ * an equality with a special variable, cf. {@link #encodeTerm}.
+ */
+final class RemoteProtocol {
+
+  private RemoteProtocol() {}
+
+  static final int HELLO = 0x4A534D54; // "JSMT"
+
+  // commands without answer
+  static final byte NEW_PROVER = 1;
+  static final byte CLOSE_PROVER = 2;
+  static final byte PUSH = 3;
+  static final byte POP = 4;
+  static final byte ASSERT = 5;
+  static final byte INTERRUPT = 6;
+
+  // queries
+  static final byte CHECK = 10;
+  static final byte CHECK_ASSUMPTIONS = 11;
+  static final byte UNSAT_CORE = 12;
+  static final byte UNSAT_CORE_ASSUMPTIONS = 13;
+  static final byte MODEL_ASSIGNMENTS = 14;
+  static final byte EVALUATE = 15;
+  static final byte ALL_SAT = 16;
+  static final byte STATISTICS = 17;
+
+  // status of answers
+  static final byte OK = 0;
+  static final byte SOLVER_ERROR = 1;
+  static final byte RESOURCE_LIMIT = 2;
+  static final byte INTERRUPTED = 3;
+  static final byte UNSUPPORTED = 4;
+  static final byte ILLEGAL_ARGUMENT = 5;
+  static final byte ILLEGAL_STATE = 6;
+
+  // value tags
+  private static final byte NULL = 0;
+  private static final byte BOOLEAN = 1;
+  private static final byte BIG_INTEGER = 2;
+  private static final byte RATIONAL = 3;
+  private static final byte DOUBLE = 4;
+  private static final byte FLOAT = 5;
+  private static final byte LONG = 6;
+  private static final byte STRING = 7;
+  private static final byte TERM = 8;
+
+  /** Prefix of the special variables for encoding terms, there is one variable per sort. */
+  static final String TERM_VARIABLE = "__remote_term";
+
+  static boolean isQuery(byte command) {
+    return command >= CHECK;
+  }
+
+  /** Strings are written with their length, because SMT-LIB dumps may exceed 64k. */
+  static void writeString(ByteArrayDataOutput out, String s) {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  static String readString(ByteArrayDataInput in) {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  static void writeFormulas(
+      ByteArrayDataOutput out, FormulaManager fmgr, Iterable<BooleanFormula> formulas) {
+    out.writeInt(Iterables.size(formulas));
+    for (BooleanFormula f : formulas) {
+      writeString(out, fmgr.dumpFormula(f).toString());
+    }
+  }
+
+  static List<BooleanFormula> readFormulas(ByteArrayDataInput in, FormulaManager fmgr) {
+    int size = in.readInt();
+    List<BooleanFormula> result = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      result.add(fmgr.parse(readString(in)));
+    }
+    return result;
+  }
+
+  /**
+   * Write a value of a model, i.e., a Boolean, a number, or a term.
+   * Other values are converted into strings.
+   */
+  static void writeValue(ByteArrayDataOutput out, FormulaManager fmgr, @Nullable Object value) {
+    if (value == null) {
+      out.writeByte(NULL);
+    } else if (value instanceof Boolean) {
+      out.writeByte(BOOLEAN);
+      out.writeBoolean((Boolean) value);
+    } else if (value instanceof BigInteger) {
+      out.writeByte(BIG_INTEGER);
+      writeString(out, value.toString());
+    } else if (value instanceof Rational) {
+      out.writeByte(RATIONAL);
+      writeString(out, value.toString());
+    } else if (value instanceof Double) {
+      out.writeByte(DOUBLE);
+      out.writeDouble((Double) value);
+    } else if (value instanceof Float) {
+      out.writeByte(FLOAT);
+      out.writeFloat((Float) value);
+    } else if (value instanceof Long || value instanceof Integer) {
+      out.writeByte(LONG);
+      out.writeLong(((Number) value).longValue());
+    } else if (value instanceof Formula) {
+      out.writeByte(TERM);
+      writeString(out, encodeTerm(fmgr, (Formula) value));
+    } else {
+      out.writeByte(STRING);
+      writeString(out, value.toString());
+    }
+  }
+
+  static @Nullable Object readValue(ByteArrayDataInput in, FormulaManager fmgr) {
+    byte tag = in.readByte();
+    switch (tag) {
+      case NULL:
+        return null;
+      case BOOLEAN:
+        return in.readBoolean();
+      case BIG_INTEGER:
+        return new BigInteger(readString(in));
+      case RATIONAL:
+        return Rational.ofString(readString(in));
+      case DOUBLE:
+        return in.readDouble();
+      case FLOAT:
+        return in.readFloat();
+      case LONG:
+        return in.readLong();
+      case STRING:
+        return readString(in);
+      case TERM:
+        return decodeTerm(fmgr, readString(in));
+      default:
+        throw new IllegalStateException("Invalid value tag " + tag);
+    }
+  }
+
+  /**
+   * SMT-LIB dumps only contain Boolean formulas,
+   * thus we dump the equality of the given term with a fresh variable of the same sort.
+   */
+  static String encodeTerm(FormulaManager fmgr, Formula term) {
+    FormulaType<Formula> type = fmgr.getFormulaType(term);
+    Formula variable = fmgr.makeVariable(type, termVariable(type));
+    return fmgr.dumpFormula(makeEqual(fmgr, variable, term)).toString();
+  }
+
+  /** The special variable for terms of the given sort, which does not need to be quoted. */
+  static String termVariable(FormulaType<?> type) {
+    return TERM_VARIABLE + "_" + type.toString().replaceAll("[^A-Za-z0-9]", "_");
+  }
+
+  /** Inverse of {@link #encodeTerm}, the term is parsed into the given formula manager. */
+  static Formula decodeTerm(FormulaManager fmgr, String dump) {
+    BooleanFormula equality = fmgr.parse(dump);
+    Formula variable = null;
+    for (Map.Entry<String, Formula> symbol : fmgr.extractVariables(equality).entrySet()) {
+      if (symbol.getKey().startsWith(TERM_VARIABLE)) {
+        variable = symbol.getValue();
+      }
+    }
+    checkArgument(variable != null, "Invalid term encoding: %s", dump);
+    List<Formula> arguments =
+        fmgr.visit(
+            equality,
+            new DefaultFormulaVisitor<List<Formula>>() {
+              @Override
+              protected List<Formula> visitDefault(Formula f) {
+                throw new IllegalArgumentException("Invalid term encoding: " + dump);
+              }
+
+              @Override
+              public List<Formula> visitFunction(
+                  Formula f, List<Formula> args, FunctionDeclaration<?> functionDeclaration) {
+                return args;
+              }
+            });
+    checkArgument(arguments.size() == 2, "Invalid term encoding: %s", dump);
+    return arguments.get(0).equals(variable) ? arguments.get(1) : arguments.get(0);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static BooleanFormula makeEqual(FormulaManager fmgr, Formula f1, Formula f2) {
+    FormulaType<?> type = fmgr.getFormulaType(f1);
+    if (type.isBooleanType()) {
+      return fmgr.getBooleanFormulaManager()
+          .equivalence((BooleanFormula) f1, (BooleanFormula) f2);
+    } else if (type.isIntegerType()) {
+      return fmgr.getIntegerFormulaManager().equal((IntegerFormula) f1, (IntegerFormula) f2);
+    } else if (type.isRationalType()) {
+      return fmgr.getRationalFormulaManager().equal((NumeralFormula) f1, (NumeralFormula) f2);
+    } else if (type.isBitvectorType()) {
+      return fmgr.getBitvectorFormulaManager()
+          .equal((BitvectorFormula) f1, (BitvectorFormula) f2);
+    } else if (type.isFloatingPointType()) {
+      return fmgr.getFloatingPointFormulaManager()
+          .assignment((FloatingPointFormula) f1, (FloatingPointFormula) f2);
+    } else if (type.isArrayType()) {
+      return fmgr.getArrayFormulaManager()
+          .equivalence(
+              (ArrayFormula<Formula, Formula>) f1, (ArrayFormula<Formula, Formula>) f2);
+    } else {
+      throw new IllegalArgumentException("Unsupported type of term: " + type);
+    }
+  }
+
+  /**
+   * Convert an error of the worker back into an exception.
+   *
+   * @throws SolverException for errors of the solver.
+   * @throws InterruptedException if the worker was interrupted.
+   */
+  static RuntimeException rethrow(byte status, String message)
+      throws SolverException, InterruptedException {
+    switch (status) {
+      case SOLVER_ERROR:
+        throw new SolverException(message);
+      case RESOURCE_LIMIT:
+        throw new ResourceLimitException(message);
+      case INTERRUPTED:
+        throw new InterruptedException(message);
+      case UNSUPPORTED:
+        return new UnsupportedOperationException(message);
+      case ILLEGAL_ARGUMENT:
+        return new IllegalArgumentException(message);
+      default:
+        return new IllegalStateException(message);
+    }
+  }
+
+  /** Inverse of {@link #rethrow}. */
+  static byte statusOf(Exception e) {
+    if (e instanceof ResourceLimitException) {
+      return RESOURCE_LIMIT;
+    } else if (e instanceof SolverException) {
+      return SOLVER_ERROR;
+    } else if (e instanceof InterruptedException) {
+      return INTERRUPTED;
+    } else if (e instanceof UnsupportedOperationException) {
+      return UNSUPPORTED;
+    } else if (e instanceof IllegalArgumentException) {
+      return ILLEGAL_ARGUMENT;
+    } else {
+      return ILLEGAL_STATE;
+    }
+  }
+}
@@ -0,0 +1,425 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.sosy_lab.java_smt.remote;
+
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.ALL_SAT;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.ASSERT;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.CHECK;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.CHECK_ASSUMPTIONS;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.CLOSE_PROVER;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.EVALUATE;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.INTERRUPT;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.MODEL_ASSIGNMENTS;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.NEW_PROVER;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.POP;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.PUSH;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.STATISTICS;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.UNSAT_CORE;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.UNSAT_CORE_ASSUMPTIONS;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.readString;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.readValue;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.writeFormulas;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.writeString;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteArrayDataInput;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.Model.ValueAssignment;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.basicimpl.AbstractProver;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * Prover of a {@link RemoteSolverContext}.
+ *
+ * <p>The stack of formulas is kept locally, changes are sent to the worker without waiting.
+ * The prover gets its worker with the first query,
+ * and gets a new one if the worker has crashed, where the stack is restored.
+ */
+final class RemoteProverEnvironment extends AbstractProver<Void> implements ProverEnvironment {
+
+  private static final byte[] NO_PAYLOAD = new byte[0];
+
+  private final RemoteSolverContext context;
+  private final FormulaManager fmgr;
+  private final int id;
+  private final byte[] options;
+  private final ShutdownNotifier shutdownNotifier;
+
+  /** All asserted formulas, the index of each formula is its id for the worker. */
+  private final List<BooleanFormula> assertedFormulas = new ArrayList<>();
+
+  /** The ASSERT requests for the asserted formulas, for restoring the stack. */
+  private final List<byte[]> assertRequests = new ArrayList<>();
+
+  /** The number of asserted formulas at each backtracking point. */
+  private final Deque<Integer> levels = new ArrayDeque<>();
+
+  private volatile @Nullable WorkerConnection worker = null;
+  private volatile boolean interruptPending = false;
+  private boolean closed = false;
+
+  /**
+   * Incremented whenever the model of the worker can change,
+   * the models of older generations can no longer be evaluated.
+   */
+  private int modelGeneration = 0;
+
+  RemoteProverEnvironment(
+      RemoteSolverContext pContext,
+      int pId,
+      Set<ProverOptions> pOptions,
+      ShutdownNotifier pShutdownNotifier) {
+    context = pContext;
+    fmgr = pContext.getFormulaManager();
+    id = pId;
+    shutdownNotifier = pShutdownNotifier;
+
+    int mask = 0;
+    for (ProverOptions option : pOptions) {
+      mask |= 1 << option.ordinal();
+    }
+    ByteArrayDataOutput out = ByteStreams.newDataOutput();
+    out.writeInt(mask);
+    options = out.toByteArray();
+  }
+
+  private void send(byte command, byte[] payload) {
+    WorkerConnection w = worker;
+    if (w != null) {
+      w.send(command, id, payload);
+    }
+  }
+
+  /** Get the worker of this prover, a new worker is started after a crash. */
+  private WorkerConnection getWorker() throws SolverException {
+    WorkerConnection w = worker;
+    if (w != null && w.isCrashed()) {
+      // report the crash once, the next query restores the stack in a new worker
+      releaseWorker();
+      throw new SolverException("Solver worker process crashed");
+    }
+    if (w == null) {
+      modelGeneration++;
+      w = context.getPool().acquire();
+      w.send(NEW_PROVER, id, options);
+      Iterator<Integer> pushes = levels.descendingIterator();
+      Integer nextPush = pushes.hasNext() ? pushes.next() : null;
+      for (int i = 0; i <= assertRequests.size(); i++) {
+        while (nextPush != null && nextPush == i) {
+          w.send(PUSH, id, NO_PAYLOAD);
+          nextPush = pushes.hasNext() ? pushes.next() : null;
+        }
+        if (i < assertRequests.size()) {
+          w.send(ASSERT, id, assertRequests.get(i));
+        }
+      }
+      worker = w;
+      if (interruptPending) {
+        interruptPending = false;
+        w.send(INTERRUPT, id, NO_PAYLOAD);
+      }
+    }
+    return w;
+  }
+
+  private void releaseWorker() {
+    WorkerConnection w = worker;
+    if (w != null) {
+      worker = null;
+      context.getPool().release(w);
+    }
+  }
+
+  private ByteArrayDataInput query(byte command, byte[] payload)
+      throws SolverException, InterruptedException {
+    Preconditions.checkState(!closed);
+    shutdownNotifier.shutdownIfNecessary();
+    WorkerConnection w = getWorker();
+    try {
+      return w.query(command, id, payload);
+    } catch (SolverException e) {
+      if (w.isCrashed()) {
+        // the next query restores the stack in a new worker
+        releaseWorker();
+      }
+      throw e;
+    } catch (InterruptedException e) {
+      shutdownNotifier.shutdownIfNecessary();
+      throw e;
+    }
+  }
+
+  private byte[] formulas(Collection<BooleanFormula> formulas) {
+    ByteArrayDataOutput out = ByteStreams.newDataOutput();
+    writeFormulas(out, fmgr, formulas);
+    return out.toByteArray();
+  }
+
+  @Override
+  public void push() {
+    Preconditions.checkState(!closed);
+    modelGeneration++;
+    levels.push(assertedFormulas.size());
+    send(PUSH, NO_PAYLOAD);
+  }
+
+  @Override
+  public void pop() {
+    Preconditions.checkState(!closed);
+    Preconditions.checkState(!levels.isEmpty(), "Cannot pop the empty stack");
+    modelGeneration++;
+    int size = levels.pop();
+    assertedFormulas.subList(size, assertedFormulas.size()).clear();
+    assertRequests.subList(size, assertRequests.size()).clear();
+    send(POP, NO_PAYLOAD);
+  }
+
+  @Override
+  @Nullable
+  public Void addConstraint(BooleanFormula constraint) {
+    Preconditions.checkState(!closed);
+    modelGeneration++;
+    ByteArrayDataOutput out = ByteStreams.newDataOutput();
+    out.writeInt(assertedFormulas.size());
+    writeString(out, fmgr.dumpFormula(constraint).toString());
+    byte[] request = out.toByteArray();
+    assertedFormulas.add(constraint);
+    assertRequests.add(request);
+    send(ASSERT, request);
+    return null;
+  }
+
+  @Override
+  public boolean isUnsat() throws SolverException, InterruptedException {
+    modelGeneration++;
+    return query(CHECK, new byte[Long.BYTES]).readBoolean();
+  }
+
+  @Override
+  protected boolean isUnsatWithTimeout(Duration pTimeout)
+      throws SolverException, InterruptedException {
+    ByteArrayDataOutput out = ByteStreams.newDataOutput();
+    out.writeLong(pTimeout.toNanos());
+    modelGeneration++;
+    return query(CHECK, out.toByteArray()).readBoolean();
+  }
+
+  @Override
+  public boolean isUnsatWithAssumptions(Collection<BooleanFormula> assumptions)
+      throws SolverException, InterruptedException {
+    modelGeneration++;
+    return query(CHECK_ASSUMPTIONS, formulas(assumptions)).readBoolean();
+  }
+
+  @Override
+  public void interrupt() {
+    WorkerConnection w = worker;
+    if (w == null) {
+      interruptPending = true;
+    } else {
+      w.send(INTERRUPT, id, NO_PAYLOAD);
+    }
+  }
+
+  @Override
+  public List<BooleanFormula> getUnsatCore() {
+    ByteArrayDataInput in = queryUnchecked(UNSAT_CORE, NO_PAYLOAD);
+    int size = in.readInt();
+    List<BooleanFormula> core = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      core.add(assertedFormulas.get(in.readInt()));
+    }
+    return core;
+  }
+
+  @Override
+  public Optional<List<BooleanFormula>> unsatCoreOverAssumptions(
+      Collection<BooleanFormula> assumptions) throws SolverException, InterruptedException {
+    List<BooleanFormula> assumptionList = ImmutableList.copyOf(assumptions);
+    modelGeneration++;
+    ByteArrayDataInput in = query(UNSAT_CORE_ASSUMPTIONS, formulas(assumptionList));
+    if (!in.readBoolean()) {
+      return Optional.empty();
+    }
+    int size = in.readInt();
+    List<BooleanFormula> core = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      core.add(assumptionList.get(in.readInt()));
+    }
+    return Optional.of(core);
+  }
+
+  @Override
+  public Model getModel() throws SolverException {
+    ImmutableList<ValueAssignment> assignments = getModelAssignments();
+    int generation = modelGeneration;
+    return new RemoteModel(f -> evaluate(f, generation), assignments);
+  }
+
+  @Override
+  public ImmutableList<ValueAssignment> getModelAssignments() throws SolverException {
+    ByteArrayDataInput in;
+    try {
+      in = query(MODEL_ASSIGNMENTS, NO_PAYLOAD);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SolverException("Interrupted while waiting for the model", e);
+    }
+    int size = in.readInt();
+    ImmutableList.Builder<ValueAssignment> assignments = ImmutableList.builder();
+    for (int i = 0; i < size; i++) {
+      Formula key = RemoteProtocol.decodeTerm(fmgr, readString(in));
+      String name = readString(in);
+      Object value = readValue(in, fmgr);
+      int arity = in.readInt();
+      List<Object> arguments = new ArrayList<>(arity);
+      for (int j = 0; j < arity; j++) {
+        arguments.add(readValue(in, fmgr));
+      }
+      assignments.add(new ValueAssignment(key, name, value, arguments));
+    }
+    return assignments.build();
+  }
+
+  /**
+   * Evaluate a term in the model of the last query, used by {@link RemoteModel}.
+   * Fails if the model of the worker is no longer the one of the given generation.
+   */
+  @Nullable
+  private Object evaluate(Formula f, int generation) {
+    Preconditions.checkState(!closed);
+    Preconditions.checkState(
+        generation == modelGeneration,
+        "Model is no longer valid, the prover was changed after the model was created");
+    ByteArrayDataOutput out = ByteStreams.newDataOutput();
+    writeString(out, RemoteProtocol.encodeTerm(fmgr, f));
+    return readValue(queryUnchecked(EVALUATE, out.toByteArray()), fmgr);
+  }
+
+  /** For methods without checked exceptions in their signature. */
+  private ByteArrayDataInput queryUnchecked(byte command, byte[] payload) {
+    try {
+      return query(command, payload);
+    } catch (SolverException e) {
+      throw new IllegalStateException(e.getMessage(), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public <T> T allSat(AllSatCallback<T> callback, List<BooleanFormula> important)
+      throws InterruptedException, SolverException {
+    BooleanFormulaManager bmgr = fmgr.getBooleanFormulaManager();
+    modelGeneration++;
+    ByteArrayDataInput in = query(ALL_SAT, formulas(important));
+    int models = in.readInt();
+    for (int i = 0; i < models; i++) {
+      int size = in.readInt();
+      List<BooleanFormula> model = new ArrayList<>(size);
+      for (int j = 0; j < size; j++) {
+        int literal = in.readInt();
+        model.add(
+            literal > 0 ? important.get(literal - 1) : bmgr.not(important.get(-literal - 1)));
+      }
+      callback.apply(model);
+    }
+    return callback.getResult();
+  }
+
+  @Override
+  public <T> T allSatPolarities(
+      AllSatPolarityCallback<T> callback, List<BooleanFormula> important)
+      throws InterruptedException, SolverException {
+    modelGeneration++;
+    ByteArrayDataInput in = query(ALL_SAT, formulas(important));
+    BitSet values = new BitSet(important.size());
+    BitSet assigned = new BitSet(important.size());
+    int models = in.readInt();
+    for (int i = 0; i < models; i++) {
+      values.clear();
+      assigned.clear();
+      int size = in.readInt();
+      for (int j = 0; j < size; j++) {
+        int literal = in.readInt();
+        int index = Math.abs(literal) - 1;
+        assigned.set(index);
+        values.set(index, literal > 0);
+      }
+      callback.apply(values, assigned);
+    }
+    return callback.getResult();
+  }
+
+  @Override
+  public ImmutableMap<String, Object> getStatistics() {
+    Preconditions.checkState(!closed);
+    if (worker == null) {
+      return ImmutableMap.of();
+    }
+    ByteArrayDataInput in = queryUnchecked(STATISTICS, NO_PAYLOAD);
+    int size = in.readInt();
+    ImmutableMap.Builder<String, Object> statistics = ImmutableMap.builder();
+    for (int i = 0; i < size; i++) {
+      String key = readString(in);
+      Object value = readValue(in, fmgr);
+      if (value != null) {
+        statistics.put(key, value);
+      }
+    }
+    return statistics.build();
+  }
+
+  @Override
+  public void close() {
+    Preconditions.checkState(!closed);
+    closed = true;
+    send(CLOSE_PROVER, NO_PAYLOAD);
+    releaseWorker();
+    context.unregister(this);
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.sosy_lab.java_smt.remote;
+
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.ShutdownNotifier.ShutdownRequestListener;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.basicimpl.AbstractSolverContext;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Solver context whose provers run in separate worker processes,
+ * cf. {@link RemoteSolverWorker}.
+ *
+ * <p>Formulas are created in a local solver context, and shipped to the workers in SMT-LIB2.
+ * Each prover keeps its stack of formulas locally, such that it can be restored
+ * in a new worker process if the solver crashes.
+ * The query that was running during the crash throws a {@link
+ * org.sosy_lab.java_smt.api.SolverException}, afterwards the prover can be used as before.
+ *
+ * <p>Interpolation and optimization are not supported.
+ */
+public final class RemoteSolverContext extends AbstractSolverContext {
+
+  private final Solvers solver;
+  private final String version;
+  private final SolverContext formulaContext;
+  private final ShutdownNotifier shutdownNotifier;
+  private final WorkerPool pool;
+
+  private final AtomicInteger proverIds = new AtomicInteger();
+  private final Set<RemoteProverEnvironment> provers =
+      Collections.newSetFromMap(new ConcurrentHashMap<>());
+  private final ShutdownRequestListener interruptListener =
+      reason -> provers.forEach(RemoteProverEnvironment::interrupt);
+
+  private RemoteSolverContext(
+      Solvers pSolver,
+      String pVersion,
+      SolverContext pFormulaContext,
+      ShutdownNotifier pShutdownNotifier,
+      WorkerPool pPool) {
+    super(pFormulaContext.getFormulaManager());
+    solver = pSolver;
+    version = pVersion;
+    formulaContext = pFormulaContext;
+    shutdownNotifier = pShutdownNotifier;
+    pool = pPool;
+    shutdownNotifier.register(interruptListener);
+  }
+
+  /**
+   * Create a context for the given solver that uses worker processes.
+   *
+   * @param formulaContext the local context for creating formulas,
+   *     it is closed together with the new context.
+   */
+  public static RemoteSolverContext create(
+      Configuration config,
+      LogManager logger,
+      ShutdownNotifier shutdownNotifier,
+      Solvers solver,
+      SolverContext formulaContext)
+      throws InvalidConfigurationException {
+    WorkerPool pool = new WorkerPool(config, logger, solver);
+    String version;
+    try {
+      version = pool.start();
+    } catch (IOException e) {
+      pool.close();
+      throw new InvalidConfigurationException(
+          String.format("Cannot start solver worker process for %s (%s)", solver, e.getMessage()),
+          e);
+    }
+    return new RemoteSolverContext(solver, version, formulaContext, shutdownNotifier, pool);
+  }
+
+  @Override
+  protected ProverEnvironment newProverEnvironment0(Set<ProverOptions> options) {
+    RemoteProverEnvironment prover =
+        new RemoteProverEnvironment(
+            this, proverIds.incrementAndGet(), options, shutdownNotifier);
+    provers.add(prover);
+    return prover;
+  }
+
+  WorkerPool getPool() {
+    return pool;
+  }
+
+  void unregister(RemoteProverEnvironment prover) {
+    provers.remove(prover);
+  }
+
+  @Override
+  protected InterpolatingProverEnvironment<?> newProverEnvironmentWithInterpolation0() {
+    throw new UnsupportedOperationException("Interpolation is not supported in worker processes");
+  }
+
+  @Override
+  public OptimizationProverEnvironment newOptimizationProverEnvironment() {
+    throw new UnsupportedOperationException("Optimization is not supported in worker processes");
+  }
+
+  @Override
+  protected boolean supportsAssumptionSolving() {
+    return true;
+  }
+
+  @Override
+  public String getVersion() {
+    return version;
+  }
+
+  @Override
+  public Solvers getSolverName() {
+    return solver;
+  }
+
+  @Override
+  public void close() {
+    shutdownNotifier.unregister(interruptListener);
+    pool.close();
+    formulaContext.close();
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.sosy_lab.java_smt.remote;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.SolverContextFactory;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.IntegerFormulaManager;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.math.BigInteger;
+
+public class RemoteSolverContextTest {
+
+  private RemoteSolverContext context;
+  private BooleanFormulaManager bmgr;
+  private IntegerFormulaManager imgr;
+
+  @Before
+  public void createContext() throws InvalidConfigurationException {
+    Configuration config =
+        Configuration.builder()
+            .setOption("solver.solver", "SMTINTERPOL")
+            .setOption("solver.useWorkerProcesses", "true")
+            .setOption("solver.remote.workers", "2")
+            .build();
+    SolverContext solverContext =
+        SolverContextFactory.createSolverContext(
+            config, LogManager.createTestLogManager(), ShutdownNotifier.createDummy());
+    assertThat(solverContext).isInstanceOf(RemoteSolverContext.class);
+    context = (RemoteSolverContext) solverContext;
+    bmgr = context.getFormulaManager().getBooleanFormulaManager();
+    imgr = context.getFormulaManager().getIntegerFormulaManager();
+  }
+
+  @After
+  public void closeContext() {
+    if (context != null) {
+      context.close();
+    }
+  }
+
+  @Test
+  public void testStack() throws SolverException, InterruptedException {
+    IntegerFormula x = imgr.makeVariable("x");
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      prover.push(imgr.greaterThan(x, imgr.makeNumber(5)));
+      assertThat(prover.isUnsat()).isFalse();
+      prover.push(imgr.lessThan(x, imgr.makeNumber(3)));
+      assertThat(prover.isUnsat()).isTrue();
+      prover.pop();
+      assertThat(prover.isUnsat()).isFalse();
+    }
+  }
+
+  @Test
+  public void testModel() throws SolverException, InterruptedException {
+    IntegerFormula x = imgr.makeVariable("x");
+    try (ProverEnvironment prover =
+        context.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+      prover.addConstraint(imgr.greaterThan(x, imgr.makeNumber(5)));
+      prover.addConstraint(imgr.lessThan(x, imgr.makeNumber(7)));
+      assertThat(prover.isUnsat()).isFalse();
+      try (Model model = prover.getModel()) {
+        assertThat(model.evaluate(x)).isEqualTo(BigInteger.valueOf(6));
+        assertThat(model.evaluate(imgr.add(x, imgr.makeNumber(1))))
+            .isEqualTo(BigInteger.valueOf(7));
+        assertThat(model.lookup("x")).hasSize(1);
+        assertThat(model.lookup("x").get(0).getKey()).isEqualTo(x);
+      }
+    }
+  }
+
+  @Test
+  public void testStaleModel() throws SolverException, InterruptedException {
+    IntegerFormula x = imgr.makeVariable("x");
+    try (ProverEnvironment prover =
+        context.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+      prover.push(imgr.equal(x, imgr.makeNumber(1)));
+      assertThat(prover.isUnsat()).isFalse();
+      Model model = prover.getModel();
+      prover.pop();
+      prover.push(imgr.equal(x, imgr.makeNumber(2)));
+      assertThat(prover.isUnsat()).isFalse();
+      try {
+        model.evaluate(x);
+        fail("expected the old model to be rejected");
+      } catch (IllegalStateException e) {
+        // expected
+      }
+      assertThat(model.lookup("x").get(0).getValue()).isEqualTo(BigInteger.valueOf(1));
+    }
+  }
+
+  @Test
+  public void testUnsatCore() throws SolverException, InterruptedException {
+    IntegerFormula x = imgr.makeVariable("x");
+    BooleanFormula positive = imgr.greaterThan(x, imgr.makeNumber(0));
+    BooleanFormula negative = imgr.lessThan(x, imgr.makeNumber(0));
+    BooleanFormula other = bmgr.makeVariable("b");
+    try (ProverEnvironment prover =
+        context.newProverEnvironment(ProverOptions.GENERATE_UNSAT_CORE)) {
+      prover.addConstraint(positive);
+      prover.push(other);
+      prover.push(negative);
+      assertThat(prover.isUnsat()).isTrue();
+      assertThat(prover.getUnsatCore()).containsExactly(positive, negative);
+    }
+  }
+
+  @Test
+  public void testCrashRecovery() throws SolverException, InterruptedException {
+    IntegerFormula x = imgr.makeVariable("x");
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      prover.push(imgr.greaterThan(x, imgr.makeNumber(5)));
+      prover.push(imgr.lessThan(x, imgr.makeNumber(3)));
+      assertThat(prover.isUnsat()).isTrue();
+
+      context.getPool().kill();
+      try {
+        prover.isUnsat();
+        fail("expected crash of the worker to be reported");
+      } catch (SolverException e) {
+        // expected
+      }
+
+      // the stack is restored in a new worker process
+      assertThat(prover.isUnsat()).isTrue();
+      prover.pop();
+      assertThat(prover.isUnsat()).isFalse();
+    }
+  }
+
+  @Test
+  public void testSeparateWorkers() throws SolverException, InterruptedException {
+    try (ProverEnvironment prover1 = context.newProverEnvironment();
+        ProverEnvironment prover2 = context.newProverEnvironment()) {
+      prover1.push(bmgr.makeVariable("a"));
+      prover2.push(bmgr.not(bmgr.makeVariable("a")));
+      assertThat(prover1.isUnsat()).isFalse();
+      assertThat(prover2.isUnsat()).isFalse();
+      assertThat(context.getPool().size()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  public void testInterrupt() throws SolverException, InterruptedException {
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      prover.push(bmgr.makeVariable("a"));
+      prover.interrupt();
+      try {
+        prover.isUnsat();
+        fail("expected interruption");
+      } catch (InterruptedException e) {
+        // expected
+      }
+      assertThat(prover.isUnsat()).isFalse();
+    }
+  }
+}
@@ -0,0 +1,490 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.sosy_lab.java_smt.remote;
+
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.ALL_SAT;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.ASSERT;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.CHECK;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.CHECK_ASSUMPTIONS;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.CLOSE_PROVER;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.EVALUATE;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.HELLO;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.INTERRUPT;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.MODEL_ASSIGNMENTS;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.NEW_PROVER;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.OK;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.POP;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.PUSH;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.STATISTICS;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.UNSAT_CORE;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.UNSAT_CORE_ASSUMPTIONS;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.isQuery;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.readFormulas;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.readString;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.writeString;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.writeValue;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.ByteArrayDataInput;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.BasicLogManager;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.SolverContextFactory;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.Model.ValueAssignment;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.ConsoleHandler;
+import java.util.logging.Level;
+
+import javax.annotation.Nullable;
+
+/**
+ * Worker process for {@link RemoteSolverContext}, which reads requests from its standard input
+ * and answers them on its standard output, cf. {@link RemoteProtocol}.
+ * The arguments are configuration options like for {@link SolverContextFactory},
+ * e.g., {@code --solver.solver=Z3}.
+ *
+ * <p>Requests are read by the main thread and executed in order by a separate thread,
+ * such that interruptions can be forwarded to running queries.
+ */
+public final class RemoteSolverWorker {
+
+  private static final Request END_OF_INPUT = new Request((byte) -1, -1, new byte[0]);
+
+  private final SolverContext context;
+  private final FormulaManager fmgr;
+  private final DataOutputStream out;
+  private final LogManager logger;
+
+  /** The failure that stopped the processing of requests, cf. {@link #processRequests()}. */
+  private volatile @Nullable Exception failure = null;
+
+  private final Map<Integer, WorkerProver> provers = new ConcurrentHashMap<>();
+  private final BlockingQueue<Request> requests = new LinkedBlockingQueue<>();
+
+  /** Interruptions that arrived before the prover was created. */
+  private final Set<Integer> pendingInterrupts = ConcurrentHashMap.newKeySet();
+
+  /** Errors of commands without answer, which are reported with the next query of the prover. */
+  private final Map<Integer, Exception> errors = new HashMap<>();
+
+  private static final class Request {
+    final byte command;
+    final int prover;
+    final byte[] payload;
+
+    Request(byte pCommand, int pProver, byte[] pPayload) {
+      command = pCommand;
+      prover = pProver;
+      payload = pPayload;
+    }
+  }
+
+  /** A prover with the data for mapping its results back to the formulas of the client. */
+  private static final class WorkerProver {
+    final ProverEnvironment prover;
+    // the client numbers the formulas by their position on the stack
+    final Map<BooleanFormula, Integer> ids = new HashMap<>();
+    final Deque<Integer> levels = new ArrayDeque<>();
+    int assertions = 0;
+    @Nullable Model model = null;
+
+    WorkerProver(ProverEnvironment pProver) {
+      prover = pProver;
+    }
+
+    /** Get the model of the last check, it stays available until the stack is changed. */
+    Model getModel() throws SolverException {
+      if (model == null) {
+        model = prover.getModel();
+      }
+      return model;
+    }
+
+    void invalidateModel() {
+      if (model != null) {
+        model.close();
+        model = null;
+      }
+    }
+  }
+
+  private RemoteSolverWorker(SolverContext pContext, OutputStream pOut, LogManager pLogger) {
+    context = pContext;
+    logger = pLogger;
+    fmgr = context.getFormulaManager();
+    out = new DataOutputStream(new BufferedOutputStream(pOut));
+  }
+
+  public static void main(String... args)
+      throws InvalidConfigurationException, IOException, InterruptedException {
+    // the standard output is reserved for the protocol
+    OutputStream protocolOut = System.out;
+    System.setOut(System.err);
+
+    Configuration config =
+        Configuration.builder()
+            .copyFrom(Configuration.fromCmdLineArguments(args))
+            .setOption("solver.useWorkerProcesses", "false")
+            .build();
+    // log messages go to the standard error stream, which the client process inherits
+    LogManager logger = BasicLogManager.createWithHandler(new ConsoleHandler());
+    try (SolverContext context =
+        new SolverContextFactory(config, logger, ShutdownNotifier.createDummy())
+            .generateContext()) {
+      new RemoteSolverWorker(context, protocolOut, logger)
+          .run(new DataInputStream(new BufferedInputStream(System.in)));
+    }
+  }
+
+  private void run(DataInputStream in) throws IOException, InterruptedException {
+    out.writeInt(HELLO);
+    out.writeUTF(context.getVersion());
+    out.flush();
+
+    Thread executor = new Thread(this::processRequests, "RemoteSolverWorker");
+    executor.start();
+    try {
+      while (failure == null) {
+        byte command;
+        try {
+          command = in.readByte();
+        } catch (EOFException e) {
+          break; // the client closed the connection
+        }
+        int prover = in.readInt();
+        byte[] payload = new byte[in.readInt()];
+        in.readFully(payload);
+        if (command == INTERRUPT) {
+          interrupt(prover);
+        } else {
+          requests.put(new Request(command, prover, payload));
+        }
+      }
+    } finally {
+      requests.put(END_OF_INPUT);
+      executor.join();
+    }
+
+    // let main() close the context and terminate the process with an error
+    Exception e = failure;
+    if (e instanceof IOException) {
+      throw (IOException) e;
+    } else if (e instanceof InterruptedException) {
+      throw (InterruptedException) e;
+    }
+  }
+
+  private void interrupt(int id) {
+    WorkerProver p = provers.get(id);
+    if (p == null) {
+      pendingInterrupts.add(id);
+      p = provers.get(id);
+      if (p == null || !pendingInterrupts.remove(id)) {
+        return;
+      }
+    }
+    p.prover.interrupt();
+  }
+
+  private void processRequests() {
+    try {
+      Request request;
+      while ((request = requests.take()) != END_OF_INPUT) {
+        if (isQuery(request.command)) {
+          answer(request);
+        } else {
+          try {
+            execute(request.command, request.prover, ByteStreams.newDataInput(request.payload));
+          } catch (Exception e) {
+            errors.putIfAbsent(request.prover, e);
+          }
+        }
+      }
+    } catch (IOException e) {
+      // the connection to the client is lost, the main thread stops reading requests
+      logger.logUserException(Level.WARNING, e, "Cannot answer requests of the client");
+      failure = e;
+    } catch (InterruptedException e) {
+      failure = e;
+    }
+  }
+
+  private void answer(Request request) throws IOException {
+    ByteArrayDataOutput answer = ByteStreams.newDataOutput();
+    byte status = OK;
+    Exception error = errors.remove(request.prover);
+    if (error == null) {
+      try {
+        query(request.command, request.prover, ByteStreams.newDataInput(request.payload), answer);
+      } catch (Exception e) {
+        error = e;
+      }
+    }
+    if (error != null) {
+      status = RemoteProtocol.statusOf(error);
+      answer = ByteStreams.newDataOutput();
+      writeString(answer, String.valueOf(error.getMessage()));
+    }
+    byte[] bytes = answer.toByteArray();
+    out.writeByte(status);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+    out.flush();
+  }
+
+  private WorkerProver getProver(int id) {
+    WorkerProver p = provers.get(id);
+    Preconditions.checkState(p != null, "Unknown prover %s", id);
+    return p;
+  }
+
+  /** Execute a command without answer. */
+  private void execute(byte command, int id, ByteArrayDataInput in) {
+    switch (command) {
+      case NEW_PROVER:
+        {
+          Set<ProverOptions> options = EnumSet.noneOf(ProverOptions.class);
+          int mask = in.readInt();
+          for (ProverOptions option : ProverOptions.values()) {
+            if ((mask & (1 << option.ordinal())) != 0) {
+              options.add(option);
+            }
+          }
+          errors.remove(id);
+          ProverEnvironment prover =
+              context.newProverEnvironment(options.toArray(new ProverOptions[0]));
+          provers.put(id, new WorkerProver(prover));
+          if (pendingInterrupts.remove(id)) {
+            prover.interrupt();
+          }
+          break;
+        }
+      case CLOSE_PROVER:
+        {
+          errors.remove(id);
+          WorkerProver p = provers.remove(id);
+          if (p != null) {
+            p.invalidateModel();
+            p.prover.close();
+          }
+          break;
+        }
+      case PUSH:
+        {
+          WorkerProver p = getProver(id);
+          p.invalidateModel();
+          p.prover.push();
+          p.levels.push(p.assertions);
+          break;
+        }
+      case POP:
+        {
+          WorkerProver p = getProver(id);
+          p.invalidateModel();
+          p.prover.pop();
+          p.assertions = p.levels.pop();
+          p.ids.values().removeIf(formulaId -> formulaId >= p.assertions);
+          break;
+        }
+      case ASSERT:
+        {
+          WorkerProver p = getProver(id);
+          int formulaId = in.readInt();
+          BooleanFormula f = fmgr.parse(readString(in));
+          p.invalidateModel();
+          p.prover.addConstraint(f);
+          p.assertions++;
+          p.ids.putIfAbsent(f, formulaId);
+          break;
+        }
+      default:
+        throw new IllegalStateException("Unknown command " + command);
+    }
+  }
+
+  /** Execute a query and write its answer. */
+  private void query(byte command, int id, ByteArrayDataInput in, ByteArrayDataOutput answer)
+      throws SolverException, InterruptedException {
+    WorkerProver p = getProver(id);
+    switch (command) {
+      case CHECK:
+        {
+          long timeout = in.readLong();
+          p.invalidateModel();
+          answer.writeBoolean(
+              timeout > 0 ? p.prover.isUnsat(Duration.ofNanos(timeout)) : p.prover.isUnsat());
+          break;
+        }
+      case CHECK_ASSUMPTIONS:
+        {
+          List<BooleanFormula> assumptions = readFormulas(in, fmgr);
+          p.invalidateModel();
+          answer.writeBoolean(p.prover.isUnsatWithAssumptions(assumptions));
+          break;
+        }
+      case UNSAT_CORE:
+        {
+          List<BooleanFormula> core = p.prover.getUnsatCore();
+          answer.writeInt(core.size());
+          for (BooleanFormula f : core) {
+            Integer formulaId = p.ids.get(f);
+            Preconditions.checkState(formulaId != null, "Unknown formula in unsat core: %s", f);
+            answer.writeInt(formulaId);
+          }
+          break;
+        }
+      case UNSAT_CORE_ASSUMPTIONS:
+        {
+          List<BooleanFormula> assumptions = readFormulas(in, fmgr);
+          p.invalidateModel();
+          Optional<List<BooleanFormula>> core = p.prover.unsatCoreOverAssumptions(assumptions);
+          answer.writeBoolean(core.isPresent());
+          if (core.isPresent()) {
+            answer.writeInt(core.get().size());
+            for (BooleanFormula f : core.get()) {
+              int index = assumptions.indexOf(f);
+              Preconditions.checkState(index >= 0, "Unknown formula in unsat core: %s", f);
+              answer.writeInt(index);
+            }
+          }
+          break;
+        }
+      case MODEL_ASSIGNMENTS:
+        {
+          List<ValueAssignment> assignments = new ArrayList<>();
+          p.getModel().forEach(assignments::add);
+          answer.writeInt(assignments.size());
+          for (ValueAssignment assignment : assignments) {
+            writeString(answer, RemoteProtocol.encodeTerm(fmgr, assignment.getKey()));
+            writeString(answer, assignment.getName());
+            writeValue(answer, fmgr, assignment.getValue());
+            List<Object> arguments = assignment.getArgumentsInterpretation();
+            answer.writeInt(arguments.size());
+            for (Object argument : arguments) {
+              writeValue(answer, fmgr, argument);
+            }
+          }
+          break;
+        }
+      case EVALUATE:
+        {
+          Formula term = RemoteProtocol.decodeTerm(fmgr, readString(in));
+          writeValue(answer, fmgr, p.getModel().evaluate(term));
+          break;
+        }
+      case ALL_SAT:
+        {
+          List<BooleanFormula> important = readFormulas(in, fmgr);
+          p.invalidateModel();
+          writeModels(answer, important, p.prover.allSat(new ModelCollector(), important));
+          break;
+        }
+      case STATISTICS:
+        {
+          Map<String, Object> statistics = p.prover.getStatistics();
+          answer.writeInt(statistics.size());
+          for (Map.Entry<String, Object> entry : statistics.entrySet()) {
+            writeString(answer, entry.getKey());
+            writeValue(answer, fmgr, entry.getValue());
+          }
+          break;
+        }
+      default:
+        throw new IllegalStateException("Unknown query " + command);
+    }
+  }
+
+  /**
+   * Write the models of an allSat query,
+   * each literal is written as index into the important formulas,
+   * starting with 1 and negative for negated formulas.
+   */
+  private void writeModels(
+      ByteArrayDataOutput answer,
+      List<BooleanFormula> important,
+      List<List<BooleanFormula>> models) {
+    BooleanFormulaManager bmgr = fmgr.getBooleanFormulaManager();
+    Map<BooleanFormula, Integer> literals = new HashMap<>();
+    for (int i = 0; i < important.size(); i++) {
+      literals.put(bmgr.not(important.get(i)), -(i + 1));
+      literals.put(important.get(i), i + 1);
+    }
+    answer.writeInt(models.size());
+    for (List<BooleanFormula> model : models) {
+      answer.writeInt(model.size());
+      for (BooleanFormula literal : model) {
+        Integer index = literals.get(literal);
+        Preconditions.checkState(index != null, "Unknown literal in model: %s", literal);
+        answer.writeInt(index);
+      }
+    }
+  }
+
+  private static class ModelCollector
+      implements ProverEnvironment.AllSatCallback<List<List<BooleanFormula>>> {
+
+    private final List<List<BooleanFormula>> models = new ArrayList<>();
+
+    @Override
+    public void apply(List<BooleanFormula> model) {
+      models.add(model);
+    }
+
+    @Override
+    public List<List<BooleanFormula>> getResult() {
+      return models;
+    }
+  }
+}
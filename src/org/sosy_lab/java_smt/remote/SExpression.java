@@ -0,0 +1,196 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.sosy_lab.java_smt.remote;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.StringReader;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * An S-expression of SMT-LIB2, i.e., an atom (symbol, keyword, literal) or a list.
+ * Atoms are kept as written, including the quotes of quoted symbols and string literals.
+ */
+final class SExpression {
+
+  private final @Nullable String atom;
+  private final ImmutableList<SExpression> children;
+
+  private SExpression(@Nullable String pAtom, ImmutableList<SExpression> pChildren) {
+    atom = pAtom;
+    children = pChildren;
+  }
+
+  boolean isAtom() {
+    return atom != null;
+  }
+
+  /** Whether this is the given atom. */
+  boolean is(String pAtom) {
+    return pAtom.equals(atom);
+  }
+
+  String getAtom() {
+    Preconditions.checkState(atom != null, "Not an atom: %s", this);
+    return atom;
+  }
+
+  /** The atom without the quotes of a quoted symbol or a string literal. */
+  String getUnquotedAtom() {
+    String s = getAtom();
+    if (s.length() >= 2 && s.startsWith("|") && s.endsWith("|")) {
+      return s.substring(1, s.length() - 1);
+    }
+    if (s.length() >= 2 && s.startsWith("\"") && s.endsWith("\"")) {
+      return s.substring(1, s.length() - 1).replace("\"\"", "\"");
+    }
+    return s;
+  }
+
+  List<SExpression> getChildren() {
+    Preconditions.checkState(atom == null, "Not a list: %s", this);
+    return children;
+  }
+
+  SExpression get(int index) {
+    return getChildren().get(index);
+  }
+
+  int size() {
+    return getChildren().size();
+  }
+
+  /** Whether this is a non-empty list that starts with the given atom, e.g., a command. */
+  boolean startsWith(String head) {
+    return atom == null && !children.isEmpty() && children.get(0).is(head);
+  }
+
+  @Override
+  public String toString() {
+    return atom != null ? atom : "(" + Joiner.on(' ').join(children) + ")";
+  }
+
+  /** Parse all S-expressions of a string, e.g., the commands of a script. */
+  static List<SExpression> parseAll(String s) {
+    PushbackReader in = new PushbackReader(new StringReader(s));
+    ImmutableList.Builder<SExpression> result = ImmutableList.builder();
+    try {
+      SExpression next;
+      while ((next = read(in)) != null) {
+        result.add(next);
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Invalid SMT-LIB2 expression: " + e.getMessage(), e);
+    }
+    return result.build();
+  }
+
+  /**
+   * Read the next S-expression, comments are skipped.
+   *
+   * @return the S-expression, or null if the input ended before it.
+   */
+  @Nullable
+  static SExpression read(PushbackReader in) throws IOException {
+    int c = skipWhitespace(in);
+    if (c < 0) {
+      return null;
+    }
+    if (c == '(') {
+      ImmutableList.Builder<SExpression> children = ImmutableList.builder();
+      while (true) {
+        c = skipWhitespace(in);
+        if (c < 0) {
+          throw new EOFException("unexpected end of input in SMT-LIB2 expression");
+        } else if (c == ')') {
+          return new SExpression(null, children.build());
+        }
+        in.unread(c);
+        children.add(read(in));
+      }
+    } else if (c == ')') {
+      throw new IOException("unbalanced parentheses in SMT-LIB2 expression");
+    }
+
+    StringBuilder token = new StringBuilder();
+    token.append((char) c);
+    if (c == '|') {
+      readUntil(in, '|', token);
+    } else if (c == '"') {
+      while (true) {
+        readUntil(in, '"', token);
+        c = in.read();
+        if (c != '"') {
+          if (c >= 0) {
+            in.unread(c);
+          }
+          break;
+        }
+        // a quote inside a string literal is escaped by doubling it
+        token.append('"');
+      }
+    } else {
+      while ((c = in.read()) >= 0) {
+        if (Character.isWhitespace(c) || c == '(' || c == ')' || c == ';') {
+          in.unread(c);
+          break;
+        }
+        token.append((char) c);
+      }
+    }
+    return new SExpression(token.toString(), ImmutableList.of());
+  }
+
+  /** Skip whitespace and comments and return the next character. */
+  private static int skipWhitespace(PushbackReader in) throws IOException {
+    int c;
+    while ((c = in.read()) >= 0) {
+      if (c == ';') {
+        while ((c = in.read()) >= 0 && c != '\n') {
+          // skip comment
+        }
+      } else if (!Character.isWhitespace(c)) {
+        return c;
+      }
+    }
+    return c;
+  }
+
+  /** Append all characters up to and including the given one. */
+  private static void readUntil(PushbackReader in, char end, StringBuilder token)
+      throws IOException {
+    int c;
+    do {
+      c = in.read();
+      if (c < 0) {
+        throw new EOFException("unterminated literal in SMT-LIB2 expression");
+      }
+      token.append((char) c);
+    } while (c != end);
+  }
+}
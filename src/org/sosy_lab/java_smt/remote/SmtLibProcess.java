@@ -0,0 +1,148 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.sosy_lab.java_smt.remote;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PushbackReader;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A process of an SMT-LIB2 solver that reads commands from its standard input.
+ *
+ * <p>Commands are buffered and only flushed together with the next query,
+ * thus all commands between two queries are sent at once.
+ * We disable {@code :print-success}, such that only queries and failing commands are answered.
+ */
+final class SmtLibProcess {
+
+  private static final long EXIT_TIMEOUT_SECONDS = 5;
+  private static final String SYNC_MARKER = "__sync";
+
+  private final Process process;
+  private final Writer out;
+  private final PushbackReader in;
+
+  private SmtLibProcess(Process pProcess) {
+    process = pProcess;
+    out = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), UTF_8));
+    in =
+        new PushbackReader(
+            new BufferedReader(new InputStreamReader(process.getInputStream(), UTF_8)));
+  }
+
+  static SmtLibProcess start(List<String> command) throws IOException {
+    SmtLibProcess process =
+        new SmtLibProcess(
+            new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start());
+    process.send("(set-option :print-success false)");
+    return process;
+  }
+
+  /** Send a command without waiting for an answer. */
+  void send(String command) throws IOException {
+    out.write(command);
+    out.write('\n');
+  }
+
+  /**
+   * Send a query and return its answer.
+   * Answers of earlier commands ({@code success} or errors) are skipped or reported.
+   *
+   * @throws SolverException if the solver reported an error,
+   *     afterwards the answers of the process are out of sync and it should be killed.
+   * @throws IOException if the process has terminated.
+   */
+  SExpression query(String command) throws IOException, SolverException {
+    send(command);
+    out.flush();
+    while (true) {
+      SExpression answer = SExpression.read(in);
+      if (answer == null) {
+        throw new EOFException("solver process terminated");
+      } else if (answer.startsWith("error")) {
+        String message =
+            answer.size() == 2 && answer.get(1).isAtom()
+                ? answer.get(1).getUnquotedAtom()
+                : answer.toString();
+        throw new SolverException("SMT-LIB2 solver reported error: " + message);
+      } else if (!answer.is("success")) {
+        return answer;
+      }
+    }
+  }
+
+  /**
+   * Wait until all commands sent so far are processed,
+   * and return their answers instead of reporting errors.
+   */
+  List<SExpression> sync() throws IOException {
+    send("(echo \"" + SYNC_MARKER + "\")");
+    out.flush();
+    ImmutableList.Builder<SExpression> answers = ImmutableList.builder();
+    while (true) {
+      SExpression answer = SExpression.read(in);
+      if (answer == null) {
+        throw new EOFException("solver process terminated");
+      } else if (answer.isAtom() && answer.getUnquotedAtom().equals(SYNC_MARKER)) {
+        return answers.build();
+      } else if (!answer.is("success")) {
+        answers.add(answer);
+      }
+    }
+  }
+
+  boolean isAlive() {
+    return process.isAlive();
+  }
+
+  void kill() {
+    process.destroyForcibly();
+  }
+
+  /** Let the process terminate, and kill it if it does not do so in time. */
+  void close() {
+    try {
+      send("(exit)");
+      out.close();
+      if (!process.waitFor(EXIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        process.destroyForcibly();
+      }
+    } catch (IOException e) {
+      process.destroyForcibly();
+    } catch (InterruptedException e) {
+      process.destroyForcibly();
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,723 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.sosy_lab.java_smt.remote;
+
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.TERM_VARIABLE;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.FormulaType;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.Model.ValueAssignment;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.ResourceLimitException;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.basicimpl.AbstractProver;
+import org.sosy_lab.java_smt.basicimpl.ListAllSatCallback;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+
+import javax.annotation.Nullable;
+
+/**
+ * Prover of a {@link SmtLibSolverContext}, which runs the solver in its own process.
+ *
+ * <p>The stack of formulas is kept locally, changes are sent to the process without waiting.
+ * The process is started with the first query, and restarted if it has terminated.
+ */
+final class SmtLibProverEnvironment extends AbstractProver<Void> implements ProverEnvironment {
+
+  /**
+   * Prefix of the names of assertions for unsat cores, followed by the index of the formula
+   * and a unique number, because names are not removed by a pop with global declarations.
+   */
+  private static final String NAME_PREFIX = "__a";
+
+  private static final StackEntry PUSH = new StackEntry(ImmutableMap.of(), "(push 1)");
+
+  /**
+   * A command on the stack together with the declarations of the symbols in it,
+   * the command may be empty for entries with declarations only.
+   */
+  private static final class StackEntry {
+    final ImmutableMap<String, String> declarations;
+    final String command;
+
+    StackEntry(ImmutableMap<String, String> pDeclarations, String pCommand) {
+      declarations = pDeclarations;
+      command = pCommand;
+    }
+  }
+
+  /** The sizes of the stack and of the list of formulas at a backtracking point. */
+  private static final class Level {
+    final int stackSize;
+    final int formulas;
+
+    Level(int pStackSize, int pFormulas) {
+      stackSize = pStackSize;
+      formulas = pFormulas;
+    }
+  }
+
+  /** A formula or term in SMT-LIB2 with the declarations of its symbols. */
+  private static final class Translation {
+    final ImmutableMap<String, String> declarations;
+    final SExpression term;
+
+    Translation(ImmutableMap<String, String> pDeclarations, SExpression pTerm) {
+      declarations = pDeclarations;
+      term = pTerm;
+    }
+  }
+
+  private final SmtLibSolverContext context;
+  private final FormulaManager fmgr;
+  private final ShutdownNotifier shutdownNotifier;
+  private final boolean generateUnsatCores;
+
+  private final List<StackEntry> stack = new ArrayList<>();
+  private final List<BooleanFormula> assertedFormulas = new ArrayList<>();
+  private final Deque<Level> levels = new ArrayDeque<>();
+
+  /** The declarations of all symbols seen so far, for parsing values. */
+  private final Map<String, String> knownDeclarations = new HashMap<>();
+
+  private int names = 0;
+
+  // state of the current process
+  private @Nullable SmtLibProcess process = null;
+  private boolean globalDeclarations = false;
+  private final Set<String> declaredSymbols = new HashSet<>();
+  private final Deque<List<String>> declaredPerLevel = new ArrayDeque<>();
+
+  private final Object interruptLock = new Object();
+  private @Nullable SmtLibProcess checking = null; // guarded by interruptLock
+  private boolean interrupted = false; // guarded by interruptLock
+  private volatile boolean timedOut = false;
+
+  SmtLibProverEnvironment(
+      SmtLibSolverContext pContext,
+      Set<ProverOptions> pOptions,
+      ShutdownNotifier pShutdownNotifier) {
+    context = pContext;
+    fmgr = pContext.getFormulaManager();
+    shutdownNotifier = pShutdownNotifier;
+    generateUnsatCores =
+        pOptions.contains(ProverOptions.GENERATE_UNSAT_CORE)
+            || pOptions.contains(ProverOptions.GENERATE_UNSAT_CORE_OVER_ASSUMPTIONS);
+  }
+
+  /**
+   * Split the SMT-LIB2 dump of a formula into the declarations and the asserted term,
+   * declarations of the special variables of {@link RemoteProtocol#encodeTerm} are dropped.
+   */
+  private Translation translate(String dump) {
+    ImmutableMap.Builder<String, String> declarations = ImmutableMap.builder();
+    List<SExpression> terms = new ArrayList<>();
+    for (SExpression command : SExpression.parseAll(dump)) {
+      if (command.startsWith("assert")) {
+        terms.add(command.get(1));
+      } else if (command.size() > 1
+          && command.get(0).isAtom()
+          && (command.get(0).getAtom().startsWith("declare-")
+              || command.get(0).getAtom().startsWith("define-"))) {
+        String symbol = command.get(1).toString();
+        knownDeclarations.put(symbol, command.toString());
+        if (!symbol.startsWith(TERM_VARIABLE)) {
+          declarations.put(symbol, command.toString());
+        }
+      }
+    }
+    String term;
+    if (terms.isEmpty()) {
+      term = "true";
+    } else if (terms.size() == 1) {
+      term = terms.get(0).toString();
+    } else {
+      term = "(and " + Joiner.on(' ').join(terms) + ")";
+    }
+    return new Translation(declarations.build(), SExpression.parseAll(term).get(0));
+  }
+
+  /** Translate a term of any sort, which is encoded as equality with a special variable. */
+  private Translation translateTerm(Formula f) {
+    Translation equality = translate(RemoteProtocol.encodeTerm(fmgr, f));
+    SExpression term =
+        isTermVariable(equality.term.get(1)) ? equality.term.get(2) : equality.term.get(1);
+    return new Translation(equality.declarations, term);
+  }
+
+  private static boolean isTermVariable(SExpression term) {
+    return term.isAtom() && term.getAtom().startsWith(TERM_VARIABLE);
+  }
+
+  private void declare(SmtLibProcess p, Map<String, String> declarations) throws IOException {
+    for (Map.Entry<String, String> declaration : declarations.entrySet()) {
+      if (declaredSymbols.add(declaration.getKey())) {
+        p.send(declaration.getValue());
+        if (!globalDeclarations && !declaredPerLevel.isEmpty()) {
+          declaredPerLevel.peek().add(declaration.getKey());
+        }
+      }
+    }
+  }
+
+  private void emit(SmtLibProcess p, StackEntry entry) throws IOException {
+    declare(p, entry.declarations);
+    if (!entry.command.isEmpty()) {
+      p.send(entry.command);
+    }
+    if (entry == PUSH && !globalDeclarations) {
+      declaredPerLevel.push(new ArrayList<>());
+    }
+  }
+
+  /** Send a stack entry to the current process, if there is one. */
+  private void emitIfRunning(StackEntry entry) {
+    if (process != null) {
+      try {
+        emit(process, entry);
+      } catch (IOException e) {
+        // the next query will report the crash
+        discardProcess();
+      }
+    }
+  }
+
+  /** Get the process of this prover, a new process is started if necessary. */
+  private SmtLibProcess getProcess() throws SolverException {
+    if (process != null && !process.isAlive()) {
+      discardProcess();
+    }
+    if (process == null) {
+      SmtLibProcess p;
+      try {
+        p = context.startProcess();
+      } catch (IOException e) {
+        throw new SolverException("Cannot start SMT-LIB2 solver: " + e.getMessage(), e);
+      }
+      process = p;
+      declaredSymbols.clear();
+      declaredPerLevel.clear();
+      try {
+        p.send("(set-option :produce-models true)");
+        if (generateUnsatCores) {
+          p.send("(set-option :produce-unsat-cores true)");
+        }
+        p.send("(set-option :global-declarations true)");
+        if (context.getLogic() != null) {
+          p.send("(set-logic " + context.getLogic() + ")");
+        }
+        // unsupported options are answered, thus we wait for the answers before the next query
+        for (SExpression answer : p.sync()) {
+          if (answer.startsWith("error")) {
+            throw new SolverException("SMT-LIB2 solver rejected its setup: " + answer);
+          }
+        }
+        globalDeclarations = p.query("(get-option :global-declarations)").is("true");
+        for (StackEntry entry : stack) {
+          emit(p, entry);
+        }
+      } catch (IOException e) {
+        discardProcess();
+        throw crashed(e);
+      } catch (SolverException e) {
+        discardProcess();
+        throw e;
+      }
+    }
+    return process;
+  }
+
+  private void discardProcess() {
+    if (process != null) {
+      process.kill();
+      process = null;
+    }
+  }
+
+  private static SolverException crashed(IOException e) {
+    return new SolverException("SMT-LIB2 solver process crashed: " + e.getMessage(), e);
+  }
+
+  private SExpression query(String command) throws SolverException, InterruptedException {
+    shutdownNotifier.shutdownIfNecessary();
+    SmtLibProcess p = getProcess();
+    try {
+      return p.query(command);
+    } catch (IOException e) {
+      discardProcess();
+      throw crashed(e);
+    } catch (SolverException e) {
+      // answers are out of sync, the next query restores the stack in a new process
+      discardProcess();
+      throw e;
+    }
+  }
+
+  private boolean checkSat(@Nullable Duration timeout)
+      throws SolverException, InterruptedException {
+    shutdownNotifier.shutdownIfNecessary();
+    SmtLibProcess p = getProcess();
+    synchronized (interruptLock) {
+      if (interrupted) {
+        interrupted = false;
+        throw new InterruptedException();
+      }
+      checking = p;
+    }
+    timedOut = false;
+    ScheduledFuture<?> timer = null;
+    if (timeout != null) {
+      timer =
+          context.schedule(
+              () -> {
+                timedOut = true;
+                p.kill();
+              },
+              timeout);
+    }
+    SExpression answer;
+    try {
+      answer = p.query("(check-sat)");
+    } catch (IOException e) {
+      discardProcess();
+      synchronized (interruptLock) {
+        if (interrupted) {
+          interrupted = false;
+          shutdownNotifier.shutdownIfNecessary();
+          throw new InterruptedException();
+        }
+      }
+      if (timedOut) {
+        throw new ResourceLimitException("SMT-LIB2 solver exceeded time limit of " + timeout);
+      }
+      throw crashed(e);
+    } catch (SolverException e) {
+      discardProcess();
+      throw e;
+    } finally {
+      synchronized (interruptLock) {
+        checking = null;
+      }
+      if (timer != null) {
+        timer.cancel(false);
+      }
+    }
+    if (answer.is("unsat")) {
+      return true;
+    } else if (answer.is("sat")) {
+      return false;
+    }
+    throw new SolverException("SMT-LIB2 solver returned " + answer);
+  }
+
+  @Override
+  public void push() {
+    levels.push(new Level(stack.size(), assertedFormulas.size()));
+    stack.add(PUSH);
+    emitIfRunning(PUSH);
+  }
+
+  @Override
+  public void pop() {
+    Preconditions.checkState(!levels.isEmpty(), "Cannot pop the empty stack");
+    Level level = levels.pop();
+    stack.subList(level.stackSize, stack.size()).clear();
+    assertedFormulas.subList(level.formulas, assertedFormulas.size()).clear();
+    if (process != null) {
+      try {
+        process.send("(pop 1)");
+        if (!globalDeclarations) {
+          declaredSymbols.removeAll(declaredPerLevel.pop());
+        }
+      } catch (IOException e) {
+        discardProcess();
+      }
+    }
+  }
+
+  @Override
+  @Nullable
+  public Void addConstraint(BooleanFormula constraint) {
+    Translation translation = translate(fmgr.dumpFormula(constraint).toString());
+    String command =
+        generateUnsatCores
+            ? "(assert (! " + translation.term + " :named " + NAME_PREFIX
+                + assertedFormulas.size() + "_" + names++ + "))"
+            : "(assert " + translation.term + ")";
+    StackEntry entry = new StackEntry(translation.declarations, command);
+    stack.add(entry);
+    assertedFormulas.add(constraint);
+    emitIfRunning(entry);
+    return null;
+  }
+
+  @Override
+  public boolean isUnsat() throws SolverException, InterruptedException {
+    return checkSat(null);
+  }
+
+  @Override
+  protected boolean isUnsatWithTimeout(Duration pTimeout)
+      throws SolverException, InterruptedException {
+    return checkSat(pTimeout);
+  }
+
+  @Override
+  public boolean isUnsatWithAssumptions(Collection<BooleanFormula> assumptions)
+      throws SolverException, InterruptedException {
+    push();
+    try {
+      assumptions.forEach(this::addConstraint);
+      return isUnsat();
+    } finally {
+      pop();
+    }
+  }
+
+  @Override
+  public void interrupt() {
+    synchronized (interruptLock) {
+      interrupted = true;
+      if (checking != null) {
+        checking.kill();
+      }
+    }
+  }
+
+  /** The indices of the asserted formulas in the unsat core. */
+  private List<Integer> getUnsatCoreIndices() throws SolverException, InterruptedException {
+    Preconditions.checkState(generateUnsatCores, "Generation of unsat cores is not enabled");
+    List<Integer> core = new ArrayList<>();
+    for (SExpression name : query("(get-unsat-core)").getChildren()) {
+      String symbol = name.getUnquotedAtom();
+      if (symbol.startsWith(NAME_PREFIX)) {
+        int end = symbol.indexOf('_', NAME_PREFIX.length());
+        core.add(Integer.parseInt(symbol.substring(NAME_PREFIX.length(), end)));
+      }
+    }
+    return core;
+  }
+
+  @Override
+  public List<BooleanFormula> getUnsatCore() {
+    try {
+      List<BooleanFormula> core = new ArrayList<>();
+      for (int index : getUnsatCoreIndices()) {
+        core.add(assertedFormulas.get(index));
+      }
+      return core;
+    } catch (SolverException e) {
+      throw new IllegalStateException(e.getMessage(), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public Optional<List<BooleanFormula>> unsatCoreOverAssumptions(
+      Collection<BooleanFormula> assumptions) throws SolverException, InterruptedException {
+    push();
+    try {
+      int start = assertedFormulas.size();
+      assumptions.forEach(this::addConstraint);
+      if (!isUnsat()) {
+        return Optional.empty();
+      }
+      List<BooleanFormula> core = new ArrayList<>();
+      for (int index : getUnsatCoreIndices()) {
+        if (index >= start) {
+          core.add(assertedFormulas.get(index));
+        }
+      }
+      return Optional.of(core);
+    } finally {
+      pop();
+    }
+  }
+
+  @Override
+  public Model getModel() throws SolverException {
+    return new RemoteModel(this::evaluate, getModelAssignments());
+  }
+
+  @Override
+  public ImmutableList<ValueAssignment> getModelAssignments() throws SolverException {
+    SExpression model;
+    try {
+      model = query("(get-model)");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SolverException("Interrupted while waiting for the model", e);
+    }
+    Map<Formula, BooleanFormula> definitions = new LinkedHashMap<>();
+    Map<Formula, String> names = new HashMap<>();
+    for (SExpression definition : model.getChildren()) {
+      // only constants are transferred, other values are available with Model.evaluate()
+      if (!definition.startsWith("define-fun")
+          || definition.size() != 5
+          || definition.get(2).size() != 0) {
+        continue;
+      }
+      String symbol = definition.get(1).toString();
+      String declaration = knownDeclarations.get(symbol);
+      if (declaration == null || symbol.startsWith(TERM_VARIABLE)) {
+        continue; // symbol of the solver, e.g., a name of an assertion
+      }
+      String name = definition.get(1).getUnquotedAtom();
+      BooleanFormula equality = parseEquality(declaration, symbol, definition.get(4));
+      Formula variable = equality == null ? null : fmgr.extractVariables(equality).get(name);
+      if (variable != null) {
+        definitions.put(variable, equality);
+        names.put(variable, name);
+      }
+    }
+
+    ImmutableList.Builder<ValueAssignment> assignments = ImmutableList.builder();
+    for (Map.Entry<Formula, Object> value : evaluateLocally(definitions).entrySet()) {
+      if (value.getValue() != null) {
+        assignments.add(
+            new ValueAssignment(
+                value.getKey(), names.get(value.getKey()), value.getValue(), ImmutableList.of()));
+      }
+    }
+    return assignments.build();
+  }
+
+  /**
+   * Parse the equality of a symbol with a value of the solver,
+   * or return null if the value cannot be parsed, e.g., because it uses internal symbols.
+   */
+  @Nullable
+  private BooleanFormula parseEquality(String declaration, String symbol, SExpression value) {
+    try {
+      return fmgr.parse(declaration + "\n(assert (= " + symbol + " " + value + "))");
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /** Convert values of the solver into Java objects with a prover of the local context. */
+  private Map<Formula, Object> evaluateLocally(Map<Formula, BooleanFormula> definitions)
+      throws SolverException {
+    Map<Formula, Object> values = new LinkedHashMap<>();
+    if (definitions.isEmpty()) {
+      return values;
+    }
+    try (ProverEnvironment prover =
+        context.getFormulaContext().newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+      definitions.values().forEach(prover::addConstraint);
+      if (prover.isUnsat()) {
+        throw new SolverException("Invalid model of SMT-LIB2 solver");
+      }
+      try (Model model = prover.getModel()) {
+        for (Formula variable : definitions.keySet()) {
+          values.put(variable, model.evaluate(variable));
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SolverException("Interrupted while parsing the model", e);
+    }
+    return values;
+  }
+
+  /** Evaluate a term in the model of the last query, used by {@link RemoteModel}. */
+  @Nullable
+  private Object evaluate(Formula f) {
+    try {
+      Translation term = translateTerm(f);
+      declare(getProcess(), term.declarations);
+      SExpression answer = query("(get-value (" + term.term + "))");
+      FormulaType<Formula> type = fmgr.getFormulaType(f);
+      String symbol = RemoteProtocol.termVariable(type);
+      BooleanFormula equality =
+          parseEquality(knownDeclarations.get(symbol), symbol, answer.get(0).get(1));
+      if (equality == null) {
+        return null;
+      }
+      Formula variable = fmgr.makeVariable(type, symbol);
+      return evaluateLocally(ImmutableMap.of(variable, equality)).get(variable);
+    } catch (IOException e) {
+      discardProcess();
+      throw new IllegalStateException(e.getMessage(), e);
+    } catch (SolverException e) {
+      throw new IllegalStateException(e.getMessage(), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public <T> T allSat(AllSatCallback<T> callback, List<BooleanFormula> important)
+      throws InterruptedException, SolverException {
+    BooleanFormulaManager bmgr = fmgr.getBooleanFormulaManager();
+    return allSatPolarities(new ListAllSatCallback<>(callback, important, bmgr::not), important);
+  }
+
+  @Override
+  public <T> T allSatPolarities(
+      AllSatPolarityCallback<T> callback, List<BooleanFormula> important)
+      throws InterruptedException, SolverException {
+    BooleanFormulaManager bmgr = fmgr.getBooleanFormulaManager();
+    push();
+    try {
+      List<String> terms = new ArrayList<>(important.size());
+      Map<String, String> declarations = new LinkedHashMap<>();
+      for (BooleanFormula f : important) {
+        Translation translation = translate(fmgr.dumpFormula(f).toString());
+        terms.add(translation.term.toString());
+        declarations.putAll(translation.declarations);
+      }
+      // the declarations belong to the new level, such that they are restored after a crash
+      StackEntry entry = new StackEntry(ImmutableMap.copyOf(declarations), "");
+      stack.add(entry);
+      emitIfRunning(entry);
+
+      BitSet values = new BitSet(important.size());
+      BitSet assigned = new BitSet(important.size());
+      while (!checkSat(null)) {
+        values.clear();
+        assigned.clear();
+        List<BooleanFormula> model = new ArrayList<>(important.size());
+        if (!important.isEmpty()) {
+          SExpression result = query("(get-value (" + String.join(" ", terms) + "))");
+          for (int i = 0; i < important.size(); i++) {
+            SExpression value = result.get(i).get(1);
+            if (value.is("true")) {
+              assigned.set(i);
+              values.set(i);
+              model.add(important.get(i));
+            } else if (value.is("false")) {
+              assigned.set(i);
+              model.add(bmgr.not(important.get(i)));
+            }
+          }
+        }
+        callback.apply(values, assigned);
+        addConstraint(bmgr.not(bmgr.and(model)));
+      }
+      return callback.getResult();
+    } finally {
+      pop();
+    }
+  }
+
+  @Override
+  public ImmutableMap<String, Object> getStatistics() {
+    if (process == null) {
+      return ImmutableMap.of();
+    }
+    try {
+      Map<String, Object> statistics = new LinkedHashMap<>();
+      flattenStatistics("", query("(get-info :all-statistics)"), statistics);
+      return ImmutableMap.copyOf(statistics);
+    } catch (SolverException e) {
+      return ImmutableMap.of(); // statistics are optional in SMT-LIB2
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return ImmutableMap.of();
+    }
+  }
+
+  /**
+   * Collect the statistics from the answer of the solver, which is either a list of keywords
+   * and values or a list of pairs, and can be nested. Keys of nested values are joined by dots.
+   */
+  private static void flattenStatistics(
+      String prefix, SExpression answer, Map<String, Object> statistics) {
+    if (answer.isAtom()) {
+      if (!prefix.isEmpty()) {
+        statistics.put(prefix, parseStatisticsValue(answer.getUnquotedAtom()));
+      }
+      return;
+    }
+    List<SExpression> children = answer.getChildren();
+    for (int i = 0; i < children.size(); i++) {
+      SExpression child = children.get(i);
+      if (child.isAtom() && child.getAtom().startsWith(":") && i + 1 < children.size()) {
+        String key = child.getAtom().substring(1);
+        // the answer to get-info repeats the keyword of the request
+        String nestedPrefix = key.equals("all-statistics") ? prefix : join(prefix, key);
+        flattenStatistics(nestedPrefix, children.get(++i), statistics);
+      } else if (!child.isAtom() && child.size() == 2 && child.get(0).isAtom()) {
+        String key = child.get(0).getUnquotedAtom();
+        String nestedPrefix = join(prefix, key.startsWith(":") ? key.substring(1) : key);
+        flattenStatistics(nestedPrefix, child.get(1), statistics);
+      } else if (!child.isAtom()) {
+        flattenStatistics(prefix, child, statistics);
+      }
+    }
+  }
+
+  private static String join(String prefix, String key) {
+    return prefix.isEmpty() ? key : prefix + "." + key;
+  }
+
+  private static Object parseStatisticsValue(String value) {
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      // not an integer
+    }
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      return value;
+    }
+  }
+
+  @Override
+  public void close() {
+    if (process != null) {
+      process.close();
+      process = null;
+    }
+    context.unregister(this);
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.sosy_lab.java_smt.remote;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.ShutdownNotifier.ShutdownRequestListener;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.basicimpl.AbstractSolverContext;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+/**
+ * Solver context whose provers run an external SMT-LIB2 solver executable,
+ * e.g., a solver without Java bindings.
+ * Each prover uses its own process, which reads the commands from its standard input.
+ *
+ * <p>Formulas are created in a local solver context, which also parses the values of models.
+ * Like for {@link RemoteSolverContext}, each prover keeps its stack of formulas locally
+ * and restores it in a new process if the solver crashes.
+ * The solver process is also killed in order to interrupt a query
+ * or to enforce the time limit of {@link ProverEnvironment#isUnsat(Duration)}.
+ *
+ * <p>Interpolation and optimization are not supported.
+ */
+@Options(prefix = "solver.smtlib2")
+public final class SmtLibSolverContext extends AbstractSolverContext {
+
+  // Not secure, because this executes an arbitrary command.
+  @Option(
+    required = true,
+    description =
+        "Command line for starting the SMT-LIB2 solver, "
+            + "which has to read the commands from its standard input, e.g., z3,-in."
+  )
+  private List<String> command = ImmutableList.of();
+
+  @Option(secure = true, description = "Logic that is set in the solver, empty for none.")
+  private String logic = "ALL";
+
+  private final String version;
+  private final SolverContext formulaContext;
+  private final ShutdownNotifier shutdownNotifier;
+
+  /** Kills the solver processes of queries that exceed their time limit. */
+  private final ScheduledExecutorService timer =
+      Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("SMT-LIB2 timer").build());
+
+  private final Set<SmtLibProverEnvironment> provers =
+      Collections.newSetFromMap(new ConcurrentHashMap<>());
+  private final ShutdownRequestListener interruptListener =
+      reason -> provers.forEach(SmtLibProverEnvironment::interrupt);
+
+  private SmtLibSolverContext(
+      Configuration config, SolverContext pFormulaContext, ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException {
+    super(pFormulaContext.getFormulaManager());
+    config.inject(this);
+    formulaContext = pFormulaContext;
+    shutdownNotifier = pShutdownNotifier;
+    version = queryVersion();
+    shutdownNotifier.register(interruptListener);
+  }
+
+  /**
+   * Create a context for the configured SMT-LIB2 solver.
+   *
+   * @param formulaContext the local context for creating formulas,
+   *     it is closed together with the new context.
+   */
+  public static SmtLibSolverContext create(
+      Configuration config, ShutdownNotifier shutdownNotifier, SolverContext formulaContext)
+      throws InvalidConfigurationException {
+    return new SmtLibSolverContext(config, formulaContext, shutdownNotifier);
+  }
+
+  /** Start the solver once, which also checks whether the command works. */
+  private String queryVersion() throws InvalidConfigurationException {
+    SmtLibProcess process = null;
+    try {
+      process = startProcess();
+      String name = getInfo(process, ":name");
+      String solverVersion = getInfo(process, ":version");
+      return name + " " + solverVersion;
+    } catch (IOException | SolverException e) {
+      throw new InvalidConfigurationException(
+          String.format("Cannot start SMT-LIB2 solver %s (%s)", command, e.getMessage()), e);
+    } finally {
+      if (process != null) {
+        process.close();
+      }
+    }
+  }
+
+  private static String getInfo(SmtLibProcess process, String key)
+      throws IOException, SolverException {
+    SExpression answer = process.query("(get-info " + key + ")");
+    if (answer.isAtom() || answer.size() != 2 || !answer.get(1).isAtom()) {
+      return "unknown";
+    }
+    return answer.get(1).getUnquotedAtom();
+  }
+
+  SmtLibProcess startProcess() throws IOException {
+    return SmtLibProcess.start(command);
+  }
+
+  @Nullable
+  String getLogic() {
+    return logic.isEmpty() ? null : logic;
+  }
+
+  /** Run the given action after the given time, unless it is cancelled. */
+  ScheduledFuture<?> schedule(Runnable action, Duration delay) {
+    return timer.schedule(action, delay.toNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  SolverContext getFormulaContext() {
+    return formulaContext;
+  }
+
+  @Override
+  protected ProverEnvironment newProverEnvironment0(Set<ProverOptions> options) {
+    SmtLibProverEnvironment prover = new SmtLibProverEnvironment(this, options, shutdownNotifier);
+    provers.add(prover);
+    return prover;
+  }
+
+  void unregister(SmtLibProverEnvironment prover) {
+    provers.remove(prover);
+  }
+
+  @Override
+  protected InterpolatingProverEnvironment<?> newProverEnvironmentWithInterpolation0() {
+    throw new UnsupportedOperationException("Interpolation is not supported for SMT-LIB2 solvers");
+  }
+
+  @Override
+  public OptimizationProverEnvironment newOptimizationProverEnvironment() {
+    throw new UnsupportedOperationException("Optimization is not supported for SMT-LIB2 solvers");
+  }
+
+  @Override
+  protected boolean supportsAssumptionSolving() {
+    return true;
+  }
+
+  @Override
+  public String getVersion() {
+    return version;
+  }
+
+  /** The solver that creates the formulas, the external solver has no own constant. */
+  @Override
+  public Solvers getSolverName() {
+    return formulaContext.getSolverName();
+  }
+
+  @Override
+  public void close() {
+    shutdownNotifier.unregister(interruptListener);
+    provers.forEach(SmtLibProverEnvironment::close);
+    timer.shutdownNow();
+    formulaContext.close();
+  }
+}
@@ -0,0 +1,220 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.sosy_lab.java_smt.remote;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.SolverContextFactory;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.IntegerFormulaManager;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.ResourceLimitException;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.test.WorkloadGenerator;
+
+import java.math.BigInteger;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+/** Tests with the SMT-LIB2 interface of SMTInterpol as external solver. */
+public class SmtLibSolverContextTest {
+
+  private SolverContext context;
+  private BooleanFormulaManager bmgr;
+  private IntegerFormulaManager imgr;
+
+  @Before
+  public void createContext() throws InvalidConfigurationException {
+    List<String> command =
+        ImmutableList.of(
+            Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+            "-cp",
+            System.getProperty("java.class.path"),
+            "de.uni_freiburg.informatik.ultimate.smtinterpol.Main",
+            "-q");
+    Configuration config =
+        Configuration.builder()
+            .setOption("solver.solver", "SMTINTERPOL")
+            .setOption("solver.useExternalSolver", "true")
+            .setOption("solver.smtlib2.command", Joiner.on(',').join(command))
+            .setOption("solver.smtlib2.logic", "QF_UFLIA")
+            .build();
+    context =
+        SolverContextFactory.createSolverContext(
+            config, LogManager.createTestLogManager(), ShutdownNotifier.createDummy());
+    bmgr = context.getFormulaManager().getBooleanFormulaManager();
+    imgr = context.getFormulaManager().getIntegerFormulaManager();
+  }
+
+  @After
+  public void closeContext() {
+    if (context != null) {
+      context.close();
+    }
+  }
+
+  @Test
+  public void testVersion() {
+    assertThat(context).isInstanceOf(SmtLibSolverContext.class);
+    assertThat(context.getVersion()).startsWith("SMTInterpol");
+  }
+
+  @Test
+  public void testStack() throws SolverException, InterruptedException {
+    IntegerFormula x = imgr.makeVariable("x");
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      prover.push(imgr.greaterThan(x, imgr.makeNumber(5)));
+      assertThat(prover.isUnsat()).isFalse();
+      prover.push(imgr.lessThan(x, imgr.makeNumber(3)));
+      assertThat(prover.isUnsat()).isTrue();
+      prover.pop();
+      assertThat(prover.isUnsat()).isFalse();
+
+      // a symbol that is first declared on a popped level
+      IntegerFormula y = imgr.makeVariable("y");
+      prover.push(imgr.greaterThan(y, x));
+      prover.pop();
+      prover.push(imgr.lessThan(y, x));
+      assertThat(prover.isUnsat()).isFalse();
+      assertThat(prover.getStatistics()).isNotEmpty();
+    }
+  }
+
+  @Test
+  public void testModel() throws SolverException, InterruptedException {
+    IntegerFormula x = imgr.makeVariable("x");
+    BooleanFormula b = bmgr.makeVariable("b");
+    try (ProverEnvironment prover =
+        context.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+      prover.addConstraint(imgr.greaterThan(x, imgr.makeNumber(5)));
+      prover.addConstraint(imgr.lessThan(x, imgr.makeNumber(7)));
+      prover.addConstraint(bmgr.not(b));
+      assertThat(prover.isUnsat()).isFalse();
+      try (Model model = prover.getModel()) {
+        assertThat(model.evaluate(x)).isEqualTo(BigInteger.valueOf(6));
+        assertThat(model.evaluate(b)).isFalse();
+        assertThat(model.evaluate(imgr.subtract(imgr.makeNumber(1), x)))
+            .isEqualTo(BigInteger.valueOf(-5));
+        assertThat(model.lookup("x")).hasSize(1);
+        assertThat(model.lookup("x").get(0).getKey()).isEqualTo(x);
+        assertThat(model.lookup("b").get(0).getValue()).isEqualTo(false);
+      }
+    }
+  }
+
+  @Test
+  public void testUnsatCore() throws SolverException, InterruptedException {
+    IntegerFormula x = imgr.makeVariable("x");
+    BooleanFormula positive = imgr.greaterThan(x, imgr.makeNumber(0));
+    BooleanFormula negative = imgr.lessThan(x, imgr.makeNumber(0));
+    BooleanFormula other = bmgr.makeVariable("b");
+    try (ProverEnvironment prover =
+        context.newProverEnvironment(ProverOptions.GENERATE_UNSAT_CORE)) {
+      prover.addConstraint(positive);
+      prover.push(other);
+      prover.push(negative);
+      assertThat(prover.isUnsat()).isTrue();
+      assertThat(prover.getUnsatCore()).containsExactly(positive, negative);
+    }
+  }
+
+  @Test
+  public void testUnsatCoreOverAssumptions() throws SolverException, InterruptedException {
+    BooleanFormula a = bmgr.makeVariable("a");
+    BooleanFormula b = bmgr.makeVariable("b");
+    BooleanFormula c = bmgr.makeVariable("c");
+    try (ProverEnvironment prover =
+        context.newProverEnvironment(ProverOptions.GENERATE_UNSAT_CORE_OVER_ASSUMPTIONS)) {
+      prover.addConstraint(bmgr.implication(a, bmgr.not(b)));
+      assertThat(prover.isUnsatWithAssumptions(ImmutableList.of(a, c))).isFalse();
+      Optional<List<BooleanFormula>> core =
+          prover.unsatCoreOverAssumptions(ImmutableList.of(a, b, c));
+      assertThat(core.isPresent()).isTrue();
+      assertThat(core.get()).containsExactly(a, b);
+    }
+  }
+
+  @Test
+  public void testAllSat() throws SolverException, InterruptedException {
+    BooleanFormula a = bmgr.makeVariable("a");
+    BooleanFormula b = bmgr.makeVariable("b");
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      prover.addConstraint(bmgr.or(a, b));
+      assertThat(prover.countModels(ImmutableList.of(a, b))).isEqualTo(BigInteger.valueOf(3));
+      assertThat(prover.isUnsat()).isFalse();
+    }
+  }
+
+  @Test
+  public void testTimeLimit() throws SolverException, InterruptedException {
+    BooleanFormula hard =
+        new WorkloadGenerator(context.getFormulaManager(), new Random(0)).pigeonhole(12);
+    BooleanFormula x = bmgr.makeVariable("x");
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      prover.push(x);
+      prover.push(hard);
+      try {
+        prover.isUnsat(Duration.ofMillis(100));
+        fail();
+      } catch (ResourceLimitException expected) {
+      }
+
+      // the stack is restored in a new process
+      prover.pop();
+      assertThat(prover.isUnsat()).isFalse();
+      prover.push(bmgr.not(x));
+      assertThat(prover.isUnsat()).isTrue();
+    }
+  }
+
+  @Test
+  public void testInterrupt() throws SolverException, InterruptedException {
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      prover.push(bmgr.makeVariable("a"));
+      prover.interrupt();
+      try {
+        prover.isUnsat();
+        fail();
+      } catch (InterruptedException expected) {
+      }
+      assertThat(prover.isUnsat()).isFalse();
+    }
+  }
+}
@@ -0,0 +1,197 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.sosy_lab.java_smt.remote;
+
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.HELLO;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.INTERRUPT;
+import static org.sosy_lab.java_smt.remote.RemoteProtocol.OK;
+
+import com.google.common.io.ByteArrayDataInput;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection to a single {@link RemoteSolverWorker} process.
+ *
+ * <p>Commands without answer are only buffered, they are flushed together with the next query.
+ * Queries of different provers on the same worker are answered one after another.
+ */
+final class WorkerConnection {
+
+  private static final long EXIT_TIMEOUT_SECONDS = 5;
+  private static final long START_TIMEOUT_SECONDS = 30;
+
+  /** Kills worker processes that do not answer in time after their start. */
+  private static final ScheduledExecutorService startWatchdog =
+      Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder()
+              .setDaemon(true)
+              .setNameFormat("solver-worker-start-watchdog")
+              .build());
+
+  private final Process process;
+  private final DataOutputStream out;
+  private final DataInputStream in;
+  private final String version;
+
+  /** Held while waiting for an answer, answers arrive in the order of the queries. */
+  private final Object queryLock = new Object();
+
+  private volatile boolean crashed = false;
+
+  /** Number of provers that use this worker, guarded by the {@link WorkerPool}. */
+  int assignedProvers = 0;
+
+  private WorkerConnection(Process pProcess) throws IOException {
+    process = pProcess;
+    out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+    in = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+    if (in.readInt() != HELLO) {
+      throw new IOException("Invalid answer of solver worker process");
+    }
+    version = in.readUTF();
+  }
+
+  /**
+   * Start a worker process with the given command line and wait until it is ready.
+   * Process streams have no read timeout, so a process that does not greet us in time
+   * is killed, which ends the blocking read.
+   */
+  static WorkerConnection start(List<String> command) throws IOException {
+    Process process =
+        new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+    ScheduledFuture<?> timeout =
+        startWatchdog.schedule(process::destroyForcibly, START_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    try {
+      WorkerConnection connection = new WorkerConnection(process);
+      if (timeout.cancel(false)) {
+        return connection;
+      }
+    } catch (IOException e) {
+      if (timeout.cancel(false)) {
+        process.destroyForcibly();
+        throw e;
+      }
+    }
+    // the watchdog has killed the process
+    throw new IOException(
+        "Solver worker process did not start within " + START_TIMEOUT_SECONDS + " seconds");
+  }
+
+  String getVersion() {
+    return version;
+  }
+
+  boolean isCrashed() {
+    return crashed || !process.isAlive();
+  }
+
+  /**
+   * Send a command without waiting for its answer.
+   * If the worker has crashed, the command is dropped
+   * and the crash is reported with the next query.
+   */
+  synchronized void send(byte command, int prover, byte[] payload) {
+    if (crashed) {
+      return;
+    }
+    try {
+      write(command, prover, payload);
+      if (command == INTERRUPT) {
+        out.flush();
+      }
+    } catch (IOException e) {
+      crashed = true;
+    }
+  }
+
+  private void write(byte command, int prover, byte[] payload) throws IOException {
+    out.writeByte(command);
+    out.writeInt(prover);
+    out.writeInt(payload.length);
+    out.write(payload);
+  }
+
+  /** Send a query and wait for its answer. */
+  ByteArrayDataInput query(byte command, int prover, byte[] payload)
+      throws SolverException, InterruptedException {
+    synchronized (queryLock) {
+      byte status;
+      byte[] answer;
+      try {
+        synchronized (this) {
+          if (crashed) {
+            throw new IOException("connection lost");
+          }
+          write(command, prover, payload);
+          out.flush();
+        }
+        status = in.readByte();
+        answer = new byte[in.readInt()];
+        in.readFully(answer);
+      } catch (IOException e) {
+        crashed = true;
+        process.destroyForcibly();
+        throw new SolverException("Solver worker process crashed: " + e.getMessage(), e);
+      }
+      ByteArrayDataInput result = ByteStreams.newDataInput(answer);
+      if (status != OK) {
+        throw RemoteProtocol.rethrow(status, RemoteProtocol.readString(result));
+      }
+      return result;
+    }
+  }
+
+  /** Kill the worker process immediately, e.g., to simulate a crash of the solver. */
+  void kill() {
+    process.destroyForcibly();
+  }
+
+  /** Let the worker process terminate after it has finished its current requests. */
+  void close() {
+    try {
+      synchronized (this) {
+        out.close();
+      }
+      if (!process.waitFor(EXIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        process.destroyForcibly();
+      }
+    } catch (IOException e) {
+      process.destroyForcibly();
+    } catch (InterruptedException e) {
+      process.destroyForcibly();
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.sosy_lab.java_smt.remote;
+
+import com.google.common.collect.ImmutableList;
+
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * The worker processes of a {@link RemoteSolverContext}.
+ * New provers are assigned to the worker with the fewest provers,
+ * and further workers are started on demand up to the configured limit.
+ */
+@Options(prefix = "solver.remote")
+final class WorkerPool {
+
+  @Option(secure = true, description = "Maximal number of solver worker processes.")
+  @IntegerOption(min = 1)
+  private int workers = Runtime.getRuntime().availableProcessors();
+
+  @Option(
+    secure = true,
+    description = "Additional options for the JVM of the solver worker processes, e.g., -Xmx2g."
+  )
+  private List<String> javaOptions = ImmutableList.of();
+
+  @Option(
+    secure = true,
+    description =
+        "Configuration options for the solver in the worker processes, "
+            + "in the form key=value, e.g., solver.z3.usePhaseCaching=false."
+  )
+  private List<String> workerOptions = ImmutableList.of();
+
+  private final LogManager logger;
+  private final ImmutableList<String> command;
+
+  private final List<WorkerConnection> connections = new ArrayList<>();
+
+  WorkerPool(Configuration config, LogManager pLogger, Solvers solver)
+      throws InvalidConfigurationException {
+    config.inject(this);
+    logger = pLogger;
+
+    ImmutableList.Builder<String> builder = ImmutableList.builder();
+    builder.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    builder.addAll(javaOptions);
+    builder.add("-cp", System.getProperty("java.class.path"));
+    builder.add("-Djava.library.path=" + System.getProperty("java.library.path"));
+    builder.add(RemoteSolverWorker.class.getName());
+    builder.add("--solver.solver=" + solver.name());
+    for (String option : workerOptions) {
+      builder.add("--" + option);
+    }
+    command = builder.build();
+  }
+
+  /** Start the first worker and return the version of its solver. */
+  synchronized String start() throws IOException {
+    return startWorker().getVersion();
+  }
+
+  private WorkerConnection startWorker() throws IOException {
+    logger.logf(Level.FINE, "Starting solver worker process %d", connections.size() + 1);
+    WorkerConnection connection = WorkerConnection.start(command);
+    connections.add(connection);
+    return connection;
+  }
+
+  /** Get a worker for a new prover, {@link #release} it when the prover is closed. */
+  synchronized WorkerConnection acquire() throws SolverException {
+    connections.removeIf(WorkerConnection::isCrashed);
+    WorkerConnection best = null;
+    for (WorkerConnection connection : connections) {
+      if (best == null || connection.assignedProvers < best.assignedProvers) {
+        best = connection;
+      }
+    }
+    if (best == null || (best.assignedProvers > 0 && connections.size() < workers)) {
+      try {
+        best = startWorker();
+      } catch (IOException e) {
+        throw new SolverException("Cannot start solver worker process: " + e.getMessage(), e);
+      }
+    }
+    best.assignedProvers++;
+    return best;
+  }
+
+  synchronized void release(WorkerConnection connection) {
+    connection.assignedProvers--;
+  }
+
+  /** Kill all worker processes immediately, e.g., to simulate crashes of the solver. */
+  synchronized void kill() {
+    connections.forEach(WorkerConnection::kill);
+  }
+
+  /** Number of running worker processes. */
+  synchronized int size() {
+    connections.removeIf(WorkerConnection::isCrashed);
+    return connections.size();
+  }
+
+  synchronized void close() {
+    connections.forEach(WorkerConnection::close);
+    connections.clear();
+  }
+}
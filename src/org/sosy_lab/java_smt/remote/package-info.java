@@ -0,0 +1,34 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+/**
+ * Solver contexts that run the SMT solver in separate processes.
+ * A crash of a solver only kills its process, which is restarted automatically,
+ * and provers in different processes run in parallel.
+ *
+ * <p>{@link org.sosy_lab.java_smt.remote.RemoteSolverContext} uses JVM worker processes
+ * for the solvers of JavaSMT, {@link org.sosy_lab.java_smt.remote.SmtLibSolverContext}
+ * runs the executable of any solver that understands SMT-LIB2.
+ */
+@javax.annotation.CheckReturnValue
+@javax.annotation.ParametersAreNonnullByDefault
+@org.sosy_lab.common.annotations.FieldsAreNonnullByDefault
+@org.sosy_lab.common.annotations.ReturnValuesAreNonnullByDefault
+package org.sosy_lab.java_smt.remote;
@@ -0,0 +1,96 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.runner;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableMap;
+
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+
+import javax.annotation.Nullable;
+
+/**
+ * The result of running one SMT-LIB2 file with one solver.
+ */
+@AutoValue
+public abstract class RunResult {
+
+  public enum Status {
+    SAT,
+    UNSAT,
+    TIMEOUT,
+    ERROR
+  }
+
+  static RunResult create(
+      String pFile,
+      Solvers pSolver,
+      Status pStatus,
+      @Nullable String pExpectedStatus,
+      long pWallTimeMillis,
+      long pAllocatedBytes,
+      ImmutableMap<String, Object> pStatistics,
+      @Nullable String pMessage) {
+    return new AutoValue_RunResult(
+        pFile,
+        pSolver,
+        pStatus,
+        pExpectedStatus,
+        pWallTimeMillis,
+        pAllocatedBytes,
+        pStatistics,
+        pMessage);
+  }
+
+  /** The path of the file relative to the input directory. */
+  public abstract String getFile();
+
+  public abstract Solvers getSolver();
+
+  public abstract Status getStatus();
+
+  /** The status given in the file by {@code (set-info :status ...)}, if present. */
+  @Nullable
+  public abstract String getExpectedStatus();
+
+  /** The wall time for parsing and solving, without the creation of the solver context. */
+  public abstract long getWallTimeMillis();
+
+  /**
+   * The number of bytes allocated on the Java heap for parsing and solving,
+   * or -1 if the JVM does not support measuring it.
+   * Memory allocated by native solvers is not included.
+   */
+  public abstract long getAllocatedBytes();
+
+  /** The statistics of the prover as given by its {@code getStatistics()} method. */
+  public abstract ImmutableMap<String, Object> getStatistics();
+
+  /** The error message for {@link Status#ERROR}. */
+  @Nullable
+  public abstract String getMessage();
+
+  /** Whether the solver reported the opposite of the expected status. */
+  public boolean isWrong() {
+    String expected = getExpectedStatus();
+    return (getStatus() == Status.SAT && "unsat".equals(expected))
+        || (getStatus() == Status.UNSAT && "sat".equals(expected));
+  }
+}
@@ -0,0 +1,400 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.runner;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Throwables;
+import com.google.common.collect.EnumMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Multiset;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.sosy_lab.common.JSON;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.FileOption.Type;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.configuration.TimeSpanOption;
+import org.sosy_lab.common.configuration.converters.FileTypeConverter;
+import org.sosy_lab.common.io.MoreFiles;
+import org.sosy_lab.common.log.BasicLogManager;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.java_smt.SolverContextFactory;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.runner.RunResult.Status;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+/**
+ * Command-line tool that runs every SMT-LIB2 file of a directory with several solvers
+ * and writes the results as CSV and JSON.
+ *
+ * <p>Each file is parsed with {@link org.sosy_lab.java_smt.api.FormulaManager#parse}
+ * in a fresh solver context and checked with a {@link ProverEnvironment}.
+ * Only non-incremental scripts are supported, cf. {@link SmtLibScript}.
+ * Files are run in parallel, and the timeout of each run is enforced
+ * via the {@link org.sosy_lab.common.ShutdownNotifier} of its context.
+ *
+ * <p>Usage: {@code SmtLibRunner --runner.input=DIR [--runner.solvers=Z3,SMTINTERPOL]
+ * [--runner.timeout=10s] [--OPTION=VALUE ...]}.
+ * All other options, e.g., for the solvers, are passed to the solver contexts.
+ * The CSV and JSON files are written into the directory {@code output} by default.
+ */
+@Options(prefix = "runner")
+public final class SmtLibRunner {
+
+  @Option(
+    secure = true,
+    required = true,
+    description = "Directory that is searched recursively for SMT-LIB2 files ending with .smt2."
+  )
+  private @Nullable String input = null;
+
+  @Option(secure = true, description = "Solvers that are run on every file.")
+  private List<Solvers> solvers = ImmutableList.copyOf(Solvers.values());
+
+  @Option(secure = true, description = "Timeout for each file and solver, zero disables it.")
+  @TimeSpanOption(codeUnit = TimeUnit.MILLISECONDS, defaultUserUnit = TimeUnit.SECONDS, min = 0)
+  private TimeSpan timeout = TimeSpan.ofSeconds(60);
+
+  @Option(secure = true, description = "Number of runs that are executed in parallel.")
+  @IntegerOption(min = 1)
+  private int threads = Runtime.getRuntime().availableProcessors();
+
+  @Option(secure = true, description = "Write the results as CSV into this file.")
+  @FileOption(Type.OUTPUT_FILE)
+  private @Nullable Path csvFile = Paths.get("results.csv");
+
+  @Option(secure = true, description = "Write the results as JSON into this file.")
+  @FileOption(Type.OUTPUT_FILE)
+  private @Nullable Path jsonFile = Paths.get("results.json");
+
+  private static final String[] CSV_HEADER = {
+    "file", "solver", "status", "expected", "wrong", "walltime_ms", "allocated_bytes", "statistics",
+    "message"
+  };
+
+  private final Path inputDirectory;
+  private final Configuration config;
+  private final LogManager logger;
+
+  /**
+   * Create a runner from the given configuration,
+   * which needs a {@link FileTypeConverter} for the options of type {@link Path}.
+   * Relative output files are resolved against the option {@code output.path}.
+   */
+  public SmtLibRunner(Configuration pConfig, LogManager pLogger)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    config = pConfig;
+    logger = pLogger;
+    if (input == null || !Files.isDirectory(Paths.get(input))) {
+      throw new InvalidConfigurationException(
+          "Option runner.input has to be an existing directory, but is " + input);
+    }
+    inputDirectory = Paths.get(input);
+  }
+
+  public static void main(String... args)
+      throws InvalidConfigurationException, IOException, InterruptedException {
+    Configuration cmdLineConfig = Configuration.fromCmdLineArguments(args);
+    Configuration config =
+        Configuration.builder()
+            .copyFrom(cmdLineConfig)
+            .addConverter(FileOption.class, FileTypeConverter.create(cmdLineConfig))
+            .build();
+    LogManager logger = BasicLogManager.create(config);
+    SmtLibRunner runner = new SmtLibRunner(config, logger);
+    List<RunResult> results = runner.run();
+    runner.writeResults(results);
+    runner.logSummary(results);
+  }
+
+  /**
+   * Run all files with all solvers.
+   *
+   * @return the results ordered by file and then by solver
+   */
+  public List<RunResult> run() throws IOException, InterruptedException {
+    List<Path> files;
+    try (Stream<Path> paths = Files.walk(inputDirectory)) {
+      files =
+          paths
+              .filter(p -> p.getFileName().toString().endsWith(".smt2") && Files.isRegularFile(p))
+              .sorted()
+              .collect(Collectors.toList());
+    }
+    logger.logf(Level.INFO, "Running %d files with %s", files.size(), solvers);
+
+    ThreadFactory threadFactory =
+        new ThreadFactoryBuilder().setNameFormat("SmtLibRunner-%d").setDaemon(true).build();
+    ExecutorService executor = Executors.newFixedThreadPool(threads, threadFactory);
+    ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    try {
+      List<Future<RunResult>> futures = new ArrayList<>(files.size() * solvers.size());
+      for (Path file : files) {
+        for (Solvers solver : solvers) {
+          futures.add(executor.submit(() -> runFile(file, solver, timer)));
+        }
+      }
+
+      ImmutableList.Builder<RunResult> results = ImmutableList.builder();
+      for (Future<RunResult> future : futures) {
+        try {
+          results.add(future.get());
+        } catch (ExecutionException e) {
+          Throwables.propagateIfPossible(e.getCause(), InterruptedException.class);
+          throw new AssertionError("unexpected exception in runner", e.getCause());
+        }
+      }
+      return results.build();
+    } finally {
+      executor.shutdownNow();
+      timer.shutdownNow();
+    }
+  }
+
+  private RunResult runFile(Path file, Solvers solver, ScheduledExecutorService timer)
+      throws InterruptedException {
+    String name = inputDirectory.relativize(file).toString();
+    ShutdownManager shutdownManager = ShutdownManager.create();
+    String expected = null;
+    long startTime = -1;
+    long startAllocation = -1;
+    ScheduledFuture<?> timeoutTask = null;
+    try {
+      SmtLibScript script = SmtLibScript.of(new String(Files.readAllBytes(file), UTF_8));
+      expected = script.getExpectedStatus();
+
+      try (SolverContext context =
+              SolverContextFactory.createSolverContext(
+                  config, logger, shutdownManager.getNotifier(), solver);
+          ProverEnvironment prover = context.newProverEnvironment()) {
+        if (!timeout.isEmpty()) {
+          timeoutTask =
+              timer.schedule(
+                  () -> shutdownManager.requestShutdown("timeout"),
+                  timeout.asMillis(),
+                  TimeUnit.MILLISECONDS);
+        }
+        startTime = System.nanoTime();
+        startAllocation = allocatedBytes();
+
+        prover.push(context.getFormulaManager().parse(script.getAssertions()));
+        Status status = prover.isUnsat() ? Status.UNSAT : Status.SAT;
+
+        return RunResult.create(
+            name,
+            solver,
+            status,
+            expected,
+            elapsedMillis(startTime),
+            allocatedBytesSince(startAllocation),
+            prover.getStatistics(),
+            null);
+      }
+
+    } catch (InterruptedException e) {
+      if (!shutdownManager.getNotifier().shouldShutdown()) {
+        throw e;
+      }
+      return RunResult.create(
+          name,
+          solver,
+          Status.TIMEOUT,
+          expected,
+          elapsedMillis(startTime),
+          allocatedBytesSince(startAllocation),
+          ImmutableMap.of(),
+          null);
+
+    } catch (IOException
+        | InvalidConfigurationException
+        | SolverException
+        | RuntimeException
+        | LinkageError e) {
+      // RuntimeExceptions are thrown by the solvers for unsupported or malformed input,
+      // LinkageErrors if the native library of a solver is missing or incompatible.
+      // Both only affect this file and solver, so we report them and continue with the batch.
+      logger.logDebugException(e, name);
+      return RunResult.create(
+          name,
+          solver,
+          Status.ERROR,
+          expected,
+          elapsedMillis(startTime),
+          allocatedBytesSince(startAllocation),
+          ImmutableMap.of(),
+          e.toString());
+
+    } finally {
+      if (timeoutTask != null) {
+        timeoutTask.cancel(false);
+      }
+    }
+  }
+
+  private static long elapsedMillis(long startTime) {
+    return startTime < 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+  }
+
+  private static long allocatedBytesSince(long startAllocation) {
+    return startAllocation < 0 ? -1 : allocatedBytes() - startAllocation;
+  }
+
+  /** The number of bytes allocated by the current thread, or -1 if not supported. */
+  private static long allocatedBytes() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+      if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+        return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return -1;
+  }
+
+  /** Write the results into the configured CSV and JSON files. */
+  public void writeResults(List<RunResult> results) throws IOException {
+    if (csvFile != null) {
+      MoreFiles.createParentDirs(csvFile);
+      try (Writer out = MoreFiles.openOutputFile(csvFile, UTF_8)) {
+        writeCsv(results, out);
+      }
+    }
+    if (jsonFile != null) {
+      MoreFiles.createParentDirs(jsonFile);
+      List<Map<String, Object>> json = new ArrayList<>(results.size());
+      for (RunResult result : results) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("file", result.getFile());
+        entry.put("solver", result.getSolver().toString());
+        entry.put("status", result.getStatus().toString());
+        entry.put("expected", result.getExpectedStatus());
+        entry.put("wrong", result.isWrong());
+        entry.put("walltime_ms", result.getWallTimeMillis());
+        entry.put("allocated_bytes", result.getAllocatedBytes());
+        entry.put("statistics", result.getStatistics());
+        entry.put("message", result.getMessage());
+        json.add(entry);
+      }
+      JSON.writeJSONString(json, jsonFile);
+    }
+  }
+
+  static void writeCsv(List<RunResult> results, Appendable out) throws IOException {
+    Joiner.on(',').appendTo(out, CSV_HEADER).append('\n');
+    for (RunResult result : results) {
+      Object[] row = {
+        result.getFile(),
+        result.getSolver(),
+        result.getStatus(),
+        result.getExpectedStatus(),
+        result.isWrong(),
+        result.getWallTimeMillis(),
+        result.getAllocatedBytes(),
+        Joiner.on(' ').withKeyValueSeparator("=").join(result.getStatistics()),
+        result.getMessage()
+      };
+      for (int i = 0; i < row.length; i++) {
+        if (i > 0) {
+          out.append(',');
+        }
+        out.append(escapeCsv(row[i] == null ? "" : row[i].toString()));
+      }
+      out.append('\n');
+    }
+  }
+
+  private static String escapeCsv(String value) {
+    if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+      return '"' + value.replace("\"", "\"\"") + '"';
+    }
+    return value;
+  }
+
+  /** Log the number of results per solver and status, and all wrong results. */
+  public void logSummary(List<RunResult> results) {
+    Map<Solvers, Multiset<Status>> counts = new EnumMap<>(Solvers.class);
+    Map<Solvers, Long> times = new EnumMap<>(Solvers.class);
+    for (RunResult result : results) {
+      counts
+          .computeIfAbsent(result.getSolver(), s -> EnumMultiset.create(Status.class))
+          .add(result.getStatus());
+      times.merge(result.getSolver(), result.getWallTimeMillis(), Long::sum);
+      if (result.isWrong()) {
+        logger.logf(
+            Level.WARNING,
+            "%s reported %s for %s, but expected is %s",
+            result.getSolver(),
+            result.getStatus(),
+            result.getFile(),
+            result.getExpectedStatus());
+      }
+    }
+    for (Map.Entry<Solvers, Multiset<Status>> entry : counts.entrySet()) {
+      Multiset<Status> count = entry.getValue();
+      logger.logf(
+          Level.INFO,
+          "%s: %d sat, %d unsat, %d timeout, %d error, %d ms",
+          entry.getKey(),
+          count.count(Status.SAT),
+          count.count(Status.UNSAT),
+          count.count(Status.TIMEOUT),
+          count.count(Status.ERROR),
+          times.get(entry.getKey()));
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.runner;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.converters.FileTypeConverter;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.runner.RunResult.Status;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class SmtLibRunnerTest {
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static final String SAT_SCRIPT =
+      "; a comment with (parentheses\n"
+          + "(set-info :status sat)\n"
+          + "(set-logic QF_LIA)\n"
+          + "(declare-fun |x y| () Int)\n"
+          + "(assert (> |x y| 0)) ; trailing comment\n"
+          + "(check-sat)\n"
+          + "(exit)\n";
+
+  private static final String UNSAT_SCRIPT =
+      "(set-info :status sat)\n"
+          + "(declare-fun x () Int)\n"
+          + "(assert (and (> x 0) (< x 0)))\n"
+          + "(check-sat)\n";
+
+  @Test
+  public void scriptTest() {
+    SmtLibScript script = SmtLibScript.of(SAT_SCRIPT);
+    assertThat(script.getExpectedStatus()).isEqualTo("sat");
+    assertThat(script.getAssertions())
+        .isEqualTo("(declare-fun |x y| () Int)\n(assert (> |x y| 0))\n");
+  }
+
+  @Test
+  public void splitCommandsTest() {
+    List<String> commands =
+        SmtLibScript.splitCommands("(echo \"a ) \"\" ;b\")|(| (assert true)\n;(\n");
+    assertThat(commands).containsExactly("(echo \"a ) \"\" ;b\")", "(assert true)").inOrder();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void incrementalScriptTest() {
+    SmtLibScript.of("(push 1)(assert true)(check-sat)(pop 1)");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unbalancedScriptTest() {
+    SmtLibScript.of("(assert (and true false)");
+  }
+
+  @Test
+  public void runTest() throws IOException, InterruptedException, InvalidConfigurationException {
+    Path input = tempFolder.newFolder("input").toPath();
+    Files.write(input.resolve("sat.smt2"), SAT_SCRIPT.getBytes(UTF_8));
+    Files.createDirectory(input.resolve("sub"));
+    Files.write(input.resolve("sub").resolve("unsat.smt2"), UNSAT_SCRIPT.getBytes(UTF_8));
+    Files.write(input.resolve("broken.smt2"), "(assert (> y 0))".getBytes(UTF_8));
+    Files.write(input.resolve("ignored.txt"), "(assert false)".getBytes(UTF_8));
+    Path csv = tempFolder.getRoot().toPath().resolve("results.csv");
+    Path json = tempFolder.getRoot().toPath().resolve("results.json");
+
+    Configuration options =
+        Configuration.builder()
+            .setOption("runner.input", input.toString())
+            .setOption("runner.solvers", Solvers.SMTINTERPOL.toString())
+            .setOption("runner.threads", "2")
+            .setOption("runner.csvFile", csv.toString())
+            .setOption("runner.jsonFile", json.toString())
+            .build();
+    Configuration config =
+        Configuration.builder()
+            .copyFrom(options)
+            .addConverter(FileOption.class, FileTypeConverter.create(options))
+            .build();
+    SmtLibRunner runner = new SmtLibRunner(config, LogManager.createTestLogManager());
+    List<RunResult> results = runner.run();
+
+    assertThat(results).hasSize(3);
+    RunResult broken = results.get(0);
+    assertThat(broken.getFile()).isEqualTo("broken.smt2");
+    assertThat(broken.getStatus()).isEqualTo(Status.ERROR);
+    assertThat(broken.getMessage()).isNotNull();
+
+    RunResult sat = results.get(1);
+    assertThat(sat.getFile()).isEqualTo("sat.smt2");
+    assertThat(sat.getStatus()).isEqualTo(Status.SAT);
+    assertThat(sat.isWrong()).isFalse();
+
+    RunResult unsat = results.get(2);
+    assertThat(unsat.getStatus()).isEqualTo(Status.UNSAT);
+    assertThat(unsat.isWrong()).isTrue();
+
+    runner.writeResults(results);
+    List<String> lines = Files.readAllLines(csv, UTF_8);
+    assertThat(lines).hasSize(4);
+    assertThat(lines.get(0)).startsWith("file,solver,status,");
+    assertThat(lines.get(2)).startsWith("sat.smt2,SMTINTERPOL,SAT,sat,false,");
+    assertThat(new String(Files.readAllBytes(json), UTF_8)).contains("\"status\":\"UNSAT\"");
+  }
+}
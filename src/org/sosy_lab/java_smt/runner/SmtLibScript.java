@@ -0,0 +1,186 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.runner;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import org.sosy_lab.java_smt.api.FormulaManager;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+/**
+ * A non-incremental SMT-LIB2 script, reduced to the commands
+ * that are accepted by {@link FormulaManager#parse}.
+ *
+ * <p>Declarations, definitions and assertions are kept,
+ * commands without influence on the satisfiability (e.g., {@code set-info} or
+ * {@code check-sat}) are dropped, and all other commands (e.g., {@code push})
+ * are rejected.
+ */
+final class SmtLibScript {
+
+  private static final ImmutableSet<String> KEPT_COMMANDS =
+      ImmutableSet.of(
+          "assert", "declare-const", "declare-fun", "declare-sort", "define-fun", "define-sort");
+
+  private static final ImmutableSet<String> DROPPED_COMMANDS =
+      ImmutableSet.of(
+          "check-sat",
+          "echo",
+          "exit",
+          "get-assertions",
+          "get-assignment",
+          "get-info",
+          "get-model",
+          "get-option",
+          "get-proof",
+          "get-unsat-core",
+          "get-value",
+          "set-info",
+          "set-logic",
+          "set-option");
+
+  private static final Pattern STATUS = Pattern.compile(":status\\s+(sat|unsat|unknown)");
+
+  private final String assertions;
+  private final @Nullable String expectedStatus;
+
+  private SmtLibScript(String pAssertions, @Nullable String pExpectedStatus) {
+    assertions = pAssertions;
+    expectedStatus = pExpectedStatus;
+  }
+
+  /**
+   * Reduce the given script.
+   *
+   * @throws IllegalArgumentException if the script is malformed or contains unsupported commands
+   */
+  static SmtLibScript of(String script) {
+    StringBuilder assertions = new StringBuilder();
+    String status = null;
+    for (String command : splitCommands(script)) {
+      String name = commandName(command);
+      if (KEPT_COMMANDS.contains(name)) {
+        assertions.append(command).append('\n');
+      } else if (name.equals("set-info")) {
+        Matcher matcher = STATUS.matcher(command);
+        if (matcher.find()) {
+          status = matcher.group(1);
+        }
+      } else if (!DROPPED_COMMANDS.contains(name)) {
+        throw new IllegalArgumentException("Unsupported SMT-LIB command " + name);
+      }
+    }
+    return new SmtLibScript(assertions.toString(), status);
+  }
+
+  /** The declarations, definitions and assertions of the script, one command per line. */
+  String getAssertions() {
+    return assertions;
+  }
+
+  /** The value of {@code (set-info :status ...)}, or null if the script does not state it. */
+  @Nullable
+  String getExpectedStatus() {
+    return expectedStatus;
+  }
+
+  /**
+   * Split a script into its top-level commands.
+   * Comments between the commands are removed, string literals and quoted symbols are respected.
+   */
+  static List<String> splitCommands(String script) {
+    ImmutableList.Builder<String> commands = ImmutableList.builder();
+    int depth = 0;
+    int start = -1;
+    for (int i = 0; i < script.length(); i++) {
+      char c = script.charAt(i);
+      switch (c) {
+        case ';':
+          i = skipUntil(script, i, '\n');
+          break;
+        case '"':
+          // a quote inside a string literal is escaped by doubling it,
+          // thus we can treat it as the end and the start of two literals
+          i = skipUntil(script, i, '"');
+          break;
+        case '|':
+          i = skipUntil(script, i, '|');
+          break;
+        case '(':
+          if (depth == 0) {
+            start = i;
+          }
+          depth++;
+          break;
+        case ')':
+          depth--;
+          if (depth < 0) {
+            throw new IllegalArgumentException("Unbalanced parentheses in SMT-LIB script");
+          }
+          if (depth == 0) {
+            commands.add(script.substring(start, i + 1));
+          }
+          break;
+        default:
+          if (depth == 0 && !Character.isWhitespace(c)) {
+            throw new IllegalArgumentException(
+                "Unexpected character '" + c + "' outside of a command in SMT-LIB script");
+          }
+      }
+    }
+    if (depth != 0) {
+      throw new IllegalArgumentException("Unbalanced parentheses in SMT-LIB script");
+    }
+    return commands.build();
+  }
+
+  /** Return the index of the next occurrence of the given character after the position. */
+  private static int skipUntil(String script, int pos, char end) {
+    int next = script.indexOf(end, pos + 1);
+    if (next < 0) {
+      if (end == '\n') {
+        return script.length();
+      }
+      throw new IllegalArgumentException("Unterminated literal in SMT-LIB script");
+    }
+    return next;
+  }
+
+  private static String commandName(String command) {
+    int start = 1;
+    while (start < command.length() && Character.isWhitespace(command.charAt(start))) {
+      start++;
+    }
+    int end = start;
+    while (end < command.length()
+        && !Character.isWhitespace(command.charAt(end))
+        && command.charAt(end) != ')'
+        && command.charAt(end) != '(') {
+      end++;
+    }
+    return command.substring(start, end);
+  }
+}
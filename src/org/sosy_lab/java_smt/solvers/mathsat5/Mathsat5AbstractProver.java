@@ -20,58 +20,130 @@
 package org.sosy_lab.java_smt.solvers.mathsat5;
 
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_check_sat;
-import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_create_config;
-import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_destroy_config;
-import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_destroy_env;
-import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_free_termination_test;
+import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_check_sat_with_assumptions;
+import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_get_asserted_formulas;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_pop_backtrack_point;
-import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_set_option_checked;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
-import org.sosy_lab.java_smt.api.BasicProverEnvironment;
+import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.Model;
 import org.sosy_lab.java_smt.api.Model.ValueAssignment;
+import org.sosy_lab.java_smt.api.ResourceLimitException;
 import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.basicimpl.AbstractProver;
+import org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5SolverContext.PooledEnvironment;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Common base class for {@link Mathsat5TheoremProver}
  * and {@link Mathsat5InterpolatingProver}.
  */
-abstract class Mathsat5AbstractProver<T2> implements BasicProverEnvironment<T2> {
+abstract class Mathsat5AbstractProver<T2> extends AbstractProver<T2> {
 
   protected final Mathsat5SolverContext context;
   protected final long curEnv;
-  private final long curConfig;
-  private final long terminationTest;
+  private final PooledEnvironment pooledEnv;
   protected final Mathsat5FormulaCreator creator;
   protected boolean closed = false;
 
+  private volatile boolean interrupted = false;
+
+  /** Number and total time of the satisfiability checks, cf. {@link #getStatistics()}. */
+  private long satChecks = 0;
+
+  private long satCheckTime = 0;
+
+  /**
+   * @param reusable whether the environment may be reset and reused by a later prover
+   *     with the same options after this prover is closed.
+   */
   protected Mathsat5AbstractProver(
-      Mathsat5SolverContext pContext, Map<String, String> pConfig, Mathsat5FormulaCreator creator) {
+      Mathsat5SolverContext pContext,
+      Map<String, String> pConfig,
+      Mathsat5FormulaCreator creator,
+      boolean reusable) {
     context = pContext;
     this.creator = creator;
-    curConfig = buildConfig(pConfig);
-    curEnv = context.createEnvironment(curConfig);
-    terminationTest = context.addTerminationTest(curEnv);
+    pooledEnv =
+        context.acquireEnvironment(
+            pConfig,
+            () -> {
+              throwIfInterrupted();
+              return isTimeLimitExceeded();
+            },
+            reusable);
+    curEnv = pooledEnv.env;
   }
 
-  private long buildConfig(Map<String, String> pConfig) {
-    long cfg = msat_create_config();
-    for (Entry<String, String> entry : pConfig.entrySet()) {
-      msat_set_option_checked(cfg, entry.getKey(), entry.getValue());
-    }
-    return cfg;
+  @Override
+  public boolean isUnsat() throws InterruptedException, SolverException {
+    Preconditions.checkState(!closed);
+    throwIfInterrupted();
+    return !checkSat();
   }
 
   @Override
-  public boolean isUnsat() throws InterruptedException, SolverException {
+  protected boolean isUnsatWithTimeout(Duration pTimeout)
+      throws InterruptedException, SolverException {
     Preconditions.checkState(!closed);
-    return !msat_check_sat(curEnv);
+    throwIfInterrupted();
+    try {
+      return !checkSat();
+    } catch (IllegalStateException e) {
+      // MathSAT returns "unknown" if the termination test stopped it
+      if (isTimeLimitExceeded()) {
+        throw new ResourceLimitException(
+            "MathSAT exceeded the time limit of " + pTimeout + " for msat_solve", e);
+      }
+      throw e;
+    }
+  }
+
+  /** Run msat_check_sat on the environment and count it for the statistics. */
+  protected final boolean checkSat()
+      throws InterruptedException, IllegalStateException, SolverException {
+    long start = System.nanoTime();
+    try {
+      return msat_check_sat(curEnv);
+    } finally {
+      satChecks++;
+      satCheckTime += System.nanoTime() - start;
+    }
+  }
+
+  /**
+   * Run msat_check_sat_with_assumptions on the environment and count it for the statistics.
+   */
+  protected final boolean checkSatWithAssumptions(Collection<BooleanFormula> assumptions)
+      throws InterruptedException, IllegalStateException, SolverException {
+    long start = System.nanoTime();
+    try {
+      return msat_check_sat_with_assumptions(
+          curEnv, Mathsat5FormulaManager.getMsatTerm(assumptions));
+    } finally {
+      satChecks++;
+      satCheckTime += System.nanoTime() - start;
+    }
+  }
+
+  /** MathSAT calls the termination test of this environment, which checks the flag. */
+  @Override
+  public void interrupt() {
+    interrupted = true;
+  }
+
+  private void throwIfInterrupted() throws InterruptedException {
+    if (interrupted) {
+      interrupted = false;
+      throw new InterruptedException("MathSAT prover was interrupted");
+    }
   }
 
   @Override
@@ -94,6 +166,22 @@ abstract class Mathsat5AbstractProver<T2> implements BasicProverEnvironment<T2>
     return Mathsat5NativeApi.msat_get_model(curEnv);
   }
 
+  /**
+   * MathSAT has no API for its search statistics in the version we use,
+   * so we report what we can count ourselves,
+   * together with the environment counters that are shared by all provers of the context.
+   */
+  @Override
+  public ImmutableMap<String, Object> getStatistics() {
+    Preconditions.checkState(!closed);
+    return ImmutableMap.<String, Object>builder()
+        .put("sat checks", satChecks)
+        .put("sat check time (ms)", TimeUnit.NANOSECONDS.toMillis(satCheckTime))
+        .put("asserted formulas", (long) msat_get_asserted_formulas(curEnv).length)
+        .putAll(context.getEnvironmentStatistics())
+        .build();
+  }
+
   @Override
   public void pop() {
     Preconditions.checkState(!closed);
@@ -103,9 +191,7 @@ abstract class Mathsat5AbstractProver<T2> implements BasicProverEnvironment<T2>
   @Override
   public void close() {
     Preconditions.checkState(!closed);
-    msat_destroy_env(curEnv);
-    msat_free_termination_test(terminationTest);
-    msat_destroy_config(curConfig);
+    context.releaseEnvironment(pooledEnv);
     closed = true;
   }
 }
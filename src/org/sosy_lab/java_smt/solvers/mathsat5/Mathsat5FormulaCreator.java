@@ -67,8 +67,6 @@ import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_type
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Longs;
-import com.google.common.primitives.UnsignedInteger;
-import com.google.common.primitives.UnsignedLong;
 
 import org.sosy_lab.common.rationals.Rational;
 import org.sosy_lab.java_smt.api.ArrayFormula;
@@ -93,14 +91,9 @@ import org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5Formula.Mathsat5RationalFo
 
 import java.math.BigInteger;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 class Mathsat5FormulaCreator extends FormulaCreator<Long, Long, Long, Long> {
 
-  private static final Pattern FLOATING_POINT_PATTERN = Pattern.compile("^(\\d+)_(\\d+)_(\\d+)$");
-  private static final Pattern BITVECTOR_PATTERN = Pattern.compile("^(\\d+)_(\\d+)$");
-
   Mathsat5FormulaCreator(final Long msatEnv) {
     super(
         msatEnv,
@@ -343,9 +336,9 @@ class Mathsat5FormulaCreator extends FormulaCreator<Long, Long, Long, Long> {
     if (type.isBooleanType()) {
       return msat_term_is_true(getEnv(), term);
     } else if (type.isRationalType()) {
-      return Rational.ofString(repr);
+      return parseRational(repr);
     } else if (type.isIntegerType()) {
-      return new BigInteger(repr);
+      return parseBigInteger(repr);
     } else if (type.isBitvectorType()) {
       return parseBitvector(repr);
     } else if (type.isFloatingPointType()) {
@@ -356,39 +349,51 @@ class Mathsat5FormulaCreator extends FormulaCreator<Long, Long, Long, Long> {
     }
   }
 
+  /** Parse a rational number of the format "<NUMERATOR>" or "<NUMERATOR>/<DENOMINATOR>". */
+  private static Rational parseRational(String lTermRepresentation) {
+    int separator = lTermRepresentation.indexOf('/');
+    if (separator < 0) {
+      return Rational.ofBigInteger(parseBigInteger(lTermRepresentation));
+    }
+    return Rational.of(
+        parseBigInteger(lTermRepresentation.substring(0, separator)),
+        parseBigInteger(lTermRepresentation.substring(separator + 1)));
+  }
+
   private Number parseFloatingPoint(String lTermRepresentation) {
 
     // the term is of the format "<VALUE>_<EXPWIDTH>_<MANTWIDTH>"
-    Matcher matcher = FLOATING_POINT_PATTERN.matcher(lTermRepresentation);
-    if (!matcher.matches()) {
+    int mantSeparator = lTermRepresentation.lastIndexOf('_');
+    int expSeparator = lTermRepresentation.lastIndexOf('_', mantSeparator - 1);
+    if (expSeparator <= 0) {
       throw new NumberFormatException("Unknown floating-point format: " + lTermRepresentation);
     }
 
-    int expWidth = Integer.parseInt(matcher.group(2));
-    int mantWidth = Integer.parseInt(matcher.group(3));
+    String bits = lTermRepresentation.substring(0, expSeparator);
+    int expWidth = Integer.parseInt(lTermRepresentation.substring(expSeparator + 1, mantSeparator));
+    int mantWidth = Integer.parseInt(lTermRepresentation.substring(mantSeparator + 1));
 
     if (expWidth == 11 && mantWidth == 52) {
-      return Double.longBitsToDouble(UnsignedLong.valueOf(matcher.group(1)).longValue());
+      return Double.longBitsToDouble(Long.parseUnsignedLong(bits));
     } else if (expWidth == 8 && mantWidth == 23) {
-      return Float.intBitsToFloat(UnsignedInteger.valueOf(matcher.group(1)).intValue());
+      return Float.intBitsToFloat(Integer.parseUnsignedInt(bits));
     }
 
     // TODO to be fully correct, we would need to interpret this string
-    return new BigInteger(matcher.group(1));
+    return parseBigInteger(bits);
   }
 
   //TODO: change this to the latest version
   // (if possible try to use a BitvectorFormula instance here)
   private static BigInteger parseBitvector(String lTermRepresentation) {
     // the term is of the format "<VALUE>_<WIDTH>"
-    Matcher matcher = BITVECTOR_PATTERN.matcher(lTermRepresentation);
-    if (!matcher.matches()) {
+    int separator = lTermRepresentation.indexOf('_');
+    if (separator <= 0) {
       throw new NumberFormatException("Unknown bitvector format: " + lTermRepresentation);
     }
 
     // TODO: calculate negative value?
-    String term = matcher.group(1);
-    return new BigInteger(term);
+    return parseBigInteger(lTermRepresentation.substring(0, separator));
   }
 
   @Override
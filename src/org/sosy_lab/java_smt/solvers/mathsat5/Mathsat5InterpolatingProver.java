@@ -20,7 +20,6 @@
 package org.sosy_lab.java_smt.solvers.mathsat5;
 
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_assert_formula;
-import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_check_sat_with_assumptions;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_create_itp_group;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_get_interpolant;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_get_model;
@@ -58,7 +57,7 @@ class Mathsat5InterpolatingProver extends Mathsat5AbstractProver<Integer>
           "arr: proof splitting not supported");
 
   Mathsat5InterpolatingProver(Mathsat5SolverContext pMgr, Mathsat5FormulaCreator creator) {
-    super(pMgr, createConfig(), creator);
+    super(pMgr, createConfig(), creator, true);
   }
 
   private static Map<String, String> createConfig() {
@@ -89,8 +88,7 @@ class Mathsat5InterpolatingProver extends Mathsat5AbstractProver<Integer>
   public boolean isUnsatWithAssumptions(Collection<BooleanFormula> pAssumptions)
       throws SolverException, InterruptedException {
     Preconditions.checkState(!closed);
-    return !msat_check_sat_with_assumptions(
-        curEnv, Mathsat5FormulaManager.getMsatTerm(pAssumptions));
+    return !checkSatWithAssumptions(pAssumptions);
   }
 
   @Override
@@ -31,9 +31,12 @@ import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_term
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_term_get_arg;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_term_get_type;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_term_is_array_write;
+import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_term_repr;
 
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableList.Builder;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 
 import org.sosy_lab.java_smt.api.Formula;
@@ -42,14 +45,23 @@ import org.sosy_lab.java_smt.basicimpl.AbstractModel.CachingAbstractModel;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.OptionalLong;
+import java.util.Set;
 
 class Mathsat5Model extends CachingAbstractModel<Long, Long, Long> {
 
   private final long model;
   private final Mathsat5FormulaCreator formulaCreator;
 
+  /** native iterators of unfinished iterations, they are destroyed together with the model. */
+  private final Set<Long> openIterators = new HashSet<>();
+
+  private boolean closed = false;
+
   Mathsat5Model(long model, Mathsat5FormulaCreator creator) {
     super(creator);
     this.model = model;
@@ -63,25 +75,67 @@ class Mathsat5Model extends CachingAbstractModel<Long, Long, Long> {
   }
 
   @Override
-  protected ImmutableList<ValueAssignment> modelToList() {
-    Builder<ValueAssignment> assignments = ImmutableList.builder();
-
-    long modelIterator = msat_model_create_iterator(model);
-    while (msat_model_iterator_has_next(modelIterator)) {
-      long[] key = new long[1];
-      long[] value = new long[1];
-      if (msat_model_iterator_next(modelIterator, key, value)) {
-        throw new NoSuchElementException();
-      }
-
-      if (msat_is_array_type(creator.getEnv(), msat_term_get_type(value[0]))) {
-        assignments.addAll(getArrayAssignments(key[0], key[0], value[0], Collections.emptyList()));
+  protected OptionalLong evaluateLongImpl(Long f, boolean isBitvector) {
+    // integers are represented as "<VALUE>", bitvectors as "<VALUE>_<WIDTH>"
+    String repr = msat_term_repr(msat_model_eval(model, f));
+    try {
+      if (isBitvector) {
+        int separator = repr.indexOf('_');
+        if (separator > 0) {
+          return OptionalLong.of(Long.parseUnsignedLong(repr.substring(0, separator)));
+        }
       } else {
-        assignments.add(getAssignment(key[0], value[0]));
+        return OptionalLong.of(Long.parseLong(repr));
       }
+    } catch (NumberFormatException e) {
+      // the value is too large or has an unexpected format, let the slow path handle it
     }
-    msat_destroy_model_iterator(modelIterator);
-    return assignments.build();
+    return super.evaluateLongImpl(f, isBitvector);
+  }
+
+  @Override
+  protected ImmutableList<ValueAssignment> modelToList() {
+    return ImmutableList.copyOf(modelIterator());
+  }
+
+  /**
+   * Walk the native model iterator and convert one entry at a time.
+   * The native iterator is destroyed when it is exhausted or when the model is closed,
+   * afterwards the iteration can not be continued.
+   */
+  @Override
+  protected Iterator<ValueAssignment> modelIterator() {
+    final long modelIterator = msat_model_create_iterator(model);
+    openIterators.add(modelIterator);
+    return new AbstractIterator<ValueAssignment>() {
+
+      private final long[] key = new long[1];
+      private final long[] value = new long[1];
+      private Iterator<ValueAssignment> current = Collections.emptyIterator();
+
+      @Override
+      protected ValueAssignment computeNext() {
+        Preconditions.checkState(!closed, "Model is closed, cannot continue iteration");
+        while (!current.hasNext()) {
+          if (!msat_model_iterator_has_next(modelIterator)) {
+            openIterators.remove(modelIterator);
+            msat_destroy_model_iterator(modelIterator);
+            return endOfData();
+          }
+          if (msat_model_iterator_next(modelIterator, key, value)) {
+            throw new NoSuchElementException();
+          }
+
+          if (msat_is_array_type(creator.getEnv(), msat_term_get_type(value[0]))) {
+            current =
+                getArrayAssignments(key[0], key[0], value[0], Collections.emptyList()).iterator();
+          } else {
+            current = Iterators.singletonIterator(getAssignment(key[0], value[0]));
+          }
+        }
+        return current.next();
+      }
+    };
   }
 
   private ValueAssignment getAssignment(long key, long value) {
@@ -124,6 +178,11 @@ class Mathsat5Model extends CachingAbstractModel<Long, Long, Long> {
 
   @Override
   public void close() {
+    for (long modelIterator : openIterators) {
+      msat_destroy_model_iterator(modelIterator);
+    }
+    openIterators.clear();
     msat_destroy_model(model);
+    closed = true;
   }
 }
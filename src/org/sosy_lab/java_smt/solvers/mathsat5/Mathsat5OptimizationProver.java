@@ -23,7 +23,6 @@ package org.sosy_lab.java_smt.solvers.mathsat5;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5FormulaManager.getMsatTerm;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.MSAT_OPTIMUM;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_assert_formula;
-import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_check_sat;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_create_objective_iterator;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_destroy_objective_iterator;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_objective_iterator_has_next;
@@ -78,7 +77,8 @@ class Mathsat5OptimizationProver extends Mathsat5AbstractProver<Void>
   private final Deque<ImmutableMap<Integer, Integer>> stack;
 
   Mathsat5OptimizationProver(Mathsat5SolverContext pMgr, Mathsat5FormulaCreator creator) {
-    super(pMgr, createConfig(), creator);
+    // objectives are not reset together with the assertions, thus no reuse
+    super(pMgr, createConfig(), creator, false);
     objectiveMap = new HashMap<>();
     stack = new ArrayDeque<>();
   }
@@ -113,7 +113,7 @@ class Mathsat5OptimizationProver extends Mathsat5AbstractProver<Void>
 
   @Override
   public OptStatus check() throws InterruptedException, SolverException {
-    boolean out = msat_check_sat(curEnv);
+    boolean out = checkSat();
     if (out) {
       if (!objectiveMap.isEmpty()) {
         objectives = new ArrayList<>();
@@ -25,7 +25,9 @@ import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_crea
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_create_shared_env;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_destroy_config;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_destroy_env;
+import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_free_termination_test;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_get_version;
+import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_reset_env;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_set_option_checked;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_set_termination_test;
 
@@ -36,6 +38,7 @@ import com.google.common.collect.ImmutableMap;
 import org.sosy_lab.common.NativeLibraries;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -52,6 +55,10 @@ import org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.TerminationTest;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.logging.Level;
@@ -74,6 +81,15 @@ public final class Mathsat5SolverContext extends AbstractSolverContext {
     @Option(secure = true, description = "Load less stable optimizing version of mathsat5 solver.")
     boolean loadOptimathsat5 = false;
 
+    @Option(
+      secure = true,
+      description =
+          "Maximal number of environments of closed provers that are kept for each combination "
+              + "of prover options and reused by new provers, 0 disables the reuse."
+    )
+    @IntegerOption(min = 0)
+    int environmentPoolSize = 4;
+
     private final @Nullable PathCounterTemplate logfile;
 
     private final ImmutableMap<String, String> furtherOptionsMap;
@@ -110,6 +126,13 @@ public final class Mathsat5SolverContext extends AbstractSolverContext {
   private final TerminationTest terminationTest;
   private final Mathsat5FormulaCreator creator;
 
+  /** Environments of closed provers, reset and ready for reuse, grouped by their options. */
+  private final Map<Map<String, String>, Deque<PooledEnvironment>> environmentPool =
+      new HashMap<>();
+
+  private long createdEnvironments = 0;
+  private long reusedEnvironments = 0;
+
   private static boolean loaded = false;
 
   @SuppressWarnings("checkstyle:parameternumber")
@@ -206,7 +229,93 @@ public final class Mathsat5SolverContext extends AbstractSolverContext {
         logger, msatConf, settings, randomSeed, pShutdownNotifier, manager, creator);
   }
 
-  long createEnvironment(long cfg) {
+  /**
+   * Get an environment for a prover with the given options,
+   * either a reset environment of a closed prover or a new one.
+   * MathSAT is stopped during checks of the environment
+   * on a shutdown request or if the given test says so.
+   *
+   * @param reusable whether the environment may be reused after {@link #releaseEnvironment}.
+   */
+  synchronized PooledEnvironment acquireEnvironment(
+      Map<String, String> options, TerminationTest proverTest, boolean reusable) {
+    Deque<PooledEnvironment> pool = environmentPool.get(options);
+    PooledEnvironment result;
+    if (reusable && pool != null && !pool.isEmpty()) {
+      result = pool.pop();
+      reusedEnvironments++;
+    } else {
+      result = new PooledEnvironment(options, reusable && settings.logfile == null);
+      createdEnvironments++;
+    }
+    result.proverTest = proverTest;
+    return result;
+  }
+
+  /**
+   * Give back the environment of a closed prover,
+   * which is then either reset and kept for reuse, or destroyed.
+   */
+  synchronized void releaseEnvironment(PooledEnvironment env) {
+    env.proverTest = NO_TERMINATION;
+    Deque<PooledEnvironment> pool =
+        environmentPool.computeIfAbsent(env.options, k -> new ArrayDeque<>());
+    if (env.reusable
+        && pool.size() < settings.environmentPoolSize
+        && !shutdownNotifier.shouldShutdown()) {
+      msat_reset_env(env.env);
+      pool.push(env);
+    } else {
+      env.destroy();
+    }
+  }
+
+  /**
+   * The number of environments created for provers and of reused environments of closed provers,
+   * part of the statistics of each prover.
+   */
+  synchronized ImmutableMap<String, Object> getEnvironmentStatistics() {
+    return ImmutableMap.of(
+        "created environments", createdEnvironments,
+        "reused environments", reusedEnvironments);
+  }
+
+  private static final TerminationTest NO_TERMINATION = () -> false;
+
+  /**
+   * The environment of a prover together with its configuration and termination test,
+   * which delegates to the prover that currently uses the environment.
+   */
+  final class PooledEnvironment {
+
+    final long env;
+    private final long config;
+    private final long terminationTestHandle;
+    private final Map<String, String> options;
+    private final boolean reusable;
+    private volatile TerminationTest proverTest = NO_TERMINATION;
+
+    private PooledEnvironment(Map<String, String> pOptions, boolean pReusable) {
+      options = ImmutableMap.copyOf(pOptions);
+      reusable = pReusable;
+      config = msat_create_config();
+      for (Entry<String, String> entry : options.entrySet()) {
+        msat_set_option_checked(config, entry.getKey(), entry.getValue());
+      }
+      env = createEnvironment(config);
+      terminationTestHandle =
+          msat_set_termination_test(
+              env, () -> terminationTest.shouldTerminate() || proverTest.shouldTerminate());
+    }
+
+    private void destroy() {
+      msat_destroy_env(env);
+      msat_free_termination_test(terminationTestHandle);
+      msat_destroy_config(config);
+    }
+  }
+
+  private long createEnvironment(long cfg) {
     if (USE_GHOST_FILTER) {
       msat_set_option_checked(cfg, "dpll.ghost_filtering", "true");
     }
@@ -272,15 +381,22 @@ public final class Mathsat5SolverContext extends AbstractSolverContext {
 
   @Override
   public void close() {
+    logger.log(
+        Level.FINE,
+        "MathSAT created",
+        createdEnvironments,
+        "prover environments and reused",
+        reusedEnvironments,
+        "environments of closed provers");
     logger.log(Level.FINER, "Freeing Mathsat environment");
+    synchronized (this) {
+      environmentPool.values().forEach(pool -> pool.forEach(PooledEnvironment::destroy));
+      environmentPool.clear();
+    }
     msat_destroy_env(creator.getEnv());
     msat_destroy_config(mathsatConfig);
   }
 
-  long addTerminationTest(long env) {
-    return msat_set_termination_test(env, terminationTest);
-  }
-
   @Override
   protected boolean supportsAssumptionSolving() {
     return true;
@@ -22,10 +22,12 @@ package org.sosy_lab.java_smt.solvers.mathsat5;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5FormulaManager.getMsatTerm;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_all_sat;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_assert_formula;
-import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_check_sat_with_assumptions;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_get_unsat_core;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_last_error_message;
+import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_make_not;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_push_backtrack_point;
+import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_term_get_arg;
+import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_term_is_not;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
@@ -35,11 +37,14 @@ import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.ProverEnvironment;
 import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
 import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.basicimpl.ListAllSatCallback;
 import org.sosy_lab.java_smt.basicimpl.LongArrayBackedList;
 import org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.AllSatModelCallback;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -57,7 +62,7 @@ class Mathsat5TheoremProver extends Mathsat5AbstractProver<Void> implements Prov
       Mathsat5FormulaCreator creator,
       Set<ProverOptions> options) {
 
-    super(pMgr, createConfig(options), creator);
+    super(pMgr, createConfig(options), creator, true);
     shutdownNotifier = pShutdownNotifier;
   }
 
@@ -102,12 +107,28 @@ class Mathsat5TheoremProver extends Mathsat5AbstractProver<Void> implements Prov
   public <T> T allSat(AllSatCallback<T> callback, List<BooleanFormula> important)
       throws InterruptedException, SolverException {
     Preconditions.checkState(!closed);
-    long[] imp = new long[important.size()];
-    int i = 0;
-    for (BooleanFormula impF : important) {
-      imp[i++] = getMsatTerm(impF);
-    }
-    MathsatAllSatCallback<T> uCallback = new MathsatAllSatCallback<>(callback);
+    long[] imp = getMsatTerm(important);
+    ListAllSatCallback<T> listCallback =
+        new ListAllSatCallback<>(
+            callback,
+            important,
+            f -> creator.encapsulateBoolean(msat_make_not(curEnv, getMsatTerm(f))));
+    runAllSat(imp, new MathsatAllSatCallback(listCallback, imp, callback));
+    return callback.getResult();
+  }
+
+  @Override
+  public <T> T allSatPolarities(
+      AllSatPolarityCallback<T> callback, List<BooleanFormula> important)
+      throws InterruptedException, SolverException {
+    Preconditions.checkState(!closed);
+    long[] imp = getMsatTerm(important);
+    runAllSat(imp, new MathsatAllSatCallback(callback, imp, null));
+    return callback.getResult();
+  }
+
+  private void runAllSat(long[] imp, MathsatAllSatCallback uCallback)
+      throws InterruptedException, SolverException {
     push();
     int numModels = msat_all_sat(curEnv, imp, uCallback);
     pop();
@@ -122,26 +143,107 @@ class Mathsat5TheoremProver extends Mathsat5AbstractProver<Void> implements Prov
       // models, which is probably not what we want.
       throw new UnsupportedOperationException("allSat for trivially tautological formula");
     }
-    return callback.getResult();
   }
 
-  class MathsatAllSatCallback<T> implements AllSatModelCallback {
-    private final AllSatCallback<T> clientCallback;
+  /**
+   * Translates the literals of each model of MathSAT into the polarity bitsets
+   * of {@link AllSatPolarityCallback}, which are reused for all models.
+   * A model with a literal that does not belong to any important term
+   * is passed as it is to the given {@link AllSatCallback}, if there is one,
+   * otherwise such literals are left unassigned.
+   */
+  private class MathsatAllSatCallback implements AllSatModelCallback {
+    private final AllSatPolarityCallback<?> clientCallback;
+    private final @Nullable AllSatCallback<?> literalCallback;
+    private final long[] important;
+    private final BitSet values;
+    private final BitSet assigned;
+
+    /**
+     * Index {@code i} of each important term and {@code ~i} for the atom of a negated
+     * important term, only needed if MathSAT changes the order or polarity of literals.
+     */
+    private @Nullable Map<Long, Integer> indices = null;
 
-    MathsatAllSatCallback(AllSatCallback<T> pClientCallback) {
+    MathsatAllSatCallback(
+        AllSatPolarityCallback<?> pClientCallback,
+        long[] pImportant,
+        @Nullable AllSatCallback<?> pLiteralCallback) {
       clientCallback = pClientCallback;
+      literalCallback = pLiteralCallback;
+      important = pImportant;
+      values = new BitSet(pImportant.length);
+      assigned = new BitSet(pImportant.length);
     }
 
     @Override
     public void callback(long[] model) throws InterruptedException {
       shutdownNotifier.shutdownIfNecessary();
-      clientCallback.apply(
-          new LongArrayBackedList<BooleanFormula>(model) {
-            @Override
-            protected BooleanFormula convert(long pE) {
-              return creator.encapsulateBoolean(pE);
-            }
-          });
+      values.clear();
+      assigned.clear();
+      for (int i = 0; i < model.length; i++) {
+        long literal = model[i];
+        // MathSAT usually reports the literals in the order of the important terms
+        if (i < important.length && literal == important[i]) {
+          assign(i, true);
+        } else if (!assignLiteral(i, literal) && literalCallback != null) {
+          literalCallback.apply(
+              new LongArrayBackedList<BooleanFormula>(model) {
+                @Override
+                protected BooleanFormula convert(long pE) {
+                  return creator.encapsulateBoolean(pE);
+                }
+              });
+          return;
+        }
+      }
+      clientCallback.apply(values, assigned);
+    }
+
+    /** Returns false if the literal does not belong to any important term. */
+    private boolean assignLiteral(int position, long literal) {
+      boolean isNegated = msat_term_is_not(curEnv, literal);
+      long atom = isNegated ? msat_term_get_arg(literal, 0) : literal;
+      if (isNegated && position < important.length && atom == important[position]) {
+        assign(position, false);
+        return true;
+      }
+      Integer index = getIndices().get(literal);
+      if (index == null && isNegated) {
+        index = getIndices().get(atom);
+        if (index != null) {
+          index = ~index;
+        }
+      }
+      if (index == null) {
+        return false;
+      }
+      if (index >= 0) {
+        assign(index, true);
+      } else {
+        assign(~index, false);
+      }
+      return true;
+    }
+
+    private void assign(int index, boolean value) {
+      assigned.set(index);
+      values.set(index, value);
+    }
+
+    private Map<Long, Integer> getIndices() {
+      if (indices == null) {
+        indices = new HashMap<>();
+        for (int i = 0; i < important.length; i++) {
+          indices.putIfAbsent(important[i], i);
+        }
+        for (int i = 0; i < important.length; i++) {
+          if (msat_term_is_not(curEnv, important[i])) {
+            indices.putIfAbsent(msat_term_get_arg(important[i], 0), ~i);
+          }
+        }
+      }
+      return indices;
     }
   }
 
@@ -149,8 +251,7 @@ class Mathsat5TheoremProver extends Mathsat5AbstractProver<Void> implements Prov
   public boolean isUnsatWithAssumptions(Collection<BooleanFormula> assumptions)
       throws SolverException, InterruptedException {
     Preconditions.checkState(!closed);
-    return !msat_check_sat_with_assumptions(
-        curEnv, Mathsat5FormulaManager.getMsatTerm(assumptions));
+    return !checkSatWithAssumptions(assumptions);
   }
 
   @Override
@@ -20,43 +20,79 @@
 package org.sosy_lab.java_smt.solvers.princess;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static scala.collection.JavaConversions.iterableAsScalaIterable;
 
 import ap.SimpleAPI;
+import ap.parser.IAtom;
+import ap.parser.IConstant;
 import ap.parser.IExpression;
 import ap.parser.IFormula;
+import ap.parser.IFunApp;
 import ap.parser.IFunction;
-import ap.parser.ITerm;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 
 import org.sosy_lab.common.ShutdownNotifier;
-import org.sosy_lab.java_smt.api.BasicProverEnvironment;
+import org.sosy_lab.common.ShutdownNotifier.ShutdownRequestListener;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.Model.ValueAssignment;
+import org.sosy_lab.java_smt.api.ResourceLimitException;
 import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.basicimpl.AbstractProver;
 
 import scala.Enumeration.Value;
 
+import java.time.Duration;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
-abstract class PrincessAbstractProver<E, AF> implements BasicProverEnvironment<E> {
+import javax.annotation.Nullable;
+
+abstract class PrincessAbstractProver<E, AF> extends AbstractProver<E> {
 
   protected final SimpleAPI api;
   protected final PrincessFormulaManager mgr;
   protected final Deque<List<AF>> assertedFormulas = new ArrayDeque<>(); // all terms on all levels
-  private final Deque<Level> trackingStack = new ArrayDeque<>(); // symbols on all levels
+
+  /**
+   * The symbols that are declared in the API (as Predicate, ConstantTerm or IFunction),
+   * shared with the environment because the API (and its declarations) may be reused.
+   * Symbols are declared lazily when a formula containing them is asserted,
+   * cf. {@link #declareSymbols(IExpression)}.
+   */
+  private final Set<Object> declaredSymbols;
+
+  /** The symbols declared on each level, Princess forgets them when the level is popped. */
+  private final Deque<List<Object>> trackingStack = new ArrayDeque<>();
   protected final ShutdownNotifier shutdownNotifier;
 
   protected final PrincessFormulaCreator creator;
   protected boolean closed = false;
   protected boolean wasLastSatCheckSat = false; // and stack is not changed
 
+  private volatile boolean interrupted = false;
+
+  /**
+   * The thread that waits for the result of the running check, or null.
+   * It is woken up by {@link #interrupt()} and by shutdown requests, cf. {@link #wakeUp()}.
+   * Guarded by this prover.
+   */
+  private @Nullable Thread waitingThread = null;
+
+  /**
+   * Whether {@link #wakeUp()} interrupted the waiting thread and the interrupt was not yet
+   * consumed by an {@link InterruptedException}. Guarded by this prover.
+   */
+  private boolean wokenUp = false;
+
+  private final ShutdownRequestListener wakeUpListener = reason -> wakeUp();
+
   protected PrincessAbstractProver(
       PrincessFormulaManager pMgr,
       PrincessFormulaCreator creator,
@@ -66,16 +102,123 @@ abstract class PrincessAbstractProver<E, AF> implements BasicProverEnvironment<E
     this.creator = creator;
     this.api = checkNotNull(pApi);
     this.shutdownNotifier = checkNotNull(pShutdownNotifier);
+    this.declaredSymbols = creator.getEnv().getDeclaredSymbols(pApi);
   }
 
   /** This function causes the SatSolver to check all the terms on the stack,
    * if their conjunction is SAT or UNSAT.
    */
   @Override
-  public boolean isUnsat() throws SolverException {
+  public boolean isUnsat() throws SolverException, InterruptedException {
+    Preconditions.checkState(!closed);
+    wasLastSatCheckSat = false;
+    return isUnsat(checkSat(Long.MAX_VALUE));
+  }
+
+  @Override
+  protected boolean isUnsatWithTimeout(Duration pTimeout)
+      throws SolverException, InterruptedException {
     Preconditions.checkState(!closed);
     wasLastSatCheckSat = false;
-    final Value result = api.checkSat(true);
+    Value result = checkSat(pTimeout.toNanos());
+    if (result.equals(SimpleAPI.ProverStatus$.MODULE$.Unknown())
+        || result.equals(SimpleAPI.ProverStatus$.MODULE$.Running())) {
+      throw new ResourceLimitException(
+          "Princess exceeded the time limit of " + pTimeout + " for checkSat");
+    }
+    return isUnsat(result);
+  }
+
+  /**
+   * Princess can not be interrupted from another thread, thus we start the check
+   * in the background and wait for its result in the current thread.
+   * The waiting thread is woken up by {@link #interrupt()} and by shutdown requests,
+   * and then stops Princess. Waiting does not poll, and a check without timeout
+   * that is not interrupted just blocks until Princess is finished.
+   * Stopping keeps the assertions of the prover, such that it can be used for further queries.
+   * Like other blocking methods, the check is also stopped if the calling thread itself
+   * is interrupted. Only the interrupts of the wake-up are cleared afterwards.
+   *
+   * @param timeoutNanos the time limit, or {@link Long#MAX_VALUE} for no time limit.
+   * @return the status of Princess, which is Unknown or Running if it had to be stopped.
+   */
+  private Value checkSat(long timeoutNanos) throws InterruptedException {
+    throwIfInterrupted();
+    shutdownNotifier.shutdownIfNecessary();
+    long start = System.nanoTime();
+    synchronized (this) {
+      waitingThread = Thread.currentThread();
+    }
+    shutdownNotifier.register(wakeUpListener);
+    try {
+      api.checkSat(false);
+      while (true) {
+        Value result;
+        try {
+          if (timeoutNanos == Long.MAX_VALUE) {
+            result = api.getStatus(true);
+          } else {
+            long remaining = timeoutNanos - (System.nanoTime() - start);
+            if (remaining <= 0) {
+              // the result is still available if Princess finished in the meantime
+              return api.stop();
+            }
+            result = api.getStatus(Math.max(1, remaining / 1000000));
+          }
+        } catch (Exception e) {
+          // Scala does not declare the InterruptedException from waiting for the result
+          if (!(e instanceof InterruptedException)) {
+            throw e;
+          }
+          synchronized (this) {
+            wokenUp = false; // the exception consumed the interrupt
+          }
+          api.stop();
+          throwIfInterrupted();
+          shutdownNotifier.shutdownIfNecessary();
+          throw (InterruptedException) e;
+        }
+        if (!result.equals(SimpleAPI.ProverStatus$.MODULE$.Running())) {
+          return result;
+        }
+      }
+    } finally {
+      shutdownNotifier.unregister(wakeUpListener);
+      synchronized (this) {
+        waitingThread = null;
+        if (wokenUp) {
+          // Clear a wake-up that arrived after the result, the flag of the prover remains set.
+          // Other interrupts of the calling thread are kept, unless they arrived together
+          // with the wake-up, because a thread has only one interrupt flag.
+          Thread.interrupted();
+          wokenUp = false;
+        }
+      }
+    }
+  }
+
+  /** Wake up the thread that waits for a running check, if there is one. */
+  private synchronized void wakeUp() {
+    if (waitingThread != null) {
+      wokenUp = true;
+      waitingThread.interrupt();
+    }
+  }
+
+  @Override
+  public void interrupt() {
+    interrupted = true;
+    wakeUp();
+  }
+
+  private void throwIfInterrupted() throws InterruptedException {
+    if (interrupted) {
+      interrupted = false;
+      throw new InterruptedException("Princess prover was interrupted");
+    }
+  }
+
+  private boolean isUnsat(Value result) throws SolverException {
     if (result.equals(SimpleAPI.ProverStatus$.MODULE$.Sat())) {
       wasLastSatCheckSat = true;
       return false;
@@ -92,16 +235,67 @@ abstract class PrincessAbstractProver<E, AF> implements BasicProverEnvironment<E
   protected void addConstraint0(IFormula t) {
     Preconditions.checkState(!closed);
     wasLastSatCheckSat = false;
+    declareSymbols(t);
     api.addAssertion(api.abbrevSharedExpressions(t, creator.getEnv().getMinAtomsForAbbreviation()));
   }
 
+  /**
+   * Declare all symbols of the given expression in the API that are not yet declared.
+   * This avoids copying all symbols of the environment into each new API
+   * and re-declaring all symbols of a level when it is popped.
+   */
+  protected void declareSymbols(IExpression e) {
+    // shared subterms are visited only once, the identity is cheaper than structural hashing
+    Set<IExpression> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    Deque<IExpression> waitlist = new ArrayDeque<>();
+    waitlist.push(e);
+    while (!waitlist.isEmpty()) {
+      IExpression current = waitlist.pop();
+      if (!visited.add(current)) {
+        continue;
+      }
+      if (current instanceof IConstant) {
+        if (declaredSymbols.add(((IConstant) current).c())) {
+          api.addConstant((IConstant) current);
+          trackDeclaration(((IConstant) current).c());
+        }
+      } else if (current instanceof IAtom && current.length() == 0) {
+        if (declaredSymbols.add(((IAtom) current).pred())) {
+          api.addBooleanVariable((IAtom) current);
+          trackDeclaration(((IAtom) current).pred());
+        }
+      } else if (current instanceof IFunApp && isUninterpreted(((IFunApp) current).fun())) {
+        IFunction fun = ((IFunApp) current).fun();
+        if (declaredSymbols.add(fun)) {
+          api.addFunction(fun);
+          trackDeclaration(fun);
+        }
+      }
+      for (int i = 0; i < current.length(); i++) {
+        waitlist.push(current.apply(i));
+      }
+    }
+  }
+
+  /** Select and store are part of the array theory and known to every API. */
+  private static boolean isUninterpreted(IFunction fun) {
+    return !fun.name().equals("select") && !fun.name().equals("store");
+  }
+
+  private void trackDeclaration(Object symbol) {
+    // symbols declared on the lowest level stay in the API
+    if (!trackingStack.isEmpty()) {
+      trackingStack.peek().add(symbol);
+    }
+  }
+
   @Override
   public final void push() {
     Preconditions.checkState(!closed);
     wasLastSatCheckSat = false;
     assertedFormulas.push(new ArrayList<>());
     api.push();
-    trackingStack.push(new Level());
+    trackingStack.push(new ArrayList<>());
   }
 
   @Override
@@ -111,13 +305,10 @@ abstract class PrincessAbstractProver<E, AF> implements BasicProverEnvironment<E
     assertedFormulas.pop();
     api.pop();
 
-    // we have to recreate symbols on lower levels, because JavaSMT assumes "global" symbols.
-    Level level = trackingStack.pop();
-    api.addBooleanVariables(iterableAsScalaIterable(level.booleanSymbols));
-    api.addConstants(iterableAsScalaIterable(level.intSymbols));
-    level.functionSymbols.forEach(api::addFunction);
-    if (!trackingStack.isEmpty()) {
-      trackingStack.peek().mergeWithHigher(level);
+    // Princess forgets the symbols of the popped level,
+    // they are declared again as soon as a formula needs them.
+    for (Object symbol : trackingStack.pop()) {
+      declaredSymbols.remove(symbol);
     }
   }
 
@@ -158,7 +349,7 @@ abstract class PrincessAbstractProver<E, AF> implements BasicProverEnvironment<E
         creator.getEnv().removeStack(this, api);
         api.shutDown();
       } else {
-        for (int i = 0; i < trackingStack.size(); i++) {
+        while (!trackingStack.isEmpty()) {
           pop();
         }
         creator.getEnv().unregisterStack(this, api);
@@ -166,41 +357,4 @@ abstract class PrincessAbstractProver<E, AF> implements BasicProverEnvironment<E
     }
     closed = true;
   }
-
-  /** add external definition: boolean variable. */
-  void addSymbol(IFormula f) {
-    Preconditions.checkState(!closed);
-    if (!trackingStack.isEmpty()) {
-      trackingStack.getLast().booleanSymbols.add(f);
-    }
-  }
-
-  /** add external definition: integer variable. */
-  void addSymbol(ITerm f) {
-    Preconditions.checkState(!closed);
-    if (!trackingStack.isEmpty()) {
-      trackingStack.getLast().intSymbols.add(f);
-    }
-  }
-
-  /** add external definition: uninterpreted function. */
-  void addSymbol(IFunction f) {
-    Preconditions.checkState(!closed);
-    if (!trackingStack.isEmpty()) {
-      trackingStack.getLast().functionSymbols.add(f);
-    }
-  }
-
-  private static class Level {
-    List<IFormula> booleanSymbols = new ArrayList<>();
-    List<ITerm> intSymbols = new ArrayList<>();
-    List<IFunction> functionSymbols = new ArrayList<>();
-
-    /**  add higher level to current level, we keep the order of creating symbols. */
-    void mergeWithHigher(Level other) {
-      this.booleanSymbols.addAll(other.booleanSymbols);
-      this.intSymbols.addAll(other.intSymbols);
-      this.functionSymbols.addAll(other.functionSymbols);
-    }
-  }
 }
@@ -78,12 +78,21 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 import javax.annotation.Nullable;
 
 /** This is a Wrapper around Princess.
  * This Wrapper allows to set a logfile for all Smt-Queries (default "princess.###.smt2").
- * It also manages the "shared variables": each variable is declared for all stacks.
+ * It also manages the "shared variables": each variable is available for all stacks,
+ * the provers declare it in their API as soon as they need it.
+ *
+ * <p>Princess formulas are immutable, thus this environment is thread-safe:
+ * formulas can be created from several threads and provers can be used in parallel
+ * (each prover from one thread at a time).
+ * All operations on the first API are synchronized on it,
+ * the registration of provers is synchronized on this environment.
  */
 @Options(prefix = "solver.princess")
 class PrincessEnvironment {
@@ -99,11 +108,10 @@ class PrincessEnvironment {
   @Option(
     secure = true,
     description =
-        "Princess needs to copy all symbols for each new prover. "
+        "Princess needs to declare the used symbols for each new prover. "
             + "This flag allows to reuse old unused provers and avoid the overhead."
   )
-  // TODO someone should measure the overhead, perhaps it is negligible.
-
+  // cf. ProverBenchmark for measuring the overhead
   private boolean reuseProvers = true;
 
   @Option(secure = true, description = "log all queries as Princess-specific Scala code")
@@ -116,12 +124,13 @@ class PrincessEnvironment {
 
   /** cache for variables, because they do not implement equals() and hashCode(),
    * so we need to have the same objects. */
-  private final Map<String, IFormula> boolVariablesCache = new HashMap<>();
-  private final Map<String, ITerm> intVariablesCache = new HashMap<>();
-  private final Map<String, ITerm> arrayVariablesCache = new HashMap<>();
+  private final Map<String, IFormula> boolVariablesCache = new ConcurrentHashMap<>();
+  private final Map<String, ITerm> intVariablesCache = new ConcurrentHashMap<>();
+  private final Map<String, ITerm> arrayVariablesCache = new ConcurrentHashMap<>();
 
-  private final Map<String, IFunction> functionsCache = new HashMap<>();
-  private final Map<IFunction, PrincessTermType> functionsReturnTypes = new HashMap<>();
+  private final Map<String, IFunction> functionsCache = new ConcurrentHashMap<>();
+  private final Map<IFunction, PrincessTermType> functionsReturnTypes =
+      new ConcurrentHashMap<>();
 
   private final @Nullable PathCounterTemplate basicLogfile;
   private final ShutdownNotifier shutdownNotifier;
@@ -129,13 +138,17 @@ class PrincessEnvironment {
   /** The wrapped API is the first created API.
    * It will never be used outside of this class and never be closed.
    * If a variable is declared, it is declared in the first api,
-   * then copied into all registered APIs. Each API has its own stack for formulas. */
+   * other APIs declare it lazily when it is used in one of their formulas.
+   * Each API has its own stack for formulas. */
   private final SimpleAPI api;
   private final List<PrincessAbstractProver<?, ?>> registeredProvers =
       new ArrayList<>(); // where an API is used
   private final List<SimpleAPI> reusableAPIs = new ArrayList<>();
   private final Map<SimpleAPI, Boolean> allAPIs = new LinkedHashMap<>();
 
+  /** The symbols declared in each API, cf. {@link PrincessAbstractProver#declareSymbols}. */
+  private final Map<SimpleAPI, Set<Object>> declaredSymbols = new HashMap<>();
+
   PrincessEnvironment(
       Configuration config,
       @Nullable final PathCounterTemplate pBasicLogfile,
@@ -151,7 +164,7 @@ class PrincessEnvironment {
 
   /** This method returns a new prover, that is registered in this environment.
    * All variables are shared in all registered APIs. */
-  PrincessAbstractProver<?, ?> getNewProver(
+  synchronized PrincessAbstractProver<?, ?> getNewProver(
       boolean useForInterpolation, PrincessFormulaManager mgr, PrincessFormulaCreator creator) {
 
     SimpleAPI newApi = null;
@@ -167,15 +180,10 @@ class PrincessEnvironment {
       }
     }
     if (newApi == null) {
-      // if not we have to create a new one
+      // if not we have to create a new one, symbols are declared by the prover when needed
       newApi = getNewApi(useForInterpolation);
-
-      // add all symbols, that are available until now
-      boolVariablesCache.values().forEach(newApi::addBooleanVariable);
-      intVariablesCache.values().forEach(newApi::addConstant);
-      arrayVariablesCache.values().forEach(newApi::addConstant);
-      functionsCache.values().forEach(newApi::addFunction);
       allAPIs.put(newApi, useForInterpolation);
+      declaredSymbols.put(newApi, new HashSet<>());
     }
 
     PrincessAbstractProver<?, ?> prover;
@@ -246,20 +254,27 @@ class PrincessEnvironment {
     return minAtomsForAbbreviation;
   }
 
-  void unregisterStack(PrincessAbstractProver<?, ?> stack, SimpleAPI usedAPI) {
+  /** Returns the (mutable) set of symbols that are declared in the given API. */
+  synchronized Set<Object> getDeclaredSymbols(SimpleAPI usedAPI) {
+    return declaredSymbols.get(usedAPI);
+  }
+
+  synchronized void unregisterStack(PrincessAbstractProver<?, ?> stack, SimpleAPI usedAPI) {
     assert registeredProvers.contains(stack) : "cannot unregister stack, it is not registered";
     registeredProvers.remove(stack);
     if (reuseProvers) {
       reusableAPIs.add(usedAPI);
     } else {
       allAPIs.remove(usedAPI);
+      declaredSymbols.remove(usedAPI);
     }
   }
 
-  void removeStack(PrincessAbstractProver<?, ?> stack, SimpleAPI usedAPI) {
+  synchronized void removeStack(PrincessAbstractProver<?, ?> stack, SimpleAPI usedAPI) {
     assert registeredProvers.contains(stack) : "cannot remove stack, it is not registered";
     registeredProvers.remove(stack);
     allAPIs.remove(usedAPI);
+    declaredSymbols.remove(usedAPI);
   }
 
   public List<? extends IExpression> parseStringToTerms(String s, PrincessFormulaCreator creator) {
@@ -267,7 +282,10 @@ class PrincessEnvironment {
     Tuple3<
             Seq<IFormula>, scala.collection.immutable.Map<IFunction, SMTFunctionType>,
             scala.collection.immutable.Map<ConstantTerm, SMTType>>
-        triple = api.extractSMTLIBAssertionsSymbols(new StringReader(s));
+        triple;
+    synchronized (api) {
+      triple = api.extractSMTLIBAssertionsSymbols(new StringReader(s));
+    }
 
     List<? extends IExpression> formula = seqAsJavaList(triple._1());
     Map<IFunction, SMTFunctionType> functionTypes = mapAsJavaMap(triple._2());
@@ -285,15 +303,12 @@ class PrincessEnvironment {
         } else {
           intVariablesCache.put(var.toString(), (ITerm) var);
         }
-        addSymbol((IConstant) var);
       } else if (var instanceof IAtom) {
         boolVariablesCache.put(((IAtom) var).pred().name(), (IFormula) var);
-        addSymbol((IAtom) var);
       } else if (var instanceof IFunApp) {
         IFunction fun = ((IFunApp) var).fun();
         functionsCache.put(fun.name(), fun);
         functionsReturnTypes.put(fun, convertToTermType(functionTypes.get(fun)));
-        addFunction(fun);
       }
     }
     return formula;
@@ -313,8 +328,10 @@ class PrincessEnvironment {
     // TODO do we want to remove redundancy completely (as checked in the unit
     // tests (SolverFormulaIOTest class)) or do we want to remove redundancy up
     // to the point we do it for formulas that should be asserted
-    Tuple2<IExpression, scala.collection.immutable.Map<IExpression, IExpression>> tuple =
-        api.abbrevSharedExpressionsWithMap(formula, 1);
+    Tuple2<IExpression, scala.collection.immutable.Map<IExpression, IExpression>> tuple;
+    synchronized (api) {
+      tuple = api.abbrevSharedExpressionsWithMap(formula, 1);
+    }
     final IExpression lettedFormula = tuple._1();
     final Map<IExpression, IExpression> abbrevMap = mapAsJavaMap(tuple._2());
 
@@ -433,59 +450,46 @@ class PrincessEnvironment {
   public IExpression makeVariable(PrincessTermType type, String varname) {
     switch (type) {
       case Boolean:
-        {
-          if (boolVariablesCache.containsKey(varname)) {
-            return boolVariablesCache.get(varname);
-          } else {
-            IFormula var = api.createBooleanVariable(varname);
-            addSymbol(var);
-            boolVariablesCache.put(varname, var);
-            return var;
-          }
-        }
-
+        return getOrCreateVariable(boolVariablesCache, varname, api::createBooleanVariable);
       case Integer:
-        {
-          if (intVariablesCache.containsKey(varname)) {
-            return intVariablesCache.get(varname);
-          } else {
-            ITerm var = api.createConstant(varname);
-            addSymbol(var);
-            intVariablesCache.put(varname, var);
-            return var;
-          }
-        }
+        return getOrCreateVariable(intVariablesCache, varname, api::createConstant);
       case Array:
-        {
-          if (arrayVariablesCache.containsKey(varname)) {
-            return arrayVariablesCache.get(varname);
-          } else {
-            ITerm var = api.createConstant(varname);
-            addSymbol(var);
-            arrayVariablesCache.put(varname, var);
-            return var;
-          }
-        }
-
+        return getOrCreateVariable(arrayVariablesCache, varname, api::createConstant);
       default:
         throw new AssertionError("unsupported type: " + type);
     }
   }
 
+  /** Return the cached variable, only the creation of new variables needs to lock the API. */
+  private <T extends IExpression> T getOrCreateVariable(
+      Map<String, T> cache, String varname, Function<String, T> create) {
+    T var = cache.get(varname);
+    if (var == null) {
+      synchronized (api) {
+        var = cache.computeIfAbsent(varname, create);
+      }
+    }
+    return var;
+  }
+
   /** This function declares a new functionSymbol, that has a given number of params.
    * Princess has no support for typed params, only their number is important. */
   public IFunction declareFun(String name, int nofArgs, PrincessTermType returnType) {
-    if (functionsCache.containsKey(name)) {
-      assert returnType == functionsReturnTypes.get(functionsCache.get(name));
-      return functionsCache.get(name);
-
-    } else {
-      IFunction funcDecl = api.createFunction(name, nofArgs);
-      addFunction(funcDecl);
-      functionsCache.put(name, funcDecl);
-      functionsReturnTypes.put(funcDecl, returnType);
-      return funcDecl;
+    IFunction funcDecl = functionsCache.get(name);
+    if (funcDecl == null) {
+      synchronized (api) {
+        funcDecl = functionsCache.get(name);
+        if (funcDecl == null) {
+          funcDecl = api.createFunction(name, nofArgs);
+          // the return type has to be known before other threads can see the function
+          functionsReturnTypes.put(funcDecl, returnType);
+          functionsCache.put(name, funcDecl);
+          return funcDecl;
+        }
+      }
     }
+    assert returnType == functionsReturnTypes.get(funcDecl);
+    return funcDecl;
   }
 
   PrincessTermType getReturnTypeForFunction(IFunction fun) {
@@ -494,12 +498,16 @@ class PrincessEnvironment {
 
   public ITerm makeSelect(ITerm array, ITerm index) {
     List<ITerm> args = ImmutableList.of(array, index);
-    return api.select(iterableAsScalaIterable(args).toSeq());
+    synchronized (api) {
+      return api.select(iterableAsScalaIterable(args).toSeq());
+    }
   }
 
   public ITerm makeStore(ITerm array, ITerm index, ITerm value) {
     List<ITerm> args = ImmutableList.of(array, index, value);
-    return api.store(iterableAsScalaIterable(args).toSeq());
+    synchronized (api) {
+      return api.store(iterableAsScalaIterable(args).toSeq());
+    }
   }
 
   public boolean hasArrayType(IExpression exp) {
@@ -508,37 +516,12 @@ class PrincessEnvironment {
   }
 
   public IFormula elimQuantifiers(IFormula formula) {
-    return api.simplify(formula);
+    synchronized (api) {
+      return api.simplify(formula);
+    }
   }
 
   public String getVersion() {
     return "Princess (unknown version)";
   }
-
-  private void addSymbol(IFormula symbol) {
-    for (SimpleAPI otherAPI : allAPIs.keySet()) {
-      otherAPI.addBooleanVariable(symbol);
-    }
-    for (PrincessAbstractProver<?, ?> prover : registeredProvers) {
-      prover.addSymbol(symbol);
-    }
-  }
-
-  private void addSymbol(ITerm symbol) {
-    for (SimpleAPI otherAPI : allAPIs.keySet()) {
-      otherAPI.addConstant(symbol);
-    }
-    for (PrincessAbstractProver<?, ?> prover : registeredProvers) {
-      prover.addSymbol(symbol);
-    }
-  }
-
-  private void addFunction(IFunction funcDecl) {
-    for (SimpleAPI otherAPI : allAPIs.keySet()) {
-      otherAPI.addFunction(funcDecl);
-    }
-    for (PrincessAbstractProver<?, ?> prover : registeredProvers) {
-      prover.addSymbol(funcDecl);
-    }
-  }
 }
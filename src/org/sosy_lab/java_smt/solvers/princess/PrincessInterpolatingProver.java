@@ -34,6 +34,7 @@ import org.sosy_lab.common.UniqueIdGenerator;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
 import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.basicimpl.InterpolationCuts;
 
 import scala.collection.Seq;
 import scala.collection.mutable.ArrayBuffer;
@@ -109,6 +110,13 @@ class PrincessInterpolatingProver extends PrincessAbstractProver<Integer, Intege
     return itp.get(0);
   }
 
+  @Override
+  public List<BooleanFormula> getInterpolants(List<List<Integer>> cuts)
+      throws SolverException, InterruptedException {
+    Preconditions.checkState(!closed);
+    return InterpolationCuts.getInterpolants(this, cuts, annotatedTerms.keySet());
+  }
+
   @Override
   public List<BooleanFormula> getSeqInterpolants(final List<Set<Integer>> partitions)
       throws SolverException {
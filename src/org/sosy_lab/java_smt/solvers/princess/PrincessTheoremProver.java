@@ -33,10 +33,12 @@ import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.ProverEnvironment;
 import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.basicimpl.ListAllSatCallback;
 
 import scala.Option;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -73,30 +75,51 @@ class PrincessTheoremProver extends PrincessAbstractProver<Void, IExpression>
   public <T> T allSat(AllSatCallback<T> callback, List<BooleanFormula> important)
       throws InterruptedException, SolverException {
     Preconditions.checkState(!closed);
+    return allSatPolarities(
+        new ListAllSatCallback<>(
+            callback,
+            important,
+            f -> mgr.encapsulateBooleanFormula(new INot((IFormula) mgr.extractInfo(f)))),
+        important);
+  }
+
+  @Override
+  public <T> T allSatPolarities(
+      AllSatPolarityCallback<T> callback, List<BooleanFormula> important)
+      throws InterruptedException, SolverException {
+    Preconditions.checkState(!closed);
 
     // unpack formulas to terms
     List<IFormula> importantFormulas = new ArrayList<>(important.size());
     for (BooleanFormula impF : important) {
-      importantFormulas.add((IFormula) mgr.extractInfo(impF));
+      IFormula f = (IFormula) mgr.extractInfo(impF);
+      // declare the symbols outside of the temporary level, they are needed for evaluation
+      declareSymbols(f);
+      importantFormulas.add(f);
     }
 
+    BitSet values = new BitSet(importantFormulas.size());
+    BitSet assigned = new BitSet(importantFormulas.size());
     api.push();
     while (!isUnsat()) {
       shutdownNotifier.shutdownIfNecessary();
 
+      values.clear();
+      assigned.clear();
       IFormula newFormula = new IBoolLit(true); // neutral element for AND
-      List<BooleanFormula> wrappedPartialModel = new ArrayList<>(important.size());
-      for (final IFormula f : importantFormulas) {
+      for (int j = 0; j < importantFormulas.size(); j++) {
+        final IFormula f = importantFormulas.get(j);
         final Option<Object> value = api.evalPartial(f);
         if (value.isDefined()) {
           final boolean isTrueValue = (boolean) value.get();
           final IFormula newElement = isTrueValue ? f : new INot(f);
 
-          wrappedPartialModel.add(mgr.encapsulateBooleanFormula(newElement));
+          assigned.set(j);
+          values.set(j, isTrueValue);
           newFormula = new IBinFormula(IBinJunctor.And(), newFormula, newElement);
         }
       }
-      callback.apply(wrappedPartialModel);
+      callback.apply(values, assigned);
 
       // add negation of current formula to get a new model in next iteration
       addConstraint0(new INot(newFormula));
@@ -24,9 +24,11 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import de.uni_freiburg.informatik.ultimate.logic.Term;
 
 import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ResourceLimitException;
 import org.sosy_lab.java_smt.api.SolverException;
 
 import java.io.PrintWriter;
+import java.time.Duration;
 
 // reason: not maintained, some implementations for methods are missing
 class LoggingSmtInterpolInterpolatingProver extends SmtInterpolInterpolatingProver {
@@ -50,6 +52,13 @@ class LoggingSmtInterpolInterpolatingProver extends SmtInterpolInterpolatingProv
     return super.isUnsat();
   }
 
+  @Override
+  protected boolean isUnsatWithTimeout(Duration pTimeout)
+      throws InterruptedException, ResourceLimitException {
+    out.println("(check-sat)");
+    return super.isUnsatWithTimeout(pTimeout);
+  }
+
   @Override
   protected BooleanFormula getInterpolant(Term pTermA, Term pTermB)
       throws SolverException, InterruptedException {
@@ -22,31 +22,39 @@ package org.sosy_lab.java_smt.solvers.smtinterpol;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import de.uni_freiburg.informatik.ultimate.logic.FunctionSymbol;
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
 import de.uni_freiburg.informatik.ultimate.logic.Sort;
 import de.uni_freiburg.informatik.ultimate.logic.Term;
 
 import org.sosy_lab.common.UniqueIdGenerator;
-import org.sosy_lab.java_smt.api.BasicProverEnvironment;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.Model.ValueAssignment;
+import org.sosy_lab.java_smt.api.ResourceLimitException;
 import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.basicimpl.AbstractProver;
 import org.sosy_lab.java_smt.basicimpl.FormulaCreator;
 
+import java.time.Duration;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
-abstract class SmtInterpolBasicProver<T, AF> implements BasicProverEnvironment<T> {
+abstract class SmtInterpolBasicProver<T, AF> extends AbstractProver<T> {
 
   private boolean closed = false;
-  private final SmtInterpolEnvironment env;
+  protected final SmtInterpolEnvironment env;
   private final FormulaCreator<Term, Sort, SmtInterpolEnvironment, FunctionSymbol> creator;
   protected final Deque<List<AF>> assertedFormulas = new ArrayDeque<>();
 
+  private volatile boolean interrupted = false;
+
   private static final String PREFIX = "term_"; // for termnames
   private static final UniqueIdGenerator termIdGenerator =
       new UniqueIdGenerator(); // for different termnames
@@ -77,13 +85,53 @@ abstract class SmtInterpolBasicProver<T, AF> implements BasicProverEnvironment<T
   @Override
   public boolean isUnsat() throws InterruptedException {
     Preconditions.checkState(!closed);
-    return !env.checkSat();
+    return !checkSat();
+  }
+
+  @Override
+  protected boolean isUnsatWithTimeout(Duration pTimeout)
+      throws InterruptedException, ResourceLimitException {
+    Preconditions.checkState(!closed);
+    try {
+      return !checkSat();
+    } catch (SMTLIBException e) {
+      if (isTimeLimitExceeded()) {
+        throw new ResourceLimitException(
+            "SMTInterpol exceeded the time limit of " + pTimeout + " for checkSat", e);
+      }
+      throw e;
+    }
+  }
+
+  /** Check satisfiability, such that SMTInterpol can be stopped by this prover. */
+  private boolean checkSat() throws InterruptedException {
+    throwIfInterrupted();
+    try {
+      return env.checkSat(() -> interrupted || isTimeLimitExceeded());
+    } catch (SMTLIBException e) {
+      // SMTInterpol reports stopping as UNKNOWN with reason CANCELLED
+      throwIfInterrupted();
+      throw e;
+    }
+  }
+
+  /** SMTInterpol polls the termination request of its environment, which checks the flag. */
+  @Override
+  public void interrupt() {
+    interrupted = true;
+  }
+
+  private void throwIfInterrupted() throws InterruptedException {
+    if (interrupted) {
+      interrupted = false;
+      throw new InterruptedException("SMTInterpol prover was interrupted");
+    }
   }
 
   @Override
   public SmtInterpolModel getModel() {
     Preconditions.checkState(!closed);
-    return new SmtInterpolModel(env.getModel(), creator, getAssertedTerms());
+    return new SmtInterpolModel(env, creator, getAssertedTerms());
   }
 
   @Override
@@ -93,6 +141,37 @@ abstract class SmtInterpolBasicProver<T, AF> implements BasicProverEnvironment<T
     }
   }
 
+  @Override
+  public ImmutableMap<String, Object> getStatistics() {
+    Preconditions.checkState(!closed);
+    Map<String, Object> result = new LinkedHashMap<>();
+    flattenStatistics(env.getInfo(":all-statistics"), "", result);
+    return ImmutableMap.copyOf(result);
+  }
+
+  /**
+   * SMTInterpol returns its statistics as nested arrays of key-value pairs,
+   * nested keys are joined with a dot.
+   */
+  private static void flattenStatistics(Object stats, String prefix, Map<String, Object> result) {
+    if (!(stats instanceof Object[])) {
+      return;
+    }
+    for (Object entry : (Object[]) stats) {
+      if (entry instanceof Object[] && ((Object[]) entry).length == 2) {
+        String key = prefix + ((Object[]) entry)[0];
+        Object value = ((Object[]) entry)[1];
+        if (value instanceof Object[]) {
+          flattenStatistics(value, key + ".", result);
+        } else if (value instanceof Integer) {
+          result.put(key, ((Integer) value).longValue());
+        } else {
+          result.put(key, value);
+        }
+      }
+    }
+  }
+
   protected static String generateTermName() {
     return PREFIX + termIdGenerator.getFreshId();
   }
@@ -32,7 +32,8 @@ class SmtInterpolBooleanFormulaManager
     extends AbstractBooleanFormulaManager<Term, Sort, SmtInterpolEnvironment, FunctionSymbol> {
 
   // We use the Theory directly here because the methods there perform simplifications
-  // that we could not use otherwise.
+  // that we could not use otherwise. The Theory is shared with all provers,
+  // so creating terms has to be synchronized on it.
   private final Theory theory;
 
   SmtInterpolBooleanFormulaManager(SmtInterpolFormulaCreator creator, Theory pTheory) {
@@ -64,7 +65,9 @@ class SmtInterpolBooleanFormulaManager
             + t1.toStringDirect()
             + "\nTerm 2:\n"
             + t2.toStringDirect();
-    return theory.equals(t1, t2);
+    synchronized (theory) {
+      return theory.equals(t1, t2);
+    }
   }
 
   @Override
@@ -79,36 +82,50 @@ class SmtInterpolBooleanFormulaManager
 
   @Override
   public Term ifThenElse(Term condition, Term t1, Term t2) {
-    return theory.ifthenelse(condition, t1, t2);
+    synchronized (theory) {
+      return theory.ifthenelse(condition, t1, t2);
+    }
   }
 
   @Override
   public Term not(Term pBits) {
-    return theory.not(pBits);
+    synchronized (theory) {
+      return theory.not(pBits);
+    }
   }
 
   @Override
   public Term and(Term pBits1, Term pBits2) {
-    return theory.and(pBits1, pBits2);
+    synchronized (theory) {
+      return theory.and(pBits1, pBits2);
+    }
   }
 
   @Override
   protected Term andImpl(Collection<Term> pParams) {
-    return theory.and(pParams.toArray(new Term[pParams.size()]));
+    synchronized (theory) {
+      return theory.and(pParams.toArray(new Term[pParams.size()]));
+    }
   }
 
   @Override
   public Term or(Term pBits1, Term pBits2) {
-    return theory.or(pBits1, pBits2);
+    synchronized (theory) {
+      return theory.or(pBits1, pBits2);
+    }
   }
 
   @Override
   protected Term orImpl(Collection<Term> pParams) {
-    return theory.or(pParams.toArray(new Term[pParams.size()]));
+    synchronized (theory) {
+      return theory.or(pParams.toArray(new Term[pParams.size()]));
+    }
   }
 
   @Override
   public Term xor(Term pBits1, Term pBits2) {
-    return theory.xor(pBits1, pBits2);
+    synchronized (theory) {
+      return theory.xor(pBits1, pBits2);
+    }
   }
 }
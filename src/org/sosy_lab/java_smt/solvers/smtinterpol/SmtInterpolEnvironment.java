@@ -24,6 +24,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 
 import de.uni_freiburg.informatik.ultimate.logic.Annotation;
@@ -65,6 +66,7 @@ import java.math.BigInteger;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 import java.util.logging.Level;
 
 import javax.annotation.Nullable;
@@ -73,6 +75,15 @@ import javax.annotation.Nullable;
  * It guarantees the stack-behavior of function-declarations towards the SmtSolver,
  * so functions remain declared, if levels are popped.
  * This Wrapper allows to set a logfile for all Smt-Queries (default "smtinterpol.smt2").
+ *
+ * <p>Each prover uses its own environment (cf. {@link #createProverEnvironment()})
+ * with its own instance of SMTInterpol and a private {@link Theory},
+ * such that the satisfiability checks of several provers can run in parallel.
+ * Terms of the solver context are translated into the Theory of the prover
+ * (declaring the used functions there on demand),
+ * and results like models and interpolants are translated back.
+ * The Theory of the solver context is not thread-safe and shared by all provers,
+ * so all operations that create terms in it are synchronized on it.
  */
 @Options(prefix = "solver.smtinterpol")
 class SmtInterpolEnvironment {
@@ -97,14 +108,27 @@ class SmtInterpolEnvironment {
   private final LogManager logger;
   private final LogProxy smtInterpolLogProxy;
   private final ShutdownNotifier shutdownNotifier;
+  private final long randomSeed;
 
   /** the wrapped Script */
   private final Script script;
+  private final SMTInterpol smtInterpol;
   private final Theory theory;
 
+  /** The Theory of the solver context, which is shared with all provers. */
+  private final Theory sharedTheory;
+
+  /** Translators from the shared Theory into the Theory of this prover and back,
+   * or null for the environment of the solver context. */
+  private final @Nullable TermTranslator toLocal;
+  private final @Nullable TermTranslator toShared;
+
   /** The current depth of the stack in the solver. */
   private int stackDepth = 0;
 
+  /** An additional condition for stopping the current check, polled by SMTInterpol. */
+  private volatile BooleanSupplier stopCondition = () -> false;
+
   /** The Constructor creates the wrapped Element, sets some options
    * and initializes the logger. */
   SmtInterpolEnvironment(
@@ -112,45 +136,115 @@ class SmtInterpolEnvironment {
       final LogManager pLogger,
       final ShutdownNotifier pShutdownNotifier,
       @Nullable PathCounterTemplate pSmtLogfile,
-      long randomSeed)
+      long pRandomSeed)
       throws InvalidConfigurationException {
     config.inject(this);
     logger = pLogger;
     shutdownNotifier = checkNotNull(pShutdownNotifier);
     smtLogfile = pSmtLogfile;
+    randomSeed = pRandomSeed;
     smtInterpolLogProxy = new LogProxyForwarder(logger.withComponentName("SMTInterpol"));
 
-    final SMTInterpol smtInterpol =
-        new SMTInterpol(smtInterpolLogProxy, pShutdownNotifier::shouldShutdown);
-
-    if (smtLogfile != null) {
-      script = createLoggingWrapper(smtInterpol);
-    } else {
-      script = smtInterpol;
+    smtInterpol = createSmtInterpol();
+    script = createScript();
+    theory = smtInterpol.getTheory();
+    sharedTheory = theory;
+    toLocal = null;
+    toShared = null;
+  }
+
+  /** Create an environment for a prover with a new instance of SMTInterpol,
+   * which uses the same options as the given environment. */
+  private SmtInterpolEnvironment(SmtInterpolEnvironment pBase) {
+    checkResults = pBase.checkResults;
+    furtherOptions = pBase.furtherOptions;
+    logger = pBase.logger;
+    shutdownNotifier = pBase.shutdownNotifier;
+    smtLogfile = pBase.smtLogfile;
+    randomSeed = pBase.randomSeed;
+    smtInterpolLogProxy = pBase.smtInterpolLogProxy;
+
+    smtInterpol = createSmtInterpol();
+    try {
+      script = createScript();
+    } catch (InvalidConfigurationException e) {
+      throw new AssertionError("options were already accepted by the base environment", e);
     }
+    theory = smtInterpol.getTheory();
+    sharedTheory = pBase.theory;
+    toLocal = new TermTranslator(script, theory);
+    toShared = new TermTranslator(pBase.script, sharedTheory);
+  }
+
+  private SMTInterpol createSmtInterpol() {
+    return new SMTInterpol(
+        smtInterpolLogProxy,
+        () -> shutdownNotifier.shouldShutdown() || stopCondition.getAsBoolean());
+  }
 
-    script.setOption(":global-declarations", true);
-    script.setOption(":random-seed", randomSeed);
-    script.setOption(":produce-interpolants", true);
-    script.setOption(":produce-models", true);
-    script.setOption(":produce-unsat-cores", true);
+  /** Wrap SMTInterpol for logging if necessary and set all options and the logic. */
+  private Script createScript() throws InvalidConfigurationException {
+    Script newScript = smtLogfile == null ? smtInterpol : createLoggingWrapper(smtInterpol);
+
+    newScript.setOption(":global-declarations", true);
+    newScript.setOption(":random-seed", randomSeed);
+    newScript.setOption(":produce-interpolants", true);
+    newScript.setOption(":produce-models", true);
+    newScript.setOption(":produce-unsat-cores", true);
     if (checkResults) {
-      script.setOption(":interpolant-check-mode", true);
-      script.setOption(":unsat-core-check-mode", true);
-      script.setOption(":model-check-mode", true);
+      newScript.setOption(":interpolant-check-mode", true);
+      newScript.setOption(":unsat-core-check-mode", true);
+      newScript.setOption(":model-check-mode", true);
     }
-    script.setLogic(Logics.QF_AUFLIRA);
+    newScript.setLogic(Logics.QF_AUFLIRA);
 
     for (String option : furtherOptions) {
       try {
-        script.setOption(":" + option, true);
+        newScript.setOption(":" + option, true);
       } catch (SMTLIBException | UnsupportedOperationException e) {
         throw new InvalidConfigurationException(
             "Invalid option \"" + option + "\" for SMTInterpol.", e);
       }
     }
+    return newScript;
+  }
 
-    theory = smtInterpol.getTheory();
+  /**
+   * Create a new environment for a prover with its own assertion stack and Theory.
+   * The methods of the new environment accept terms of this environment
+   * and return their results as terms of this environment,
+   * except for the named terms of interpolation and unsat cores.
+   */
+  SmtInterpolEnvironment createProverEnvironment() {
+    return new SmtInterpolEnvironment(this);
+  }
+
+  /** Translate a term of the shared Theory into the Theory of this environment. */
+  private Term toLocal(Term term) {
+    return toLocal == null ? term : toLocal.translate(term);
+  }
+
+  private Term[] toLocal(Term[] terms) {
+    return toLocal == null ? terms : toLocal.translate(terms);
+  }
+
+  /** Translate a term of the Theory of this environment into the shared Theory. */
+  private Term toShared(Term term) {
+    if (toShared == null) {
+      return term;
+    }
+    synchronized (sharedTheory) {
+      return toShared.translate(term);
+    }
+  }
+
+  private Term[] toShared(Term[] terms) {
+    if (toShared == null) {
+      return terms;
+    }
+    synchronized (sharedTheory) {
+      return toShared.translate(terms);
+    }
   }
 
   private Script createLoggingWrapper(SMTInterpol smtInterpol) {
@@ -171,6 +265,8 @@ class SmtInterpolEnvironment {
    * Be careful when accessing the Theory directly,
    * because operations on it won't be caught by the LoggingScript.
    * It is ok to create terms using the Theory, not to define them or call checkSat.
+   * The Theory of the solver context is shared with all provers,
+   * so creating terms in it has to be synchronized on it.
    */
   Theory getTheory() {
     return theory;
@@ -225,7 +321,9 @@ class SmtInterpolEnvironment {
           public void printSuccess() {}
         };
 
-    parseEnv.parseStream(new StringReader(s), "<stdin>");
+    synchronized (theory) {
+      parseEnv.parseStream(new StringReader(s), "<stdin>");
+    }
 
     return parseScript.getAssertedTerms();
   }
@@ -239,20 +337,22 @@ class SmtInterpolEnvironment {
    * If you want to declare a new variable, i.e. "X", paramSorts is an empty array. */
   @CanIgnoreReturnValue
   public FunctionSymbol declareFun(String fun, Sort[] paramSorts, Sort resultSort) {
-    FunctionSymbol fsym = theory.getFunction(fun, paramSorts);
-
-    if (fsym == null) {
-      script.declareFun(fun, paramSorts, resultSort);
-      return theory.getFunction(fun, paramSorts);
-    } else {
-      if (!fsym.getReturnSort().equals(resultSort)) {
-        throw new SMTLIBException(
-            "Function " + fun + " is already declared with different definition");
-      }
-      if (fun.equals("true") || fun.equals("false")) {
-        throw new SMTLIBException("Cannot declare a variable named " + fun);
+    synchronized (theory) {
+      FunctionSymbol fsym = theory.getFunction(fun, paramSorts);
+
+      if (fsym == null) {
+        script.declareFun(fun, paramSorts, resultSort);
+        return theory.getFunction(fun, paramSorts);
+      } else {
+        if (!fsym.getReturnSort().equals(resultSort)) {
+          throw new SMTLIBException(
+              "Function " + fun + " is already declared with different definition");
+        }
+        if (fun.equals("true") || fun.equals("false")) {
+          throw new SMTLIBException("Cannot declare a variable named " + fun);
+        }
+        return fsym;
       }
-      return fsym;
     }
   }
 
@@ -276,9 +376,8 @@ class SmtInterpolEnvironment {
     checkState(
         stackDepth > 0,
         "assertions should be on higher levels, "
-            + "because we might need to remove the term again and "
-            + "we have a shared environment for all provers.");
-    script.assertTerm(term);
+            + "because we might need to remove the term again.");
+    script.assertTerm(toLocal(term));
   }
 
   /** This function causes the SatSolver to check all the terms on the stack,
@@ -298,7 +397,7 @@ class SmtInterpolEnvironment {
       case UNSAT:
         return false;
       case UNKNOWN:
-        Object reason = script.getInfo(":reason-unknown");
+        Object reason = getInfo(":reason-unknown");
         if (!(reason instanceof ReasonUnknown)) {
           throw new SMTLIBException("checkSat returned UNKNOWN with unknown reason " + reason);
         }
@@ -318,6 +417,26 @@ class SmtInterpolEnvironment {
     }
   }
 
+  /**
+   * Like {@link #checkSat()}, but SMTInterpol is also stopped as soon as the given condition
+   * holds, which leaves the stack of assertions intact.
+   * The condition is polled from the thread of SMTInterpol.
+   *
+   * @throws SMTLIBException if SMTInterpol was stopped (with reason CANCELLED).
+   */
+  public boolean checkSat(BooleanSupplier pStopCondition) throws InterruptedException {
+    stopCondition = pStopCondition;
+    try {
+      return checkSat();
+    } finally {
+      stopCondition = () -> false;
+    }
+  }
+
+  /**
+   * The returned models are computed lazily while iterating,
+   * each model contains one literal per important predicate in the same order.
+   */
   public Iterable<Term[]> checkAllSat(Term[] importantPredicates) throws InterruptedException {
     // We actually terminate SmtInterpol during the analysis
     // by using a shutdown listener. However, SmtInterpol resets the
@@ -325,15 +444,22 @@ class SmtInterpolEnvironment {
     // so we check here, too.
     shutdownNotifier.shutdownIfNecessary();
 
-    return script.checkAllsat(importantPredicates);
+    return Iterables.transform(
+        script.checkAllsat(toLocal(importantPredicates)), model -> toShared(model));
   }
 
   /** This function returns a map,
-   * that contains assignments term->term for all terms in terms. */
+   * that contains assignments term->term for all terms in terms.
+   * Use {@link #evaluate(Model, Term)} for evaluating terms in the model. */
   public Model getModel() {
     return script.getModel();
   }
 
+  /** Evaluate a term in a model of this environment. */
+  public Term evaluate(Model model, Term term) {
+    return toShared(model.evaluate(toLocal(term)));
+  }
+
   public Object getInfo(String info) {
     return script.getInfo(info);
   }
@@ -352,70 +478,100 @@ class SmtInterpolEnvironment {
 
   /** This function returns an n-ary sort with given parameters. */
   Sort sort(String sortname, Sort... params) {
-    return script.sort(sortname, params);
+    synchronized (theory) {
+      return script.sort(sortname, params);
+    }
   }
 
   public Term term(String funcname, Term... params) {
-    return script.term(funcname, params);
+    Term[] localParams = toLocal(params);
+    synchronized (theory) {
+      return script.term(funcname, localParams);
+    }
   }
 
   public Term term(
       String funcname, BigInteger[] indices, @Nullable Sort returnSort, Term... params) {
-    return script.term(funcname, indices, returnSort, params);
+    synchronized (theory) {
+      return script.term(funcname, indices, returnSort, params);
+    }
   }
 
   public TermVariable variable(String varname, Sort sort) {
-    return script.variable(varname, sort);
+    synchronized (theory) {
+      return script.variable(varname, sort);
+    }
   }
 
   public Term quantifier(int quantor, TermVariable[] vars, Term body, Term[]... patterns) {
-    return script.quantifier(quantor, vars, body, patterns);
+    synchronized (theory) {
+      return script.quantifier(quantor, vars, body, patterns);
+    }
   }
 
   public Term let(TermVariable[] pVars, Term[] pValues, Term pBody) {
-    return script.let(pVars, pValues, pBody);
+    synchronized (theory) {
+      return script.let(pVars, pValues, pBody);
+    }
   }
 
+  /** Annotate a term, which is translated into the Theory of this environment if necessary. */
   public Term annotate(Term t, Annotation... annotations) {
-    return script.annotate(t, annotations);
+    Term localTerm = toLocal(t);
+    synchronized (theory) {
+      return script.annotate(localTerm, annotations);
+    }
   }
 
   /** returns a number of type INT or REAL */
   public Term numeral(BigInteger num) {
-    return script.numeral(num);
+    synchronized (theory) {
+      return script.numeral(num);
+    }
   }
 
   /** returns a number of type INT or REAL */
   public Term numeral(String num) {
-    return script.numeral(num);
+    synchronized (theory) {
+      return script.numeral(num);
+    }
   }
 
   /** returns a number of type REAL */
   public Term decimal(String num) {
-    return script.decimal(num);
+    synchronized (theory) {
+      return script.decimal(num);
+    }
   }
 
   /** returns a number of type REAL */
   public Term decimal(BigDecimal num) {
-    return script.decimal(num);
+    synchronized (theory) {
+      return script.decimal(num);
+    }
   }
 
   public Term hexadecimal(String hex) {
-    return script.hexadecimal(hex);
+    synchronized (theory) {
+      return script.hexadecimal(hex);
+    }
   }
 
   public Term binary(String bin) {
-    return script.binary(bin);
+    synchronized (theory) {
+      return script.binary(bin);
+    }
   }
 
   /** This function returns a list of interpolants for the partitions.
    * Each partition must be a named term or a conjunction of named terms.
    * There should be (n-1) interpolants for n partitions.
+   * The interpolants are translated into the shared Theory.
    */
   public Term[] getInterpolants(Term[] partition) throws SolverException, InterruptedException {
     checkState(stackDepth > 0, "interpolants should be on higher levels");
     try {
-      return script.getInterpolants(partition);
+      return toShared(script.getInterpolants(partition));
     } catch (UnsupportedOperationException e) {
       if (e.getMessage() != null && e.getMessage().startsWith("Cannot interpolate ")) {
         // Not a bug, interpolation procedure is incomplete
@@ -462,7 +618,7 @@ class SmtInterpolEnvironment {
       throws SolverException, InterruptedException {
     checkState(stackDepth > 0, "interpolants should be on higher levels");
     try {
-      return script.getInterpolants(partition, startOfSubTree);
+      return toShared(script.getInterpolants(partition, startOfSubTree));
     } catch (UnsupportedOperationException e) {
       if (e.getMessage() != null && e.getMessage().startsWith("Cannot interpolate ")) {
         // Not a bug, interpolation procedure is incomplete
@@ -478,6 +634,8 @@ class SmtInterpolEnvironment {
     }
   }
 
+  /** Returns the named terms of the unsat core,
+   * which belong to the Theory of this environment and not to the shared Theory. */
   public Term[] getUnsatCore() {
     checkState(stackDepth > 0, "unsat core should be on higher levels");
     return script.getUnsatCore();
@@ -485,7 +643,9 @@ class SmtInterpolEnvironment {
 
   public Term simplify(Term input) {
     SimplifyDDA s = new SimplifyDDA(script, true);
-    return s.getSimplifiedTerm(input);
+    synchronized (theory) {
+      return s.getSimplifiedTerm(input);
+    }
   }
 
   /** This function returns the version of SmtInterpol, for logging. */
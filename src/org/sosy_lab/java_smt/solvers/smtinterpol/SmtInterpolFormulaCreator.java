@@ -112,7 +112,10 @@ class SmtInterpolFormulaCreator
 
   @Override
   public Sort getArrayType(final Sort pIndexType, final Sort pElementType) {
-    return getEnv().getTheory().getSort("Array", pIndexType, pElementType);
+    Theory theory = getEnv().getTheory();
+    synchronized (theory) {
+      return theory.getSort("Array", pIndexType, pElementType);
+    }
   }
 
   List<Formula> encapsulate(Term[] terms) {
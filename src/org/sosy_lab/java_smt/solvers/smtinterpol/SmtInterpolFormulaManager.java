@@ -74,7 +74,10 @@ class SmtInterpolFormulaManager
   @Override
   public BooleanFormula parse(String pS) throws IllegalArgumentException {
     Term term = getOnlyElement(getEnvironment().parseStringToTerms(pS));
-    return encapsulateBooleanFormula(new FormulaUnLet().unlet(term));
+    synchronized (term.getTheory()) {
+      term = new FormulaUnLet().unlet(term);
+    }
+    return encapsulateBooleanFormula(term);
   }
 
   @Override
@@ -140,7 +143,10 @@ class SmtInterpolFormulaManager
         // This is the same as t.toString() does,
         // but directly uses the Appendable for better performance
         // and less memory consumption.
-        Term letted = (new FormulaLet()).let(formula);
+        Term letted;
+        synchronized (formula.getTheory()) {
+          letted = (new FormulaLet()).let(formula);
+        }
         termPrinter.append(out, letted);
 
         out.append(")");
@@ -153,10 +159,10 @@ class SmtInterpolFormulaManager
     return getFormulaCreator().visit(f, rFormulaVisitor);
   }
 
-  /** This method returns a 'shared' environment or
-   * a complete new environment. */
+  /** This method returns a new environment for a prover,
+   * which shares all declarations with the environment of this manager. */
   SmtInterpolEnvironment createEnvironment() {
-    return getEnvironment();
+    return getEnvironment().createProverEnvironment();
   }
 
   @Override
@@ -28,6 +28,7 @@ import de.uni_freiburg.informatik.ultimate.logic.Term;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
 import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.basicimpl.InterpolationCuts;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -36,20 +37,20 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 class SmtInterpolInterpolatingProver extends SmtInterpolBasicProver<String, String>
     implements InterpolatingProverEnvironment<String> {
 
   private final SmtInterpolFormulaManager mgr;
-  private final SmtInterpolEnvironment env;
 
   private final Map<String, Term> annotatedTerms; // Collection of termNames
 
+  /** References to the named terms, created once per name and reused for all partitions. */
+  private final Map<String, Term> namedTermReferences = new HashMap<>();
+
   SmtInterpolInterpolatingProver(SmtInterpolFormulaManager pMgr) {
     super(pMgr);
     mgr = pMgr;
-    env = mgr.createEnvironment();
     annotatedTerms = new HashMap<>();
   }
 
@@ -57,6 +58,7 @@ class SmtInterpolInterpolatingProver extends SmtInterpolBasicProver<String, Stri
   public void pop() {
     for (String removed : assertedFormulas.peek()) {
       annotatedTerms.remove(removed);
+      namedTermReferences.remove(removed);
     }
     super.pop();
   }
@@ -82,19 +84,21 @@ class SmtInterpolInterpolatingProver extends SmtInterpolBasicProver<String, Stri
     // so we need to check them explicitly
     if (pTermNamesOfA.isEmpty()) {
       return mgr.getBooleanFormulaManager().makeBoolean(true);
-    } else if (pTermNamesOfA.containsAll(annotatedTerms.keySet())) {
-      return mgr.getBooleanFormulaManager().makeBoolean(false);
     }
 
     Set<String> termNamesOfA = new HashSet<>(pTermNamesOfA);
 
     // calc difference: termNamesOfB := assertedFormulas - termNamesOfA
-    Set<String> termNamesOfB =
-        annotatedTerms
-            .keySet()
-            .stream()
-            .filter(n -> !termNamesOfA.contains(n))
-            .collect(Collectors.toSet());
+    Set<String> termNamesOfB = new HashSet<>();
+    for (String termName : annotatedTerms.keySet()) {
+      if (!termNamesOfA.contains(termName)) {
+        termNamesOfB.add(termName);
+      }
+    }
+
+    if (termNamesOfB.isEmpty()) {
+      return mgr.getBooleanFormulaManager().makeBoolean(false);
+    }
 
     // build 2 groups:  (and A1 A2 A3...) , (and B1 B2 B3...)
     Term termA = buildConjunctionOfNamedTerms(termNamesOfA);
@@ -103,6 +107,13 @@ class SmtInterpolInterpolatingProver extends SmtInterpolBasicProver<String, Stri
     return getInterpolant(termA, termB);
   }
 
+  @Override
+  public List<BooleanFormula> getInterpolants(List<List<String>> cuts)
+      throws SolverException, InterruptedException {
+    Preconditions.checkState(!isClosed());
+    return InterpolationCuts.getInterpolants(this, cuts, annotatedTerms.keySet());
+  }
+
   @Override
   public List<BooleanFormula> getSeqInterpolants(List<Set<String>> partitionedTermNames)
       throws SolverException, InterruptedException {
@@ -186,7 +197,7 @@ class SmtInterpolInterpolatingProver extends SmtInterpolBasicProver<String, Stri
     Term[] terms = new Term[termNames.size()];
     int i = 0;
     for (String termName : termNames) {
-      terms[i] = env.term(termName);
+      terms[i] = namedTermReferences.computeIfAbsent(termName, env::term);
       i++;
     }
 
@@ -201,6 +212,7 @@ class SmtInterpolInterpolatingProver extends SmtInterpolBasicProver<String, Stri
   public void close() {
     assertedFormulas.clear();
     annotatedTerms.clear();
+    namedTermReferences.clear();
     super.close();
   }
 
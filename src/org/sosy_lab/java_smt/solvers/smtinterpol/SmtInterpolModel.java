@@ -47,24 +47,27 @@ import javax.annotation.Nullable;
 
 class SmtInterpolModel extends CachingAbstractModel<Term, Sort, SmtInterpolEnvironment> {
 
+  /** The environment of the prover, which translates the values into the shared Theory. */
+  private final SmtInterpolEnvironment env;
   private final Model model;
   private final ImmutableList<Term> assertedTerms;
   private final SmtInterpolFormulaCreator formulaCreator;
 
   SmtInterpolModel(
-      Model pModel,
+      SmtInterpolEnvironment pEnv,
       FormulaCreator<Term, Sort, SmtInterpolEnvironment, ?> pCreator,
       Collection<Term> assertedTerms) {
     super(pCreator);
     formulaCreator = (SmtInterpolFormulaCreator) pCreator;
-    model = pModel;
+    env = pEnv;
+    model = pEnv.getModel();
     this.assertedTerms = ImmutableList.copyOf(assertedTerms);
   }
 
   @Nullable
   @Override
   public Object evaluateImpl(Term f) {
-    Term out = model.evaluate(f);
+    Term out = env.evaluate(model, f);
     return getValue(out);
   }
 
@@ -92,7 +95,7 @@ class SmtInterpolModel extends CachingAbstractModel<Term, Sort, SmtInterpolEnvir
       String symbol, Term key, Term array, List<Object> upperIndices) {
     assert array.getSort().isArraySort();
     Collection<ValueAssignment> assignments = new ArrayList<>();
-    Term evaluation = model.evaluate(array);
+    Term evaluation = env.evaluate(model, array);
 
     // get all assignments for the current array
     while (evaluation instanceof ApplicationTerm) {
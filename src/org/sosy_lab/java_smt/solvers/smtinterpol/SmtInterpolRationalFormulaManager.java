@@ -21,6 +21,7 @@ package org.sosy_lab.java_smt.solvers.smtinterpol;
 
 import de.uni_freiburg.informatik.ultimate.logic.Sort;
 import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.Theory;
 
 import org.sosy_lab.common.rationals.Rational;
 import org.sosy_lab.java_smt.api.NumeralFormula;
@@ -55,7 +56,10 @@ class SmtInterpolRationalFormulaManager
 
   @Override
   protected Term makeNumberImpl(Rational pI) {
-    return getFormulaCreator().getEnv().getTheory().rational(pI.getNum(), pI.getDen());
+    Theory theory = getFormulaCreator().getEnv().getTheory();
+    synchronized (theory) {
+      return theory.rational(pI.getNum(), pI.getDen());
+    }
   }
 
   @Override
@@ -19,12 +19,11 @@
  */
 package org.sosy_lab.java_smt.solvers.smtinterpol;
 
-import static com.google.common.base.Preconditions.checkNotNull;
-
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 
 import de.uni_freiburg.informatik.ultimate.logic.Annotation;
+import de.uni_freiburg.informatik.ultimate.logic.ApplicationTerm;
 import de.uni_freiburg.informatik.ultimate.logic.FunctionSymbol;
 import de.uni_freiburg.informatik.ultimate.logic.Sort;
 import de.uni_freiburg.informatik.ultimate.logic.Term;
@@ -37,6 +36,7 @@ import org.sosy_lab.java_smt.basicimpl.FormulaCreator;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -50,7 +50,6 @@ class SmtInterpolTheoremProver extends SmtInterpolBasicProver<Void, Term>
     implements ProverEnvironment {
 
   private final SmtInterpolFormulaManager mgr;
-  private final SmtInterpolEnvironment env;
   private final Map<String, Term> annotatedTerms; // Collection of termNames
   private final FormulaCreator<Term, Sort, SmtInterpolEnvironment, FunctionSymbol> creator;
   private final boolean generateUnsatCores;
@@ -61,9 +60,7 @@ class SmtInterpolTheoremProver extends SmtInterpolBasicProver<Void, Term>
       Set<ProverOptions> options) {
     super(pMgr);
     mgr = pMgr;
-    env = mgr.createEnvironment();
     creator = pCreator;
-    checkNotNull(env);
     annotatedTerms = new HashMap<>();
     generateUnsatCores = options.contains(ProverOptions.GENERATE_UNSAT_CORE);
   }
@@ -120,17 +117,56 @@ class SmtInterpolTheoremProver extends SmtInterpolBasicProver<Void, Term>
   public <T> T allSat(AllSatCallback<T> callback, List<BooleanFormula> important)
       throws InterruptedException, SolverException {
     Preconditions.checkState(!isClosed());
-    Term[] importantTerms = new Term[important.size()];
-    int i = 0;
-    for (BooleanFormula impF : important) {
-      importantTerms[i++] = mgr.extractInfo(impF);
-    }
+    Term[] importantTerms = getTerms(important);
     for (Term[] model : env.checkAllSat(importantTerms)) {
       callback.apply(Lists.transform(Arrays.asList(model), creator::encapsulateBoolean));
     }
     return callback.getResult();
   }
 
+  @Override
+  public <T> T allSatPolarities(
+      AllSatPolarityCallback<T> callback, List<BooleanFormula> important)
+      throws InterruptedException, SolverException {
+    Preconditions.checkState(!isClosed());
+    Term[] importantTerms = getTerms(important);
+    BitSet values = new BitSet(importantTerms.length);
+    BitSet assigned = new BitSet(importantTerms.length);
+    for (Term[] model : env.checkAllSat(importantTerms)) {
+      values.clear();
+      assigned.clear();
+      // SMTInterpol reports one literal per important term, in the same order,
+      // which is either the term itself or its negation
+      for (int j = 0; j < model.length; j++) {
+        if (model[j] == importantTerms[j]) {
+          assigned.set(j);
+          values.set(j);
+        } else if (isNegationOf(model[j], importantTerms[j])) {
+          assigned.set(j);
+        }
+      }
+      callback.apply(values, assigned);
+    }
+    return callback.getResult();
+  }
+
+  private Term[] getTerms(List<BooleanFormula> formulas) {
+    Term[] terms = new Term[formulas.size()];
+    int i = 0;
+    for (BooleanFormula f : formulas) {
+      terms[i++] = mgr.extractInfo(f);
+    }
+    return terms;
+  }
+
+  private static boolean isNegationOf(Term literal, Term atom) {
+    if (literal instanceof ApplicationTerm) {
+      ApplicationTerm app = (ApplicationTerm) literal;
+      return app.getFunction().getName().equals("not") && app.getParameters()[0] == atom;
+    }
+    return false;
+  }
+
   @Override
   protected Collection<Term> getAssertedTerms() {
     List<Term> result = new ArrayList<>();
@@ -22,6 +22,7 @@ package org.sosy_lab.java_smt.solvers.smtinterpol;
 import de.uni_freiburg.informatik.ultimate.logic.FunctionSymbol;
 import de.uni_freiburg.informatik.ultimate.logic.Sort;
 import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.Theory;
 
 import org.sosy_lab.java_smt.basicimpl.AbstractUFManager;
 
@@ -37,7 +38,10 @@ class SmtInterpolUFManager
   @Override
   public Term createUninterpretedFunctionCallImpl(FunctionSymbol funcDecl, List<Term> pArgs) {
     Term[] args = pArgs.toArray(new Term[pArgs.size()]);
-    return funcDecl.getTheory().term(funcDecl, args);
+    Theory theory = funcDecl.getTheory();
+    synchronized (theory) {
+      return theory.term(funcDecl, args);
+    }
   }
 
   @Override
@@ -0,0 +1,146 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.solvers.smtinterpol;
+
+import de.uni_freiburg.informatik.ultimate.logic.ApplicationTerm;
+import de.uni_freiburg.informatik.ultimate.logic.ConstantTerm;
+import de.uni_freiburg.informatik.ultimate.logic.FunctionSymbol;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.Theory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Translates terms of one SMTInterpol instance into the {@link Theory} of another one,
+ * e.g., from the solver context into the private Theory of a prover and back.
+ *
+ * <p>Uninterpreted functions that are unknown to the target are declared there on first use,
+ * so only the declarations that are actually needed are copied.
+ * Translated terms and sorts are cached, such that each term is translated only once.
+ * The translator itself is not synchronized and creates terms in the target Theory,
+ * so callers have to synchronize on the target Theory if it is shared.
+ */
+class TermTranslator {
+
+  private final Script target;
+  private final Theory targetTheory;
+
+  private final Map<Term, Term> terms = new HashMap<>();
+  private final Map<Sort, Sort> sorts = new HashMap<>();
+
+  TermTranslator(Script pTarget, Theory pTargetTheory) {
+    target = pTarget;
+    targetTheory = pTargetTheory;
+  }
+
+  Term translate(Term input) {
+    if (input.getTheory() == targetTheory) {
+      return input;
+    }
+
+    // iterative post-order traversal, because terms can be nested very deeply
+    Deque<Term> todo = new ArrayDeque<>();
+    todo.push(input);
+    while (!todo.isEmpty()) {
+      Term term = todo.peek();
+      if (terms.containsKey(term)) {
+        todo.pop();
+
+      } else if (term instanceof ConstantTerm) {
+        todo.pop();
+        ConstantTerm constant = (ConstantTerm) term;
+        terms.put(term, targetTheory.constant(constant.getValue(), translate(term.getSort())));
+
+      } else if (term instanceof ApplicationTerm) {
+        Term[] params = ((ApplicationTerm) term).getParameters();
+        boolean finished = true;
+        for (Term param : params) {
+          if (!terms.containsKey(param)) {
+            todo.push(param);
+            finished = false;
+          }
+        }
+        if (finished) {
+          todo.pop();
+          Term[] newParams = new Term[params.length];
+          for (int i = 0; i < params.length; i++) {
+            newParams[i] = terms.get(params[i]);
+          }
+          terms.put(term, translateApplication((ApplicationTerm) term, newParams));
+        }
+
+      } else {
+        throw new IllegalArgumentException(
+            String.format(
+                "Cannot translate SMTInterpol term of type %s: %s",
+                term.getClass().getSimpleName(),
+                term));
+      }
+    }
+    return terms.get(input);
+  }
+
+  Term[] translate(Term[] input) {
+    Term[] result = new Term[input.length];
+    for (int i = 0; i < input.length; i++) {
+      result[i] = translate(input[i]);
+    }
+    return result;
+  }
+
+  private Term translateApplication(ApplicationTerm app, Term[] newParams) {
+    FunctionSymbol func = app.getFunction();
+    if (!func.isIntern()) {
+      Sort[] paramSorts = translate(func.getParameterSorts());
+      if (targetTheory.getFunction(func.getName(), paramSorts) == null) {
+        target.declareFun(func.getName(), paramSorts, translate(func.getReturnSort()));
+      }
+    }
+    Sort returnSort = func.isReturnOverload() ? translate(func.getReturnSort()) : null;
+    return target.term(func.getName(), func.getIndices(), returnSort, newParams);
+  }
+
+  private Sort translate(Sort input) {
+    Sort result = sorts.get(input);
+    if (result == null) {
+      Sort[] args = translate(input.getArguments());
+      if (input.getIndices() == null) {
+        result = target.sort(input.getName(), args);
+      } else {
+        result = target.sort(input.getName(), input.getIndices(), args);
+      }
+      sorts.put(input, result);
+    }
+    return result;
+  }
+
+  private Sort[] translate(Sort[] input) {
+    Sort[] result = new Sort[input.length];
+    for (int i = 0; i < input.length; i++) {
+      result[i] = translate(input[i]);
+    }
+    return result;
+  }
+}
@@ -21,17 +21,47 @@ package org.sosy_lab.java_smt.solvers.z3;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.microsoft.z3.Native;
+import com.microsoft.z3.Z3Exception;
+import com.microsoft.z3.enumerations.Z3_lbool;
 
-import org.sosy_lab.java_smt.api.BasicProverEnvironment;
 import org.sosy_lab.java_smt.api.Model.ValueAssignment;
+import org.sosy_lab.java_smt.api.ResourceLimitException;
 import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.basicimpl.AbstractProver;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+abstract class Z3AbstractProver<T> extends AbstractProver<T> {
+
+  /** The value of the Z3 parameter "timeout" for no timeout (the maximal unsigned integer). */
+  private static final int NO_TIMEOUT = -1;
+
+  /** The reasons for an unknown result that Z3 gives when it hits its timeout. */
+  private static final ImmutableSet<String> TIMEOUT_REASONS =
+      ImmutableSet.of("timeout", "canceled");
 
-abstract class Z3AbstractProver<T> implements BasicProverEnvironment<T> {
   protected final Z3FormulaCreator creator;
   protected final long z3context;
 
   protected boolean closed = false;
 
+  /**
+   * Z3 can only interrupt all operations of a context,
+   * so we guard the native interruption such that it only hits a running check of this prover.
+   * A context is used by one thread at a time, thus no other check can run concurrently.
+   */
+  private final Object interruptLock = new Object();
+
+  private boolean checking = false; // guarded by interruptLock
+
+  private volatile boolean interrupted = false;
+
   protected Z3AbstractProver(Z3FormulaCreator creator) {
     this.creator = creator;
     z3context = creator.getEnv();
@@ -39,6 +69,112 @@ abstract class Z3AbstractProver<T> implements BasicProverEnvironment<T> {
 
   protected abstract long getZ3Model();
 
+  /**
+   * Check satisfiability with the solver of this prover.
+   *
+   * @return the result as {@link Z3_lbool} value.
+   */
+  protected abstract int checkZ3() throws InterruptedException;
+
+  /** Returns the reason for the last unknown result. */
+  protected abstract String getZ3ReasonUnknown();
+
+  /**
+   * Run a native satisfiability check, such that it can be stopped by {@link #interrupt()}.
+   *
+   * @return the result of the check as {@link Z3_lbool} value.
+   */
+  protected final int runCheck(IntSupplier check) throws InterruptedException {
+    synchronized (interruptLock) {
+      throwIfInterrupted();
+      checking = true;
+    }
+    int result;
+    try {
+      result = check.getAsInt();
+    } catch (Z3Exception e) {
+      throwIfInterrupted();
+      throw creator.handleZ3Exception(e);
+    } finally {
+      synchronized (interruptLock) {
+        checking = false;
+      }
+    }
+    throwIfInterrupted();
+    return result;
+  }
+
+  @Override
+  public void interrupt() {
+    interrupted = true;
+    synchronized (interruptLock) {
+      if (checking) {
+        Native.interrupt(z3context);
+      }
+    }
+  }
+
+  private void throwIfInterrupted() throws InterruptedException {
+    if (interrupted) {
+      interrupted = false;
+      throw new InterruptedException("Z3 prover was interrupted");
+    }
+  }
+
+  /** Set the given parameters for the solver of this prover, other parameters are kept. */
+  protected abstract void setZ3Params(long params);
+
+  /** Z3 stops the check itself, so we set its parameter "timeout" for this check. */
+  @Override
+  protected boolean isUnsatWithTimeout(Duration pTimeout)
+      throws SolverException, InterruptedException {
+    Preconditions.checkState(!closed);
+    int previousTimeout = getDefaultTimeout();
+    // Z3 expects an unsigned integer, the maximal value is reserved for NO_TIMEOUT
+    setTimeout((int) Math.min(pTimeout.toMillis(), 0xFFFFFFFEL));
+    int result;
+    try {
+      result = checkZ3();
+    } finally {
+      setTimeout(previousTimeout);
+    }
+    if (result == Z3_lbool.Z3_L_UNDEF.toInt()) {
+      creator.shutdownNotifier.shutdownIfNecessary();
+      String reason = getZ3ReasonUnknown();
+      if (TIMEOUT_REASONS.contains(reason)) {
+        throw new ResourceLimitException(
+            "Z3 exceeded the time limit of " + pTimeout + ", reason: " + reason);
+      }
+      throw new Z3SolverException("Solver returned 'unknown' status, reason: " + reason);
+    }
+    return result == Z3_lbool.Z3_L_FALSE.toInt();
+  }
+
+  /**
+   * Returns the timeout that applies to checks without a time limit,
+   * which is the global parameter "timeout" if the user set it.
+   * Z3 has no API for reading the parameters of a solver,
+   * and this prover sets its timeout only in {@link #isUnsatWithTimeout(Duration)}.
+   */
+  private static int getDefaultTimeout() {
+    Native.StringPtr value = new Native.StringPtr();
+    if (Native.globalParamGet("timeout", value)) {
+      return Integer.parseUnsignedInt(value.value);
+    }
+    return NO_TIMEOUT;
+  }
+
+  private void setTimeout(int millis) {
+    long params = Native.mkParams(z3context);
+    Native.paramsIncRef(z3context, params);
+    Native.paramsSetUint(z3context, params, Native.mkStringSymbol(z3context, "timeout"), millis);
+    setZ3Params(params);
+    Native.paramsDecRef(z3context, params);
+  }
+
+  /** Returns a new Z3_stats object, the caller is responsible for reference counting. */
+  protected abstract long getZ3Statistics();
+
   @Override
   public Z3Model getModel() {
     Preconditions.checkState(!closed);
@@ -52,4 +188,27 @@ abstract class Z3AbstractProver<T> implements BasicProverEnvironment<T> {
       return model.modelToList();
     }
   }
+
+  @Override
+  public ImmutableMap<String, Object> getStatistics() {
+    Preconditions.checkState(!closed);
+    long stats = getZ3Statistics();
+    Native.statsIncRef(z3context, stats);
+    try {
+      int size = Native.statsSize(z3context, stats);
+      // Z3 may report a key more than once, we keep the last value
+      Map<String, Object> result = new LinkedHashMap<>(size);
+      for (int i = 0; i < size; i++) {
+        String key = Native.statsGetKey(z3context, stats, i);
+        if (Native.statsIsUint(z3context, stats, i)) {
+          result.put(key, Integer.toUnsignedLong(Native.statsGetUintValue(z3context, stats, i)));
+        } else {
+          result.put(key, Native.statsGetDoubleValue(z3context, stats, i));
+        }
+      }
+      return ImmutableMap.copyOf(result);
+    } finally {
+      Native.statsDecRef(z3context, stats);
+    }
+  }
 }
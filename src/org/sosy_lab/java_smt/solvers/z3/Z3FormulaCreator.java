@@ -50,6 +50,7 @@ import org.sosy_lab.java_smt.api.FloatingPointRoundingMode;
 import org.sosy_lab.java_smt.api.Formula;
 import org.sosy_lab.java_smt.api.FormulaType;
 import org.sosy_lab.java_smt.api.FormulaType.ArrayFormulaType;
+import org.sosy_lab.java_smt.api.FormulaType.FloatingPointType;
 import org.sosy_lab.java_smt.api.FunctionDeclarationKind;
 import org.sosy_lab.java_smt.api.QuantifiedFormulaManager.Quantifier;
 import org.sosy_lab.java_smt.api.SolverException;
@@ -72,6 +73,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import javax.annotation.Nullable;
+
 @Options(prefix = "solver.z3")
 class Z3FormulaCreator extends FormulaCreator<Long, Long, Long, Long> {
 
@@ -538,12 +541,30 @@ class Z3FormulaCreator extends FormulaCreator<Long, Long, Long, Long> {
       if (type.isBooleanType()) {
         return isOP(environment, value, Z3_decl_kind.Z3_OP_TRUE.toInt());
       } else if (type.isIntegerType()) {
+        Native.LongPtr out = new Native.LongPtr();
+        if (Native.getNumeralInt64(environment, value, out)) {
+          return toBigInteger(out.value);
+        }
         return new BigInteger(Native.getNumeralString(environment, value));
       } else if (type.isRationalType()) {
+        Native.LongPtr num = new Native.LongPtr();
+        Native.LongPtr den = new Native.LongPtr();
+        if (Native.isNumeralAst(environment, value)
+            && Native.getNumeralSmall(environment, value, num, den)) {
+          return Rational.of(toBigInteger(num.value), toBigInteger(den.value));
+        }
         return Rational.ofString(Native.getNumeralString(environment, value));
       } else if (type.isBitvectorType()) {
+        Native.LongPtr out = new Native.LongPtr();
+        if (Native.getNumeralUint64(environment, value, out) && out.value >= 0) {
+          return toBigInteger(out.value);
+        }
         return new BigInteger(Native.getNumeralString(environment, value));
       } else if (type.isFloatingPointType()) {
+        Rational number = convertFloatingPoint((FloatingPointType) type, value);
+        if (number != null) {
+          return number;
+        }
 
         // Converting to Rational first.
         return convertValue(Native.simplify(environment, Native.mkFpaToReal(environment, value)));
@@ -558,6 +579,66 @@ class Z3FormulaCreator extends FormulaCreator<Long, Long, Long, Long> {
     }
   }
 
+  /**
+   * Build the exact value of a floating-point numeral directly from its sign, exponent and
+   * significand. The result is the same {@link Rational} that simplifying fp.to_real returns.
+   * Special values (zeros, infinities, NaN) are handled by {@link #Z3_CONSTANTS}.
+   *
+   * @return the value, or null if the significand or exponent do not fit into 64 bits.
+   */
+  @Nullable
+  private Rational convertFloatingPoint(FloatingPointType type, long value) {
+    Native.IntPtr sign = new Native.IntPtr();
+    Native.LongPtr significand = new Native.LongPtr();
+    Native.LongPtr exponent = new Native.LongPtr();
+    if (!Native.fpaGetNumeralSign(environment, value, sign)
+        || !Native.fpaGetNumeralSignificandUint64(environment, value, significand)
+        || !Native.fpaGetNumeralExponentInt64(environment, value, exponent)
+        || significand.value < 0) {
+      return null;
+    }
+
+    // Z3 returns the unbiased exponent and the significand without the hidden bit.
+    // Subnormal numbers have the minimal exponent 1-bias (like the smallest normal numbers),
+    // but no hidden bit, so we have to check for them explicitly.
+    int mantissaSize = type.getMantissaSize();
+    long minExponent = 2 - (1L << (type.getExponentSize() - 1));
+    BigInteger mantissa = BigInteger.valueOf(significand.value);
+    long exp = exponent.value;
+    if (exp <= minExponent && isSubnormal(value)) {
+      exp = minExponent;
+    } else {
+      mantissa = mantissa.setBit(mantissaSize);
+    }
+
+    long shift = exp - mantissaSize;
+    if (Math.abs(shift) > Integer.MAX_VALUE) {
+      return null;
+    }
+    Rational result =
+        shift >= 0
+            ? Rational.ofBigInteger(mantissa.shiftLeft((int) shift))
+            : Rational.of(mantissa, BigInteger.ONE.shiftLeft((int) -shift));
+    return sign.value != 0 ? result.negate() : result;
+  }
+
+  /** Check whether a floating-point numeral is subnormal. */
+  private boolean isSubnormal(long value) {
+    long check = Native.mkFpaIsSubnormal(environment, value);
+    Native.incRef(environment, check);
+    try {
+      long result = Native.simplify(environment, check);
+      Native.incRef(environment, result);
+      try {
+        return isOP(environment, result, Z3_decl_kind.Z3_OP_TRUE.toInt());
+      } finally {
+        Native.decRef(environment, result);
+      }
+    } finally {
+      Native.decRef(environment, check);
+    }
+  }
+
   @Override
   public Long callFunctionImpl(FunctionDeclarationImpl<?, Long> declaration, List<Long> args) {
     return Native.mkApp(
@@ -20,8 +20,10 @@
 package org.sosy_lab.java_smt.solvers.z3;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.HashMultiset;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Multiset;
 import com.google.common.collect.Sets;
 import com.google.common.primitives.Longs;
 import com.microsoft.z3.Native;
@@ -37,6 +39,7 @@ import org.sosy_lab.java_smt.api.QuantifiedFormulaManager.Quantifier;
 import org.sosy_lab.java_smt.api.SolverException;
 import org.sosy_lab.java_smt.api.visitors.DefaultFormulaVisitor;
 import org.sosy_lab.java_smt.api.visitors.TraversalProcess;
+import org.sosy_lab.java_smt.basicimpl.InterpolationCuts;
 
 import java.io.IOException;
 import java.io.Writer;
@@ -44,7 +47,6 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.logging.Level;
@@ -101,13 +103,17 @@ class Z3InterpolatingProver extends Z3SolverBasedProver<Long>
 
     // calc difference: formulasOfB := assertedFormulas - formulasOfA
     // we have to handle equal formulas on the stack,
-    // so we copy the whole stack and remove the formulas of A once.
-    final List<Long> formulasOfB = new LinkedList<>();
-    assertedFormulas.forEach(formulasOfB::addAll);
-    for (long af : formulasOfA) {
-      boolean check = formulasOfB.remove(af); // remove only first occurrence
-      assert check : "formula from A must be part of all asserted formulas";
+    // so we count the formulas of A and skip each of them once while traversing the stack.
+    final Multiset<Long> remainingOfA = HashMultiset.create(formulasOfA);
+    final List<Long> formulasOfB = new ArrayList<>();
+    for (List<Long> level : assertedFormulas) {
+      for (Long f : level) {
+        if (!remainingOfA.remove(f)) { // remove only one occurrence
+          formulasOfB.add(f);
+        }
+      }
     }
+    assert remainingOfA.isEmpty() : "formulas from A must be part of all asserted formulas";
 
     // binary interpolant is a sequence interpolant of only 2 elements
     return Iterables.getOnlyElement(
@@ -115,6 +121,15 @@ class Z3InterpolatingProver extends Z3SolverBasedProver<Long>
             ImmutableList.of(Sets.newHashSet(formulasOfA), Sets.newHashSet(formulasOfB))));
   }
 
+  @Override
+  public List<BooleanFormula> getInterpolants(List<List<Long>> cuts)
+      throws InterruptedException, SolverException {
+    Preconditions.checkState(!closed);
+    List<Long> allFormulas = new ArrayList<>();
+    assertedFormulas.forEach(allFormulas::addAll);
+    return InterpolationCuts.getInterpolants(this, cuts, allFormulas);
+  }
+
   @Override
   public List<BooleanFormula> getSeqInterpolants(List<Set<Long>> partitionedFormulas)
       throws InterruptedException, SolverException {
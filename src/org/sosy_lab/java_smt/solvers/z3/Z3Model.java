@@ -22,18 +22,21 @@ package org.sosy_lab.java_smt.solvers.z3;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Verify;
 import com.google.common.base.VerifyException;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableList.Builder;
 import com.google.common.collect.Lists;
 import com.microsoft.z3.Native;
 
 import org.sosy_lab.java_smt.api.Formula;
 import org.sosy_lab.java_smt.basicimpl.AbstractModel.CachingAbstractModel;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.OptionalLong;
 import java.util.regex.Pattern;
 
 import javax.annotation.Nullable;
@@ -47,6 +50,8 @@ class Z3Model extends CachingAbstractModel<Long, Long, Long> {
   @SuppressWarnings("hiding")
   private final Z3FormulaCreator creator;
 
+  private boolean closed = false;
+
   private Z3Model(long z3context, long z3model, Z3FormulaCreator pCreator) {
     super(pCreator);
     Native.modelIncRef(z3context, z3model);
@@ -62,11 +67,28 @@ class Z3Model extends CachingAbstractModel<Long, Long, Long> {
   @Nullable
   @Override
   public Object evaluateImpl(Long f) {
+    return evaluate(f, new Native.LongPtr());
+  }
+
+  @Override
+  protected Object[] evaluateAllImpl(List<Long> fs) {
     Native.LongPtr out = new Native.LongPtr();
+    Object[] values = new Object[fs.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = evaluate(fs.get(i), out);
+    }
+    return values;
+  }
+
+  @Nullable
+  private Object evaluate(long f, Native.LongPtr out) {
     boolean status = Native.modelEval(z3context, model, f, false, out);
     Verify.verify(status, "Error during model evaluation");
-    long outValue = out.value;
+    return convertEvaluation(out.value);
+  }
 
+  @Nullable
+  private Object convertEvaluation(long outValue) {
     if (creator.isConstant(outValue)) {
       return creator.convertValue(outValue);
     }
@@ -77,30 +99,90 @@ class Z3Model extends CachingAbstractModel<Long, Long, Long> {
     return null;
   }
 
+  @Override
+  protected OptionalLong evaluateLongImpl(Long f, boolean isBitvector) {
+    Native.LongPtr out = new Native.LongPtr();
+    boolean status = Native.modelEval(z3context, model, f, false, out);
+    Verify.verify(status, "Error during model evaluation");
+    long outValue = out.value;
+
+    Native.incRef(z3context, outValue);
+    try {
+      if (Native.isNumeralAst(z3context, outValue)) {
+        boolean fits =
+            isBitvector
+                ? Native.getNumeralUint64(z3context, outValue, out)
+                : Native.getNumeralInt64(z3context, outValue, out);
+        if (fits) {
+          return OptionalLong.of(out.value);
+        }
+      }
+      // no numeral or a value that is too large, the slow path reports it
+      return toOptionalLong((BigInteger) convertEvaluation(outValue), isBitvector);
+    } finally {
+      Native.decRef(z3context, outValue);
+    }
+  }
+
   @Override
   protected ImmutableList<ValueAssignment> modelToList() {
-    Builder<ValueAssignment> out = ImmutableList.builder();
+    return ImmutableList.copyOf(modelIterator());
+  }
 
-    // Iterate through constants.
-    for (int constIdx = 0; constIdx < Native.modelGetNumConsts(z3context, model); constIdx++) {
-      long keyDecl = Native.modelGetConstDecl(z3context, model, constIdx);
-      Native.incRef(z3context, keyDecl);
-      out.addAll(getConstAssignments(keyDecl));
+  /**
+   * Iterate through constants and then through function applications,
+   * converting the entries of one declaration at a time.
+   * The iteration can not be continued after the model is closed.
+   */
+  @Override
+  protected Iterator<ValueAssignment> modelIterator() {
+    final int numConsts = Native.modelGetNumConsts(z3context, model);
+    final int numFuncs = Native.modelGetNumFuncs(z3context, model);
+    return new AbstractIterator<ValueAssignment>() {
+
+      private int declIdx = 0;
+      private Iterator<ValueAssignment> current = Collections.emptyIterator();
+
+      @Override
+      protected ValueAssignment computeNext() {
+        Preconditions.checkState(!closed, "Model is closed, cannot continue iteration");
+        while (!current.hasNext()) {
+          if (declIdx < numConsts) {
+            current = getConstAssignmentsAt(declIdx).iterator();
+          } else if (declIdx < numConsts + numFuncs) {
+            current = getFunctionAssignmentsAt(declIdx - numConsts).iterator();
+          } else {
+            return endOfData();
+          }
+          declIdx++;
+        }
+        return current.next();
+      }
+    };
+  }
+
+  private Collection<ValueAssignment> getConstAssignmentsAt(int constIdx) {
+    long keyDecl = Native.modelGetConstDecl(z3context, model, constIdx);
+    Native.incRef(z3context, keyDecl);
+    try {
+      return getConstAssignments(keyDecl);
+    } finally {
       Native.decRef(z3context, keyDecl);
     }
+  }
 
-    // Iterate through function applications.
-    for (int funcIdx = 0; funcIdx < Native.modelGetNumFuncs(z3context, model); funcIdx++) {
-      long funcDecl = Native.modelGetFuncDecl(z3context, model, funcIdx);
-      Native.incRef(z3context, funcDecl);
-      if (!isInternalSymbol(funcDecl)) {
-        String functionName = creator.symbolToString(Native.getDeclName(z3context, funcDecl));
-        out.addAll(getFunctionAssignments(funcDecl, funcDecl, functionName));
+  private Collection<ValueAssignment> getFunctionAssignmentsAt(int funcIdx) {
+    long funcDecl = Native.modelGetFuncDecl(z3context, model, funcIdx);
+    Native.incRef(z3context, funcDecl);
+    try {
+      if (isInternalSymbol(funcDecl)) {
+        return Collections.emptyList();
       }
+      String functionName = creator.symbolToString(Native.getDeclName(z3context, funcDecl));
+      return getFunctionAssignments(funcDecl, funcDecl, functionName);
+    } finally {
       Native.decRef(z3context, funcDecl);
     }
-
-    return out.build();
   }
 
   /**
@@ -302,5 +384,6 @@ class Z3Model extends CachingAbstractModel<Long, Long, Long> {
   @Override
   public void close() {
     Native.modelDecRef(z3context, model);
+    closed = true;
   }
 }
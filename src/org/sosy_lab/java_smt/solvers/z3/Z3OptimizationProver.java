@@ -22,7 +22,6 @@ package org.sosy_lab.java_smt.solvers.z3;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import com.microsoft.z3.Native;
-import com.microsoft.z3.Z3Exception;
 import com.microsoft.z3.enumerations.Z3_lbool;
 
 import org.sosy_lab.common.log.LogManager;
@@ -83,12 +82,7 @@ class Z3OptimizationProver extends Z3AbstractProver<Void> implements Optimizatio
   @Override
   public OptStatus check() throws InterruptedException, SolverException {
     Preconditions.checkState(!closed);
-    int status;
-    try {
-      status = Native.optimizeCheck(z3context, z3optContext);
-    } catch (Z3Exception ex) {
-      throw creator.handleZ3Exception(ex);
-    }
+    int status = checkZ3();
     if (status == Z3_lbool.Z3_L_FALSE.toInt()) {
       return OptStatus.UNSAT;
     } else if (status == Z3_lbool.Z3_L_UNDEF.toInt()) {
@@ -96,7 +90,7 @@ class Z3OptimizationProver extends Z3AbstractProver<Void> implements Optimizatio
       logger.log(
           Level.INFO,
           "Solver returned an unknown status, explanation: ",
-          Native.optimizeGetReasonUnknown(z3context, z3optContext));
+          getZ3ReasonUnknown());
       return OptStatus.UNDEF;
     } else {
       return OptStatus.OPT;
@@ -141,11 +135,31 @@ class Z3OptimizationProver extends Z3AbstractProver<Void> implements Optimizatio
     return Optional.of(rationalFromZ3AST(replaceEpsilon(ast, epsilon)));
   }
 
+  @Override
+  protected int checkZ3() throws InterruptedException {
+    return runCheck(() -> Native.optimizeCheck(z3context, z3optContext));
+  }
+
+  @Override
+  protected String getZ3ReasonUnknown() {
+    return Native.optimizeGetReasonUnknown(z3context, z3optContext);
+  }
+
+  @Override
+  protected void setZ3Params(long params) {
+    Native.optimizeSetParams(z3context, z3optContext, params);
+  }
+
   @Override
   protected long getZ3Model() {
     return Native.optimizeGetModel(z3context, z3optContext);
   }
 
+  @Override
+  protected long getZ3Statistics() {
+    return Native.optimizeGetStatistics(z3context, z3optContext);
+  }
+
   void setParam(String key, String value) {
     long keySymbol = Native.mkStringSymbol(z3context, key);
     long valueSymbol = Native.mkStringSymbol(z3context, value);
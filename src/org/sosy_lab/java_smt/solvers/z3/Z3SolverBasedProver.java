@@ -22,7 +22,6 @@ package org.sosy_lab.java_smt.solvers.z3;
 import com.google.common.base.Preconditions;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import com.microsoft.z3.Native;
-import com.microsoft.z3.Z3Exception;
 import com.microsoft.z3.enumerations.Z3_lbool;
 
 import org.sosy_lab.java_smt.api.BooleanFormula;
@@ -46,31 +45,26 @@ abstract class Z3SolverBasedProver<T> extends Z3AbstractProver<T> {
   @Override
   public boolean isUnsat() throws Z3SolverException, InterruptedException {
     Preconditions.checkState(!closed);
-    int result;
-    try {
-      result = Native.solverCheck(z3context, z3solver);
-    } catch (Z3Exception e) {
-      throw creator.handleZ3Exception(e);
-    }
+    int result = checkZ3();
     undefinedStatusToException(result);
     return result == Z3_lbool.Z3_L_FALSE.toInt();
   }
 
+  @Override
+  protected int checkZ3() throws InterruptedException {
+    return runCheck(() -> Native.solverCheck(z3context, z3solver));
+  }
+
   public boolean isUnsatWithAssumptions(Collection<BooleanFormula> assumptions)
       throws Z3SolverException, InterruptedException {
     Preconditions.checkState(!closed);
 
-    int result;
-    try {
-      result =
-          Native.solverCheckAssumptions(
-              z3context,
-              z3solver,
-              assumptions.size(),
-              assumptions.stream().mapToLong(creator::extractInfo).toArray());
-    } catch (Z3Exception e) {
-      throw creator.handleZ3Exception(e);
-    }
+    long[] z3assumptions = assumptions.stream().mapToLong(creator::extractInfo).toArray();
+    int result =
+        runCheck(
+            () ->
+                Native.solverCheckAssumptions(
+                    z3context, z3solver, z3assumptions.length, z3assumptions));
     undefinedStatusToException(result);
     return result == Z3_lbool.Z3_L_FALSE.toInt();
   }
@@ -80,16 +74,30 @@ abstract class Z3SolverBasedProver<T> extends Z3AbstractProver<T> {
     if (solverStatus == Z3_lbool.Z3_L_UNDEF.toInt()) {
       creator.shutdownNotifier.shutdownIfNecessary();
       throw new Z3SolverException(
-          "Solver returned 'unknown' status, reason: "
-              + Native.solverGetReasonUnknown(z3context, z3solver));
+          "Solver returned 'unknown' status, reason: " + getZ3ReasonUnknown());
     }
   }
 
+  @Override
+  protected String getZ3ReasonUnknown() {
+    return Native.solverGetReasonUnknown(z3context, z3solver);
+  }
+
+  @Override
+  protected void setZ3Params(long params) {
+    Native.solverSetParams(z3context, z3solver, params);
+  }
+
   @Override
   protected long getZ3Model() {
     return Native.solverGetModel(z3context, z3solver);
   }
 
+  @Override
+  protected long getZ3Statistics() {
+    return Native.solverGetStatistics(z3context, z3solver);
+  }
+
   @CanIgnoreReturnValue
   protected long addConstraint0(BooleanFormula f) {
     Preconditions.checkState(!closed);
@@ -79,7 +79,6 @@ final class Z3SolverContext extends AbstractSolverContext {
   private final long z3params;
   private final LogManager logger;
   private final Z3FormulaCreator creator;
-  private final Z3FormulaManager manager;
 
   private static final String OPT_ENGINE_CONFIG_KEY = "optsmt_engine";
   private static final String OPT_PRIORITY_CONFIG_KEY = "priority";
@@ -118,7 +117,6 @@ final class Z3SolverContext extends AbstractSolverContext {
     interruptListener = pInterruptListener;
     pShutdownNotifier.register(interruptListener);
     logger = pLogger;
-    manager = pManager;
   }
 
   public static synchronized Z3SolverContext create(
@@ -233,7 +231,7 @@ final class Z3SolverContext extends AbstractSolverContext {
 
   @Override
   protected ProverEnvironment newProverEnvironment0(Set<ProverOptions> options) {
-    return new Z3TheoremProver(creator, manager, z3params, options);
+    return new Z3TheoremProver(creator, z3params, options);
   }
 
   @Override
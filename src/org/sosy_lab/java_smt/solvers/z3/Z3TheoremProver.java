@@ -27,16 +27,17 @@ import com.microsoft.z3.Native;
 import com.microsoft.z3.Z3Exception;
 import com.microsoft.z3.enumerations.Z3_decl_kind;
 
-import org.sosy_lab.common.UniqueIdGenerator;
 import org.sosy_lab.java_smt.api.BooleanFormula;
-import org.sosy_lab.java_smt.api.FormulaManager;
 import org.sosy_lab.java_smt.api.ProverEnvironment;
 import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
 import org.sosy_lab.java_smt.api.SolverException;
-import org.sosy_lab.java_smt.basicimpl.LongArrayBackedList;
+import org.sosy_lab.java_smt.basicimpl.ListAllSatCallback;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,19 +48,25 @@ import javax.annotation.Nullable;
 
 class Z3TheoremProver extends Z3SolverBasedProver<Void> implements ProverEnvironment {
 
-  private final UniqueIdGenerator trackId = new UniqueIdGenerator();
-  private final FormulaManager mgr;
+  private static final String UNSAT_CORE_TEMP_VARNAME = "Z3_UNSAT_CORE";
 
-  private static final String UNSAT_CORE_TEMP_VARNAME = "Z3_UNSAT_CORE_%d";
+  /**
+   * The constraints with unsat-core tracking, keyed by the AST id of their tracking literal.
+   * Null if unsat-core generation is disabled.
+   */
+  private final @Nullable Map<Integer, BooleanFormula> storedConstraints;
 
-  private final @Nullable Map<String, BooleanFormula> storedConstraints;
+  /** The tracking literal of each tracked constraint, keyed by the AST id of the constraint. */
+  private final Map<Integer, Long> trackingLiterals = new HashMap<>();
 
-  Z3TheoremProver(
-      Z3FormulaCreator creator, Z3FormulaManager pMgr, long z3params, Set<ProverOptions> opts) {
+  /** The tracked constraints of each level, these are untracked when the level is popped. */
+  private final Deque<List<BooleanFormula>> trackedConstraints = new ArrayDeque<>();
+
+  Z3TheoremProver(Z3FormulaCreator creator, long z3params, Set<ProverOptions> opts) {
     super(creator, z3params);
-    mgr = pMgr;
     if (opts.contains(ProverOptions.GENERATE_UNSAT_CORE)) {
       storedConstraints = new HashMap<>();
+      trackedConstraints.push(new ArrayList<>());
     } else {
       storedConstraints = null;
     }
@@ -72,19 +79,54 @@ class Z3TheoremProver extends Z3SolverBasedProver<Void> implements ProverEnviron
 
     if (storedConstraints != null) { // Unsat core generation is on.
       long e = Z3FormulaManager.getZ3Expr(f);
+      int id = Native.getAstId(z3context, e);
+      if (trackingLiterals.containsKey(id)) {
+        // the same constraint is already asserted and tracked on this or a lower level
+        return null;
+      }
       Native.incRef(z3context, e);
-      String varName = String.format(UNSAT_CORE_TEMP_VARNAME, trackId.getFreshId());
-      BooleanFormula t = mgr.getBooleanFormulaManager().makeVariable(varName);
+      long literal =
+          Native.mkFreshConst(z3context, UNSAT_CORE_TEMP_VARNAME, Native.mkBoolSort(z3context));
+      Native.incRef(z3context, literal);
 
-      Native.solverAssertAndTrack(z3context, z3solver, e, creator.extractInfo(t));
-      storedConstraints.put(varName, f);
-      Native.decRef(z3context, e);
+      Native.solverAssertAndTrack(z3context, z3solver, e, literal);
+      trackingLiterals.put(id, literal);
+      storedConstraints.put(Native.getAstId(z3context, literal), f);
+      trackedConstraints.peek().add(f);
     } else {
       super.addConstraint0(f);
     }
     return null;
   }
 
+  @Override
+  public void push() {
+    super.push();
+    if (storedConstraints != null) {
+      trackedConstraints.push(new ArrayList<>());
+    }
+  }
+
+  @Override
+  public void pop() {
+    super.pop();
+    if (storedConstraints != null) {
+      untrack(trackedConstraints.pop());
+    }
+  }
+
+  /** Remove the tracking literals of the given constraints and release their terms. */
+  private void untrack(List<BooleanFormula> constraints) {
+    assert storedConstraints != null;
+    for (BooleanFormula f : constraints) {
+      long e = Z3FormulaManager.getZ3Expr(f);
+      long literal = trackingLiterals.remove(Native.getAstId(z3context, e));
+      storedConstraints.remove(Native.getAstId(z3context, literal));
+      Native.decRef(z3context, literal);
+      Native.decRef(z3context, e);
+    }
+  }
+
   @Override
   public Optional<List<BooleanFormula>> unsatCoreOverAssumptions(
       Collection<BooleanFormula> assumptions) throws SolverException, InterruptedException {
@@ -116,10 +158,7 @@ class Z3TheoremProver extends Z3SolverBasedProver<Void> implements ProverEnviron
     Native.astVectorIncRef(z3context, unsatCore);
     for (int i = 0; i < Native.astVectorSize(z3context, unsatCore); i++) {
       long ast = Native.astVectorGet(z3context, unsatCore, i);
-      Native.incRef(z3context, ast);
-      String varName = Native.astToString(z3context, ast);
-      Native.decRef(z3context, ast);
-      constraints.add(storedConstraints.get(varName));
+      constraints.add(storedConstraints.get(Native.getAstId(z3context, ast)));
     }
     Native.astVectorDecRef(z3context, unsatCore);
     return constraints;
@@ -129,6 +168,21 @@ class Z3TheoremProver extends Z3SolverBasedProver<Void> implements ProverEnviron
   public <T> T allSat(AllSatCallback<T> callback, List<BooleanFormula> important)
       throws InterruptedException, SolverException {
     Preconditions.checkState(!closed);
+    return allSatPolarities(
+        new ListAllSatCallback<>(
+            callback,
+            important,
+            f ->
+                creator.encapsulateBoolean(
+                    Native.mkNot(z3context, Z3FormulaManager.getZ3Expr(f)))),
+        important);
+  }
+
+  @Override
+  public <T> T allSatPolarities(
+      AllSatPolarityCallback<T> callback, List<BooleanFormula> important)
+      throws InterruptedException, SolverException {
+    Preconditions.checkState(!closed);
 
     // Unpack formulas to terms.
     long[] importantFormulas = new long[important.size()];
@@ -143,9 +197,15 @@ class Z3TheoremProver extends Z3SolverBasedProver<Void> implements ProverEnviron
       throw creator.handleZ3Exception(e);
     }
 
+    // Z3 always reports complete models
+    BitSet values = new BitSet(importantFormulas.length);
+    BitSet assigned = new BitSet(importantFormulas.length);
+    assigned.set(0, importantFormulas.length);
+    long[] valuesOfModel = new long[importantFormulas.length];
+
     while (!isUnsat()) {
-      long[] valuesOfModel = new long[importantFormulas.length];
       long z3model = Native.solverGetModel(z3context, z3solver);
+      values.clear();
 
       for (int j = 0; j < importantFormulas.length; j++) {
         long funcDecl = Native.getAppDecl(z3context, importantFormulas[j]);
@@ -165,23 +225,21 @@ class Z3TheoremProver extends Z3SolverBasedProver<Void> implements ProverEnviron
 
         if (isOP(z3context, valueOfExpr, Z3_decl_kind.Z3_OP_FALSE.toInt())) {
           valuesOfModel[j] = Native.mkNot(z3context, importantFormulas[j]);
-          Native.incRef(z3context, valuesOfModel[j]);
         } else {
           valuesOfModel[j] = importantFormulas[j];
+          values.set(j);
         }
+        Native.incRef(z3context, valuesOfModel[j]);
       }
 
-      callback.apply(
-          new LongArrayBackedList<BooleanFormula>(valuesOfModel) {
-            @Override
-            protected BooleanFormula convert(long pE) {
-              return creator.encapsulateBoolean(pE);
-            }
-          });
+      callback.apply(values, assigned);
 
       long negatedModel =
           Native.mkNot(z3context, Native.mkAnd(z3context, valuesOfModel.length, valuesOfModel));
       Native.incRef(z3context, negatedModel);
+      for (long literal : valuesOfModel) {
+        Native.decRef(z3context, literal);
+      }
       Native.solverAssert(z3context, z3solver, negatedModel);
     }
 
@@ -189,4 +247,13 @@ class Z3TheoremProver extends Z3SolverBasedProver<Void> implements ProverEnviron
     Native.solverPop(z3context, z3solver, 1);
     return callback.getResult();
   }
+
+  @Override
+  public void close() {
+    super.close();
+    if (storedConstraints != null) {
+      untrack(trackedConstraints.pop());
+      assert trackingLiterals.isEmpty() && storedConstraints.isEmpty();
+    }
+  }
 }
@@ -0,0 +1,233 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.statistics;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects counts and timings of solver operations.
+ *
+ * <p>All counters are striped per thread ({@link LongAdder}),
+ * such that recording is lock-free and cheap even if several provers
+ * of the same context are used from different threads.
+ * Use {@link #snapshot()} to get an immutable view of the current values.
+ */
+public final class SolverStatistics {
+
+  /** The operations of a prover environment that are measured. */
+  public enum Operation {
+    PUSH,
+    POP,
+    ADD_CONSTRAINT,
+    IS_UNSAT,
+    IS_UNSAT_WITH_ASSUMPTIONS,
+    UNSAT_CORE_OVER_ASSUMPTIONS,
+    GET_MODEL,
+    GET_MODEL_ASSIGNMENTS,
+    GET_UNSAT_CORE,
+    ALL_SAT,
+    GET_INTERPOLANT,
+    GET_INTERPOLANTS,
+    GET_SEQ_INTERPOLANTS,
+    GET_TREE_INTERPOLANTS,
+    OPTIMIZE,
+  }
+
+  /**
+   * Number of histogram buckets, bucket {@code i} counts the calls
+   * that took at least 2^i and less than 2^(i+1) nanoseconds.
+   */
+  static final int BUCKETS = Long.SIZE;
+
+  private final EnumMap<Operation, OperationCounter> operations = new EnumMap<>(Operation.class);
+  private final ConcurrentMap<String, LongAdder> formulaCreations = new ConcurrentHashMap<>();
+
+  SolverStatistics() {
+    for (Operation op : Operation.values()) {
+      operations.put(op, new OperationCounter());
+    }
+  }
+
+  /** Record one call of an operation that took the given time. */
+  void record(Operation op, long nanos) {
+    operations.get(op).record(nanos);
+  }
+
+  /** Record the creation of a formula with a method of the given formula manager. */
+  void recordFormulaCreation(String manager) {
+    formulaCreations.computeIfAbsent(manager, k -> new LongAdder()).increment();
+  }
+
+  /**
+   * Return a copy of the current values.
+   * Operations running concurrently may or may not be included.
+   */
+  public Snapshot snapshot() {
+    ImmutableMap.Builder<Operation, OperationSnapshot> ops = ImmutableMap.builder();
+    for (Map.Entry<Operation, OperationCounter> entry : operations.entrySet()) {
+      ops.put(entry.getKey(), entry.getValue().snapshot());
+    }
+    ImmutableSortedMap.Builder<String, Long> formulas = ImmutableSortedMap.naturalOrder();
+    for (Map.Entry<String, LongAdder> entry : formulaCreations.entrySet()) {
+      formulas.put(entry.getKey(), entry.getValue().sum());
+    }
+    return new Snapshot(ops.build(), formulas.build());
+  }
+
+  private static final class OperationCounter {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+    OperationCounter() {
+      for (int i = 0; i < BUCKETS; i++) {
+        histogram[i] = new LongAdder();
+      }
+    }
+
+    void record(long nanos) {
+      long positive = Math.max(nanos, 1);
+      count.increment();
+      totalNanos.add(positive);
+      maxNanos.accumulate(positive);
+      histogram[BUCKETS - 1 - Long.numberOfLeadingZeros(positive)].increment();
+    }
+
+    OperationSnapshot snapshot() {
+      long[] buckets = new long[BUCKETS];
+      for (int i = 0; i < BUCKETS; i++) {
+        buckets[i] = histogram[i].sum();
+      }
+      return new OperationSnapshot(count.sum(), totalNanos.sum(), maxNanos.get(), buckets);
+    }
+  }
+
+  /** Immutable values of all operations and formula managers at one point in time. */
+  public static final class Snapshot {
+
+    private final ImmutableMap<Operation, OperationSnapshot> operations;
+    private final ImmutableSortedMap<String, Long> formulaCreations;
+
+    private Snapshot(
+        ImmutableMap<Operation, OperationSnapshot> pOperations,
+        ImmutableSortedMap<String, Long> pFormulaCreations) {
+      operations = pOperations;
+      formulaCreations = pFormulaCreations;
+    }
+
+    public OperationSnapshot get(Operation op) {
+      return operations.get(op);
+    }
+
+    public ImmutableMap<Operation, OperationSnapshot> getOperations() {
+      return operations;
+    }
+
+    /** Number of created formulas per formula manager, e.g., "BooleanFormulaManager". */
+    public ImmutableSortedMap<String, Long> getFormulaCreations() {
+      return formulaCreations;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder str = new StringBuilder();
+      for (Map.Entry<Operation, OperationSnapshot> entry : operations.entrySet()) {
+        if (entry.getValue().getCount() > 0) {
+          str.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+      }
+      for (Map.Entry<String, Long> entry : formulaCreations.entrySet()) {
+        str.append(entry.getKey())
+            .append(": ")
+            .append(entry.getValue())
+            .append(" formulas\n");
+      }
+      return str.toString();
+    }
+  }
+
+  /** Immutable values of one operation. */
+  public static final class OperationSnapshot {
+
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long[] histogram;
+
+    private OperationSnapshot(long pCount, long pTotalNanos, long pMaxNanos, long[] pHistogram) {
+      count = pCount;
+      totalNanos = pTotalNanos;
+      maxNanos = pMaxNanos;
+      histogram = pHistogram;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public Duration getTotalTime() {
+      return Duration.ofNanos(totalNanos);
+    }
+
+    public Duration getMaxTime() {
+      return Duration.ofNanos(maxNanos);
+    }
+
+    public Duration getAverageTime() {
+      return count == 0 ? Duration.ZERO : Duration.ofNanos(totalNanos / count);
+    }
+
+    /**
+     * Number of calls per time bucket.
+     * Entry {@code i} counts the calls that took at least 2^i and less than 2^(i+1) nanoseconds.
+     */
+    public long[] getHistogram() {
+      return histogram.clone();
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder buckets = new StringBuilder();
+      for (int i = 0; i < histogram.length; i++) {
+        if (histogram[i] > 0) {
+          buckets.append(" 2^").append(i).append("ns: ").append(histogram[i]);
+        }
+      }
+      return String.format(
+          "%d calls, total %s, avg %s, max %s, histogram%s",
+          count,
+          getTotalTime(),
+          getAverageTime(),
+          getMaxTime(),
+          buckets);
+    }
+  }
+}
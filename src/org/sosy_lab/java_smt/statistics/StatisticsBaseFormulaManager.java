@@ -0,0 +1,49 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.statistics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.sosy_lab.java_smt.api.Formula;
+
+/**
+ * Common base of the wrappers for formula managers
+ * that count the formulas created by each manager.
+ */
+abstract class StatisticsBaseFormulaManager {
+
+  private final String name;
+  private final SolverStatistics stats;
+
+  StatisticsBaseFormulaManager(String pName, SolverStatistics pStats) {
+    name = checkNotNull(pName);
+    stats = checkNotNull(pStats);
+  }
+
+  final SolverStatistics getStatistics() {
+    return stats;
+  }
+
+  /** Count the creation of a formula and return it. */
+  final <T extends Formula> T record(T formula) {
+    stats.recordFormulaCreation(name);
+    return formula;
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.statistics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import org.sosy_lab.java_smt.api.BasicProverEnvironment;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.Model.ValueAssignment;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.statistics.SolverStatistics.Operation;
+
+import java.time.Duration;
+
+/**
+ * Wraps a basic prover environment and records the time of each operation.
+ */
+class StatisticsBasicProverEnvironment<T> implements BasicProverEnvironment<T> {
+
+  private final BasicProverEnvironment<T> wrapped;
+  final SolverStatistics stats;
+
+  StatisticsBasicProverEnvironment(BasicProverEnvironment<T> pWrapped, SolverStatistics pStats) {
+    wrapped = checkNotNull(pWrapped);
+    stats = checkNotNull(pStats);
+  }
+
+  @Override
+  public T push(BooleanFormula f) {
+    push();
+    return addConstraint(f);
+  }
+
+  @Override
+  public void pop() {
+    long start = System.nanoTime();
+    try {
+      wrapped.pop();
+    } finally {
+      stats.record(Operation.POP, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public T addConstraint(BooleanFormula constraint) {
+    long start = System.nanoTime();
+    try {
+      return wrapped.addConstraint(constraint);
+    } finally {
+      stats.record(Operation.ADD_CONSTRAINT, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public void push() {
+    long start = System.nanoTime();
+    try {
+      wrapped.push();
+    } finally {
+      stats.record(Operation.PUSH, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public boolean isUnsat() throws SolverException, InterruptedException {
+    long start = System.nanoTime();
+    try {
+      return wrapped.isUnsat();
+    } finally {
+      stats.record(Operation.IS_UNSAT, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public boolean isUnsat(Duration pTimeout) throws SolverException, InterruptedException {
+    long start = System.nanoTime();
+    try {
+      return wrapped.isUnsat(pTimeout);
+    } finally {
+      stats.record(Operation.IS_UNSAT, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public void interrupt() {
+    wrapped.interrupt();
+  }
+
+  @Override
+  public Model getModel() throws SolverException {
+    long start = System.nanoTime();
+    try {
+      return wrapped.getModel();
+    } finally {
+      stats.record(Operation.GET_MODEL, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public ImmutableList<ValueAssignment> getModelAssignments() throws SolverException {
+    long start = System.nanoTime();
+    try {
+      return wrapped.getModelAssignments();
+    } finally {
+      stats.record(Operation.GET_MODEL_ASSIGNMENTS, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public ImmutableMap<String, Object> getStatistics() {
+    return wrapped.getStatistics();
+  }
+
+  @Override
+  public void close() {
+    wrapped.close();
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.statistics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.sosy_lab.java_smt.api.BitvectorFormula;
+import org.sosy_lab.java_smt.api.BitvectorFormulaManager;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.FormulaType.BitvectorType;
+
+import java.math.BigInteger;
+
+/**
+ * Wraps a {@link BitvectorFormulaManager} and counts the created formulas.
+ */
+final class StatisticsBitvectorFormulaManager extends StatisticsBaseFormulaManager
+    implements BitvectorFormulaManager {
+
+  private final BitvectorFormulaManager delegate;
+
+  StatisticsBitvectorFormulaManager(BitvectorFormulaManager pDelegate, SolverStatistics pStats) {
+    super("BitvectorFormulaManager", pStats);
+    delegate = checkNotNull(pDelegate);
+  }
+
+  @Override
+  public BitvectorFormula makeBitvector(int length, long pI) {
+    return record(delegate.makeBitvector(length, pI));
+  }
+
+  @Override
+  public BitvectorFormula makeBitvector(int length, BigInteger pI) {
+    return record(delegate.makeBitvector(length, pI));
+  }
+
+  @Override
+  public BitvectorFormula makeVariable(int length, String pVar) {
+    return record(delegate.makeVariable(length, pVar));
+  }
+
+  @Override
+  public BitvectorFormula makeVariable(BitvectorType type, String pVar) {
+    return record(delegate.makeVariable(type, pVar));
+  }
+
+  @Override
+  public int getLength(BitvectorFormula number) {
+    return delegate.getLength(number);
+  }
+
+  @Override
+  public BitvectorFormula negate(BitvectorFormula number) {
+    return record(delegate.negate(number));
+  }
+
+  @Override
+  public BitvectorFormula add(BitvectorFormula number1, BitvectorFormula number2) {
+    return record(delegate.add(number1, number2));
+  }
+
+  @Override
+  public BitvectorFormula subtract(BitvectorFormula number1, BitvectorFormula number2) {
+    return record(delegate.subtract(number1, number2));
+  }
+
+  @Override
+  public BitvectorFormula divide(
+      BitvectorFormula number1, BitvectorFormula number2, boolean signed) {
+    return record(delegate.divide(number1, number2, signed));
+  }
+
+  @Override
+  public BitvectorFormula modulo(
+      BitvectorFormula number1, BitvectorFormula number2, boolean signed) {
+    return record(delegate.modulo(number1, number2, signed));
+  }
+
+  @Override
+  public BitvectorFormula multiply(BitvectorFormula number1, BitvectorFormula number2) {
+    return record(delegate.multiply(number1, number2));
+  }
+
+  @Override
+  public BooleanFormula equal(BitvectorFormula number1, BitvectorFormula number2) {
+    return record(delegate.equal(number1, number2));
+  }
+
+  @Override
+  public BooleanFormula greaterThan(
+      BitvectorFormula number1, BitvectorFormula number2, boolean signed) {
+    return record(delegate.greaterThan(number1, number2, signed));
+  }
+
+  @Override
+  public BooleanFormula greaterOrEquals(
+      BitvectorFormula number1, BitvectorFormula number2, boolean signed) {
+    return record(delegate.greaterOrEquals(number1, number2, signed));
+  }
+
+  @Override
+  public BooleanFormula lessThan(
+      BitvectorFormula number1, BitvectorFormula number2, boolean signed) {
+    return record(delegate.lessThan(number1, number2, signed));
+  }
+
+  @Override
+  public BooleanFormula lessOrEquals(
+      BitvectorFormula number1, BitvectorFormula number2, boolean signed) {
+    return record(delegate.lessOrEquals(number1, number2, signed));
+  }
+
+  @Override
+  public BitvectorFormula not(BitvectorFormula bits) {
+    return record(delegate.not(bits));
+  }
+
+  @Override
+  public BitvectorFormula and(BitvectorFormula bits1, BitvectorFormula bits2) {
+    return record(delegate.and(bits1, bits2));
+  }
+
+  @Override
+  public BitvectorFormula or(BitvectorFormula bits1, BitvectorFormula bits2) {
+    return record(delegate.or(bits1, bits2));
+  }
+
+  @Override
+  public BitvectorFormula xor(BitvectorFormula bits1, BitvectorFormula bits2) {
+    return record(delegate.xor(bits1, bits2));
+  }
+
+  @Override
+  public BitvectorFormula shiftRight(
+      BitvectorFormula number, BitvectorFormula toShift, boolean signed) {
+    return record(delegate.shiftRight(number, toShift, signed));
+  }
+
+  @Override
+  public BitvectorFormula shiftLeft(BitvectorFormula number, BitvectorFormula toShift) {
+    return record(delegate.shiftLeft(number, toShift));
+  }
+
+  @Override
+  public BitvectorFormula concat(BitvectorFormula number, BitvectorFormula append) {
+    return record(delegate.concat(number, append));
+  }
+
+  @Override
+  public BitvectorFormula extract(BitvectorFormula number, int msb, int lsb, boolean signed) {
+    return record(delegate.extract(number, msb, lsb, signed));
+  }
+
+  @Override
+  public BitvectorFormula extend(BitvectorFormula number, int extensionBits, boolean signed) {
+    return record(delegate.extend(number, extensionBits, signed));
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.statistics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.visitors.BooleanFormulaTransformationVisitor;
+import org.sosy_lab.java_smt.api.visitors.BooleanFormulaVisitor;
+import org.sosy_lab.java_smt.api.visitors.TraversalProcess;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Wraps a {@link BooleanFormulaManager} and counts the created formulas.
+ */
+final class StatisticsBooleanFormulaManager extends StatisticsBaseFormulaManager
+    implements BooleanFormulaManager {
+
+  private final BooleanFormulaManager delegate;
+
+  StatisticsBooleanFormulaManager(BooleanFormulaManager pDelegate, SolverStatistics pStats) {
+    super("BooleanFormulaManager", pStats);
+    delegate = checkNotNull(pDelegate);
+  }
+
+  @Override
+  public BooleanFormula makeBoolean(boolean value) {
+    return record(delegate.makeBoolean(value));
+  }
+
+  @Override
+  public BooleanFormula makeTrue() {
+    return record(delegate.makeTrue());
+  }
+
+  @Override
+  public BooleanFormula makeFalse() {
+    return record(delegate.makeFalse());
+  }
+
+  @Override
+  public BooleanFormula makeVariable(String pVar) {
+    return record(delegate.makeVariable(pVar));
+  }
+
+  @Override
+  public BooleanFormula equivalence(BooleanFormula formula1, BooleanFormula formula2) {
+    return record(delegate.equivalence(formula1, formula2));
+  }
+
+  @Override
+  public BooleanFormula implication(BooleanFormula formula1, BooleanFormula formula2) {
+    return record(delegate.implication(formula1, formula2));
+  }
+
+  @Override
+  public boolean isTrue(BooleanFormula formula) {
+    return delegate.isTrue(formula);
+  }
+
+  @Override
+  public boolean isFalse(BooleanFormula formula) {
+    return delegate.isFalse(formula);
+  }
+
+  @Override
+  public <T extends Formula> T ifThenElse(BooleanFormula cond, T f1, T f2) {
+    return record(delegate.ifThenElse(cond, f1, f2));
+  }
+
+  @Override
+  public BooleanFormula not(BooleanFormula bits) {
+    return record(delegate.not(bits));
+  }
+
+  @Override
+  public BooleanFormula and(BooleanFormula bits1, BooleanFormula bits2) {
+    return record(delegate.and(bits1, bits2));
+  }
+
+  @Override
+  public BooleanFormula and(Collection<BooleanFormula> bits) {
+    return record(delegate.and(bits));
+  }
+
+  @Override
+  public BooleanFormula and(BooleanFormula... bits) {
+    return record(delegate.and(bits));
+  }
+
+  @Override
+  public BooleanFormula or(BooleanFormula bits1, BooleanFormula bits2) {
+    return record(delegate.or(bits1, bits2));
+  }
+
+  @Override
+  public BooleanFormula or(Collection<BooleanFormula> bits) {
+    return record(delegate.or(bits));
+  }
+
+  @Override
+  public BooleanFormula or(BooleanFormula... bits) {
+    return record(delegate.or(bits));
+  }
+
+  @Override
+  public BooleanFormula xor(BooleanFormula bits1, BooleanFormula bits2) {
+    return record(delegate.xor(bits1, bits2));
+  }
+
+  @Override
+  @CanIgnoreReturnValue
+  public <R> R visit(BooleanFormula pFormula, BooleanFormulaVisitor<R> visitor) {
+    return delegate.visit(pFormula, visitor);
+  }
+
+  @Override
+  public void visitRecursively(
+      BooleanFormula f, BooleanFormulaVisitor<TraversalProcess> rFormulaVisitor) {
+    delegate.visitRecursively(f, rFormulaVisitor);
+  }
+
+  @Override
+  public BooleanFormula transformRecursively(
+      BooleanFormula f, BooleanFormulaTransformationVisitor pVisitor) {
+    return record(delegate.transformRecursively(f, pVisitor));
+  }
+
+  @Override
+  public Set<BooleanFormula> toConjunctionArgs(BooleanFormula f, boolean flatten) {
+    return delegate.toConjunctionArgs(f, flatten);
+  }
+
+  @Override
+  public Set<BooleanFormula> toDisjunctionArgs(BooleanFormula f, boolean flatten) {
+    return delegate.toDisjunctionArgs(f, flatten);
+  }
+}
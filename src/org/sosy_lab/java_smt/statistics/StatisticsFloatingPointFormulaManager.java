@@ -0,0 +1,249 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.statistics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.FloatingPointFormula;
+import org.sosy_lab.java_smt.api.FloatingPointFormulaManager;
+import org.sosy_lab.java_smt.api.FloatingPointRoundingMode;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FormulaType;
+import org.sosy_lab.java_smt.api.FormulaType.FloatingPointType;
+
+import java.math.BigDecimal;
+
+/**
+ * Wraps a {@link FloatingPointFormulaManager} and counts the created formulas.
+ */
+final class StatisticsFloatingPointFormulaManager extends StatisticsBaseFormulaManager
+    implements FloatingPointFormulaManager {
+
+  private final FloatingPointFormulaManager delegate;
+
+  StatisticsFloatingPointFormulaManager(
+      FloatingPointFormulaManager pDelegate, SolverStatistics pStats) {
+    super("FloatingPointFormulaManager", pStats);
+    delegate = checkNotNull(pDelegate);
+  }
+
+  @Override
+  public FloatingPointFormula makeNumber(double n, FloatingPointType type) {
+    return record(delegate.makeNumber(n, type));
+  }
+
+  @Override
+  public FloatingPointFormula makeNumber(
+      double n, FloatingPointType type, FloatingPointRoundingMode pFloatingPointRoundingMode) {
+    return record(delegate.makeNumber(n, type, pFloatingPointRoundingMode));
+  }
+
+  @Override
+  public FloatingPointFormula makeNumber(BigDecimal n, FloatingPointType type) {
+    return record(delegate.makeNumber(n, type));
+  }
+
+  @Override
+  public FloatingPointFormula makeNumber(
+      BigDecimal n, FloatingPointType type, FloatingPointRoundingMode pFloatingPointRoundingMode) {
+    return record(delegate.makeNumber(n, type, pFloatingPointRoundingMode));
+  }
+
+  @Override
+  public FloatingPointFormula makeNumber(String n, FloatingPointType type) {
+    return record(delegate.makeNumber(n, type));
+  }
+
+  @Override
+  public FloatingPointFormula makeNumber(
+      String n, FloatingPointType type, FloatingPointRoundingMode pFloatingPointRoundingMode) {
+    return record(delegate.makeNumber(n, type, pFloatingPointRoundingMode));
+  }
+
+  @Override
+  public FloatingPointFormula makeNumber(Rational n, FloatingPointType type) {
+    return record(delegate.makeNumber(n, type));
+  }
+
+  @Override
+  public FloatingPointFormula makeNumber(
+      Rational n, FloatingPointType type, FloatingPointRoundingMode pFloatingPointRoundingMode) {
+    return record(delegate.makeNumber(n, type, pFloatingPointRoundingMode));
+  }
+
+  @Override
+  public FloatingPointFormula makeVariable(String pVar, FloatingPointType type) {
+    return record(delegate.makeVariable(pVar, type));
+  }
+
+  @Override
+  public FloatingPointFormula makePlusInfinity(FloatingPointType type) {
+    return record(delegate.makePlusInfinity(type));
+  }
+
+  @Override
+  public FloatingPointFormula makeMinusInfinity(FloatingPointType type) {
+    return record(delegate.makeMinusInfinity(type));
+  }
+
+  @Override
+  public FloatingPointFormula makeNaN(FloatingPointType type) {
+    return record(delegate.makeNaN(type));
+  }
+
+  @Override
+  public <T extends Formula> T castTo(FloatingPointFormula number, FormulaType<T> targetType) {
+    return record(delegate.castTo(number, targetType));
+  }
+
+  @Override
+  public <T extends Formula> T castTo(
+      FloatingPointFormula number,
+      FormulaType<T> targetType,
+      FloatingPointRoundingMode pFloatingPointRoundingMode) {
+    return record(delegate.castTo(number, targetType, pFloatingPointRoundingMode));
+  }
+
+  @Override
+  public FloatingPointFormula castFrom(
+      Formula number, boolean signed, FloatingPointType targetType) {
+    return record(delegate.castFrom(number, signed, targetType));
+  }
+
+  @Override
+  public FloatingPointFormula castFrom(
+      Formula number,
+      boolean signed,
+      FloatingPointType targetType,
+      FloatingPointRoundingMode pFloatingPointRoundingMode) {
+    return record(delegate.castFrom(number, signed, targetType, pFloatingPointRoundingMode));
+  }
+
+  @Override
+  public FloatingPointFormula negate(FloatingPointFormula number) {
+    return record(delegate.negate(number));
+  }
+
+  @Override
+  public FloatingPointFormula add(FloatingPointFormula number1, FloatingPointFormula number2) {
+    return record(delegate.add(number1, number2));
+  }
+
+  @Override
+  public FloatingPointFormula add(
+      FloatingPointFormula number1,
+      FloatingPointFormula number2,
+      FloatingPointRoundingMode pFloatingPointRoundingMode) {
+    return record(delegate.add(number1, number2, pFloatingPointRoundingMode));
+  }
+
+  @Override
+  public FloatingPointFormula subtract(FloatingPointFormula number1, FloatingPointFormula number2) {
+    return record(delegate.subtract(number1, number2));
+  }
+
+  @Override
+  public FloatingPointFormula subtract(
+      FloatingPointFormula number1,
+      FloatingPointFormula number2,
+      FloatingPointRoundingMode pFloatingPointRoundingMode) {
+    return record(delegate.subtract(number1, number2, pFloatingPointRoundingMode));
+  }
+
+  @Override
+  public FloatingPointFormula divide(FloatingPointFormula number1, FloatingPointFormula number2) {
+    return record(delegate.divide(number1, number2));
+  }
+
+  @Override
+  public FloatingPointFormula divide(
+      FloatingPointFormula number1,
+      FloatingPointFormula number2,
+      FloatingPointRoundingMode pFloatingPointRoundingMode) {
+    return record(delegate.divide(number1, number2, pFloatingPointRoundingMode));
+  }
+
+  @Override
+  public FloatingPointFormula multiply(FloatingPointFormula number1, FloatingPointFormula number2) {
+    return record(delegate.multiply(number1, number2));
+  }
+
+  @Override
+  public FloatingPointFormula multiply(
+      FloatingPointFormula number1,
+      FloatingPointFormula number2,
+      FloatingPointRoundingMode pFloatingPointRoundingMode) {
+    return record(delegate.multiply(number1, number2, pFloatingPointRoundingMode));
+  }
+
+  @Override
+  public BooleanFormula assignment(FloatingPointFormula number1, FloatingPointFormula number2) {
+    return record(delegate.assignment(number1, number2));
+  }
+
+  @Override
+  public BooleanFormula equalWithFPSemantics(
+      FloatingPointFormula number1, FloatingPointFormula number2) {
+    return record(delegate.equalWithFPSemantics(number1, number2));
+  }
+
+  @Override
+  public BooleanFormula greaterThan(FloatingPointFormula number1, FloatingPointFormula number2) {
+    return record(delegate.greaterThan(number1, number2));
+  }
+
+  @Override
+  public BooleanFormula greaterOrEquals(
+      FloatingPointFormula number1, FloatingPointFormula number2) {
+    return record(delegate.greaterOrEquals(number1, number2));
+  }
+
+  @Override
+  public BooleanFormula lessThan(FloatingPointFormula number1, FloatingPointFormula number2) {
+    return record(delegate.lessThan(number1, number2));
+  }
+
+  @Override
+  public BooleanFormula lessOrEquals(FloatingPointFormula number1, FloatingPointFormula number2) {
+    return record(delegate.lessOrEquals(number1, number2));
+  }
+
+  @Override
+  public BooleanFormula isNaN(FloatingPointFormula number) {
+    return record(delegate.isNaN(number));
+  }
+
+  @Override
+  public BooleanFormula isInfinity(FloatingPointFormula number) {
+    return record(delegate.isInfinity(number));
+  }
+
+  @Override
+  public BooleanFormula isZero(FloatingPointFormula number) {
+    return record(delegate.isZero(number));
+  }
+
+  @Override
+  public BooleanFormula isSubnormal(FloatingPointFormula number) {
+    return record(delegate.isSubnormal(number));
+  }
+}
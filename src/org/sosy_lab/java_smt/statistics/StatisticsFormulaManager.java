@@ -0,0 +1,235 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.statistics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import org.sosy_lab.common.Appender;
+import org.sosy_lab.java_smt.api.ArrayFormulaManager;
+import org.sosy_lab.java_smt.api.BitvectorFormulaManager;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.FloatingPointFormulaManager;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.FormulaType;
+import org.sosy_lab.java_smt.api.FunctionDeclaration;
+import org.sosy_lab.java_smt.api.IntegerFormulaManager;
+import org.sosy_lab.java_smt.api.QuantifiedFormulaManager;
+import org.sosy_lab.java_smt.api.RationalFormulaManager;
+import org.sosy_lab.java_smt.api.Tactic;
+import org.sosy_lab.java_smt.api.UFManager;
+import org.sosy_lab.java_smt.api.visitors.FormulaTransformationVisitor;
+import org.sosy_lab.java_smt.api.visitors.FormulaVisitor;
+import org.sosy_lab.java_smt.api.visitors.TraversalProcess;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Wraps a {@link FormulaManager} and all its sub-managers
+ * and counts the created formulas per manager.
+ *
+ * <p>The wrappers of the sub-managers are created on first access,
+ * because the delegate throws an exception for unsupported theories.
+ */
+final class StatisticsFormulaManager extends StatisticsBaseFormulaManager
+    implements FormulaManager {
+
+  private final FormulaManager delegate;
+
+  private @Nullable IntegerFormulaManager integerManager = null;
+  private @Nullable RationalFormulaManager rationalManager = null;
+  private @Nullable BooleanFormulaManager booleanManager = null;
+  private @Nullable ArrayFormulaManager arrayManager = null;
+  private @Nullable BitvectorFormulaManager bitvectorManager = null;
+  private @Nullable FloatingPointFormulaManager floatingPointManager = null;
+  private @Nullable UFManager ufManager = null;
+  private @Nullable QuantifiedFormulaManager quantifiedManager = null;
+
+  StatisticsFormulaManager(FormulaManager pDelegate, SolverStatistics pStats) {
+    super("FormulaManager", pStats);
+    delegate = checkNotNull(pDelegate);
+  }
+
+  @Override
+  public IntegerFormulaManager getIntegerFormulaManager() {
+    if (integerManager == null) {
+      integerManager =
+          new StatisticsIntegerFormulaManager(delegate.getIntegerFormulaManager(), getStatistics());
+    }
+    return integerManager;
+  }
+
+  @Override
+  public RationalFormulaManager getRationalFormulaManager() {
+    if (rationalManager == null) {
+      rationalManager =
+          new StatisticsRationalFormulaManager(
+              delegate.getRationalFormulaManager(), getStatistics());
+    }
+    return rationalManager;
+  }
+
+  @Override
+  public BooleanFormulaManager getBooleanFormulaManager() {
+    if (booleanManager == null) {
+      booleanManager =
+          new StatisticsBooleanFormulaManager(delegate.getBooleanFormulaManager(), getStatistics());
+    }
+    return booleanManager;
+  }
+
+  @Override
+  public ArrayFormulaManager getArrayFormulaManager() {
+    if (arrayManager == null) {
+      arrayManager =
+          new StatisticsArrayFormulaManager(delegate.getArrayFormulaManager(), getStatistics());
+    }
+    return arrayManager;
+  }
+
+  @Override
+  public BitvectorFormulaManager getBitvectorFormulaManager() {
+    if (bitvectorManager == null) {
+      bitvectorManager =
+          new StatisticsBitvectorFormulaManager(
+              delegate.getBitvectorFormulaManager(), getStatistics());
+    }
+    return bitvectorManager;
+  }
+
+  @Override
+  public FloatingPointFormulaManager getFloatingPointFormulaManager() {
+    if (floatingPointManager == null) {
+      floatingPointManager =
+          new StatisticsFloatingPointFormulaManager(
+              delegate.getFloatingPointFormulaManager(), getStatistics());
+    }
+    return floatingPointManager;
+  }
+
+  @Override
+  public UFManager getUFManager() {
+    if (ufManager == null) {
+      ufManager = new StatisticsUFManager(delegate.getUFManager(), getStatistics());
+    }
+    return ufManager;
+  }
+
+  @Override
+  public QuantifiedFormulaManager getQuantifiedFormulaManager() {
+    if (quantifiedManager == null) {
+      quantifiedManager =
+          new StatisticsQuantifiedFormulaManager(
+              delegate.getQuantifiedFormulaManager(), getStatistics());
+    }
+    return quantifiedManager;
+  }
+
+  @Override
+  public <T extends Formula> T makeVariable(FormulaType<T> formulaType, String name) {
+    return record(delegate.makeVariable(formulaType, name));
+  }
+
+  @Override
+  public <T extends Formula> T makeApplication(
+      FunctionDeclaration<T> declaration, List<? extends Formula> args) {
+    return record(delegate.makeApplication(declaration, args));
+  }
+
+  @Override
+  public <T extends Formula> T makeApplication(
+      FunctionDeclaration<T> declaration, Formula... args) {
+    return record(delegate.makeApplication(declaration, args));
+  }
+
+  @Override
+  public <T extends Formula> FormulaType<T> getFormulaType(T formula) {
+    return delegate.getFormulaType(formula);
+  }
+
+  @Override
+  public BooleanFormula parse(String s) throws IllegalArgumentException {
+    return record(delegate.parse(s));
+  }
+
+  @Override
+  public Appender dumpFormula(BooleanFormula pT) {
+    return delegate.dumpFormula(pT);
+  }
+
+  @Override
+  public BooleanFormula applyTactic(BooleanFormula input, Tactic tactic)
+      throws InterruptedException {
+    return record(delegate.applyTactic(input, tactic));
+  }
+
+  @Override
+  public <T extends Formula> T simplify(T input) throws InterruptedException {
+    return record(delegate.simplify(input));
+  }
+
+  @Override
+  @CanIgnoreReturnValue
+  public <R> R visit(Formula f, FormulaVisitor<R> rFormulaVisitor) {
+    return delegate.visit(f, rFormulaVisitor);
+  }
+
+  @Override
+  public void visitRecursively(Formula f, FormulaVisitor<TraversalProcess> rFormulaVisitor) {
+    delegate.visitRecursively(f, rFormulaVisitor);
+  }
+
+  @Override
+  public <T extends Formula> T transformRecursively(
+      T f, FormulaTransformationVisitor pFormulaVisitor) {
+    return record(delegate.transformRecursively(f, pFormulaVisitor));
+  }
+
+  @Override
+  public Map<String, Formula> extractVariables(Formula f) {
+    return delegate.extractVariables(f);
+  }
+
+  @Override
+  public Map<String, Formula> extractVariablesAndUFs(Formula f) {
+    return delegate.extractVariablesAndUFs(f);
+  }
+
+  @Override
+  public <T extends Formula> T substitute(
+      T f, Map<? extends Formula, ? extends Formula> fromToMapping) {
+    return record(delegate.substitute(f, fromToMapping));
+  }
+
+  @Override
+  public BooleanFormula translateFrom(BooleanFormula formula, FormulaManager otherContext) {
+    // Unwrap the other manager, such that the solver can use its direct translation.
+    if (otherContext instanceof StatisticsFormulaManager) {
+      otherContext = ((StatisticsFormulaManager) otherContext).delegate;
+    }
+    return record(delegate.translateFrom(formula, otherContext));
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.statistics;
+
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.IntegerFormulaManager;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+
+import java.math.BigInteger;
+
+/**
+ * Wraps an {@link IntegerFormulaManager} and counts the created formulas.
+ */
+final class StatisticsIntegerFormulaManager
+    extends StatisticsNumeralFormulaManager<IntegerFormula, IntegerFormula>
+    implements IntegerFormulaManager {
+
+  private final IntegerFormulaManager delegate;
+
+  StatisticsIntegerFormulaManager(IntegerFormulaManager pDelegate, SolverStatistics pStats) {
+    super("IntegerFormulaManager", pDelegate, pStats);
+    delegate = pDelegate;
+  }
+
+  @Override
+  public BooleanFormula modularCongruence(
+      IntegerFormula number1, IntegerFormula number2, BigInteger n) {
+    return record(delegate.modularCongruence(number1, number2, n));
+  }
+
+  @Override
+  public BooleanFormula modularCongruence(
+      IntegerFormula number1, IntegerFormula number2, long n) {
+    return record(delegate.modularCongruence(number1, number2, n));
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.statistics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.statistics.SolverStatistics.Operation;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+class StatisticsInterpolatingProverEnvironment<T> extends StatisticsBasicProverEnvironment<T>
+    implements InterpolatingProverEnvironment<T> {
+
+  private final InterpolatingProverEnvironment<T> wrapped;
+
+  StatisticsInterpolatingProverEnvironment(
+      InterpolatingProverEnvironment<T> pWrapped, SolverStatistics pStats) {
+    super(pWrapped, pStats);
+    wrapped = checkNotNull(pWrapped);
+  }
+
+  @Override
+  public boolean isUnsatWithAssumptions(Collection<BooleanFormula> pAssumptions)
+      throws SolverException, InterruptedException {
+    long start = System.nanoTime();
+    try {
+      return wrapped.isUnsatWithAssumptions(pAssumptions);
+    } finally {
+      stats.record(Operation.IS_UNSAT_WITH_ASSUMPTIONS, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public BooleanFormula getInterpolant(List<T> formulasOfA)
+      throws SolverException, InterruptedException {
+    long start = System.nanoTime();
+    try {
+      return wrapped.getInterpolant(formulasOfA);
+    } finally {
+      stats.record(Operation.GET_INTERPOLANT, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public List<BooleanFormula> getInterpolants(List<List<T>> cuts)
+      throws SolverException, InterruptedException {
+    long start = System.nanoTime();
+    try {
+      return wrapped.getInterpolants(cuts);
+    } finally {
+      stats.record(Operation.GET_INTERPOLANTS, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public List<BooleanFormula> getSeqInterpolants(List<Set<T>> partitionedFormulas)
+      throws SolverException, InterruptedException {
+    long start = System.nanoTime();
+    try {
+      return wrapped.getSeqInterpolants(partitionedFormulas);
+    } finally {
+      stats.record(Operation.GET_SEQ_INTERPOLANTS, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public List<BooleanFormula> getTreeInterpolants(
+      List<Set<T>> partitionedFormulas, int[] startOfSubTree)
+      throws SolverException, InterruptedException {
+    long start = System.nanoTime();
+    try {
+      return wrapped.getTreeInterpolants(partitionedFormulas, startOfSubTree);
+    } finally {
+      stats.record(Operation.GET_TREE_INTERPOLANTS, System.nanoTime() - start);
+    }
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.statistics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.FormulaType;
+import org.sosy_lab.java_smt.api.NumeralFormula;
+import org.sosy_lab.java_smt.api.NumeralFormulaManager;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * Wraps a {@link NumeralFormulaManager} and counts the created formulas.
+ */
+abstract class StatisticsNumeralFormulaManager<
+        ParamFormulaType extends NumeralFormula, ResultFormulaType extends NumeralFormula>
+    extends StatisticsBaseFormulaManager
+    implements NumeralFormulaManager<ParamFormulaType, ResultFormulaType> {
+
+  private final NumeralFormulaManager<ParamFormulaType, ResultFormulaType> delegate;
+
+  StatisticsNumeralFormulaManager(
+      String pName,
+      NumeralFormulaManager<ParamFormulaType, ResultFormulaType> pDelegate,
+      SolverStatistics pStats) {
+    super(pName, pStats);
+    delegate = checkNotNull(pDelegate);
+  }
+
+  @Override
+  public ResultFormulaType makeNumber(long number) {
+    return record(delegate.makeNumber(number));
+  }
+
+  @Override
+  public ResultFormulaType makeNumber(BigInteger number) {
+    return record(delegate.makeNumber(number));
+  }
+
+  @Override
+  public ResultFormulaType makeNumber(double number) {
+    return record(delegate.makeNumber(number));
+  }
+
+  @Override
+  public ResultFormulaType makeNumber(BigDecimal number) {
+    return record(delegate.makeNumber(number));
+  }
+
+  @Override
+  public ResultFormulaType makeNumber(String pI) {
+    return record(delegate.makeNumber(pI));
+  }
+
+  @Override
+  public ResultFormulaType makeNumber(Rational pRational) {
+    return record(delegate.makeNumber(pRational));
+  }
+
+  @Override
+  public ResultFormulaType makeVariable(String pVar) {
+    return record(delegate.makeVariable(pVar));
+  }
+
+  @Override
+  public FormulaType<ResultFormulaType> getFormulaType() {
+    return delegate.getFormulaType();
+  }
+
+  @Override
+  public ResultFormulaType negate(ParamFormulaType number) {
+    return record(delegate.negate(number));
+  }
+
+  @Override
+  public ResultFormulaType add(ParamFormulaType number1, ParamFormulaType number2) {
+    return record(delegate.add(number1, number2));
+  }
+
+  @Override
+  public ResultFormulaType sum(List<ParamFormulaType> operands) {
+    return record(delegate.sum(operands));
+  }
+
+  @Override
+  public ResultFormulaType subtract(ParamFormulaType number1, ParamFormulaType number2) {
+    return record(delegate.subtract(number1, number2));
+  }
+
+  @Override
+  public ResultFormulaType divide(ParamFormulaType number1, ParamFormulaType number2) {
+    return record(delegate.divide(number1, number2));
+  }
+
+  @Override
+  public ResultFormulaType modulo(ParamFormulaType number1, ParamFormulaType number2) {
+    return record(delegate.modulo(number1, number2));
+  }
+
+  @Override
+  public ResultFormulaType multiply(ParamFormulaType number1, ParamFormulaType number2) {
+    return record(delegate.multiply(number1, number2));
+  }
+
+  @Override
+  public BooleanFormula equal(ParamFormulaType number1, ParamFormulaType number2) {
+    return record(delegate.equal(number1, number2));
+  }
+
+  @Override
+  public BooleanFormula greaterThan(ParamFormulaType number1, ParamFormulaType number2) {
+    return record(delegate.greaterThan(number1, number2));
+  }
+
+  @Override
+  public BooleanFormula greaterOrEquals(ParamFormulaType number1, ParamFormulaType number2) {
+    return record(delegate.greaterOrEquals(number1, number2));
+  }
+
+  @Override
+  public BooleanFormula lessThan(ParamFormulaType number1, ParamFormulaType number2) {
+    return record(delegate.lessThan(number1, number2));
+  }
+
+  @Override
+  public BooleanFormula lessOrEquals(ParamFormulaType number1, ParamFormulaType number2) {
+    return record(delegate.lessOrEquals(number1, number2));
+  }
+}
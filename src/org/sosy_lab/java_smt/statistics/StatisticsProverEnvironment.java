@@ -0,0 +1,100 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.statistics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.statistics.SolverStatistics.Operation;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Wraps a prover environment and records the time of each operation.
+ */
+class StatisticsProverEnvironment extends StatisticsBasicProverEnvironment<Void>
+    implements ProverEnvironment {
+
+  private final ProverEnvironment wrapped;
+
+  StatisticsProverEnvironment(ProverEnvironment pWrapped, SolverStatistics pStats) {
+    super(pWrapped, pStats);
+    wrapped = checkNotNull(pWrapped);
+  }
+
+  @Override
+  public boolean isUnsatWithAssumptions(Collection<BooleanFormula> assumptions)
+      throws SolverException, InterruptedException {
+    long start = System.nanoTime();
+    try {
+      return wrapped.isUnsatWithAssumptions(assumptions);
+    } finally {
+      stats.record(Operation.IS_UNSAT_WITH_ASSUMPTIONS, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public Optional<List<BooleanFormula>> unsatCoreOverAssumptions(
+      Collection<BooleanFormula> assumptions) throws SolverException, InterruptedException {
+    long start = System.nanoTime();
+    try {
+      return wrapped.unsatCoreOverAssumptions(assumptions);
+    } finally {
+      stats.record(Operation.UNSAT_CORE_OVER_ASSUMPTIONS, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public List<BooleanFormula> getUnsatCore() {
+    long start = System.nanoTime();
+    try {
+      return wrapped.getUnsatCore();
+    } finally {
+      stats.record(Operation.GET_UNSAT_CORE, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public <R> R allSat(AllSatCallback<R> callback, List<BooleanFormula> important)
+      throws InterruptedException, SolverException {
+    long start = System.nanoTime();
+    try {
+      return wrapped.allSat(callback, important);
+    } finally {
+      stats.record(Operation.ALL_SAT, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public <R> R allSatPolarities(
+      AllSatPolarityCallback<R> callback, List<BooleanFormula> important)
+      throws InterruptedException, SolverException {
+    long start = System.nanoTime();
+    try {
+      return wrapped.allSatPolarities(callback, important);
+    } finally {
+      stats.record(Operation.ALL_SAT, System.nanoTime() - start);
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.statistics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+/**
+ * {@link SolverContext} that wraps all prover environments in versions
+ * that count and time their operations,
+ * and counts the formulas created by the formula managers.
+ */
+public final class StatisticsSolverContext implements SolverContext {
+
+  private final SolverContext delegate;
+  private final SolverStatistics stats = new SolverStatistics();
+  private final FormulaManager formulaManager;
+
+  public StatisticsSolverContext(SolverContext pDelegate) {
+    delegate = checkNotNull(pDelegate);
+    formulaManager = new StatisticsFormulaManager(delegate.getFormulaManager(), stats);
+  }
+
+  /** The statistics of all provers and formula managers of this context. */
+  public SolverStatistics getStatistics() {
+    return stats;
+  }
+
+  @Override
+  public FormulaManager getFormulaManager() {
+    return formulaManager;
+  }
+
+  @Override
+  public ProverEnvironment newProverEnvironment(ProverOptions... pOptions) {
+    return new StatisticsProverEnvironment(delegate.newProverEnvironment(pOptions), stats);
+  }
+
+  @Override
+  public InterpolatingProverEnvironment<?> newProverEnvironmentWithInterpolation() {
+    return new StatisticsInterpolatingProverEnvironment<>(
+        delegate.newProverEnvironmentWithInterpolation(), stats);
+  }
+
+  @Override
+  public OptimizationProverEnvironment newOptimizationProverEnvironment() {
+    return new StatisticsOptimizationProverEnvironment(
+        delegate.newOptimizationProverEnvironment(), stats);
+  }
+
+  @Override
+  public String getVersion() {
+    return delegate.getVersion();
+  }
+
+  @Override
+  public Solvers getSolverName() {
+    return delegate.getSolverName();
+  }
+
+  @Override
+  public void close() {
+    delegate.close();
+  }
+}
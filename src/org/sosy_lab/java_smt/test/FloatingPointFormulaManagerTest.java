@@ -46,6 +46,7 @@ import org.sosy_lab.java_smt.api.ProverEnvironment;
 import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 
 @RunWith(Parameterized.class)
 public class FloatingPointFormulaManagerTest extends SolverBasedTest0 {
@@ -393,6 +394,44 @@ public class FloatingPointFormulaManagerTest extends SolverBasedTest0 {
     }
   }
 
+  @Test
+  public void fpModelValueSubnormal() throws Exception {
+    FloatingPointType doublePrecType = FormulaType.getDoublePrecisionFloatingPointType();
+
+    FloatingPointFormula floatVar = fpmgr.makeVariable("minFloat", singlePrecType);
+    BooleanFormula floatEq =
+        fpmgr.assignment(floatVar, fpmgr.makeNumber(Float.MIN_VALUE, singlePrecType));
+
+    FloatingPointFormula doubleVar = fpmgr.makeVariable("minDouble", doublePrecType);
+    BooleanFormula doubleEq =
+        fpmgr.assignment(doubleVar, fpmgr.makeNumber(-Double.MIN_VALUE, doublePrecType));
+
+    try (ProverEnvironment prover = context.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+      prover.push(floatEq);
+      prover.push(doubleEq);
+      assertThatEnvironment(prover).isSatisfiable();
+
+      try (Model model = prover.getModel()) {
+        // 2^-149 and -2^-1074 are the smallest subnormal numbers.
+        Rational minFloat = Rational.of(BigInteger.ONE, BigInteger.ONE.shiftLeft(149));
+        assertThat(model.evaluate(floatVar))
+            .isAnyOf(
+                new ExtendedRational(minFloat),
+                minFloat,
+                new BigDecimal(Float.MIN_VALUE),
+                Float.MIN_VALUE);
+
+        Rational minDouble = Rational.of(BigInteger.ONE, BigInteger.ONE.shiftLeft(1074)).negate();
+        assertThat(model.evaluate(doubleVar))
+            .isAnyOf(
+                new ExtendedRational(minDouble),
+                minDouble,
+                new BigDecimal(-Double.MIN_VALUE),
+                -Double.MIN_VALUE);
+      }
+    }
+  }
+
   @Test
   @SuppressWarnings("unchecked")
   public void fpInterpolation() throws Exception {
@@ -30,7 +30,7 @@ import java.util.Random;
 /**
  * Boolean fuzzer, useful for testing.
  */
-class Fuzzer {
+public class Fuzzer {
   private final BooleanFormulaManager bfmgr;
 
   private final UniqueIdGenerator idGenerator;
@@ -39,7 +39,7 @@ class Fuzzer {
 
   private static final String varNameTemplate = "VAR_";
 
-  Fuzzer(FormulaManager pFmgr, Random pRandom) {
+  public Fuzzer(FormulaManager pFmgr, Random pRandom) {
     bfmgr = pFmgr.getBooleanFormulaManager();
     idGenerator = new UniqueIdGenerator();
     r = pRandom;
@@ -0,0 +1,111 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.utils.SolverUtils;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(Parameterized.class)
+public class ModelCountingTest extends SolverBasedTest0 {
+
+  @Parameters(name = "{0}")
+  public static Object[] getAllSolvers() {
+    return Solvers.values();
+  }
+
+  @Parameter(0)
+  public Solvers solver;
+
+  @Override
+  protected Solvers solverToUse() {
+    return solver;
+  }
+
+  private List<BooleanFormula> makeVariables(int count) {
+    List<BooleanFormula> vars = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      vars.add(bmgr.makeVariable("p" + i));
+    }
+    return vars;
+  }
+
+  @Test
+  public void countModelsTest_unsat() throws SolverException, InterruptedException {
+    List<BooleanFormula> vars = makeVariables(2);
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      prover.push(bmgr.and(vars.get(0), bmgr.not(vars.get(0))));
+      assertThat(prover.countModels(vars)).isEqualTo(BigInteger.ZERO);
+    }
+  }
+
+  @Test
+  public void countModelsTest_implication() throws SolverException, InterruptedException {
+    List<BooleanFormula> vars = makeVariables(4);
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      // p0 => p1 excludes one of four assignments to p0 and p1, p2 and p3 are free
+      prover.push(bmgr.implication(vars.get(0), vars.get(1)));
+      prover.push(bmgr.or(vars.get(2), bmgr.not(vars.get(3))));
+      assertThat(prover.countModels(vars)).isEqualTo(BigInteger.valueOf(9));
+      assertThat(prover.countModels(vars.subList(0, 2))).isEqualTo(BigInteger.valueOf(3));
+    }
+  }
+
+  @Test
+  public void approximateCountTest_exact() throws SolverException, InterruptedException {
+    List<BooleanFormula> vars = makeVariables(4);
+    try (ProverEnvironment prover =
+        context.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+      prover.push(bmgr.implication(vars.get(0), vars.get(1)));
+      BigInteger count = SolverUtils.approximateModelCounter(mgr, 0).countModels(prover, vars);
+      assertThat(count).isEqualTo(BigInteger.valueOf(12));
+      assertThat(prover.isUnsat()).isFalse();
+    }
+  }
+
+  @Test
+  public void approximateCountTest_hashing() throws SolverException, InterruptedException {
+    List<BooleanFormula> vars = makeVariables(10);
+    try (ProverEnvironment prover =
+        context.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+      prover.push(bmgr.or(vars.get(0), vars.get(1)));
+      BigInteger count =
+          SolverUtils.approximateModelCounter(mgr, 0, 16, 5).countModels(prover, vars);
+
+      // the exact count is 768, the estimate is expected to be in the same order of magnitude
+      assertThat(count).isAtLeast(BigInteger.valueOf(768 / 4));
+      assertThat(count).isAtMost(BigInteger.valueOf(768 * 4));
+    }
+  }
+}
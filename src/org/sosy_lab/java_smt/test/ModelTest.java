@@ -21,6 +21,7 @@ package org.sosy_lab.java_smt.test;
 
 import static com.google.common.truth.Truth.assertThat;
 import static com.google.common.truth.TruthJUnit.assume;
+import static org.junit.Assert.fail;
 import static org.sosy_lab.java_smt.api.FormulaType.IntegerType;
 
 import com.google.common.collect.ImmutableList;
@@ -48,6 +49,7 @@ import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
 import org.sosy_lab.java_smt.api.SolverException;
 
 import java.math.BigInteger;
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -139,6 +141,129 @@ public class ModelTest extends SolverBasedTest0 {
     testModelGetters(bmgr.makeVariable("x"), bmgr.makeBoolean(true), true, "x");
   }
 
+  @Test
+  public void testEvaluateAll() throws Exception {
+    IntegerFormula x = imgr.makeVariable("x");
+    BooleanFormula b = bmgr.makeVariable("b");
+    try (ProverEnvironment prover = context.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+      prover.push(imgr.equal(x, imgr.makeNumber(10)));
+      prover.push(b);
+      assertThat(prover.isUnsat()).isFalse();
+
+      try (Model m = prover.getModel()) {
+        List<Object> values =
+            m.evaluateAll(ImmutableList.of(x, b, imgr.add(x, imgr.makeNumber(1)), x));
+        assertThat(values)
+            .containsExactly(
+                BigInteger.valueOf(10), true, BigInteger.valueOf(11), BigInteger.valueOf(10))
+            .inOrder();
+      }
+    }
+  }
+
+  @Test
+  public void testLookup() throws Exception {
+    IntegerFormula x = imgr.makeVariable("x");
+    IntegerFormula y = imgr.makeVariable("y");
+    try (ProverEnvironment prover = context.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+      prover.push(imgr.equal(x, imgr.makeNumber(1)));
+      prover.push(imgr.equal(y, imgr.makeNumber(2)));
+      assertThat(prover.isUnsat()).isFalse();
+
+      try (Model m = prover.getModel()) {
+        List<ValueAssignment> assignments = m.lookup("y");
+        assertThat(assignments).hasSize(1);
+        assertThat(assignments.get(0).getValue()).isEqualTo(BigInteger.valueOf(2));
+        assertThat(m.lookup("z")).isEmpty();
+      }
+    }
+  }
+
+  @Test
+  public void testPartialIteration() throws Exception {
+    IntegerFormula x = imgr.makeVariable("x");
+    IntegerFormula y = imgr.makeVariable("y");
+    try (ProverEnvironment prover = context.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+      prover.push(imgr.equal(x, imgr.makeNumber(1)));
+      prover.push(imgr.equal(y, imgr.makeNumber(2)));
+      assertThat(prover.isUnsat()).isFalse();
+
+      try (Model m = prover.getModel()) {
+        ValueAssignment first = m.iterator().next();
+        assertThat(first.getName()).isAnyOf("x", "y");
+
+        // a complete iteration afterwards still sees all entries
+        assertThat(ImmutableList.copyOf(m)).hasSize(2);
+        assertThat(ImmutableList.copyOf(m)).hasSize(2);
+      }
+    }
+  }
+
+  @Test
+  public void testIterationAfterClose() throws Exception {
+    assume()
+        .withFailureMessage("Only Z3 and MathSAT5 iterate over the native model lazily")
+        .that(solver)
+        .isAnyOf(Solvers.Z3, Solvers.MATHSAT5);
+    IntegerFormula x = imgr.makeVariable("x");
+    try (ProverEnvironment prover = context.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+      prover.push(imgr.equal(x, imgr.makeNumber(1)));
+      assertThat(prover.isUnsat()).isFalse();
+
+      Iterator<ValueAssignment> it;
+      try (Model m = prover.getModel()) {
+        it = m.iterator();
+      }
+      try {
+        it.hasNext();
+        fail("iteration over a closed model should fail");
+      } catch (IllegalStateException expected) {
+        // the native model is already freed
+      }
+    }
+  }
+
+  @Test
+  public void testEvaluateLong() throws Exception {
+    IntegerFormula x = imgr.makeVariable("x");
+    try (ProverEnvironment prover = context.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+      prover.push(imgr.equal(x, imgr.makeNumber(-42)));
+      assertThat(prover.isUnsat()).isFalse();
+
+      try (Model m = prover.getModel()) {
+        assertThat(m.evaluateLong(x).getAsLong()).isEqualTo(-42L);
+      }
+    }
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void testEvaluateLongOverflow() throws Exception {
+    IntegerFormula x = imgr.makeVariable("x");
+    BigInteger large = new BigInteger("1000000000000000000000000000000000000000");
+    try (ProverEnvironment prover = context.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+      prover.push(imgr.equal(x, imgr.makeNumber(large)));
+      assertThat(prover.isUnsat()).isFalse();
+
+      try (Model m = prover.getModel()) {
+        m.evaluateLong(x);
+      }
+    }
+  }
+
+  @Test
+  public void testEvaluateLongBitvector() throws Exception {
+    requireBitvectors();
+    BitvectorFormula x = bvmgr.makeVariable(64, "x");
+    try (ProverEnvironment prover = context.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+      prover.push(bvmgr.equal(x, bvmgr.makeBitvector(64, -1)));
+      assertThat(prover.isUnsat()).isFalse();
+
+      try (Model m = prover.getModel()) {
+        assertThat(m.evaluateLong(x).getAsLong()).isEqualTo(-1L);
+      }
+    }
+  }
+
   @Test
   public void testGetUFs() throws Exception {
     IntegerFormula x =
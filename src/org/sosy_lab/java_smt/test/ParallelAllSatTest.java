@@ -0,0 +1,136 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment.AllSatCallback;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.utils.SolverUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@RunWith(Parameterized.class)
+public class ParallelAllSatTest extends SolverBasedTest0 {
+
+  @Parameters(name = "{0}")
+  public static Object[] getAllSolvers() {
+    return Solvers.values();
+  }
+
+  @Parameter(0)
+  public Solvers solver;
+
+  @Override
+  protected Solvers solverToUse() {
+    return solver;
+  }
+
+  private final List<SolverContext> workers = new ArrayList<>();
+
+  @Before
+  public void setupWorkers() throws InvalidConfigurationException {
+    for (int i = 0; i < 3; i++) {
+      workers.add(factory.generateContext());
+    }
+  }
+
+  @After
+  public void closeWorkers() {
+    workers.forEach(SolverContext::close);
+  }
+
+  private static class CollectingCallback implements AllSatCallback<Set<List<BooleanFormula>>> {
+
+    private final Set<List<BooleanFormula>> models = new HashSet<>();
+
+    @Override
+    public void apply(List<BooleanFormula> pModel) {
+      assertThat(models.add(ImmutableList.copyOf(pModel))).isTrue();
+    }
+
+    @Override
+    public Set<List<BooleanFormula>> getResult() {
+      return models;
+    }
+  }
+
+  private List<BooleanFormula> makeVariables(int count) {
+    List<BooleanFormula> vars = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      vars.add(bmgr.makeVariable("p" + i));
+    }
+    return vars;
+  }
+
+  @Test
+  public void parallelAllSatTest_unsat() throws SolverException, InterruptedException {
+    List<BooleanFormula> vars = makeVariables(3);
+    BooleanFormula query = bmgr.and(vars.get(0), bmgr.not(vars.get(0)));
+
+    Set<List<BooleanFormula>> result =
+        SolverUtils.parallelAllSat(mgr, workers).allSat(query, new CollectingCallback(), vars);
+
+    assertThat(result).isEmpty();
+  }
+
+  @Test
+  public void parallelAllSatTest_atMostOne() throws SolverException, InterruptedException {
+    List<BooleanFormula> vars = makeVariables(5);
+    List<BooleanFormula> constraints = new ArrayList<>();
+    for (int i = 0; i < vars.size(); i++) {
+      for (int j = i + 1; j < vars.size(); j++) {
+        constraints.add(bmgr.not(bmgr.and(vars.get(i), vars.get(j))));
+      }
+    }
+
+    // a resplit threshold of 0 splits every satisfiable cube down to single models
+    Set<List<BooleanFormula>> result =
+        SolverUtils.parallelAllSat(mgr, workers, 1, 0)
+            .allSat(bmgr.and(constraints), new CollectingCallback(), vars);
+
+    Set<List<BooleanFormula>> expected = new HashSet<>();
+    for (int k = -1; k < vars.size(); k++) {
+      List<BooleanFormula> model = new ArrayList<>();
+      for (int i = 0; i < vars.size(); i++) {
+        model.add(i == k ? vars.get(i) : bmgr.not(vars.get(i)));
+      }
+      expected.add(model);
+    }
+    assertThat(result).containsExactlyElementsIn(ImmutableSet.copyOf(expected));
+  }
+}
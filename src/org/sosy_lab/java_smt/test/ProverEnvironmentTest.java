@@ -28,6 +28,7 @@ import static org.sosy_lab.java_smt.api.SolverContext.ProverOptions.GENERATE_UNS
 import static org.sosy_lab.java_smt.api.SolverContext.ProverOptions.GENERATE_UNSAT_CORE_OVER_ASSUMPTIONS;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -38,6 +39,8 @@ import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.Model;
 import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.utils.SolverUtils;
+import org.sosy_lab.java_smt.utils.StatisticsTracker;
 
 import java.util.List;
 import java.util.Optional;
@@ -115,6 +118,34 @@ public class ProverEnvironmentTest extends SolverBasedTest0 {
     }
   }
 
+  @Test
+  public void unsatCoreAfterPopTest() throws Exception {
+    assume()
+        .withFailureMessage("Princess does not support unsat core generation")
+        .that(solverToUse())
+        .isNotEqualTo(PRINCESS);
+    BooleanFormula x1 = imgr.equal(imgr.makeVariable("x"), imgr.makeNumber(1));
+    BooleanFormula x2 = imgr.equal(imgr.makeVariable("x"), imgr.makeNumber(2));
+    BooleanFormula x3 = imgr.equal(imgr.makeVariable("x"), imgr.makeNumber(3));
+    try (ProverEnvironment pe = context.newProverEnvironment(GENERATE_UNSAT_CORE)) {
+      pe.push();
+      pe.addConstraint(x1);
+      pe.push();
+      pe.addConstraint(x2);
+      assertThatEnvironment(pe).isUnsatisfiable();
+      pe.pop();
+      pe.push();
+      pe.addConstraint(x1);
+      pe.addConstraint(x3);
+      assertThatEnvironment(pe).isUnsatisfiable();
+      List<BooleanFormula> unsatCore = pe.getUnsatCore();
+      assertThat(unsatCore).containsAllOf(x1, x3);
+      assertThat(unsatCore).doesNotContain(x2);
+      pe.pop();
+      assertThatEnvironment(pe).isSatisfiable();
+    }
+  }
+
   @Test
   public void unsatCoreWithAssumptionsTest() throws Exception {
     assume()
@@ -134,4 +165,44 @@ public class ProverEnvironmentTest extends SolverBasedTest0 {
       assertThat(unsatCore).containsExactly(bmgr.not(selector));
     }
   }
+
+  @Test
+  public void statisticsTest() throws Exception {
+    assume()
+        .withFailureMessage("Princess does not provide statistics")
+        .that(solverToUse())
+        .isNotEqualTo(PRINCESS);
+    BooleanFormula a = bmgr.makeVariable("a");
+    BooleanFormula b = bmgr.makeVariable("b");
+    try (ProverEnvironment pe = context.newProverEnvironment()) {
+      StatisticsTracker tracker = SolverUtils.statisticsTracker(pe);
+      pe.push(bmgr.or(a, b));
+      pe.push(bmgr.or(bmgr.not(a), b));
+      pe.push(bmgr.not(b));
+      assertThat(pe.isUnsat()).isTrue();
+
+      ImmutableMap<String, Object> stats = pe.getStatistics();
+      assertThat(stats).isNotEmpty();
+      assertThat(stats.keySet()).containsAllIn(tracker.delta().keySet());
+    }
+  }
+
+  @Test
+  public void environmentReuseStatisticsTest() throws Exception {
+    assume()
+        .withFailureMessage("Only Mathsat5 reuses the environments of closed provers")
+        .that(solverToUse())
+        .isEqualTo(MATHSAT5);
+    try (ProverEnvironment pe = context.newProverEnvironment()) {
+      assertThat(pe.getStatistics()).containsEntry("created environments", 1L);
+      assertThat(pe.getStatistics()).containsEntry("reused environments", 0L);
+    }
+    try (ProverEnvironment pe = context.newProverEnvironment()) {
+      assertThat(pe.getStatistics()).containsEntry("created environments", 1L);
+      assertThat(pe.getStatistics()).containsEntry("reused environments", 1L);
+      try (ProverEnvironment other = context.newProverEnvironment()) {
+        assertThat(other.getStatistics()).containsEntry("created environments", 2L);
+      }
+    }
+  }
 }
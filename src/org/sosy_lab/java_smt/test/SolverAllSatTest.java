@@ -19,10 +19,12 @@
  */
 package org.sosy_lab.java_smt.test;
 
+import static com.google.common.collect.Iterables.filter;
 import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.fail;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 
 import org.junit.After;
 import org.junit.Before;
@@ -33,13 +35,21 @@ import org.junit.runners.Parameterized.Parameter;
 import org.junit.runners.Parameterized.Parameters;
 import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
 import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.Model.ValueAssignment;
 import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
 import org.sosy_lab.java_smt.api.ProverEnvironment;
 import org.sosy_lab.java_smt.api.ProverEnvironment.AllSatCallback;
+import org.sosy_lab.java_smt.api.ProverEnvironment.AllSatPolarityCallback;
 import org.sosy_lab.java_smt.api.SolverException;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
 
 @RunWith(Parameterized.class)
 public class SolverAllSatTest extends SolverBasedTest0 {
@@ -69,6 +79,137 @@ public class SolverAllSatTest extends SolverBasedTest0 {
     env.close();
   }
 
+  /** Collects copies of the values of complete assignments to two predicates. */
+  private static class BitSetCollector implements AllSatPolarityCallback<List<BitSet>> {
+
+    private final List<BitSet> models = new ArrayList<>();
+
+    @Override
+    public void apply(BitSet values, BitSet assigned) {
+      assertThat(assigned.cardinality()).isEqualTo(2);
+      models.add((BitSet) values.clone());
+    }
+
+    @Override
+    public List<BitSet> getResult() {
+      return models;
+    }
+  }
+
+  /** Collects copies of the values and the assigned positions of all assignments. */
+  private static class PolarityCollector implements AllSatPolarityCallback<List<List<BitSet>>> {
+
+    private final List<List<BitSet>> models = new ArrayList<>();
+
+    @Override
+    public void apply(BitSet values, BitSet assigned) {
+      models.add(ImmutableList.of((BitSet) values.clone(), (BitSet) assigned.clone()));
+    }
+
+    @Override
+    public List<List<BitSet>> getResult() {
+      return models;
+    }
+  }
+
+  /**
+   * Forwards to another prover, but transforms the models of {@link #allSat} and does not
+   * override {@link ProverEnvironment#allSatPolarities}, such that the default implementation
+   * of the latter sees the transformed models.
+   */
+  private static class TransformingProver implements ProverEnvironment {
+
+    private final ProverEnvironment delegate;
+    private final Function<List<BooleanFormula>, List<BooleanFormula>> transformation;
+
+    TransformingProver(
+        ProverEnvironment pDelegate,
+        Function<List<BooleanFormula>, List<BooleanFormula>> pTransformation) {
+      delegate = pDelegate;
+      transformation = pTransformation;
+    }
+
+    @Override
+    public <T> T allSat(AllSatCallback<T> callback, List<BooleanFormula> important)
+        throws InterruptedException, SolverException {
+      return delegate.allSat(
+          new AllSatCallback<T>() {
+            @Override
+            public void apply(List<BooleanFormula> model) {
+              callback.apply(transformation.apply(model));
+            }
+
+            @Override
+            public T getResult() throws InterruptedException {
+              return callback.getResult();
+            }
+          },
+          important);
+    }
+
+    @Override
+    public List<BooleanFormula> getUnsatCore() {
+      return delegate.getUnsatCore();
+    }
+
+    @Override
+    public boolean isUnsatWithAssumptions(Collection<BooleanFormula> assumptions)
+        throws SolverException, InterruptedException {
+      return delegate.isUnsatWithAssumptions(assumptions);
+    }
+
+    @Override
+    public Optional<List<BooleanFormula>> unsatCoreOverAssumptions(
+        Collection<BooleanFormula> assumptions) throws SolverException, InterruptedException {
+      return delegate.unsatCoreOverAssumptions(assumptions);
+    }
+
+    @Override
+    public void pop() {
+      delegate.pop();
+    }
+
+    @Override
+    public Void addConstraint(BooleanFormula constraint) {
+      return delegate.addConstraint(constraint);
+    }
+
+    @Override
+    public void push() {
+      delegate.push();
+    }
+
+    @Override
+    public boolean isUnsat() throws SolverException, InterruptedException {
+      return delegate.isUnsat();
+    }
+
+    @Override
+    public boolean isUnsat(Duration timeout) throws SolverException, InterruptedException {
+      return delegate.isUnsat(timeout);
+    }
+
+    @Override
+    public void interrupt() {
+      delegate.interrupt();
+    }
+
+    @Override
+    public Model getModel() throws SolverException {
+      return delegate.getModel();
+    }
+
+    @Override
+    public ImmutableList<ValueAssignment> getModelAssignments() throws SolverException {
+      return delegate.getModelAssignments();
+    }
+
+    @Override
+    public void close() {
+      delegate.close();
+    }
+  }
+
   private static final String EXPECTED_RESULT = "AllSatTest_unsat";
 
   private static class TestAllSatCallback implements AllSatCallback<String> {
@@ -139,4 +280,136 @@ public class SolverAllSatTest extends SolverBasedTest0 {
     assertThat(callback.models)
         .containsExactly(ImmutableList.of(v1, bmgr.not(v2)), ImmutableList.of(bmgr.not(v1), v2));
   }
+
+  @Test
+  public void allSatPolaritiesTest_xor() throws SolverException, InterruptedException {
+    IntegerFormula a = imgr.makeVariable("i");
+    BooleanFormula cond1 = imgr.equal(a, imgr.makeNumber(1));
+    BooleanFormula cond2 = imgr.equal(a, imgr.makeNumber(2));
+
+    BooleanFormula v1 = bmgr.makeVariable("b1");
+    BooleanFormula v2 = bmgr.makeVariable("b2");
+
+    env.push(bmgr.xor(cond1, cond2));
+
+    env.push(bmgr.equivalence(v1, cond1));
+    env.push(bmgr.equivalence(v2, cond2));
+
+    List<BitSet> models = env.allSatPolarities(new BitSetCollector(), ImmutableList.of(v1, v2));
+
+    BitSet first = new BitSet();
+    first.set(0);
+    BitSet second = new BitSet();
+    second.set(1);
+    assertThat(models).containsExactly(first, second);
+  }
+
+  @Test
+  public void allSatPolaritiesTest_negatedPredicate() throws SolverException, InterruptedException {
+    BooleanFormula v1 = bmgr.makeVariable("b1");
+    BooleanFormula v2 = bmgr.makeVariable("b2");
+
+    env.push(bmgr.xor(v1, v2));
+
+    List<BitSet> models =
+        env.allSatPolarities(new BitSetCollector(), ImmutableList.of(bmgr.not(v1), v2));
+
+    BitSet first = new BitSet(); // v1 = true, v2 = false
+    BitSet second = new BitSet(); // v1 = false, v2 = true
+    second.set(0, 2);
+    assertThat(models).containsExactly(first, second);
+  }
+
+  @Test
+  public void allSatPolaritiesTest_unordered() throws SolverException, InterruptedException {
+    BooleanFormula v1 = bmgr.makeVariable("b1");
+    BooleanFormula v2 = bmgr.makeVariable("b2");
+
+    env.push(v1);
+
+    // the constraint does not restrict v2, so solvers may leave it unassigned
+    List<List<BitSet>> models =
+        env.allSatPolarities(new PolarityCollector(), ImmutableList.of(v2, v1));
+
+    assertThat(models).isNotEmpty();
+    boolean v2Unassigned = false;
+    BitSet v2Values = new BitSet();
+    for (List<BitSet> model : models) {
+      BitSet values = model.get(0);
+      BitSet assigned = model.get(1);
+      assertThat(assigned.get(1)).isTrue();
+      assertThat(values.get(1)).isTrue();
+      if (assigned.get(0)) {
+        v2Values.set(values.get(0) ? 1 : 0);
+      } else {
+        v2Unassigned = true;
+      }
+    }
+    if (!v2Unassigned) {
+      assertThat(v2Values.cardinality()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  public void allSatPolaritiesTest_defaultReversedModels()
+      throws SolverException, InterruptedException {
+    BooleanFormula v1 = bmgr.makeVariable("b1");
+    BooleanFormula v2 = bmgr.makeVariable("b2");
+
+    env.push(bmgr.xor(v1, v2));
+
+    ProverEnvironment reversing = new TransformingProver(env, Lists::reverse);
+    List<BitSet> models =
+        reversing.allSatPolarities(new BitSetCollector(), ImmutableList.of(v1, v2));
+
+    BitSet first = new BitSet();
+    first.set(0);
+    BitSet second = new BitSet();
+    second.set(1);
+    assertThat(models).containsExactly(first, second);
+  }
+
+  @Test
+  public void allSatPolaritiesTest_defaultPartialModels()
+      throws SolverException, InterruptedException {
+    BooleanFormula v1 = bmgr.makeVariable("b1");
+    BooleanFormula v2 = bmgr.makeVariable("b2");
+
+    env.push(bmgr.xor(v1, v2));
+
+    // keep only the positive literals, which matches a partial model
+    ImmutableList<BooleanFormula> important = ImmutableList.of(v1, v2);
+    ProverEnvironment partial =
+        new TransformingProver(
+            env, model -> Lists.reverse(ImmutableList.copyOf(filter(model, important::contains))));
+    List<List<BitSet>> models = partial.allSatPolarities(new PolarityCollector(), important);
+
+    BitSet first = new BitSet();
+    first.set(0);
+    BitSet second = new BitSet();
+    second.set(1);
+    assertThat(models)
+        .containsExactly(ImmutableList.of(first, first), ImmutableList.of(second, second));
+  }
+
+  @Test
+  public void allSatPolaritiesTest_defaultPartialNegatedModels()
+      throws SolverException, InterruptedException {
+    BooleanFormula v1 = bmgr.makeVariable("b1");
+    BooleanFormula v2 = bmgr.makeVariable("b2");
+
+    env.push(bmgr.xor(v1, v2));
+
+    // keep only the negated literals, which can not be mapped to their predicates
+    ImmutableList<BooleanFormula> important = ImmutableList.of(v1, v2);
+    ProverEnvironment negated =
+        new TransformingProver(
+            env,
+            model -> ImmutableList.copyOf(filter(model, l -> !important.contains(l))));
+    try {
+      negated.allSatPolarities(new PolarityCollector(), important);
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
 }
@@ -169,6 +169,63 @@ public class SolverInterpolationTest extends SolverBasedTest0 {
     checkItpSequence(stack, ImmutableList.of(D, C, B, A), ImmutableList.of(itpD, itpDC, itpDCB));
   }
 
+  @Test
+  @SuppressWarnings({"unchecked", "varargs"})
+  public <T> void interpolationForCuts() throws SolverException, InterruptedException {
+    requireInterpolation();
+
+    InterpolatingProverEnvironment<T> stack = newEnvironmentForTest();
+
+    int i = index.getFreshId();
+
+    IntegerFormula zero = imgr.makeNumber(0);
+    IntegerFormula one = imgr.makeNumber(1);
+
+    IntegerFormula a = imgr.makeVariable("a" + i);
+    IntegerFormula b = imgr.makeVariable("b" + i);
+    IntegerFormula c = imgr.makeVariable("c" + i);
+
+    // build formula:  1 = A = B = C = 0
+    BooleanFormula A = imgr.equal(one, a);
+    BooleanFormula B = imgr.equal(a, b);
+    BooleanFormula C = imgr.equal(b, c);
+    BooleanFormula D = imgr.equal(c, zero);
+
+    T TA = stack.push(A);
+    T TB = stack.push(B);
+    T TC = stack.push(C);
+    T TD = stack.push(D);
+
+    assertThatEnvironment(stack).isUnsatisfiable();
+
+    List<BooleanFormula> itps =
+        stack.getInterpolants(
+            ImmutableList.of(
+                ImmutableList.of(TA, TB),
+                ImmutableList.of(),
+                ImmutableList.of(TA),
+                ImmutableList.of(TA, TB, TC, TD),
+                ImmutableList.of(TA, TB, TC)));
+    List<BooleanFormula> reverseItps =
+        stack.getInterpolants(
+            ImmutableList.of(
+                ImmutableList.of(TD), ImmutableList.of(TD, TC), ImmutableList.of(TD, TC, TB)));
+
+    stack.pop(); // clear stack, such that we can re-use the solver
+    stack.pop();
+    stack.pop();
+    stack.pop();
+
+    assertThat(itps).hasSize(5);
+    assertThat(bmgr.makeBoolean(true)).isEqualTo(itps.get(1));
+    assertThat(bmgr.makeBoolean(false)).isEqualTo(itps.get(3));
+    checkItpSequence(
+        stack,
+        ImmutableList.of(A, B, C, D),
+        ImmutableList.of(itps.get(2), itps.get(0), itps.get(4)));
+    checkItpSequence(stack, ImmutableList.of(D, C, B, A), reverseItps);
+  }
+
   @Test
   @SuppressWarnings({"unchecked", "varargs"})
   public <T> void binaryInterpolation1() throws SolverException, InterruptedException {
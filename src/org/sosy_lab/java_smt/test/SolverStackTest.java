@@ -33,6 +33,7 @@ import org.junit.runners.Parameterized.Parameter;
 import org.junit.runners.Parameterized.Parameters;
 import org.sosy_lab.common.UniqueIdGenerator;
 import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.ArrayFormula;
 import org.sosy_lab.java_smt.api.BasicProverEnvironment;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.FormulaType;
@@ -48,6 +49,9 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @RunWith(Parameterized.class)
 @SuppressWarnings("resource")
@@ -90,11 +94,11 @@ public class SolverStackTest extends SolverBasedTest0 {
 
   private static final UniqueIdGenerator index = new UniqueIdGenerator(); // to get different names
 
-  private void requireMultipleStackSupport() {
+  private void requireParallelProvers() {
     assume()
-        .withFailureMessage("Solver does not support multiple stacks yet")
+        .withFailureMessage("Solver does not support using provers from several threads yet")
         .that(solver)
-        .isNotEqualTo(Solvers.SMTINTERPOL);
+        .isIn(ImmutableList.of(Solvers.SMTINTERPOL, Solvers.PRINCESS));
   }
 
   protected final void requireUfValuesInModel() {
@@ -313,8 +317,6 @@ public class SolverStackTest extends SolverBasedTest0 {
 
   @Test
   public void dualStackTest() throws Exception {
-    requireMultipleStackSupport();
-
     BooleanFormula a = bmgr.makeVariable("bool_a");
     BooleanFormula not = bmgr.not(a);
 
@@ -337,8 +339,6 @@ public class SolverStackTest extends SolverBasedTest0 {
 
   @Test
   public void dualStackTest2() throws Exception {
-    requireMultipleStackSupport();
-
     BooleanFormula a = bmgr.makeVariable("bool_a");
     BooleanFormula not = bmgr.not(a);
 
@@ -358,6 +358,119 @@ public class SolverStackTest extends SolverBasedTest0 {
     assertThatEnvironment(stack1).isSatisfiable();
   }
 
+  @Test
+  public void newStackAfterCloseIsEmpty() throws Exception {
+    // solvers may reuse the internal stacks of closed provers
+    for (int i = 0; i < 3; i++) {
+      BasicProverEnvironment<?> stack = newEnvironmentForTest();
+      assertThatEnvironment(stack).isSatisfiable();
+      stack.push(bmgr.makeBoolean(false));
+      stack.push(bmgr.makeVariable("bool_closed"));
+      assertThatEnvironment(stack).isUnsatisfiable();
+      stack.close();
+    }
+  }
+
+  @Test
+  public void dualStackInterleavedTest() throws Exception {
+    IntegerFormula x = imgr.makeVariable("x_interleaved");
+    BooleanFormula xIsZero = imgr.equal(x, imgr.makeNumber(0));
+    BooleanFormula xIsOne = imgr.equal(x, imgr.makeNumber(1));
+
+    BasicProverEnvironment<?> stack1 = newEnvironmentForTest();
+    BasicProverEnvironment<?> stack2 = newEnvironmentForTest();
+    stack1.push(xIsZero); // stack1: L1
+    stack2.push(xIsOne); // stack2: L1
+    stack1.push(xIsOne); // stack1: L2
+    assertThatEnvironment(stack1).isUnsatisfiable();
+    assertThatEnvironment(stack2).isSatisfiable();
+
+    // closing one stack must not remove levels of the other one
+    stack1.close();
+    stack2.push(xIsZero); // stack2: L2
+    assertThatEnvironment(stack2).isUnsatisfiable();
+    stack2.pop(); // stack2: L1
+    assertThatEnvironment(stack2).isSatisfiable();
+    stack2.close();
+  }
+
+  @Test
+  public void parallelStackTest() throws Exception {
+    requireParallelProvers();
+    requireArrays();
+
+    int threads = 4;
+    FunctionDeclaration<IntegerFormula> uf =
+        fmgr.declareUF("uf_parallel", FormulaType.IntegerType, FormulaType.IntegerType);
+
+    // all constraints are created in this thread before the workers start,
+    // the provers (and their models) are used only in the workers
+    List<IntegerFormula> vars = new ArrayList<>();
+    List<List<BooleanFormula>> constraints = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      IntegerFormula x = imgr.makeVariable("x_parallel_" + i);
+      vars.add(x);
+      ArrayFormula<IntegerFormula, IntegerFormula> arr =
+          amgr.makeArray("arr_parallel_" + i, FormulaType.IntegerType, FormulaType.IntegerType);
+      IntegerFormula selected = amgr.select(arr, x);
+      constraints.add(
+          ImmutableList.of(
+              imgr.greaterThan(x, imgr.makeNumber(i)),
+              imgr.lessThan(x, imgr.makeNumber(i + 2 + (i % 2))),
+              imgr.equal(selected, x),
+              bmgr.not(
+                  imgr.equal(fmgr.callUF(uf, selected), fmgr.callUF(uf, imgr.makeNumber(i + 1))))));
+    }
+
+    List<BasicProverEnvironment<?>> stacks = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      stacks.add(newEnvironmentForTest(ProverOptions.GENERATE_MODELS));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        BasicProverEnvironment<?> stack = stacks.get(i);
+        List<BooleanFormula> formulas = constraints.get(i);
+        IntegerFormula x = vars.get(i);
+        BigInteger expectedX = BigInteger.valueOf(i + 2);
+        results.add(
+            executor.submit(
+                () -> {
+                  try {
+                    boolean unsat = false;
+                    for (int j = 0; j < 20; j++) {
+                      for (BooleanFormula f : formulas) {
+                        stack.push(f);
+                      }
+                      unsat = stack.isUnsat();
+                      if (!unsat) {
+                        try (Model model = stack.getModel()) {
+                          assertThat(model.evaluate(x)).isEqualTo(expectedX);
+                          assertThat(model).isNotEmpty();
+                        }
+                      }
+                      for (int k = 0; k < formulas.size(); k++) {
+                        stack.pop();
+                      }
+                    }
+                    return unsat;
+                  } finally {
+                    stack.close();
+                  }
+                }));
+      }
+      for (int i = 0; i < threads; i++) {
+        // x = i+1 is the only value for even i, which contradicts f(arr[x]) != f(i+1),
+        // for odd i, x = i+2 is possible
+        assertThat(results.get(i).get()).isEqualTo(i % 2 == 0);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   /**
    * This test checks that a SMT solver uses "global declarations":
    * regardless of the stack at declaration time,
@@ -0,0 +1,104 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.statistics.SolverStatistics.Operation;
+import org.sosy_lab.java_smt.statistics.SolverStatistics.Snapshot;
+import org.sosy_lab.java_smt.statistics.StatisticsSolverContext;
+
+@RunWith(Parameterized.class)
+public class StatisticsSolverContextTest extends SolverBasedTest0 {
+
+  @Parameters(name = "{0}")
+  public static Object[] getAllSolvers() {
+    return Solvers.values();
+  }
+
+  @Parameter(0)
+  public Solvers solver;
+
+  @Override
+  protected Solvers solverToUse() {
+    return solver;
+  }
+
+  private StatisticsSolverContext statsContext;
+
+  @Before
+  public void wrapContext() {
+    statsContext = new StatisticsSolverContext(context);
+  }
+
+  @Test
+  public void testProverOperations() throws SolverException, InterruptedException {
+    BooleanFormulaManager sbmgr = statsContext.getFormulaManager().getBooleanFormulaManager();
+    BooleanFormula a = sbmgr.makeVariable("a");
+
+    try (ProverEnvironment prover = statsContext.newProverEnvironment()) {
+      prover.push(a);
+      assertThat(prover.isUnsat()).isFalse();
+      prover.push(sbmgr.not(a));
+      assertThat(prover.isUnsat()).isTrue();
+      prover.pop();
+      prover.pop();
+    }
+
+    Snapshot stats = statsContext.getStatistics().snapshot();
+    assertThat(stats.get(Operation.PUSH).getCount()).isEqualTo(2);
+    assertThat(stats.get(Operation.POP).getCount()).isEqualTo(2);
+    assertThat(stats.get(Operation.ADD_CONSTRAINT).getCount()).isEqualTo(2);
+    assertThat(stats.get(Operation.IS_UNSAT).getCount()).isEqualTo(2);
+    assertThat(stats.get(Operation.GET_MODEL).getCount()).isEqualTo(0);
+    assertThat(stats.get(Operation.IS_UNSAT).getMaxTime())
+        .isAtMost(stats.get(Operation.IS_UNSAT).getTotalTime());
+    assertThat(stats.getFormulaCreations()).containsEntry("BooleanFormulaManager", 2L);
+  }
+
+  @Test
+  public void testUnwrappedManagerIsNotCounted() {
+    bmgr.makeVariable("b");
+    assertThat(statsContext.getStatistics().snapshot().getFormulaCreations()).isEmpty();
+  }
+
+  @Test
+  public void testTranslateFrom() throws SolverException, InterruptedException {
+    FormulaManager smgr = statsContext.getFormulaManager();
+    BooleanFormula a = smgr.getBooleanFormulaManager().makeVariable("a");
+    BooleanFormula translated = smgr.translateFrom(a, smgr);
+
+    assertThatFormula(bmgr.equivalence(a, translated)).isTautological();
+    assertThat(statsContext.getStatistics().snapshot().getFormulaCreations())
+        .containsEntry("FormulaManager", 1L);
+  }
+}
@@ -20,6 +20,9 @@
 
 package org.sosy_lab.java_smt.test;
 
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
 import com.google.common.truth.TruthJUnit;
 
 import org.junit.Rule;
@@ -32,8 +35,10 @@ import org.junit.runners.Parameterized.Parameters;
 import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
 import org.sosy_lab.java_smt.api.BasicProverEnvironment;
 import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ResourceLimitException;
 import org.sosy_lab.java_smt.api.Tactic;
 
+import java.time.Duration;
 import java.util.Random;
 import java.util.function.Supplier;
 
@@ -97,6 +102,97 @@ public class TimeoutTest extends SolverBasedTest0 {
     testBasicProverTimeout(() -> context.newOptimizationProverEnvironment());
   }
 
+  @Test
+  public void testProverTimeLimit() throws Exception {
+    testBasicProverTimeLimit(() -> context.newProverEnvironment());
+  }
+
+  @Test
+  public void testInterpolationProverTimeLimit() throws Exception {
+    testBasicProverTimeLimit(() -> context.newProverEnvironmentWithInterpolation());
+  }
+
+  @Test
+  public void testOptimizationProverTimeLimit() throws Exception {
+    requireOptimization();
+    testBasicProverTimeLimit(() -> context.newOptimizationProverEnvironment());
+  }
+
+  /** The time limit aborts only the hard query, the prover can be used afterwards. */
+  private void testBasicProverTimeLimit(Supplier<BasicProverEnvironment<?>> proverConstructor)
+      throws Exception {
+    BooleanFormula hard = new WorkloadGenerator(mgr, new Random(0)).pigeonhole(12);
+    BooleanFormula x = bmgr.makeVariable("x");
+    try (BasicProverEnvironment<?> pe = proverConstructor.get()) {
+      pe.push(x);
+      pe.push(hard);
+      try {
+        pe.isUnsat(Duration.ofMillis(100));
+        fail();
+      } catch (ResourceLimitException expected) {
+      }
+      pe.pop();
+      assertThat(pe.isUnsat(Duration.ofSeconds(10))).isFalse();
+      pe.push(bmgr.not(x));
+      assertThat(pe.isUnsat(Duration.ofSeconds(10))).isTrue();
+      pe.pop();
+      assertThat(pe.isUnsat()).isFalse();
+    }
+    assertThat(shutdownNotifierToUse().shouldShutdown()).isFalse();
+  }
+
+  @Test
+  public void testProverInterrupt() throws Exception {
+    testBasicProverInterrupt(() -> context.newProverEnvironment());
+  }
+
+  @Test
+  public void testInterpolationProverInterrupt() throws Exception {
+    testBasicProverInterrupt(() -> context.newProverEnvironmentWithInterpolation());
+  }
+
+  /** An interruption aborts only the running query, the prover can be used afterwards. */
+  private void testBasicProverInterrupt(Supplier<BasicProverEnvironment<?>> proverConstructor)
+      throws Exception {
+    BooleanFormula hard = new WorkloadGenerator(mgr, new Random(0)).pigeonhole(12);
+    BooleanFormula x = bmgr.makeVariable("x");
+    try (BasicProverEnvironment<?> pe = proverConstructor.get()) {
+      pe.push(x);
+      pe.push(hard);
+      Thread t =
+          new Thread() {
+            @Override
+            public void run() {
+              try {
+                sleep(100);
+                pe.interrupt();
+              } catch (InterruptedException pE) {
+                throw new AssertionError("Unexpected interrupt", pE);
+              }
+            }
+          };
+      t.start();
+      try {
+        pe.isUnsat();
+        fail();
+      } catch (InterruptedException expected) {
+      }
+      t.join();
+      pe.pop();
+      assertThat(pe.isUnsat()).isFalse();
+
+      // an interruption without running query aborts the next one
+      pe.interrupt();
+      try {
+        pe.isUnsat();
+        fail();
+      } catch (InterruptedException expected) {
+      }
+      assertThat(pe.isUnsat()).isFalse();
+    }
+    assertThat(shutdownNotifierToUse().shouldShutdown()).isFalse();
+  }
+
   @SuppressWarnings("CheckReturnValue")
   private void testBasicProverTimeout(Supplier<BasicProverEnvironment<?>> proverConstructor)
       throws Exception {
@@ -0,0 +1,167 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.sosy_lab.java_smt.api.SolverContext.ProverOptions.GENERATE_MODELS;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.IntegerFormulaManager;
+import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.trace.ReplayResult;
+import org.sosy_lab.java_smt.trace.TraceRecorder;
+import org.sosy_lab.java_smt.trace.TraceReplayer;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@RunWith(Parameterized.class)
+public class TraceReplayTest extends SolverBasedTest0 {
+
+  @Parameters(name = "{0}")
+  public static Object[] getAllSolvers() {
+    return Solvers.values();
+  }
+
+  @Parameter(0)
+  public Solvers solver;
+
+  @Override
+  protected Solvers solverToUse() {
+    return solver;
+  }
+
+  @Test
+  public void recordAndReplayTest() throws Exception {
+    Path file = Files.createTempFile("javasmt", ".trace");
+    try {
+      try (SolverContext recording = TraceRecorder.record(factory.generateContext(), file)) {
+        IntegerFormulaManager rimgr = recording.getFormulaManager().getIntegerFormulaManager();
+        BooleanFormulaManager rbmgr = recording.getFormulaManager().getBooleanFormulaManager();
+        IntegerFormula x = rimgr.makeVariable("x");
+        IntegerFormula y = rimgr.makeVariable("y");
+        BooleanFormula constraint =
+            rbmgr.and(rimgr.greaterThan(x, y), rimgr.greaterThan(y, rimgr.makeNumber(0)));
+
+        try (ProverEnvironment prover = recording.newProverEnvironment(GENERATE_MODELS)) {
+          prover.push(constraint);
+          assertThat(prover.isUnsat()).isFalse();
+          try (Model model = prover.getModel()) {
+            assertThat(model.evaluate(x)).isAtLeast(BigInteger.valueOf(2));
+          }
+          prover.push(rimgr.lessThan(x, rimgr.makeNumber(0)));
+          assertThat(prover.isUnsat()).isTrue();
+          prover.pop();
+        }
+      }
+
+      ReplayResult result = new TraceReplayer(context).replay(file);
+
+      assertThat(result.getFailedCount()).isEqualTo(0);
+      assertThat(result.getSkippedCount()).isEqualTo(0);
+      assertThat(result.getMethods())
+          .containsAllOf(
+              "SolverContext.newProverEnvironment",
+              "BasicProverEnvironment.isUnsat",
+              "Model.evaluate");
+      int checks = 0;
+      for (int i = 0; i < result.getCallCount(); i++) {
+        if (result.getMethod(i).equals("BasicProverEnvironment.isUnsat")) {
+          checks++;
+          assertThat(result.getReplayedNanos(i)).isAtLeast(0L);
+        }
+      }
+      assertThat(checks).isEqualTo(2);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void wrappersAreReusedTest() throws Exception {
+    Path file = Files.createTempFile("javasmt", ".trace");
+    try {
+      try (SolverContext recording = TraceRecorder.record(factory.generateContext(), file)) {
+        FormulaManager rmgr = recording.getFormulaManager();
+        assertThat(recording.getFormulaManager()).isSameAs(rmgr);
+        assertThat(rmgr.getBooleanFormulaManager()).isSameAs(rmgr.getBooleanFormulaManager());
+        assertThat(rmgr.getIntegerFormulaManager()).isSameAs(rmgr.getIntegerFormulaManager());
+        rmgr.getBooleanFormulaManager().makeVariable("b");
+      }
+
+      // each access is recorded, such that the replay knows all managers
+      ReplayResult result = new TraceReplayer(context).replay(file);
+      assertThat(result.getFailedCount()).isEqualTo(0);
+      assertThat(result.getSkippedCount()).isEqualTo(0);
+      assertThat(result.getMethods()).contains("BooleanFormulaManager.makeVariable");
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void recordAndReplayInterpolationTest() throws Exception {
+    requireInterpolation();
+    Path file = Files.createTempFile("javasmt", ".trace");
+    try {
+      try (SolverContext recording = TraceRecorder.record(factory.generateContext(), file)) {
+        IntegerFormulaManager rimgr = recording.getFormulaManager().getIntegerFormulaManager();
+        IntegerFormula x = rimgr.makeVariable("x");
+        recordInterpolant(recording.newProverEnvironmentWithInterpolation(), rimgr, x);
+      }
+
+      ReplayResult result = new TraceReplayer(context).replay(file);
+
+      assertThat(result.getFailedCount()).isEqualTo(0);
+      assertThat(result.getSkippedCount()).isEqualTo(0);
+      assertThat(result.getMethods()).contains("InterpolatingProverEnvironment.getInterpolant");
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private static <T> void recordInterpolant(
+      InterpolatingProverEnvironment<T> prover, IntegerFormulaManager rimgr, IntegerFormula x)
+      throws Exception {
+    try {
+      T a = prover.push(rimgr.greaterThan(x, rimgr.makeNumber(1)));
+      prover.push(rimgr.lessThan(x, rimgr.makeNumber(0)));
+      assertThat(prover.isUnsat()).isTrue();
+      assertThat(prover.getInterpolant(ImmutableList.of(a))).isNotNull();
+    } finally {
+      prover.close();
+    }
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.ArrayFormula;
+import org.sosy_lab.java_smt.api.BitvectorFormula;
+import org.sosy_lab.java_smt.api.FormulaType;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.utils.SolverUtils;
+import org.sosy_lab.java_smt.utils.ValueEnumerator;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(Parameterized.class)
+public class ValueEnumeratorTest extends SolverBasedTest0 {
+
+  @Parameters(name = "{0}")
+  public static Object[] getAllSolvers() {
+    return Solvers.values();
+  }
+
+  @Parameter(0)
+  public Solvers solver;
+
+  @Override
+  protected Solvers solverToUse() {
+    return solver;
+  }
+
+  private ProverEnvironment env;
+  private ValueEnumerator enumerator;
+  private final List<List<Object>> solutions = new ArrayList<>();
+
+  @Before
+  public void setupEnvironment() {
+    env = context.newProverEnvironment(ProverOptions.GENERATE_MODELS);
+    enumerator = SolverUtils.valueEnumerator(mgr);
+  }
+
+  @After
+  public void closeEnvironment() {
+    env.close();
+  }
+
+  private static List<Object> values(long... pValues) {
+    List<Object> result = new ArrayList<>();
+    for (long value : pValues) {
+      result.add(BigInteger.valueOf(value));
+    }
+    return result;
+  }
+
+  @Test
+  public void enumerateIntegers() throws SolverException, InterruptedException {
+    IntegerFormula x = imgr.makeVariable("x");
+    IntegerFormula y = imgr.makeVariable("y");
+    env.push(imgr.greaterOrEquals(x, imgr.makeNumber(0)));
+    env.push(imgr.greaterOrEquals(y, imgr.makeNumber(0)));
+    env.push(imgr.equal(imgr.add(x, y), imgr.makeNumber(2)));
+
+    int count =
+        enumerator.enumerateValues(
+            env, ImmutableList.of(x, y), 10, v -> solutions.add(ImmutableList.copyOf(v)));
+
+    assertThat(count).isEqualTo(3);
+    assertThat(solutions).containsExactly(values(0, 2), values(1, 1), values(2, 0));
+
+    // the blocking clauses were removed
+    assertThat(env.isUnsat()).isFalse();
+  }
+
+  @Test
+  public void enumerateIntegersWithLimit() throws SolverException, InterruptedException {
+    IntegerFormula x = imgr.makeVariable("x");
+    env.push(imgr.greaterThan(x, imgr.makeNumber(0)));
+
+    int count =
+        enumerator.enumerateValues(
+            env, ImmutableList.of(x), 5, v -> solutions.add(ImmutableList.copyOf(v)));
+
+    assertThat(count).isEqualTo(5);
+    assertThat(solutions).containsNoDuplicates();
+  }
+
+  @Test
+  public void enumerateBitvectors() throws SolverException, InterruptedException {
+    requireBitvectors();
+
+    BitvectorFormula x = bvmgr.makeVariable(3, "x");
+    env.push(bvmgr.lessThan(x, bvmgr.makeBitvector(3, 3), false));
+
+    int count =
+        enumerator.enumerateValues(
+            env, ImmutableList.of(x), 10, v -> solutions.add(ImmutableList.copyOf(v)));
+
+    assertThat(count).isEqualTo(3);
+    assertThat(solutions).containsExactly(values(0), values(1), values(2));
+  }
+
+  @Test
+  public void unsupportedTypeIsRejectedBeforeCheck() throws SolverException, InterruptedException {
+    requireArrays();
+
+    IntegerFormula x = imgr.makeVariable("x");
+    ArrayFormula<IntegerFormula, IntegerFormula> a =
+        amgr.makeArray("a", FormulaType.IntegerType, FormulaType.IntegerType);
+    env.push(imgr.equal(x, imgr.makeNumber(1)));
+
+    try {
+      enumerator.enumerateValues(
+          env, ImmutableList.of(x, a), 10, v -> solutions.add(ImmutableList.copyOf(v)));
+      fail("expected the array term to be rejected");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+
+    assertThat(solutions).isEmpty();
+    // the stack is unchanged
+    env.pop();
+    assertThat(env.isUnsat()).isFalse();
+  }
+}
@@ -0,0 +1,317 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.test;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.sosy_lab.common.UniqueIdGenerator;
+import org.sosy_lab.common.io.MoreFiles;
+import org.sosy_lab.java_smt.api.ArrayFormula;
+import org.sosy_lab.java_smt.api.ArrayFormulaManager;
+import org.sosy_lab.java_smt.api.BitvectorFormula;
+import org.sosy_lab.java_smt.api.BitvectorFormulaManager;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.FloatingPointFormula;
+import org.sosy_lab.java_smt.api.FloatingPointFormulaManager;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.FormulaType;
+import org.sosy_lab.java_smt.api.FormulaType.FloatingPointType;
+import org.sosy_lab.java_smt.api.FunctionDeclaration;
+import org.sosy_lab.java_smt.api.IntegerFormulaManager;
+import org.sosy_lab.java_smt.api.NumeralFormula;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.NumeralFormulaManager;
+import org.sosy_lab.java_smt.api.UFManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generator of scalable, seeded workloads over several theories, useful for testing and
+ * benchmarking.
+ *
+ * <p>The satisfiability of every workload is known by construction and documented at its method,
+ * such that the generated formulas can also be used for checking the solvers.
+ * Workloads that are lists of formulas (unrollings and chains) are unsatisfiable as a whole
+ * and can be used as partitions for sequence interpolation.
+ *
+ * <p>All random choices are taken from the given {@link Random} instance,
+ * thus a fixed seed produces the same formulas on every run and for every solver.
+ * The formula managers of the theories are only requested when a workload needs them,
+ * such that the generator can be used with solvers that do not support every theory.
+ */
+public class WorkloadGenerator {
+
+  private static final int TERMS_PER_CONSTRAINT = 3;
+
+  private final FormulaManager fmgr;
+  private final BooleanFormulaManager bfmgr;
+  private final Random r;
+
+  /** Every workload uses its own variables, even if the same workload is generated twice. */
+  private final UniqueIdGenerator idGenerator = new UniqueIdGenerator();
+
+  public WorkloadGenerator(FormulaManager pFmgr, Random pRandom) {
+    fmgr = pFmgr;
+    bfmgr = pFmgr.getBooleanFormulaManager();
+    r = pRandom;
+  }
+
+  private String newPrefix() {
+    return "w" + idGenerator.getFreshId() + "@";
+  }
+
+  /**
+   * A sparse system of linear inequalities over integers with random coefficients,
+   * each inequality has at most {@value #TERMS_PER_CONSTRAINT} terms.
+   * Satisfiable, the right-hand sides are chosen such that a random solution exists.
+   */
+  public BooleanFormula linearIntegers(int numberOfVariables, int numberOfConstraints) {
+    IntegerFormulaManager ifmgr = fmgr.getIntegerFormulaManager();
+    return linearSystem(ifmgr, numberOfVariables, numberOfConstraints);
+  }
+
+  /**
+   * A sparse system of linear inequalities over rationals with random coefficients,
+   * each inequality has at most {@value #TERMS_PER_CONSTRAINT} terms.
+   * Satisfiable, the right-hand sides are chosen such that a random solution exists.
+   */
+  public BooleanFormula linearRationals(int numberOfVariables, int numberOfConstraints) {
+    NumeralFormulaManager<NumeralFormula, ?> rfmgr = fmgr.getRationalFormulaManager();
+    return linearSystem(rfmgr, numberOfVariables, numberOfConstraints);
+  }
+
+  private <T extends NumeralFormula> BooleanFormula linearSystem(
+      NumeralFormulaManager<T, ? extends T> nfmgr, int numberOfVariables, int numberOfConstraints) {
+    checkArgument(numberOfVariables > 0 && numberOfConstraints > 0);
+    String prefix = newPrefix();
+    List<T> vars = new ArrayList<>(numberOfVariables);
+    long[] solution = new long[numberOfVariables];
+    for (int i = 0; i < numberOfVariables; i++) {
+      vars.add(nfmgr.makeVariable(prefix + "x" + i));
+      solution[i] = r.nextInt(101) - 50;
+    }
+
+    List<BooleanFormula> constraints = new ArrayList<>(numberOfConstraints);
+    for (int c = 0; c < numberOfConstraints; c++) {
+      T lhs = nfmgr.makeNumber(0);
+      long rhs = r.nextInt(6); // slack
+      for (int t = 0; t < TERMS_PER_CONSTRAINT; t++) {
+        int i = r.nextInt(numberOfVariables);
+        long coefficient = r.nextInt(21) - 10;
+        lhs = nfmgr.add(lhs, nfmgr.multiply(nfmgr.makeNumber(coefficient), vars.get(i)));
+        rhs += coefficient * solution[i];
+      }
+      constraints.add(nfmgr.lessOrEquals(lhs, nfmgr.makeNumber(rhs)));
+    }
+    return bfmgr.and(constraints);
+  }
+
+  /**
+   * A bounded-model-checking unrolling of a bitvector counter:
+   * in every step the counter is either unchanged or incremented by a random constant,
+   * the last formula claims that the counter exceeds the sum of all constants.
+   * Unsatisfiable, as long as the sum of the constants fits into the bitvector.
+   *
+   * @return the initial state, one transition per step, and the violated property
+   */
+  public List<BooleanFormula> bitvectorUnrolling(int width, int steps) {
+    checkArgument(steps > 0);
+    checkArgument(width < 63 && 3L * steps < (1L << width), "counter overflows");
+    BitvectorFormulaManager bvfmgr = fmgr.getBitvectorFormulaManager();
+    String prefix = newPrefix();
+    List<BooleanFormula> unrolling = new ArrayList<>(steps + 2);
+
+    BitvectorFormula counter = bvfmgr.makeVariable(width, prefix + "c0");
+    unrolling.add(bvfmgr.equal(counter, bvfmgr.makeBitvector(width, 0)));
+    long maximum = 0;
+    for (int i = 1; i <= steps; i++) {
+      long increment = 1 + r.nextInt(3);
+      maximum += increment;
+      BitvectorFormula next = bvfmgr.makeVariable(width, prefix + "c" + i);
+      BooleanFormula choice = bfmgr.makeVariable(prefix + "b" + i);
+      unrolling.add(
+          bvfmgr.equal(
+              next,
+              bfmgr.ifThenElse(
+                  choice,
+                  bvfmgr.add(counter, bvfmgr.makeBitvector(width, increment)),
+                  counter)));
+      counter = next;
+    }
+    unrolling.add(bvfmgr.greaterThan(counter, bvfmgr.makeBitvector(width, maximum), false));
+    return unrolling;
+  }
+
+  /**
+   * A sum of bounded single-precision floating-point variables:
+   * {@code s_0 = 0}, {@code s_(i+1) = s_i + v_i} with {@code 0 <= v_i <= 1},
+   * and the claim {@code s_n > n}.
+   * Unsatisfiable, because rounding is monotone and all partial bounds are representable.
+   */
+  public BooleanFormula floatingPointSum(int n) {
+    checkArgument(n > 0);
+    FloatingPointFormulaManager fpfmgr = fmgr.getFloatingPointFormulaManager();
+    FloatingPointType type = FormulaType.getSinglePrecisionFloatingPointType();
+    String prefix = newPrefix();
+    FloatingPointFormula zero = fpfmgr.makeNumber(0, type);
+    FloatingPointFormula one = fpfmgr.makeNumber(1, type);
+    List<BooleanFormula> constraints = new ArrayList<>();
+
+    FloatingPointFormula sum = zero;
+    for (int i = 0; i < n; i++) {
+      FloatingPointFormula value = fpfmgr.makeVariable(prefix + "v" + i, type);
+      constraints.add(fpfmgr.lessOrEquals(zero, value));
+      constraints.add(fpfmgr.lessOrEquals(value, one));
+      FloatingPointFormula next = fpfmgr.makeVariable(prefix + "s" + i, type);
+      constraints.add(fpfmgr.assignment(next, fpfmgr.add(sum, value)));
+      sum = next;
+    }
+    constraints.add(fpfmgr.greaterThan(sum, fpfmgr.makeNumber(n, type)));
+    return bfmgr.and(constraints);
+  }
+
+  /**
+   * A chain of {@code n} stores of random values into an integer array,
+   * and the claim that one of the stored values cannot be read back.
+   * Unsatisfiable.
+   */
+  public BooleanFormula arrayStores(int n) {
+    checkArgument(n > 0);
+    ArrayFormulaManager afmgr = fmgr.getArrayFormulaManager();
+    IntegerFormulaManager ifmgr = fmgr.getIntegerFormulaManager();
+    String prefix = newPrefix();
+    List<BooleanFormula> constraints = new ArrayList<>(n + 1);
+
+    ArrayFormula<IntegerFormula, IntegerFormula> array =
+        afmgr.makeArray(prefix + "a0", FormulaType.IntegerType, FormulaType.IntegerType);
+    long[] values = new long[n];
+    for (int i = 0; i < n; i++) {
+      values[i] = r.nextInt(1000);
+      ArrayFormula<IntegerFormula, IntegerFormula> next =
+          afmgr.makeArray(
+              prefix + "a" + (i + 1), FormulaType.IntegerType, FormulaType.IntegerType);
+      constraints.add(
+          afmgr.equivalence(
+              next, afmgr.store(array, ifmgr.makeNumber(i), ifmgr.makeNumber(values[i]))));
+      array = next;
+    }
+    int index = r.nextInt(n);
+    constraints.add(
+        bfmgr.not(
+            ifmgr.equal(
+                afmgr.select(array, ifmgr.makeNumber(index)), ifmgr.makeNumber(values[index]))));
+    return bfmgr.and(constraints);
+  }
+
+  /**
+   * Two chains {@code x_(i+1) = f(x_i)} and {@code y_(i+1) = f(y_i)} of an uninterpreted function
+   * with equal start values, and the claim that their ends differ.
+   * Unsatisfiable by congruence.
+   */
+  public BooleanFormula ufChains(int n) {
+    checkArgument(n > 0);
+    UFManager ufmgr = fmgr.getUFManager();
+    IntegerFormulaManager ifmgr = fmgr.getIntegerFormulaManager();
+    String prefix = newPrefix();
+    FunctionDeclaration<IntegerFormula> f =
+        ufmgr.declareUF(prefix + "f", FormulaType.IntegerType, FormulaType.IntegerType);
+    List<BooleanFormula> constraints = new ArrayList<>(2 * n + 2);
+
+    IntegerFormula x = ifmgr.makeVariable(prefix + "x0");
+    IntegerFormula y = ifmgr.makeVariable(prefix + "y0");
+    constraints.add(ifmgr.equal(x, y));
+    for (int i = 1; i <= n; i++) {
+      IntegerFormula nextX = ifmgr.makeVariable(prefix + "x" + i);
+      IntegerFormula nextY = ifmgr.makeVariable(prefix + "y" + i);
+      constraints.add(ifmgr.equal(nextX, ufmgr.callUF(f, x)));
+      constraints.add(ifmgr.equal(nextY, ufmgr.callUF(f, y)));
+      x = nextX;
+      y = nextY;
+    }
+    constraints.add(bfmgr.not(ifmgr.equal(x, y)));
+    return bfmgr.and(constraints);
+  }
+
+  /**
+   * The pigeonhole problem with {@code holes + 1} pigeons in {@code holes} holes.
+   * Unsatisfiable, and hard for resolution-based solvers.
+   */
+  public BooleanFormula pigeonhole(int holes) {
+    checkArgument(holes > 0);
+    String prefix = newPrefix();
+    int pigeons = holes + 1;
+    BooleanFormula[][] in = new BooleanFormula[pigeons][holes];
+    List<BooleanFormula> constraints = new ArrayList<>();
+
+    for (int p = 0; p < pigeons; p++) {
+      for (int h = 0; h < holes; h++) {
+        in[p][h] = bfmgr.makeVariable(prefix + "p" + p + "h" + h);
+      }
+      constraints.add(bfmgr.or(in[p]));
+    }
+    for (int h = 0; h < holes; h++) {
+      for (int p = 0; p < pigeons; p++) {
+        for (int q = p + 1; q < pigeons; q++) {
+          constraints.add(bfmgr.not(bfmgr.and(in[p][h], in[q][h])));
+        }
+      }
+    }
+    return bfmgr.and(constraints);
+  }
+
+  /**
+   * A chain {@code x_0 = 0}, {@code x_(i+1) = x_i + c_i} over integers with random positive
+   * constants, and the claim {@code x_n < 0}.
+   * Unsatisfiable as a whole.
+   *
+   * @return {@code n + 2} formulas that only share variables with their neighbors
+   */
+  public List<BooleanFormula> interpolationChain(int n) {
+    checkArgument(n > 0);
+    IntegerFormulaManager ifmgr = fmgr.getIntegerFormulaManager();
+    String prefix = newPrefix();
+    List<BooleanFormula> chain = new ArrayList<>(n + 2);
+
+    IntegerFormula x = ifmgr.makeVariable(prefix + "x0");
+    chain.add(ifmgr.equal(x, ifmgr.makeNumber(0)));
+    for (int i = 1; i <= n; i++) {
+      IntegerFormula next = ifmgr.makeVariable(prefix + "x" + i);
+      chain.add(ifmgr.equal(next, ifmgr.add(x, ifmgr.makeNumber(1 + r.nextInt(3)))));
+      x = next;
+    }
+    chain.add(ifmgr.lessThan(x, ifmgr.makeNumber(0)));
+    return chain;
+  }
+
+  /**
+   * Write a workload as SMT-LIB2 script with declarations, one assertion and {@code check-sat}.
+   */
+  public void writeSmtLib(BooleanFormula workload, Path file) throws IOException {
+    MoreFiles.createParentDirs(file);
+    MoreFiles.writeFile(
+        file, StandardCharsets.UTF_8, fmgr.dumpFormula(workload) + "\n(check-sat)\n");
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.util.List;
+import java.util.Random;
+
+@RunWith(Parameterized.class)
+public class WorkloadGeneratorTest extends SolverBasedTest0 {
+
+  @Parameters(name = "{0}")
+  public static Object[] getAllSolvers() {
+    return Solvers.values();
+  }
+
+  @Parameter(0)
+  public Solvers solver;
+
+  @Override
+  protected Solvers solverToUse() {
+    return solver;
+  }
+
+  private WorkloadGenerator gen;
+
+  @Before
+  public void setUpGenerator() {
+    gen = new WorkloadGenerator(mgr, new Random(0));
+  }
+
+  @Test
+  public void linearIntegersTest() throws SolverException, InterruptedException {
+    assertThatFormula(gen.linearIntegers(5, 10)).isSatisfiable();
+  }
+
+  @Test
+  public void linearRationalsTest() throws SolverException, InterruptedException {
+    requireRationals();
+    assertThatFormula(gen.linearRationals(5, 10)).isSatisfiable();
+  }
+
+  @Test
+  public void bitvectorUnrollingTest() throws SolverException, InterruptedException {
+    requireBitvectors();
+    List<BooleanFormula> unrolling = gen.bitvectorUnrolling(8, 10);
+    assertThat(unrolling).hasSize(12);
+    assertThatFormula(bmgr.and(unrolling)).isUnsatisfiable();
+    assertThatFormula(bmgr.and(unrolling.subList(0, 11))).isSatisfiable();
+  }
+
+  @Test
+  public void floatingPointSumTest() throws SolverException, InterruptedException {
+    requireFloats();
+    assertThatFormula(gen.floatingPointSum(3)).isUnsatisfiable();
+  }
+
+  @Test
+  public void arrayStoresTest() throws SolverException, InterruptedException {
+    requireArrays();
+    assertThatFormula(gen.arrayStores(10)).isUnsatisfiable();
+  }
+
+  @Test
+  public void ufChainsTest() throws SolverException, InterruptedException {
+    assertThatFormula(gen.ufChains(10)).isUnsatisfiable();
+  }
+
+  @Test
+  public void pigeonholeTest() throws SolverException, InterruptedException {
+    assertThatFormula(gen.pigeonhole(4)).isUnsatisfiable();
+  }
+
+  @Test
+  public void interpolationChainTest() throws SolverException, InterruptedException {
+    List<BooleanFormula> chain = gen.interpolationChain(10);
+    assertThat(chain).hasSize(12);
+    assertThatFormula(bmgr.and(chain)).isUnsatisfiable();
+    assertThatFormula(bmgr.and(chain.subList(0, 11))).isSatisfiable();
+  }
+
+  @Test
+  public void freshVariablesTest() throws SolverException, InterruptedException {
+    // the same workload twice must not share variables
+    BooleanFormula first = gen.linearIntegers(3, 3);
+    BooleanFormula second = gen.linearIntegers(3, 3);
+    assertThat(mgr.extractVariables(first).keySet())
+        .containsNoneIn(mgr.extractVariables(second).keySet());
+  }
+
+  @Test
+  public void seedTest() {
+    BooleanFormula first = new WorkloadGenerator(mgr, new Random(42)).linearIntegers(3, 3);
+    BooleanFormula second = new WorkloadGenerator(mgr, new Random(42)).linearIntegers(3, 3);
+    assertThat(first).isEqualTo(second);
+  }
+}
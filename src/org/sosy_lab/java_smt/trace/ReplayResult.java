@@ -0,0 +1,155 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.trace;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The timings of a replayed trace, for each call the recorded and the replayed duration.
+ * The {@link #toString()} representation gives a summary per method.
+ */
+public final class ReplayResult {
+
+  /** The replayed duration of calls that were skipped or failed. */
+  public static final long NOT_REPLAYED = -1;
+
+  private final List<String> methods;
+  private int size = 0;
+  private int[] methodIndices = new int[1024];
+  private long[] recordedNanos = new long[1024];
+  private long[] replayedNanos = new long[1024];
+  private int skipped = 0;
+  private int failed = 0;
+
+  ReplayResult(List<String> pMethods) {
+    methods = pMethods;
+  }
+
+  void add(int methodIndex, long recorded, long replayed) {
+    if (size == methodIndices.length) {
+      methodIndices = Arrays.copyOf(methodIndices, size * 2);
+      recordedNanos = Arrays.copyOf(recordedNanos, size * 2);
+      replayedNanos = Arrays.copyOf(replayedNanos, size * 2);
+    }
+    methodIndices[size] = methodIndex;
+    recordedNanos[size] = recorded;
+    replayedNanos[size] = replayed;
+    size++;
+  }
+
+  void addSkipped(int methodIndex, long recorded) {
+    skipped++;
+    add(methodIndex, recorded, NOT_REPLAYED);
+  }
+
+  void addFailed(int methodIndex, long recorded) {
+    failed++;
+    add(methodIndex, recorded, NOT_REPLAYED);
+  }
+
+  /** The number of calls in the trace, including skipped and failed calls. */
+  public int getCallCount() {
+    return size;
+  }
+
+  /** The number of calls that could not be replayed, e.g., because of visitors. */
+  public int getSkippedCount() {
+    return skipped;
+  }
+
+  /** The number of calls that threw an exception during replay. */
+  public int getFailedCount() {
+    return failed;
+  }
+
+  /** The method of the i-th call, e.g., "ProverEnvironment.isUnsat". */
+  public String getMethod(int i) {
+    checkElementIndex(i, size);
+    return methods.get(methodIndices[i]);
+  }
+
+  public long getRecordedNanos(int i) {
+    checkElementIndex(i, size);
+    return recordedNanos[i];
+  }
+
+  /** The replayed duration, or {@link #NOT_REPLAYED}. */
+  public long getReplayedNanos(int i) {
+    checkElementIndex(i, size);
+    return replayedNanos[i];
+  }
+
+  /** The names of all methods in the trace. */
+  public ImmutableList<String> getMethods() {
+    return ImmutableList.copyOf(methods);
+  }
+
+  @Override
+  public String toString() {
+    Map<Integer, long[]> summary = new LinkedHashMap<>(); // calls, recorded, replayed, max
+    for (int i = 0; i < size; i++) {
+      long[] s = summary.computeIfAbsent(methodIndices[i], k -> new long[4]);
+      s[0]++;
+      s[1] += recordedNanos[i];
+      if (replayedNanos[i] != NOT_REPLAYED) {
+        s[2] += replayedNanos[i];
+        s[3] = Math.max(s[3], replayedNanos[i]);
+      }
+    }
+    List<String> lines = new ArrayList<>();
+    lines.add(
+        String.format(
+            Locale.ROOT,
+            "%-60s %10s %14s %14s %12s",
+            "method",
+            "calls",
+            "recorded (ms)",
+            "replayed (ms)",
+            "max (ms)"));
+    for (Map.Entry<Integer, long[]> entry : summary.entrySet()) {
+      long[] s = entry.getValue();
+      lines.add(
+          String.format(
+              Locale.ROOT,
+              "%-60s %10d %14.3f %14.3f %12.3f",
+              methods.get(entry.getKey()),
+              s[0],
+              toMillis(s[1]),
+              toMillis(s[2]),
+              toMillis(s[3])));
+    }
+    lines.add(String.format("%d calls, %d skipped, %d failed", size, skipped, failed));
+    return String.join("\n", lines);
+  }
+
+  private static double toMillis(long nanos) {
+    return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.sosy_lab.java_smt.api.ArrayFormula;
+import org.sosy_lab.java_smt.api.ArrayFormulaManager;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FormulaType;
+import org.sosy_lab.java_smt.api.FormulaType.ArrayFormulaType;
+
+/**
+ * Wraps an {@link ArrayFormulaManager} and records all calls.
+ */
+final class TraceArrayFormulaManager extends TraceWrapper implements ArrayFormulaManager {
+
+  private static final TracedMethod SELECT = method("select", ArrayFormula.class, Formula.class);
+  private static final TracedMethod STORE =
+      method("store", ArrayFormula.class, Formula.class, Formula.class);
+  private static final TracedMethod MAKE_ARRAY =
+      method("makeArray", String.class, FormulaType.class, FormulaType.class);
+  private static final TracedMethod MAKE_ARRAY_TYPE =
+      method("makeArray", String.class, ArrayFormulaType.class);
+  private static final TracedMethod EQUIVALENCE =
+      method("equivalence", ArrayFormula.class, ArrayFormula.class);
+  private static final TracedMethod GET_INDEX_TYPE = method("getIndexType", ArrayFormula.class);
+  private static final TracedMethod GET_ELEMENT_TYPE = method("getElementType", ArrayFormula.class);
+
+  private final ArrayFormulaManager delegate;
+
+  TraceArrayFormulaManager(ArrayFormulaManager pDelegate, TraceRecorder pRecorder) {
+    super(pRecorder);
+    delegate = checkNotNull(pDelegate);
+  }
+
+  private static TracedMethod method(String name, Class<?>... parameterTypes) {
+    return TracedMethod.of(ArrayFormulaManager.class, name, parameterTypes);
+  }
+
+  @Override
+  public <TI extends Formula, TE extends Formula> TE select(
+      ArrayFormula<TI, TE> pArray, TI pIndex) {
+    return call(SELECT, () -> delegate.select(pArray, pIndex), pArray, pIndex);
+  }
+
+  @Override
+  public <TI extends Formula, TE extends Formula> ArrayFormula<TI, TE> store(
+      ArrayFormula<TI, TE> pArray, TI pIndex, TE pValue) {
+    return call(STORE, () -> delegate.store(pArray, pIndex, pValue), pArray, pIndex, pValue);
+  }
+
+  @Override
+  public <
+          TI extends Formula,
+          TE extends Formula,
+          FTI extends FormulaType<TI>,
+          FTE extends FormulaType<TE>>
+      ArrayFormula<TI, TE> makeArray(String pName, FTI pIndexType, FTE pElementType) {
+    return call(
+        MAKE_ARRAY,
+        () -> delegate.makeArray(pName, pIndexType, pElementType),
+        pName,
+        pIndexType,
+        pElementType);
+  }
+
+  @Override
+  public <TI extends Formula, TE extends Formula> ArrayFormula<TI, TE> makeArray(
+      String pName, ArrayFormulaType<TI, TE> type) {
+    return call(MAKE_ARRAY_TYPE, () -> delegate.makeArray(pName, type), pName, type);
+  }
+
+  @Override
+  public <TI extends Formula, TE extends Formula> BooleanFormula equivalence(
+      ArrayFormula<TI, TE> pArray1, ArrayFormula<TI, TE> pArray2) {
+    return call(EQUIVALENCE, () -> delegate.equivalence(pArray1, pArray2), pArray1, pArray2);
+  }
+
+  @Override
+  public <TI extends Formula> FormulaType<TI> getIndexType(ArrayFormula<TI, ?> pArray) {
+    return call(GET_INDEX_TYPE, () -> delegate.getIndexType(pArray), pArray);
+  }
+
+  @Override
+  public <TE extends Formula> FormulaType<TE> getElementType(ArrayFormula<?, TE> pArray) {
+    return call(GET_ELEMENT_TYPE, () -> delegate.getElementType(pArray), pArray);
+  }
+}
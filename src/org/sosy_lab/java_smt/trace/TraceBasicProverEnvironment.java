@@ -0,0 +1,117 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import org.sosy_lab.java_smt.api.BasicProverEnvironment;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.Model.ValueAssignment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.time.Duration;
+
+/**
+ * Wraps a basic prover environment and records all calls.
+ */
+class TraceBasicProverEnvironment<T> extends TraceWrapper implements BasicProverEnvironment<T> {
+
+  private static final TracedMethod POP = method("pop");
+  private static final TracedMethod ADD_CONSTRAINT = method("addConstraint", BooleanFormula.class);
+  private static final TracedMethod PUSH = method("push");
+  private static final TracedMethod IS_UNSAT = method("isUnsat");
+  private static final TracedMethod IS_UNSAT_DURATION = method("isUnsat", Duration.class);
+  private static final TracedMethod INTERRUPT = method("interrupt");
+  private static final TracedMethod GET_MODEL = method("getModel");
+  private static final TracedMethod GET_MODEL_ASSIGNMENTS = method("getModelAssignments");
+  private static final TracedMethod GET_STATISTICS = method("getStatistics");
+  private static final TracedMethod CLOSE = method("close");
+
+  private final BasicProverEnvironment<T> wrapped;
+
+  TraceBasicProverEnvironment(BasicProverEnvironment<T> pWrapped, TraceRecorder pRecorder) {
+    super(pRecorder);
+    wrapped = checkNotNull(pWrapped);
+  }
+
+  private static TracedMethod method(String name, Class<?>... parameterTypes) {
+    return TracedMethod.of(BasicProverEnvironment.class, name, parameterTypes);
+  }
+
+  @Override
+  public T push(BooleanFormula f) {
+    push();
+    return addConstraint(f);
+  }
+
+  @Override
+  public void pop() {
+    run(POP, () -> wrapped.pop());
+  }
+
+  @Override
+  public T addConstraint(BooleanFormula constraint) {
+    return call(ADD_CONSTRAINT, () -> wrapped.addConstraint(constraint), constraint);
+  }
+
+  @Override
+  public void push() {
+    run(PUSH, () -> wrapped.push());
+  }
+
+  @Override
+  public boolean isUnsat() throws SolverException, InterruptedException {
+    return solve(IS_UNSAT, () -> wrapped.isUnsat());
+  }
+
+  @Override
+  public boolean isUnsat(Duration pTimeout) throws SolverException, InterruptedException {
+    return solve(IS_UNSAT_DURATION, () -> wrapped.isUnsat(pTimeout), pTimeout);
+  }
+
+  @Override
+  public void interrupt() {
+    run(INTERRUPT, () -> wrapped.interrupt());
+  }
+
+  @Override
+  public Model getModel() throws SolverException {
+    return call(GET_MODEL, () -> new TraceModel(wrapped.getModel(), getRecorder()));
+  }
+
+  @Override
+  public ImmutableList<ValueAssignment> getModelAssignments() throws SolverException {
+    return call(GET_MODEL_ASSIGNMENTS, () -> wrapped.getModelAssignments());
+  }
+
+  @Override
+  public ImmutableMap<String, Object> getStatistics() {
+    return call(GET_STATISTICS, () -> wrapped.getStatistics());
+  }
+
+  @Override
+  public void close() {
+    run(CLOSE, () -> wrapped.close());
+  }
+}
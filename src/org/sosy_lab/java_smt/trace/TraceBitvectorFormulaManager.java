@@ -0,0 +1,247 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.sosy_lab.java_smt.api.BitvectorFormula;
+import org.sosy_lab.java_smt.api.BitvectorFormulaManager;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.FormulaType.BitvectorType;
+
+import java.math.BigInteger;
+
+/**
+ * Wraps a {@link BitvectorFormulaManager} and records all calls.
+ */
+final class TraceBitvectorFormulaManager extends TraceWrapper implements BitvectorFormulaManager {
+
+  private static final TracedMethod MAKE_BITVECTOR = method("makeBitvector", int.class, long.class);
+  private static final TracedMethod MAKE_BITVECTOR_BIG_INTEGER =
+      method("makeBitvector", int.class, BigInteger.class);
+  private static final TracedMethod MAKE_VARIABLE = method("makeVariable", int.class, String.class);
+  private static final TracedMethod MAKE_VARIABLE_BITVECTOR_TYPE =
+      method("makeVariable", BitvectorType.class, String.class);
+  private static final TracedMethod GET_LENGTH = method("getLength", BitvectorFormula.class);
+  private static final TracedMethod NEGATE = method("negate", BitvectorFormula.class);
+  private static final TracedMethod ADD =
+      method("add", BitvectorFormula.class, BitvectorFormula.class);
+  private static final TracedMethod SUBTRACT =
+      method("subtract", BitvectorFormula.class, BitvectorFormula.class);
+  private static final TracedMethod DIVIDE =
+      method("divide", BitvectorFormula.class, BitvectorFormula.class, boolean.class);
+  private static final TracedMethod MODULO =
+      method("modulo", BitvectorFormula.class, BitvectorFormula.class, boolean.class);
+  private static final TracedMethod MULTIPLY =
+      method("multiply", BitvectorFormula.class, BitvectorFormula.class);
+  private static final TracedMethod EQUAL =
+      method("equal", BitvectorFormula.class, BitvectorFormula.class);
+  private static final TracedMethod GREATER_THAN =
+      method("greaterThan", BitvectorFormula.class, BitvectorFormula.class, boolean.class);
+  private static final TracedMethod GREATER_OR_EQUALS =
+      method("greaterOrEquals", BitvectorFormula.class, BitvectorFormula.class, boolean.class);
+  private static final TracedMethod LESS_THAN =
+      method("lessThan", BitvectorFormula.class, BitvectorFormula.class, boolean.class);
+  private static final TracedMethod LESS_OR_EQUALS =
+      method("lessOrEquals", BitvectorFormula.class, BitvectorFormula.class, boolean.class);
+  private static final TracedMethod NOT = method("not", BitvectorFormula.class);
+  private static final TracedMethod AND =
+      method("and", BitvectorFormula.class, BitvectorFormula.class);
+  private static final TracedMethod OR =
+      method("or", BitvectorFormula.class, BitvectorFormula.class);
+  private static final TracedMethod XOR =
+      method("xor", BitvectorFormula.class, BitvectorFormula.class);
+  private static final TracedMethod SHIFT_RIGHT =
+      method("shiftRight", BitvectorFormula.class, BitvectorFormula.class, boolean.class);
+  private static final TracedMethod SHIFT_LEFT =
+      method("shiftLeft", BitvectorFormula.class, BitvectorFormula.class);
+  private static final TracedMethod CONCAT =
+      method("concat", BitvectorFormula.class, BitvectorFormula.class);
+  private static final TracedMethod EXTRACT =
+      method("extract", BitvectorFormula.class, int.class, int.class, boolean.class);
+  private static final TracedMethod EXTEND =
+      method("extend", BitvectorFormula.class, int.class, boolean.class);
+
+  private final BitvectorFormulaManager delegate;
+
+  TraceBitvectorFormulaManager(BitvectorFormulaManager pDelegate, TraceRecorder pRecorder) {
+    super(pRecorder);
+    delegate = checkNotNull(pDelegate);
+  }
+
+  private static TracedMethod method(String name, Class<?>... parameterTypes) {
+    return TracedMethod.of(BitvectorFormulaManager.class, name, parameterTypes);
+  }
+
+  @Override
+  public BitvectorFormula makeBitvector(int length, long pI) {
+    return call(MAKE_BITVECTOR, () -> delegate.makeBitvector(length, pI), length, pI);
+  }
+
+  @Override
+  public BitvectorFormula makeBitvector(int length, BigInteger pI) {
+    return call(MAKE_BITVECTOR_BIG_INTEGER, () -> delegate.makeBitvector(length, pI), length, pI);
+  }
+
+  @Override
+  public BitvectorFormula makeVariable(int length, String pVar) {
+    return call(MAKE_VARIABLE, () -> delegate.makeVariable(length, pVar), length, pVar);
+  }
+
+  @Override
+  public BitvectorFormula makeVariable(BitvectorType type, String pVar) {
+    return call(MAKE_VARIABLE_BITVECTOR_TYPE, () -> delegate.makeVariable(type, pVar), type, pVar);
+  }
+
+  @Override
+  public int getLength(BitvectorFormula number) {
+    return call(GET_LENGTH, () -> delegate.getLength(number), number);
+  }
+
+  @Override
+  public BitvectorFormula negate(BitvectorFormula number) {
+    return call(NEGATE, () -> delegate.negate(number), number);
+  }
+
+  @Override
+  public BitvectorFormula add(BitvectorFormula number1, BitvectorFormula number2) {
+    return call(ADD, () -> delegate.add(number1, number2), number1, number2);
+  }
+
+  @Override
+  public BitvectorFormula subtract(BitvectorFormula number1, BitvectorFormula number2) {
+    return call(SUBTRACT, () -> delegate.subtract(number1, number2), number1, number2);
+  }
+
+  @Override
+  public BitvectorFormula divide(
+      BitvectorFormula number1, BitvectorFormula number2, boolean signed) {
+    return call(DIVIDE, () -> delegate.divide(number1, number2, signed), number1, number2, signed);
+  }
+
+  @Override
+  public BitvectorFormula modulo(
+      BitvectorFormula number1, BitvectorFormula number2, boolean signed) {
+    return call(MODULO, () -> delegate.modulo(number1, number2, signed), number1, number2, signed);
+  }
+
+  @Override
+  public BitvectorFormula multiply(BitvectorFormula number1, BitvectorFormula number2) {
+    return call(MULTIPLY, () -> delegate.multiply(number1, number2), number1, number2);
+  }
+
+  @Override
+  public BooleanFormula equal(BitvectorFormula number1, BitvectorFormula number2) {
+    return call(EQUAL, () -> delegate.equal(number1, number2), number1, number2);
+  }
+
+  @Override
+  public BooleanFormula greaterThan(
+      BitvectorFormula number1, BitvectorFormula number2, boolean signed) {
+    return call(
+        GREATER_THAN,
+        () -> delegate.greaterThan(number1, number2, signed),
+        number1,
+        number2,
+        signed);
+  }
+
+  @Override
+  public BooleanFormula greaterOrEquals(
+      BitvectorFormula number1, BitvectorFormula number2, boolean signed) {
+    return call(
+        GREATER_OR_EQUALS,
+        () -> delegate.greaterOrEquals(number1, number2, signed),
+        number1,
+        number2,
+        signed);
+  }
+
+  @Override
+  public BooleanFormula lessThan(
+      BitvectorFormula number1, BitvectorFormula number2, boolean signed) {
+    return call(
+        LESS_THAN, () -> delegate.lessThan(number1, number2, signed), number1, number2, signed);
+  }
+
+  @Override
+  public BooleanFormula lessOrEquals(
+      BitvectorFormula number1, BitvectorFormula number2, boolean signed) {
+    return call(
+        LESS_OR_EQUALS,
+        () -> delegate.lessOrEquals(number1, number2, signed),
+        number1,
+        number2,
+        signed);
+  }
+
+  @Override
+  public BitvectorFormula not(BitvectorFormula bits) {
+    return call(NOT, () -> delegate.not(bits), bits);
+  }
+
+  @Override
+  public BitvectorFormula and(BitvectorFormula bits1, BitvectorFormula bits2) {
+    return call(AND, () -> delegate.and(bits1, bits2), bits1, bits2);
+  }
+
+  @Override
+  public BitvectorFormula or(BitvectorFormula bits1, BitvectorFormula bits2) {
+    return call(OR, () -> delegate.or(bits1, bits2), bits1, bits2);
+  }
+
+  @Override
+  public BitvectorFormula xor(BitvectorFormula bits1, BitvectorFormula bits2) {
+    return call(XOR, () -> delegate.xor(bits1, bits2), bits1, bits2);
+  }
+
+  @Override
+  public BitvectorFormula shiftRight(
+      BitvectorFormula number, BitvectorFormula toShift, boolean signed) {
+    return call(
+        SHIFT_RIGHT, () -> delegate.shiftRight(number, toShift, signed), number, toShift, signed);
+  }
+
+  @Override
+  public BitvectorFormula shiftLeft(BitvectorFormula number, BitvectorFormula toShift) {
+    return call(SHIFT_LEFT, () -> delegate.shiftLeft(number, toShift), number, toShift);
+  }
+
+  @Override
+  public BitvectorFormula concat(BitvectorFormula number, BitvectorFormula append) {
+    return call(CONCAT, () -> delegate.concat(number, append), number, append);
+  }
+
+  @Override
+  public BitvectorFormula extract(BitvectorFormula number, int msb, int lsb, boolean signed) {
+    return call(
+        EXTRACT, () -> delegate.extract(number, msb, lsb, signed), number, msb, lsb, signed);
+  }
+
+  @Override
+  public BitvectorFormula extend(BitvectorFormula number, int extensionBits, boolean signed) {
+    return call(
+        EXTEND,
+        () -> delegate.extend(number, extensionBits, signed),
+        number,
+        extensionBits,
+        signed);
+  }
+}
@@ -0,0 +1,197 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.visitors.BooleanFormulaTransformationVisitor;
+import org.sosy_lab.java_smt.api.visitors.BooleanFormulaVisitor;
+import org.sosy_lab.java_smt.api.visitors.TraversalProcess;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Wraps a {@link BooleanFormulaManager} and records all calls.
+ */
+final class TraceBooleanFormulaManager extends TraceWrapper implements BooleanFormulaManager {
+
+  private static final TracedMethod MAKE_BOOLEAN = method("makeBoolean", boolean.class);
+  private static final TracedMethod MAKE_TRUE = method("makeTrue");
+  private static final TracedMethod MAKE_FALSE = method("makeFalse");
+  private static final TracedMethod MAKE_VARIABLE = method("makeVariable", String.class);
+  private static final TracedMethod EQUIVALENCE =
+      method("equivalence", BooleanFormula.class, BooleanFormula.class);
+  private static final TracedMethod IMPLICATION =
+      method("implication", BooleanFormula.class, BooleanFormula.class);
+  private static final TracedMethod IS_TRUE = method("isTrue", BooleanFormula.class);
+  private static final TracedMethod IS_FALSE = method("isFalse", BooleanFormula.class);
+  private static final TracedMethod IF_THEN_ELSE =
+      method("ifThenElse", BooleanFormula.class, Formula.class, Formula.class);
+  private static final TracedMethod NOT = method("not", BooleanFormula.class);
+  private static final TracedMethod AND = method("and", BooleanFormula.class, BooleanFormula.class);
+  private static final TracedMethod AND_COLLECTION = method("and", Collection.class);
+  private static final TracedMethod AND_ARRAY = method("and", BooleanFormula[].class);
+  private static final TracedMethod OR = method("or", BooleanFormula.class, BooleanFormula.class);
+  private static final TracedMethod OR_COLLECTION = method("or", Collection.class);
+  private static final TracedMethod OR_ARRAY = method("or", BooleanFormula[].class);
+  private static final TracedMethod XOR = method("xor", BooleanFormula.class, BooleanFormula.class);
+  private static final TracedMethod VISIT =
+      method("visit", BooleanFormula.class, BooleanFormulaVisitor.class);
+  private static final TracedMethod VISIT_RECURSIVELY =
+      method("visitRecursively", BooleanFormula.class, BooleanFormulaVisitor.class);
+  private static final TracedMethod TRANSFORM_RECURSIVELY =
+      method(
+          "transformRecursively", BooleanFormula.class, BooleanFormulaTransformationVisitor.class);
+  private static final TracedMethod TO_CONJUNCTION_ARGS =
+      method("toConjunctionArgs", BooleanFormula.class, boolean.class);
+  private static final TracedMethod TO_DISJUNCTION_ARGS =
+      method("toDisjunctionArgs", BooleanFormula.class, boolean.class);
+
+  private final BooleanFormulaManager delegate;
+
+  TraceBooleanFormulaManager(BooleanFormulaManager pDelegate, TraceRecorder pRecorder) {
+    super(pRecorder);
+    delegate = checkNotNull(pDelegate);
+  }
+
+  private static TracedMethod method(String name, Class<?>... parameterTypes) {
+    return TracedMethod.of(BooleanFormulaManager.class, name, parameterTypes);
+  }
+
+  @Override
+  public BooleanFormula makeBoolean(boolean value) {
+    return call(MAKE_BOOLEAN, () -> delegate.makeBoolean(value), value);
+  }
+
+  @Override
+  public BooleanFormula makeTrue() {
+    return call(MAKE_TRUE, () -> delegate.makeTrue());
+  }
+
+  @Override
+  public BooleanFormula makeFalse() {
+    return call(MAKE_FALSE, () -> delegate.makeFalse());
+  }
+
+  @Override
+  public BooleanFormula makeVariable(String pVar) {
+    return call(MAKE_VARIABLE, () -> delegate.makeVariable(pVar), pVar);
+  }
+
+  @Override
+  public BooleanFormula equivalence(BooleanFormula formula1, BooleanFormula formula2) {
+    return call(EQUIVALENCE, () -> delegate.equivalence(formula1, formula2), formula1, formula2);
+  }
+
+  @Override
+  public BooleanFormula implication(BooleanFormula formula1, BooleanFormula formula2) {
+    return call(IMPLICATION, () -> delegate.implication(formula1, formula2), formula1, formula2);
+  }
+
+  @Override
+  public boolean isTrue(BooleanFormula formula) {
+    return call(IS_TRUE, () -> delegate.isTrue(formula), formula);
+  }
+
+  @Override
+  public boolean isFalse(BooleanFormula formula) {
+    return call(IS_FALSE, () -> delegate.isFalse(formula), formula);
+  }
+
+  @Override
+  public <T extends Formula> T ifThenElse(BooleanFormula cond, T f1, T f2) {
+    return call(IF_THEN_ELSE, () -> delegate.ifThenElse(cond, f1, f2), cond, f1, f2);
+  }
+
+  @Override
+  public BooleanFormula not(BooleanFormula bits) {
+    return call(NOT, () -> delegate.not(bits), bits);
+  }
+
+  @Override
+  public BooleanFormula and(BooleanFormula bits1, BooleanFormula bits2) {
+    return call(AND, () -> delegate.and(bits1, bits2), bits1, bits2);
+  }
+
+  @Override
+  public BooleanFormula and(Collection<BooleanFormula> bits) {
+    return call(AND_COLLECTION, () -> delegate.and(bits), bits);
+  }
+
+  @Override
+  public BooleanFormula and(BooleanFormula... bits) {
+    return call(AND_ARRAY, () -> delegate.and(bits), (Object) bits);
+  }
+
+  @Override
+  public BooleanFormula or(BooleanFormula bits1, BooleanFormula bits2) {
+    return call(OR, () -> delegate.or(bits1, bits2), bits1, bits2);
+  }
+
+  @Override
+  public BooleanFormula or(Collection<BooleanFormula> bits) {
+    return call(OR_COLLECTION, () -> delegate.or(bits), bits);
+  }
+
+  @Override
+  public BooleanFormula or(BooleanFormula... bits) {
+    return call(OR_ARRAY, () -> delegate.or(bits), (Object) bits);
+  }
+
+  @Override
+  public BooleanFormula xor(BooleanFormula bits1, BooleanFormula bits2) {
+    return call(XOR, () -> delegate.xor(bits1, bits2), bits1, bits2);
+  }
+
+  @Override
+  @CanIgnoreReturnValue
+  public <R> R visit(BooleanFormula pFormula, BooleanFormulaVisitor<R> visitor) {
+    return call(VISIT, () -> delegate.visit(pFormula, visitor), pFormula, visitor);
+  }
+
+  @Override
+  public void visitRecursively(
+      BooleanFormula f, BooleanFormulaVisitor<TraversalProcess> rFormulaVisitor) {
+    run(VISIT_RECURSIVELY, () -> delegate.visitRecursively(f, rFormulaVisitor), f, rFormulaVisitor);
+  }
+
+  @Override
+  public BooleanFormula transformRecursively(
+      BooleanFormula f, BooleanFormulaTransformationVisitor pVisitor) {
+    return call(
+        TRANSFORM_RECURSIVELY, () -> delegate.transformRecursively(f, pVisitor), f, pVisitor);
+  }
+
+  @Override
+  public Set<BooleanFormula> toConjunctionArgs(BooleanFormula f, boolean flatten) {
+    return call(TO_CONJUNCTION_ARGS, () -> delegate.toConjunctionArgs(f, flatten), f, flatten);
+  }
+
+  @Override
+  public Set<BooleanFormula> toDisjunctionArgs(BooleanFormula f, boolean flatten) {
+    return call(TO_DISJUNCTION_ARGS, () -> delegate.toDisjunctionArgs(f, flatten), f, flatten);
+  }
+}
@@ -0,0 +1,399 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.FloatingPointFormula;
+import org.sosy_lab.java_smt.api.FloatingPointFormulaManager;
+import org.sosy_lab.java_smt.api.FloatingPointRoundingMode;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FormulaType;
+import org.sosy_lab.java_smt.api.FormulaType.FloatingPointType;
+
+import java.math.BigDecimal;
+
+/**
+ * Wraps a {@link FloatingPointFormulaManager} and records all calls.
+ */
+final class TraceFloatingPointFormulaManager extends TraceWrapper
+    implements FloatingPointFormulaManager {
+
+  private static final TracedMethod MAKE_NUMBER =
+      method("makeNumber", double.class, FloatingPointType.class);
+  private static final TracedMethod MAKE_NUMBER_ROUNDING_MODE =
+      method("makeNumber", double.class, FloatingPointType.class, FloatingPointRoundingMode.class);
+  private static final TracedMethod MAKE_NUMBER_BIG_DECIMAL =
+      method("makeNumber", BigDecimal.class, FloatingPointType.class);
+  private static final TracedMethod MAKE_NUMBER_BIG_DECIMAL_ROUNDING_MODE =
+      method(
+          "makeNumber", BigDecimal.class, FloatingPointType.class, FloatingPointRoundingMode.class);
+  private static final TracedMethod MAKE_NUMBER_STRING =
+      method("makeNumber", String.class, FloatingPointType.class);
+  private static final TracedMethod MAKE_NUMBER_STRING_ROUNDING_MODE =
+      method("makeNumber", String.class, FloatingPointType.class, FloatingPointRoundingMode.class);
+  private static final TracedMethod MAKE_NUMBER_RATIONAL =
+      method("makeNumber", Rational.class, FloatingPointType.class);
+  private static final TracedMethod MAKE_NUMBER_RATIONAL_ROUNDING_MODE =
+      method(
+          "makeNumber", Rational.class, FloatingPointType.class, FloatingPointRoundingMode.class);
+  private static final TracedMethod MAKE_VARIABLE =
+      method("makeVariable", String.class, FloatingPointType.class);
+  private static final TracedMethod MAKE_PLUS_INFINITY =
+      method("makePlusInfinity", FloatingPointType.class);
+  private static final TracedMethod MAKE_MINUS_INFINITY =
+      method("makeMinusInfinity", FloatingPointType.class);
+  private static final TracedMethod MAKE_NAN = method("makeNaN", FloatingPointType.class);
+  private static final TracedMethod CAST_TO =
+      method("castTo", FloatingPointFormula.class, FormulaType.class);
+  private static final TracedMethod CAST_TO_ROUNDING_MODE =
+      method(
+          "castTo", FloatingPointFormula.class, FormulaType.class, FloatingPointRoundingMode.class);
+  private static final TracedMethod CAST_FROM =
+      method("castFrom", Formula.class, boolean.class, FloatingPointType.class);
+  private static final TracedMethod CAST_FROM_ROUNDING_MODE =
+      method(
+          "castFrom",
+          Formula.class,
+          boolean.class,
+          FloatingPointType.class,
+          FloatingPointRoundingMode.class);
+  private static final TracedMethod NEGATE = method("negate", FloatingPointFormula.class);
+  private static final TracedMethod ADD =
+      method("add", FloatingPointFormula.class, FloatingPointFormula.class);
+  private static final TracedMethod ADD_ROUNDING_MODE =
+      method(
+          "add",
+          FloatingPointFormula.class,
+          FloatingPointFormula.class,
+          FloatingPointRoundingMode.class);
+  private static final TracedMethod SUBTRACT =
+      method("subtract", FloatingPointFormula.class, FloatingPointFormula.class);
+  private static final TracedMethod SUBTRACT_ROUNDING_MODE =
+      method(
+          "subtract",
+          FloatingPointFormula.class,
+          FloatingPointFormula.class,
+          FloatingPointRoundingMode.class);
+  private static final TracedMethod DIVIDE =
+      method("divide", FloatingPointFormula.class, FloatingPointFormula.class);
+  private static final TracedMethod DIVIDE_ROUNDING_MODE =
+      method(
+          "divide",
+          FloatingPointFormula.class,
+          FloatingPointFormula.class,
+          FloatingPointRoundingMode.class);
+  private static final TracedMethod MULTIPLY =
+      method("multiply", FloatingPointFormula.class, FloatingPointFormula.class);
+  private static final TracedMethod MULTIPLY_ROUNDING_MODE =
+      method(
+          "multiply",
+          FloatingPointFormula.class,
+          FloatingPointFormula.class,
+          FloatingPointRoundingMode.class);
+  private static final TracedMethod ASSIGNMENT =
+      method("assignment", FloatingPointFormula.class, FloatingPointFormula.class);
+  private static final TracedMethod EQUAL_WITH_FP_SEMANTICS =
+      method("equalWithFPSemantics", FloatingPointFormula.class, FloatingPointFormula.class);
+  private static final TracedMethod GREATER_THAN =
+      method("greaterThan", FloatingPointFormula.class, FloatingPointFormula.class);
+  private static final TracedMethod GREATER_OR_EQUALS =
+      method("greaterOrEquals", FloatingPointFormula.class, FloatingPointFormula.class);
+  private static final TracedMethod LESS_THAN =
+      method("lessThan", FloatingPointFormula.class, FloatingPointFormula.class);
+  private static final TracedMethod LESS_OR_EQUALS =
+      method("lessOrEquals", FloatingPointFormula.class, FloatingPointFormula.class);
+  private static final TracedMethod IS_NAN = method("isNaN", FloatingPointFormula.class);
+  private static final TracedMethod IS_INFINITY = method("isInfinity", FloatingPointFormula.class);
+  private static final TracedMethod IS_ZERO = method("isZero", FloatingPointFormula.class);
+  private static final TracedMethod IS_SUBNORMAL =
+      method("isSubnormal", FloatingPointFormula.class);
+
+  private final FloatingPointFormulaManager delegate;
+
+  TraceFloatingPointFormulaManager(FloatingPointFormulaManager pDelegate, TraceRecorder pRecorder) {
+    super(pRecorder);
+    delegate = checkNotNull(pDelegate);
+  }
+
+  private static TracedMethod method(String name, Class<?>... parameterTypes) {
+    return TracedMethod.of(FloatingPointFormulaManager.class, name, parameterTypes);
+  }
+
+  @Override
+  public FloatingPointFormula makeNumber(double n, FloatingPointType type) {
+    return call(MAKE_NUMBER, () -> delegate.makeNumber(n, type), n, type);
+  }
+
+  @Override
+  public FloatingPointFormula makeNumber(
+      double n, FloatingPointType type, FloatingPointRoundingMode pFloatingPointRoundingMode) {
+    return call(
+        MAKE_NUMBER_ROUNDING_MODE,
+        () -> delegate.makeNumber(n, type, pFloatingPointRoundingMode),
+        n,
+        type,
+        pFloatingPointRoundingMode);
+  }
+
+  @Override
+  public FloatingPointFormula makeNumber(BigDecimal n, FloatingPointType type) {
+    return call(MAKE_NUMBER_BIG_DECIMAL, () -> delegate.makeNumber(n, type), n, type);
+  }
+
+  @Override
+  public FloatingPointFormula makeNumber(
+      BigDecimal n, FloatingPointType type, FloatingPointRoundingMode pFloatingPointRoundingMode) {
+    return call(
+        MAKE_NUMBER_BIG_DECIMAL_ROUNDING_MODE,
+        () -> delegate.makeNumber(n, type, pFloatingPointRoundingMode),
+        n,
+        type,
+        pFloatingPointRoundingMode);
+  }
+
+  @Override
+  public FloatingPointFormula makeNumber(String n, FloatingPointType type) {
+    return call(MAKE_NUMBER_STRING, () -> delegate.makeNumber(n, type), n, type);
+  }
+
+  @Override
+  public FloatingPointFormula makeNumber(
+      String n, FloatingPointType type, FloatingPointRoundingMode pFloatingPointRoundingMode) {
+    return call(
+        MAKE_NUMBER_STRING_ROUNDING_MODE,
+        () -> delegate.makeNumber(n, type, pFloatingPointRoundingMode),
+        n,
+        type,
+        pFloatingPointRoundingMode);
+  }
+
+  @Override
+  public FloatingPointFormula makeNumber(Rational n, FloatingPointType type) {
+    return call(MAKE_NUMBER_RATIONAL, () -> delegate.makeNumber(n, type), n, type);
+  }
+
+  @Override
+  public FloatingPointFormula makeNumber(
+      Rational n, FloatingPointType type, FloatingPointRoundingMode pFloatingPointRoundingMode) {
+    return call(
+        MAKE_NUMBER_RATIONAL_ROUNDING_MODE,
+        () -> delegate.makeNumber(n, type, pFloatingPointRoundingMode),
+        n,
+        type,
+        pFloatingPointRoundingMode);
+  }
+
+  @Override
+  public FloatingPointFormula makeVariable(String pVar, FloatingPointType type) {
+    return call(MAKE_VARIABLE, () -> delegate.makeVariable(pVar, type), pVar, type);
+  }
+
+  @Override
+  public FloatingPointFormula makePlusInfinity(FloatingPointType type) {
+    return call(MAKE_PLUS_INFINITY, () -> delegate.makePlusInfinity(type), type);
+  }
+
+  @Override
+  public FloatingPointFormula makeMinusInfinity(FloatingPointType type) {
+    return call(MAKE_MINUS_INFINITY, () -> delegate.makeMinusInfinity(type), type);
+  }
+
+  @Override
+  public FloatingPointFormula makeNaN(FloatingPointType type) {
+    return call(MAKE_NAN, () -> delegate.makeNaN(type), type);
+  }
+
+  @Override
+  public <T extends Formula> T castTo(FloatingPointFormula number, FormulaType<T> targetType) {
+    return call(CAST_TO, () -> delegate.castTo(number, targetType), number, targetType);
+  }
+
+  @Override
+  public <T extends Formula> T castTo(
+      FloatingPointFormula number,
+      FormulaType<T> targetType,
+      FloatingPointRoundingMode pFloatingPointRoundingMode) {
+    return call(
+        CAST_TO_ROUNDING_MODE,
+        () -> delegate.castTo(number, targetType, pFloatingPointRoundingMode),
+        number,
+        targetType,
+        pFloatingPointRoundingMode);
+  }
+
+  @Override
+  public FloatingPointFormula castFrom(
+      Formula number, boolean signed, FloatingPointType targetType) {
+    return call(
+        CAST_FROM, () -> delegate.castFrom(number, signed, targetType), number, signed, targetType);
+  }
+
+  @Override
+  public FloatingPointFormula castFrom(
+      Formula number,
+      boolean signed,
+      FloatingPointType targetType,
+      FloatingPointRoundingMode pFloatingPointRoundingMode) {
+    return call(
+        CAST_FROM_ROUNDING_MODE,
+        () -> delegate.castFrom(number, signed, targetType, pFloatingPointRoundingMode),
+        number,
+        signed,
+        targetType,
+        pFloatingPointRoundingMode);
+  }
+
+  @Override
+  public FloatingPointFormula negate(FloatingPointFormula number) {
+    return call(NEGATE, () -> delegate.negate(number), number);
+  }
+
+  @Override
+  public FloatingPointFormula add(FloatingPointFormula number1, FloatingPointFormula number2) {
+    return call(ADD, () -> delegate.add(number1, number2), number1, number2);
+  }
+
+  @Override
+  public FloatingPointFormula add(
+      FloatingPointFormula number1,
+      FloatingPointFormula number2,
+      FloatingPointRoundingMode pFloatingPointRoundingMode) {
+    return call(
+        ADD_ROUNDING_MODE,
+        () -> delegate.add(number1, number2, pFloatingPointRoundingMode),
+        number1,
+        number2,
+        pFloatingPointRoundingMode);
+  }
+
+  @Override
+  public FloatingPointFormula subtract(FloatingPointFormula number1, FloatingPointFormula number2) {
+    return call(SUBTRACT, () -> delegate.subtract(number1, number2), number1, number2);
+  }
+
+  @Override
+  public FloatingPointFormula subtract(
+      FloatingPointFormula number1,
+      FloatingPointFormula number2,
+      FloatingPointRoundingMode pFloatingPointRoundingMode) {
+    return call(
+        SUBTRACT_ROUNDING_MODE,
+        () -> delegate.subtract(number1, number2, pFloatingPointRoundingMode),
+        number1,
+        number2,
+        pFloatingPointRoundingMode);
+  }
+
+  @Override
+  public FloatingPointFormula divide(FloatingPointFormula number1, FloatingPointFormula number2) {
+    return call(DIVIDE, () -> delegate.divide(number1, number2), number1, number2);
+  }
+
+  @Override
+  public FloatingPointFormula divide(
+      FloatingPointFormula number1,
+      FloatingPointFormula number2,
+      FloatingPointRoundingMode pFloatingPointRoundingMode) {
+    return call(
+        DIVIDE_ROUNDING_MODE,
+        () -> delegate.divide(number1, number2, pFloatingPointRoundingMode),
+        number1,
+        number2,
+        pFloatingPointRoundingMode);
+  }
+
+  @Override
+  public FloatingPointFormula multiply(FloatingPointFormula number1, FloatingPointFormula number2) {
+    return call(MULTIPLY, () -> delegate.multiply(number1, number2), number1, number2);
+  }
+
+  @Override
+  public FloatingPointFormula multiply(
+      FloatingPointFormula number1,
+      FloatingPointFormula number2,
+      FloatingPointRoundingMode pFloatingPointRoundingMode) {
+    return call(
+        MULTIPLY_ROUNDING_MODE,
+        () -> delegate.multiply(number1, number2, pFloatingPointRoundingMode),
+        number1,
+        number2,
+        pFloatingPointRoundingMode);
+  }
+
+  @Override
+  public BooleanFormula assignment(FloatingPointFormula number1, FloatingPointFormula number2) {
+    return call(ASSIGNMENT, () -> delegate.assignment(number1, number2), number1, number2);
+  }
+
+  @Override
+  public BooleanFormula equalWithFPSemantics(
+      FloatingPointFormula number1, FloatingPointFormula number2) {
+    return call(
+        EQUAL_WITH_FP_SEMANTICS,
+        () -> delegate.equalWithFPSemantics(number1, number2),
+        number1,
+        number2);
+  }
+
+  @Override
+  public BooleanFormula greaterThan(FloatingPointFormula number1, FloatingPointFormula number2) {
+    return call(GREATER_THAN, () -> delegate.greaterThan(number1, number2), number1, number2);
+  }
+
+  @Override
+  public BooleanFormula greaterOrEquals(
+      FloatingPointFormula number1, FloatingPointFormula number2) {
+    return call(
+        GREATER_OR_EQUALS, () -> delegate.greaterOrEquals(number1, number2), number1, number2);
+  }
+
+  @Override
+  public BooleanFormula lessThan(FloatingPointFormula number1, FloatingPointFormula number2) {
+    return call(LESS_THAN, () -> delegate.lessThan(number1, number2), number1, number2);
+  }
+
+  @Override
+  public BooleanFormula lessOrEquals(FloatingPointFormula number1, FloatingPointFormula number2) {
+    return call(LESS_OR_EQUALS, () -> delegate.lessOrEquals(number1, number2), number1, number2);
+  }
+
+  @Override
+  public BooleanFormula isNaN(FloatingPointFormula number) {
+    return call(IS_NAN, () -> delegate.isNaN(number), number);
+  }
+
+  @Override
+  public BooleanFormula isInfinity(FloatingPointFormula number) {
+    return call(IS_INFINITY, () -> delegate.isInfinity(number), number);
+  }
+
+  @Override
+  public BooleanFormula isZero(FloatingPointFormula number) {
+    return call(IS_ZERO, () -> delegate.isZero(number), number);
+  }
+
+  @Override
+  public BooleanFormula isSubnormal(FloatingPointFormula number) {
+    return call(IS_SUBNORMAL, () -> delegate.isSubnormal(number), number);
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.trace;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.sosy_lab.java_smt.api.FormulaType;
+import org.sosy_lab.java_smt.api.FormulaType.ArrayFormulaType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Constants and helpers for the binary trace format.
+ *
+ * <p>A trace starts with {@link #MAGIC} followed by a sequence of records:
+ * <ul>
+ *   <li>{@link #METHOD}: id, declaring interface, name, and parameter types of a method,
+ *       written before its first call.
+ *   <li>{@link #CALL}: id of the target object, method id, arguments, result, and
+ *       the recorded duration in nanoseconds.
+ *   <li>{@link #DEFINE}: id and SMT-LIB representation of a boolean formula
+ *       that was not created through the traced context, e.g., by a visitor.
+ *   <li>{@link #SKIPPED}: method id and duration of a call whose arguments
+ *       cannot be replayed, e.g., a visitor.
+ * </ul>
+ *
+ * <p>Objects (formulas, function declarations, managers, provers, models, and
+ * solver-specific interpolation handles) are referenced by an integer id.
+ * The solver context itself has id {@link #CONTEXT_ID}.
+ */
+final class TraceFormat {
+
+  private TraceFormat() {}
+
+  static final long MAGIC = 0x4A534D5454524331L; // "JSMTTRC1"
+
+  static final int CONTEXT_ID = 0;
+
+  // record tags
+  static final byte METHOD = 1;
+  static final byte CALL = 2;
+  static final byte DEFINE = 3;
+  static final byte SKIPPED = 4;
+
+  // value tags
+  static final byte NULL = 0;
+  static final byte REF = 1;
+  static final byte BOOLEAN = 2;
+  static final byte INT = 3;
+  static final byte LONG = 4;
+  static final byte DOUBLE = 5;
+  static final byte STRING = 6;
+  static final byte BIG_INTEGER = 7;
+  static final byte RATIONAL = 8;
+  static final byte BIG_DECIMAL = 9;
+  static final byte ENUM = 10;
+  static final byte TYPE = 11;
+  static final byte LIST = 12;
+  static final byte SET = 13;
+  static final byte INT_ARRAY = 14;
+  static final byte ARRAY = 15;
+  static final byte CALLBACK = 16;
+  static final byte OPTIONAL = 17;
+  static final byte MAP = 18;
+  static final byte OTHER = 19;
+  static final byte EXCEPTION = 20;
+  static final byte DURATION = 21;
+
+  private static final ImmutableMap<String, Class<?>> PRIMITIVES =
+      ImmutableMap.<String, Class<?>>builder()
+          .put("boolean", boolean.class)
+          .put("byte", byte.class)
+          .put("char", char.class)
+          .put("short", short.class)
+          .put("int", int.class)
+          .put("long", long.class)
+          .put("float", float.class)
+          .put("double", double.class)
+          .build();
+
+  /** Strings are written with their length, because SMT-LIB dumps may exceed 64k. */
+  static void writeString(DataOutput out, String s) throws IOException {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  static String readString(DataInput in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  static void writeType(DataOutput out, FormulaType<?> type) throws IOException {
+    if (type.isArrayType()) {
+      ArrayFormulaType<?, ?> arrayType = (ArrayFormulaType<?, ?>) type;
+      out.writeBoolean(true);
+      writeType(out, arrayType.getIndexType());
+      writeType(out, arrayType.getElementType());
+    } else {
+      out.writeBoolean(false);
+      writeString(out, type.toString());
+    }
+  }
+
+  static FormulaType<?> readType(DataInput in) throws IOException {
+    if (in.readBoolean()) {
+      FormulaType<?> indexType = readType(in);
+      FormulaType<?> elementType = readType(in);
+      return FormulaType.getArrayType(indexType, elementType);
+    } else {
+      return FormulaType.fromString(readString(in));
+    }
+  }
+
+  static Class<?> classForName(String name) throws ClassNotFoundException {
+    Class<?> primitive = PRIMITIVES.get(name);
+    return primitive != null ? primitive : Class.forName(name);
+  }
+}
@@ -0,0 +1,320 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import org.sosy_lab.common.Appender;
+import org.sosy_lab.java_smt.api.ArrayFormulaManager;
+import org.sosy_lab.java_smt.api.BitvectorFormulaManager;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.FloatingPointFormulaManager;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.FormulaType;
+import org.sosy_lab.java_smt.api.FunctionDeclaration;
+import org.sosy_lab.java_smt.api.IntegerFormulaManager;
+import org.sosy_lab.java_smt.api.QuantifiedFormulaManager;
+import org.sosy_lab.java_smt.api.RationalFormulaManager;
+import org.sosy_lab.java_smt.api.Tactic;
+import org.sosy_lab.java_smt.api.UFManager;
+import org.sosy_lab.java_smt.api.visitors.FormulaTransformationVisitor;
+import org.sosy_lab.java_smt.api.visitors.FormulaVisitor;
+import org.sosy_lab.java_smt.api.visitors.TraversalProcess;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Wraps a {@link FormulaManager} and all its sub-managers and records all calls.
+ *
+ * <p>The wrappers of the sub-managers are created on first access,
+ * because the delegate throws an exception for unsupported theories.
+ * Each access is recorded nevertheless, because the replay binds the sub-managers
+ * to their ids via the recorded results.
+ */
+final class TraceFormulaManager extends TraceWrapper implements FormulaManager {
+
+  private static final TracedMethod GET_INTEGER_FORMULA_MANAGER =
+      method("getIntegerFormulaManager");
+  private static final TracedMethod GET_RATIONAL_FORMULA_MANAGER =
+      method("getRationalFormulaManager");
+  private static final TracedMethod GET_BOOLEAN_FORMULA_MANAGER =
+      method("getBooleanFormulaManager");
+  private static final TracedMethod GET_ARRAY_FORMULA_MANAGER = method("getArrayFormulaManager");
+  private static final TracedMethod GET_BITVECTOR_FORMULA_MANAGER =
+      method("getBitvectorFormulaManager");
+  private static final TracedMethod GET_FLOATING_POINT_FORMULA_MANAGER =
+      method("getFloatingPointFormulaManager");
+  private static final TracedMethod GET_UF_MANAGER = method("getUFManager");
+  private static final TracedMethod GET_QUANTIFIED_FORMULA_MANAGER =
+      method("getQuantifiedFormulaManager");
+  private static final TracedMethod MAKE_VARIABLE =
+      method("makeVariable", FormulaType.class, String.class);
+  private static final TracedMethod MAKE_APPLICATION =
+      method("makeApplication", FunctionDeclaration.class, List.class);
+  private static final TracedMethod MAKE_APPLICATION_ARRAY =
+      method("makeApplication", FunctionDeclaration.class, Formula[].class);
+  private static final TracedMethod GET_FORMULA_TYPE = method("getFormulaType", Formula.class);
+  private static final TracedMethod PARSE = method("parse", String.class);
+  private static final TracedMethod DUMP_FORMULA = method("dumpFormula", BooleanFormula.class);
+  private static final TracedMethod APPLY_TACTIC =
+      method("applyTactic", BooleanFormula.class, Tactic.class);
+  private static final TracedMethod SIMPLIFY = method("simplify", Formula.class);
+  private static final TracedMethod VISIT = method("visit", Formula.class, FormulaVisitor.class);
+  private static final TracedMethod VISIT_RECURSIVELY =
+      method("visitRecursively", Formula.class, FormulaVisitor.class);
+  private static final TracedMethod TRANSFORM_RECURSIVELY =
+      method("transformRecursively", Formula.class, FormulaTransformationVisitor.class);
+  private static final TracedMethod EXTRACT_VARIABLES = method("extractVariables", Formula.class);
+  private static final TracedMethod EXTRACT_VARIABLES_AND_UFS =
+      method("extractVariablesAndUFs", Formula.class);
+  private static final TracedMethod SUBSTITUTE = method("substitute", Formula.class, Map.class);
+  private static final TracedMethod TRANSLATE_FROM =
+      method("translateFrom", BooleanFormula.class, FormulaManager.class);
+
+  private final FormulaManager delegate;
+
+  private @Nullable IntegerFormulaManager integerManager = null;
+  private @Nullable RationalFormulaManager rationalManager = null;
+  private @Nullable BooleanFormulaManager booleanManager = null;
+  private @Nullable ArrayFormulaManager arrayManager = null;
+  private @Nullable BitvectorFormulaManager bitvectorManager = null;
+  private @Nullable FloatingPointFormulaManager floatingPointManager = null;
+  private @Nullable UFManager ufManager = null;
+  private @Nullable QuantifiedFormulaManager quantifiedManager = null;
+
+  TraceFormulaManager(FormulaManager pDelegate, TraceRecorder pRecorder) {
+    super(pRecorder);
+    delegate = checkNotNull(pDelegate);
+  }
+
+  private static TracedMethod method(String name, Class<?>... parameterTypes) {
+    return TracedMethod.of(FormulaManager.class, name, parameterTypes);
+  }
+
+  @Override
+  public IntegerFormulaManager getIntegerFormulaManager() {
+    return call(
+        GET_INTEGER_FORMULA_MANAGER,
+        () -> {
+          if (integerManager == null) {
+            integerManager =
+                new TraceIntegerFormulaManager(delegate.getIntegerFormulaManager(), getRecorder());
+          }
+          return integerManager;
+        });
+  }
+
+  @Override
+  public RationalFormulaManager getRationalFormulaManager() {
+    return call(
+        GET_RATIONAL_FORMULA_MANAGER,
+        () -> {
+          if (rationalManager == null) {
+            rationalManager =
+                new TraceRationalFormulaManager(
+                    delegate.getRationalFormulaManager(), getRecorder());
+          }
+          return rationalManager;
+        });
+  }
+
+  @Override
+  public BooleanFormulaManager getBooleanFormulaManager() {
+    return call(
+        GET_BOOLEAN_FORMULA_MANAGER,
+        () -> {
+          if (booleanManager == null) {
+            booleanManager =
+                new TraceBooleanFormulaManager(delegate.getBooleanFormulaManager(), getRecorder());
+          }
+          return booleanManager;
+        });
+  }
+
+  @Override
+  public ArrayFormulaManager getArrayFormulaManager() {
+    return call(
+        GET_ARRAY_FORMULA_MANAGER,
+        () -> {
+          if (arrayManager == null) {
+            arrayManager =
+                new TraceArrayFormulaManager(delegate.getArrayFormulaManager(), getRecorder());
+          }
+          return arrayManager;
+        });
+  }
+
+  @Override
+  public BitvectorFormulaManager getBitvectorFormulaManager() {
+    return call(
+        GET_BITVECTOR_FORMULA_MANAGER,
+        () -> {
+          if (bitvectorManager == null) {
+            bitvectorManager =
+                new TraceBitvectorFormulaManager(
+                    delegate.getBitvectorFormulaManager(), getRecorder());
+          }
+          return bitvectorManager;
+        });
+  }
+
+  @Override
+  public FloatingPointFormulaManager getFloatingPointFormulaManager() {
+    return call(
+        GET_FLOATING_POINT_FORMULA_MANAGER,
+        () -> {
+          if (floatingPointManager == null) {
+            floatingPointManager =
+                new TraceFloatingPointFormulaManager(
+                    delegate.getFloatingPointFormulaManager(), getRecorder());
+          }
+          return floatingPointManager;
+        });
+  }
+
+  @Override
+  public UFManager getUFManager() {
+    return call(
+        GET_UF_MANAGER,
+        () -> {
+          if (ufManager == null) {
+            ufManager = new TraceUFManager(delegate.getUFManager(), getRecorder());
+          }
+          return ufManager;
+        });
+  }
+
+  @Override
+  public QuantifiedFormulaManager getQuantifiedFormulaManager() {
+    return call(
+        GET_QUANTIFIED_FORMULA_MANAGER,
+        () -> {
+          if (quantifiedManager == null) {
+            quantifiedManager =
+                new TraceQuantifiedFormulaManager(
+                    delegate.getQuantifiedFormulaManager(), getRecorder());
+          }
+          return quantifiedManager;
+        });
+  }
+
+  @Override
+  public <T extends Formula> T makeVariable(FormulaType<T> formulaType, String name) {
+    return call(MAKE_VARIABLE, () -> delegate.makeVariable(formulaType, name), formulaType, name);
+  }
+
+  @Override
+  public <T extends Formula> T makeApplication(
+      FunctionDeclaration<T> declaration, List<? extends Formula> args) {
+    return call(
+        MAKE_APPLICATION, () -> delegate.makeApplication(declaration, args), declaration, args);
+  }
+
+  @Override
+  public <T extends Formula> T makeApplication(
+      FunctionDeclaration<T> declaration, Formula... args) {
+    return call(
+        MAKE_APPLICATION_ARRAY,
+        () -> delegate.makeApplication(declaration, args),
+        declaration,
+        (Object) args);
+  }
+
+  @Override
+  public <T extends Formula> FormulaType<T> getFormulaType(T formula) {
+    return call(GET_FORMULA_TYPE, () -> delegate.getFormulaType(formula), formula);
+  }
+
+  @Override
+  public BooleanFormula parse(String s) throws IllegalArgumentException {
+    return call(PARSE, () -> delegate.parse(s), s);
+  }
+
+  @Override
+  public Appender dumpFormula(BooleanFormula pT) {
+    return call(DUMP_FORMULA, () -> delegate.dumpFormula(pT), pT);
+  }
+
+  @Override
+  public BooleanFormula applyTactic(BooleanFormula input, Tactic tactic)
+      throws InterruptedException {
+    return call(APPLY_TACTIC, () -> delegate.applyTactic(input, tactic), input, tactic);
+  }
+
+  @Override
+  public <T extends Formula> T simplify(T input) throws InterruptedException {
+    return call(SIMPLIFY, () -> delegate.simplify(input), input);
+  }
+
+  @Override
+  @CanIgnoreReturnValue
+  public <R> R visit(Formula f, FormulaVisitor<R> rFormulaVisitor) {
+    return call(VISIT, () -> delegate.visit(f, rFormulaVisitor), f, rFormulaVisitor);
+  }
+
+  @Override
+  public void visitRecursively(Formula f, FormulaVisitor<TraversalProcess> rFormulaVisitor) {
+    run(VISIT_RECURSIVELY, () -> delegate.visitRecursively(f, rFormulaVisitor), f, rFormulaVisitor);
+  }
+
+  @Override
+  public <T extends Formula> T transformRecursively(
+      T f, FormulaTransformationVisitor pFormulaVisitor) {
+    return call(
+        TRANSFORM_RECURSIVELY,
+        () -> delegate.transformRecursively(f, pFormulaVisitor),
+        f,
+        pFormulaVisitor);
+  }
+
+  @Override
+  public Map<String, Formula> extractVariables(Formula f) {
+    return call(EXTRACT_VARIABLES, () -> delegate.extractVariables(f), f);
+  }
+
+  @Override
+  public Map<String, Formula> extractVariablesAndUFs(Formula f) {
+    return call(EXTRACT_VARIABLES_AND_UFS, () -> delegate.extractVariablesAndUFs(f), f);
+  }
+
+  @Override
+  public <T extends Formula> T substitute(
+      T f, Map<? extends Formula, ? extends Formula> fromToMapping) {
+    return call(SUBSTITUTE, () -> delegate.substitute(f, fromToMapping), f, fromToMapping);
+  }
+
+  @Override
+  public BooleanFormula translateFrom(BooleanFormula formula, FormulaManager otherContext) {
+    // Unwrap the other manager, such that the solver can use its direct translation.
+    FormulaManager other =
+        otherContext instanceof TraceFormulaManager
+            ? ((TraceFormulaManager) otherContext).delegate
+            : otherContext;
+    return call(
+        TRANSLATE_FROM, () -> delegate.translateFrom(formula, other), formula, otherContext);
+  }
+}
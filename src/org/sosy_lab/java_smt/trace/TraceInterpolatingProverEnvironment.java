@@ -0,0 +1,105 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Wraps an interpolating prover environment and records all calls.
+ * The solver-specific handles of the prover are referenced in the trace by an id.
+ */
+final class TraceInterpolatingProverEnvironment<T> extends TraceBasicProverEnvironment<T>
+    implements InterpolatingProverEnvironment<T> {
+
+  private static final TracedMethod IS_UNSAT_WITH_ASSUMPTIONS =
+      method("isUnsatWithAssumptions", Collection.class);
+  private static final TracedMethod GET_INTERPOLANT = method("getInterpolant", List.class);
+  private static final TracedMethod GET_INTERPOLANTS = method("getInterpolants", List.class);
+  private static final TracedMethod GET_SEQ_INTERPOLANTS = method("getSeqInterpolants", List.class);
+  private static final TracedMethod GET_TREE_INTERPOLANTS =
+      method("getTreeInterpolants", List.class, int[].class);
+
+  private final InterpolatingProverEnvironment<T> wrapped;
+
+  TraceInterpolatingProverEnvironment(
+      InterpolatingProverEnvironment<T> pWrapped, TraceRecorder pRecorder) {
+    super(pWrapped, pRecorder);
+    wrapped = checkNotNull(pWrapped);
+  }
+
+  private static TracedMethod method(String name, Class<?>... parameterTypes) {
+    return TracedMethod.of(InterpolatingProverEnvironment.class, name, parameterTypes);
+  }
+
+  @Override
+  public T push(BooleanFormula f) {
+    push();
+    return addConstraint(f);
+  }
+
+  @Override
+  public boolean isUnsatWithAssumptions(Collection<BooleanFormula> pAssumptions)
+      throws SolverException, InterruptedException {
+    return solve(
+        IS_UNSAT_WITH_ASSUMPTIONS,
+        () -> wrapped.isUnsatWithAssumptions(pAssumptions),
+        pAssumptions);
+  }
+
+  @Override
+  public BooleanFormula getInterpolant(List<T> formulasOfA)
+      throws SolverException, InterruptedException {
+    return solve(GET_INTERPOLANT, () -> wrapped.getInterpolant(formulasOfA), formulasOfA);
+  }
+
+  @Override
+  public List<BooleanFormula> getInterpolants(List<List<T>> cuts)
+      throws SolverException, InterruptedException {
+    return solve(GET_INTERPOLANTS, () -> wrapped.getInterpolants(cuts), cuts);
+  }
+
+  @Override
+  public List<BooleanFormula> getSeqInterpolants(List<Set<T>> partitionedFormulas)
+      throws SolverException, InterruptedException {
+    return solve(
+        GET_SEQ_INTERPOLANTS,
+        () -> wrapped.getSeqInterpolants(partitionedFormulas),
+        partitionedFormulas);
+  }
+
+  @Override
+  public List<BooleanFormula> getTreeInterpolants(
+      List<Set<T>> partitionedFormulas, int[] startOfSubTree)
+      throws SolverException, InterruptedException {
+    return solve(
+        GET_TREE_INTERPOLANTS,
+        () -> wrapped.getTreeInterpolants(partitionedFormulas, startOfSubTree),
+        partitionedFormulas,
+        startOfSubTree);
+  }
+}
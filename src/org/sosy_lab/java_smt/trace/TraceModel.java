@@ -0,0 +1,131 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.BitvectorFormula;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.NumeralFormula.RationalFormula;
+
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.List;
+import java.util.OptionalLong;
+
+import javax.annotation.Nullable;
+
+/**
+ * Wraps a {@link Model} and records all calls.
+ */
+final class TraceModel extends TraceWrapper implements Model {
+
+  private static final TracedMethod EVALUATE = method("evaluate", Formula.class);
+  private static final TracedMethod EVALUATE_INTEGER_FORMULA =
+      method("evaluate", IntegerFormula.class);
+  private static final TracedMethod EVALUATE_RATIONAL_FORMULA =
+      method("evaluate", RationalFormula.class);
+  private static final TracedMethod EVALUATE_BOOLEAN_FORMULA =
+      method("evaluate", BooleanFormula.class);
+  private static final TracedMethod EVALUATE_BITVECTOR_FORMULA =
+      method("evaluate", BitvectorFormula.class);
+  private static final TracedMethod EVALUATE_ALL = method("evaluateAll", List.class);
+  private static final TracedMethod EVALUATE_LONG = method("evaluateLong", IntegerFormula.class);
+  private static final TracedMethod EVALUATE_LONG_BITVECTOR_FORMULA =
+      method("evaluateLong", BitvectorFormula.class);
+  private static final TracedMethod ITERATOR = method("iterator");
+  private static final TracedMethod LOOKUP = method("lookup", String.class);
+  private static final TracedMethod CLOSE = method("close");
+
+  private final Model delegate;
+
+  TraceModel(Model pDelegate, TraceRecorder pRecorder) {
+    super(pRecorder);
+    delegate = checkNotNull(pDelegate);
+  }
+
+  private static TracedMethod method(String name, Class<?>... parameterTypes) {
+    return TracedMethod.of(Model.class, name, parameterTypes);
+  }
+
+  @Override
+  public @Nullable Object evaluate(Formula f) {
+    return call(EVALUATE, () -> delegate.evaluate(f), f);
+  }
+
+  @Override
+  public @Nullable BigInteger evaluate(IntegerFormula f) {
+    return call(EVALUATE_INTEGER_FORMULA, () -> delegate.evaluate(f), f);
+  }
+
+  @Override
+  public @Nullable Rational evaluate(RationalFormula f) {
+    return call(EVALUATE_RATIONAL_FORMULA, () -> delegate.evaluate(f), f);
+  }
+
+  @Override
+  public @Nullable Boolean evaluate(BooleanFormula f) {
+    return call(EVALUATE_BOOLEAN_FORMULA, () -> delegate.evaluate(f), f);
+  }
+
+  @Override
+  public @Nullable BigInteger evaluate(BitvectorFormula f) {
+    return call(EVALUATE_BITVECTOR_FORMULA, () -> delegate.evaluate(f), f);
+  }
+
+  @Override
+  public List<Object> evaluateAll(List<? extends Formula> formulas) {
+    return call(EVALUATE_ALL, () -> delegate.evaluateAll(formulas), formulas);
+  }
+
+  @Override
+  public OptionalLong evaluateLong(IntegerFormula f) {
+    return call(EVALUATE_LONG, () -> delegate.evaluateLong(f), f);
+  }
+
+  @Override
+  public OptionalLong evaluateLong(BitvectorFormula f) {
+    return call(EVALUATE_LONG_BITVECTOR_FORMULA, () -> delegate.evaluateLong(f), f);
+  }
+
+  @Override
+  public Iterator<ValueAssignment> iterator() {
+    return call(ITERATOR, () -> delegate.iterator());
+  }
+
+  @Override
+  public List<ValueAssignment> lookup(String name) {
+    return call(LOOKUP, () -> delegate.lookup(name), name);
+  }
+
+  @Override
+  public String toString() {
+    return delegate.toString();
+  }
+
+  @Override
+  public void close() {
+    run(CLOSE, () -> delegate.close());
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.FormulaType;
+import org.sosy_lab.java_smt.api.NumeralFormula;
+import org.sosy_lab.java_smt.api.NumeralFormulaManager;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * Wraps a {@link NumeralFormulaManager} and records all calls.
+ */
+abstract class TraceNumeralFormulaManager<
+        ParamFormulaType extends NumeralFormula, ResultFormulaType extends NumeralFormula>
+    extends TraceWrapper implements NumeralFormulaManager<ParamFormulaType, ResultFormulaType> {
+
+  private static final TracedMethod MAKE_NUMBER = method("makeNumber", long.class);
+  private static final TracedMethod MAKE_NUMBER_BIG_INTEGER =
+      method("makeNumber", BigInteger.class);
+  private static final TracedMethod MAKE_NUMBER_DOUBLE = method("makeNumber", double.class);
+  private static final TracedMethod MAKE_NUMBER_BIG_DECIMAL =
+      method("makeNumber", BigDecimal.class);
+  private static final TracedMethod MAKE_NUMBER_STRING = method("makeNumber", String.class);
+  private static final TracedMethod MAKE_NUMBER_RATIONAL = method("makeNumber", Rational.class);
+  private static final TracedMethod MAKE_VARIABLE = method("makeVariable", String.class);
+  private static final TracedMethod GET_FORMULA_TYPE = method("getFormulaType");
+  private static final TracedMethod NEGATE = method("negate", NumeralFormula.class);
+  private static final TracedMethod ADD = method("add", NumeralFormula.class, NumeralFormula.class);
+  private static final TracedMethod SUM = method("sum", List.class);
+  private static final TracedMethod SUBTRACT =
+      method("subtract", NumeralFormula.class, NumeralFormula.class);
+  private static final TracedMethod DIVIDE =
+      method("divide", NumeralFormula.class, NumeralFormula.class);
+  private static final TracedMethod MODULO =
+      method("modulo", NumeralFormula.class, NumeralFormula.class);
+  private static final TracedMethod MULTIPLY =
+      method("multiply", NumeralFormula.class, NumeralFormula.class);
+  private static final TracedMethod EQUAL =
+      method("equal", NumeralFormula.class, NumeralFormula.class);
+  private static final TracedMethod GREATER_THAN =
+      method("greaterThan", NumeralFormula.class, NumeralFormula.class);
+  private static final TracedMethod GREATER_OR_EQUALS =
+      method("greaterOrEquals", NumeralFormula.class, NumeralFormula.class);
+  private static final TracedMethod LESS_THAN =
+      method("lessThan", NumeralFormula.class, NumeralFormula.class);
+  private static final TracedMethod LESS_OR_EQUALS =
+      method("lessOrEquals", NumeralFormula.class, NumeralFormula.class);
+
+  private final NumeralFormulaManager<ParamFormulaType, ResultFormulaType> delegate;
+
+  TraceNumeralFormulaManager(
+      NumeralFormulaManager<ParamFormulaType, ResultFormulaType> pDelegate,
+      TraceRecorder pRecorder) {
+    super(pRecorder);
+    delegate = checkNotNull(pDelegate);
+  }
+
+  private static TracedMethod method(String name, Class<?>... parameterTypes) {
+    return TracedMethod.of(NumeralFormulaManager.class, name, parameterTypes);
+  }
+
+  @Override
+  public ResultFormulaType makeNumber(long number) {
+    return call(MAKE_NUMBER, () -> delegate.makeNumber(number), number);
+  }
+
+  @Override
+  public ResultFormulaType makeNumber(BigInteger number) {
+    return call(MAKE_NUMBER_BIG_INTEGER, () -> delegate.makeNumber(number), number);
+  }
+
+  @Override
+  public ResultFormulaType makeNumber(double number) {
+    return call(MAKE_NUMBER_DOUBLE, () -> delegate.makeNumber(number), number);
+  }
+
+  @Override
+  public ResultFormulaType makeNumber(BigDecimal number) {
+    return call(MAKE_NUMBER_BIG_DECIMAL, () -> delegate.makeNumber(number), number);
+  }
+
+  @Override
+  public ResultFormulaType makeNumber(String pI) {
+    return call(MAKE_NUMBER_STRING, () -> delegate.makeNumber(pI), pI);
+  }
+
+  @Override
+  public ResultFormulaType makeNumber(Rational pRational) {
+    return call(MAKE_NUMBER_RATIONAL, () -> delegate.makeNumber(pRational), pRational);
+  }
+
+  @Override
+  public ResultFormulaType makeVariable(String pVar) {
+    return call(MAKE_VARIABLE, () -> delegate.makeVariable(pVar), pVar);
+  }
+
+  @Override
+  public FormulaType<ResultFormulaType> getFormulaType() {
+    return call(GET_FORMULA_TYPE, () -> delegate.getFormulaType());
+  }
+
+  @Override
+  public ResultFormulaType negate(ParamFormulaType number) {
+    return call(NEGATE, () -> delegate.negate(number), number);
+  }
+
+  @Override
+  public ResultFormulaType add(ParamFormulaType number1, ParamFormulaType number2) {
+    return call(ADD, () -> delegate.add(number1, number2), number1, number2);
+  }
+
+  @Override
+  public ResultFormulaType sum(List<ParamFormulaType> operands) {
+    return call(SUM, () -> delegate.sum(operands), operands);
+  }
+
+  @Override
+  public ResultFormulaType subtract(ParamFormulaType number1, ParamFormulaType number2) {
+    return call(SUBTRACT, () -> delegate.subtract(number1, number2), number1, number2);
+  }
+
+  @Override
+  public ResultFormulaType divide(ParamFormulaType number1, ParamFormulaType number2) {
+    return call(DIVIDE, () -> delegate.divide(number1, number2), number1, number2);
+  }
+
+  @Override
+  public ResultFormulaType modulo(ParamFormulaType number1, ParamFormulaType number2) {
+    return call(MODULO, () -> delegate.modulo(number1, number2), number1, number2);
+  }
+
+  @Override
+  public ResultFormulaType multiply(ParamFormulaType number1, ParamFormulaType number2) {
+    return call(MULTIPLY, () -> delegate.multiply(number1, number2), number1, number2);
+  }
+
+  @Override
+  public BooleanFormula equal(ParamFormulaType number1, ParamFormulaType number2) {
+    return call(EQUAL, () -> delegate.equal(number1, number2), number1, number2);
+  }
+
+  @Override
+  public BooleanFormula greaterThan(ParamFormulaType number1, ParamFormulaType number2) {
+    return call(GREATER_THAN, () -> delegate.greaterThan(number1, number2), number1, number2);
+  }
+
+  @Override
+  public BooleanFormula greaterOrEquals(ParamFormulaType number1, ParamFormulaType number2) {
+    return call(
+        GREATER_OR_EQUALS, () -> delegate.greaterOrEquals(number1, number2), number1, number2);
+  }
+
+  @Override
+  public BooleanFormula lessThan(ParamFormulaType number1, ParamFormulaType number2) {
+    return call(LESS_THAN, () -> delegate.lessThan(number1, number2), number1, number2);
+  }
+
+  @Override
+  public BooleanFormula lessOrEquals(ParamFormulaType number1, ParamFormulaType number2) {
+    return call(LESS_OR_EQUALS, () -> delegate.lessOrEquals(number1, number2), number1, number2);
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.util.Optional;
+
+/**
+ * Wraps an optimizing prover environment and records all calls.
+ */
+final class TraceOptimizationProverEnvironment extends TraceBasicProverEnvironment<Void>
+    implements OptimizationProverEnvironment {
+
+  private static final TracedMethod MAXIMIZE = method("maximize", Formula.class);
+  private static final TracedMethod MINIMIZE = method("minimize", Formula.class);
+  private static final TracedMethod CHECK = method("check");
+  private static final TracedMethod UPPER = method("upper", int.class, Rational.class);
+  private static final TracedMethod LOWER = method("lower", int.class, Rational.class);
+
+  private final OptimizationProverEnvironment wrapped;
+
+  TraceOptimizationProverEnvironment(
+      OptimizationProverEnvironment pWrapped, TraceRecorder pRecorder) {
+    super(pWrapped, pRecorder);
+    wrapped = checkNotNull(pWrapped);
+  }
+
+  private static TracedMethod method(String name, Class<?>... parameterTypes) {
+    return TracedMethod.of(OptimizationProverEnvironment.class, name, parameterTypes);
+  }
+
+  @Override
+  public int maximize(Formula objective) {
+    return call(MAXIMIZE, () -> wrapped.maximize(objective), objective);
+  }
+
+  @Override
+  public int minimize(Formula objective) {
+    return call(MINIMIZE, () -> wrapped.minimize(objective), objective);
+  }
+
+  @Override
+  public OptStatus check() throws InterruptedException, SolverException {
+    return solve(CHECK, () -> wrapped.check());
+  }
+
+  @Override
+  public Optional<Rational> upper(int handle, Rational epsilon) {
+    return call(UPPER, () -> wrapped.upper(handle, epsilon), handle, epsilon);
+  }
+
+  @Override
+  public Optional<Rational> lower(int handle, Rational epsilon) {
+    return call(LOWER, () -> wrapped.lower(handle, epsilon), handle, epsilon);
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Wraps a prover environment and records all calls.
+ */
+final class TraceProverEnvironment extends TraceBasicProverEnvironment<Void>
+    implements ProverEnvironment {
+
+  private static final TracedMethod IS_UNSAT_WITH_ASSUMPTIONS =
+      method("isUnsatWithAssumptions", Collection.class);
+  private static final TracedMethod UNSAT_CORE_OVER_ASSUMPTIONS =
+      method("unsatCoreOverAssumptions", Collection.class);
+  private static final TracedMethod GET_UNSAT_CORE = method("getUnsatCore");
+  private static final TracedMethod ALL_SAT = method("allSat", AllSatCallback.class, List.class);
+  private static final TracedMethod ALL_SAT_POLARITIES =
+      method("allSatPolarities", AllSatPolarityCallback.class, List.class);
+
+  private final ProverEnvironment wrapped;
+
+  TraceProverEnvironment(ProverEnvironment pWrapped, TraceRecorder pRecorder) {
+    super(pWrapped, pRecorder);
+    wrapped = checkNotNull(pWrapped);
+  }
+
+  private static TracedMethod method(String name, Class<?>... parameterTypes) {
+    return TracedMethod.of(ProverEnvironment.class, name, parameterTypes);
+  }
+
+  @Override
+  public boolean isUnsatWithAssumptions(Collection<BooleanFormula> assumptions)
+      throws SolverException, InterruptedException {
+    return solve(
+        IS_UNSAT_WITH_ASSUMPTIONS, () -> wrapped.isUnsatWithAssumptions(assumptions), assumptions);
+  }
+
+  @Override
+  public Optional<List<BooleanFormula>> unsatCoreOverAssumptions(
+      Collection<BooleanFormula> assumptions) throws SolverException, InterruptedException {
+    return solve(
+        UNSAT_CORE_OVER_ASSUMPTIONS,
+        () -> wrapped.unsatCoreOverAssumptions(assumptions),
+        assumptions);
+  }
+
+  @Override
+  public List<BooleanFormula> getUnsatCore() {
+    return call(GET_UNSAT_CORE, () -> wrapped.getUnsatCore());
+  }
+
+  @Override
+  public <R> R allSat(AllSatCallback<R> callback, List<BooleanFormula> important)
+      throws InterruptedException, SolverException {
+    return solve(ALL_SAT, () -> wrapped.allSat(callback, important), callback, important);
+  }
+
+  @Override
+  public <R> R allSatPolarities(
+      AllSatPolarityCallback<R> callback, List<BooleanFormula> important)
+      throws InterruptedException, SolverException {
+    return solve(
+        ALL_SAT_POLARITIES,
+        () -> wrapped.allSatPolarities(callback, important),
+        callback,
+        important);
+  }
+}
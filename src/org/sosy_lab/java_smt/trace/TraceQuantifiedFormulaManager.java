@@ -0,0 +1,67 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.QuantifiedFormulaManager;
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.util.List;
+
+/**
+ * Wraps a {@link QuantifiedFormulaManager} and records all calls.
+ * The default methods of the interface are implemented via {@link #mkQuantifier}
+ * and thus recorded there.
+ */
+final class TraceQuantifiedFormulaManager extends TraceWrapper
+    implements QuantifiedFormulaManager {
+
+  private static final TracedMethod MK_QUANTIFIER =
+      method("mkQuantifier", Quantifier.class, List.class, BooleanFormula.class);
+  private static final TracedMethod ELIMINATE_QUANTIFIERS =
+      method("eliminateQuantifiers", BooleanFormula.class);
+
+  private final QuantifiedFormulaManager delegate;
+
+  TraceQuantifiedFormulaManager(QuantifiedFormulaManager pDelegate, TraceRecorder pRecorder) {
+    super(pRecorder);
+    delegate = checkNotNull(pDelegate);
+  }
+
+  private static TracedMethod method(String name, Class<?>... parameterTypes) {
+    return TracedMethod.of(QuantifiedFormulaManager.class, name, parameterTypes);
+  }
+
+  @Override
+  public BooleanFormula mkQuantifier(
+      Quantifier q, List<? extends Formula> pVariables, BooleanFormula pBody) {
+    return call(
+        MK_QUANTIFIER, () -> delegate.mkQuantifier(q, pVariables, pBody), q, pVariables, pBody);
+  }
+
+  @Override
+  public BooleanFormula eliminateQuantifiers(BooleanFormula pF)
+      throws InterruptedException, SolverException {
+    return solve(ELIMINATE_QUANTIFIERS, () -> delegate.eliminateQuantifiers(pF), pF);
+  }
+}
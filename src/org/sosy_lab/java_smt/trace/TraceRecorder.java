@@ -0,0 +1,410 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sosy_lab.java_smt.trace.TraceFormat.writeString;
+import static org.sosy_lab.java_smt.trace.TraceFormat.writeType;
+
+import com.google.common.collect.MapMaker;
+
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FormulaType;
+import org.sosy_lab.java_smt.api.FunctionDeclaration;
+import org.sosy_lab.java_smt.api.ProverEnvironment.AllSatCallback;
+import org.sosy_lab.java_smt.api.ProverEnvironment.AllSatPolarityCallback;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.trace.TraceWrapper.Call;
+import org.sosy_lab.java_smt.trace.TraceWrapper.SolverCall;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+/**
+ * TraceRecorder writes every call on a {@link SolverContext}, its formula managers,
+ * prover environments, and models into a binary trace,
+ * which can be replayed with {@link TraceReplayer}.
+ *
+ * <p>All these objects are wrapped in delegating wrappers, formulas are passed through unchanged
+ * and referenced in the trace by an id, such that the trace represents the formula DAG
+ * without serializing formulas. Ids are assigned without locking, and each call is written
+ * into a buffer of the calling thread. Only appending this buffer to the trace file
+ * is synchronized, the solver calls themselves are not.
+ *
+ * <p>Calls with arguments that cannot be serialized (e.g., visitors) are recorded as skipped.
+ * Boolean formulas that were not created through the traced context (e.g., by a visitor)
+ * are recorded with their SMT-LIB representation.
+ * The recorder identifies formulas by object identity and references them only weakly,
+ * such that formulas that are no longer used by the application can be garbage collected.
+ */
+public final class TraceRecorder {
+
+  private final SolverContext delegate;
+  private final DataOutputStream out;
+
+  private final AtomicInteger nextId = new AtomicInteger(TraceFormat.CONTEXT_ID + 1);
+  private final Map<Method, Integer> methodIds = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Object, Integer> formulaIds = new MapMaker().weakKeys().makeMap();
+  private final ConcurrentMap<Object, Integer> handleIds = new MapMaker().weakKeys().makeMap();
+
+  private final ThreadLocal<CallBuffer> buffers = ThreadLocal.withInitial(CallBuffer::new);
+
+  private volatile @Nullable IOException failure = null;
+
+  private TraceRecorder(SolverContext pDelegate, DataOutputStream pOut) {
+    delegate = pDelegate;
+    out = pOut;
+  }
+
+  /**
+   * Wrap a solver context such that all calls are recorded into the given file.
+   * The trace is complete after the returned context is closed.
+   *
+   * @throws UncheckedIOException from {@link SolverContext#close()}
+   *     if writing the trace failed at some point
+   */
+  public static SolverContext record(SolverContext pDelegate, Path pFile) throws IOException {
+    checkNotNull(pDelegate);
+    DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(pFile), 1 << 16));
+    out.writeLong(TraceFormat.MAGIC);
+    return new TraceSolverContext(pDelegate, new TraceRecorder(pDelegate, out));
+  }
+
+  int newId() {
+    return nextId.getAndIncrement();
+  }
+
+  <R, E extends Exception> R call(int target, TracedMethod method, Call<R, E> body, Object[] args)
+      throws E {
+    long start = System.nanoTime();
+    R result;
+    try {
+      result = body.call();
+    } catch (Exception e) {
+      recordCall(target, method, args, e, System.nanoTime() - start);
+      throw e;
+    }
+    recordCall(target, method, args, result, System.nanoTime() - start);
+    return result;
+  }
+
+  <R> R solve(int target, TracedMethod method, SolverCall<R> body, Object[] args)
+      throws SolverException, InterruptedException {
+    long start = System.nanoTime();
+    R result;
+    try {
+      result = body.call();
+    } catch (Exception e) {
+      recordCall(target, method, args, e, System.nanoTime() - start);
+      throw e;
+    }
+    recordCall(target, method, args, result, System.nanoTime() - start);
+    return result;
+  }
+
+  /** The serialization of a single call, which is appended to the trace as a whole. */
+  private static final class CallBuffer extends ByteArrayOutputStream {
+    private final DataOutputStream data = new DataOutputStream(this);
+  }
+
+  private void recordCall(
+      int target,
+      TracedMethod method,
+      Object[] args,
+      @Nullable Object result,
+      long duration) {
+    if (failure != null) {
+      return;
+    }
+    CallBuffer buffer = buffers.get();
+    DataOutputStream data = buffer.data;
+    try {
+      int methodId = getMethodId(method);
+      buffer.reset();
+      try {
+        data.writeByte(TraceFormat.CALL);
+        data.writeInt(target);
+        data.writeInt(methodId);
+        writeArgs(data, method, args);
+      } catch (UnsupportedValueException e) {
+        buffer.reset();
+        data.writeByte(TraceFormat.SKIPPED);
+        data.writeInt(methodId);
+        data.writeLong(duration);
+        append(buffer);
+        return;
+      }
+      if (result instanceof Throwable) {
+        data.writeByte(TraceFormat.EXCEPTION);
+        writeString(data, result.getClass().getName());
+      } else {
+        writeResult(data, result, method.isHandleResult());
+      }
+      data.writeLong(duration);
+      append(buffer);
+    } catch (IOException e) {
+      failure = e;
+    }
+  }
+
+  /** Append a complete record to the trace. */
+  private void append(ByteArrayOutputStream record) throws IOException {
+    synchronized (out) {
+      record.writeTo(out);
+    }
+  }
+
+  private int getMethodId(TracedMethod tracedMethod) throws IOException {
+    Method method = tracedMethod.getMethod();
+    Integer id = methodIds.get(method);
+    if (id != null) {
+      return id;
+    }
+    synchronized (out) {
+      // the definition has to be written before any call of the method
+      id = methodIds.get(method);
+      if (id == null) {
+        id = methodIds.size();
+        out.writeByte(TraceFormat.METHOD);
+        out.writeInt(id);
+        writeString(out, method.getDeclaringClass().getName());
+        writeString(out, method.getName());
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        out.writeInt(parameterTypes.length);
+        for (Class<?> type : parameterTypes) {
+          writeString(out, type.getName());
+        }
+        methodIds.put(method, id);
+      }
+      return id;
+    }
+  }
+
+  private void writeArgs(DataOutputStream data, TracedMethod method, Object[] args)
+      throws IOException, UnsupportedValueException {
+    data.writeInt(args.length);
+    for (int i = 0; i < args.length; i++) {
+      writeValue(data, args[i], method.isHandleParameter(i));
+    }
+  }
+
+  /**
+   * Write an argument. Solver-specific handles (e.g., for interpolation)
+   * are only looked up if the parameter type refers to the type parameter of the prover.
+   */
+  private void writeValue(DataOutputStream data, @Nullable Object value, boolean handles)
+      throws IOException, UnsupportedValueException {
+    if (value == null) {
+      data.writeByte(TraceFormat.NULL);
+      return;
+    }
+    Integer id = null;
+    if (value instanceof TraceWrapper) {
+      id = ((TraceWrapper) value).getId();
+    } else if (handles) {
+      id = handleIds.get(value);
+    }
+    if (id == null && (value instanceof Formula || value instanceof FunctionDeclaration)) {
+      id = formulaIds.get(value);
+      if (id == null) {
+        id = define(value);
+      }
+    }
+    if (id != null) {
+      data.writeByte(TraceFormat.REF);
+      data.writeInt(id);
+    } else if (value instanceof Boolean) {
+      data.writeByte(TraceFormat.BOOLEAN);
+      data.writeBoolean((Boolean) value);
+    } else if (value instanceof Integer) {
+      data.writeByte(TraceFormat.INT);
+      data.writeInt((Integer) value);
+    } else if (value instanceof Long) {
+      data.writeByte(TraceFormat.LONG);
+      data.writeLong((Long) value);
+    } else if (value instanceof Double) {
+      data.writeByte(TraceFormat.DOUBLE);
+      data.writeDouble((Double) value);
+    } else if (value instanceof String) {
+      data.writeByte(TraceFormat.STRING);
+      writeString(data, (String) value);
+    } else if (value instanceof BigInteger) {
+      data.writeByte(TraceFormat.BIG_INTEGER);
+      writeString(data, value.toString());
+    } else if (value instanceof Rational) {
+      data.writeByte(TraceFormat.RATIONAL);
+      writeString(data, value.toString());
+    } else if (value instanceof BigDecimal) {
+      data.writeByte(TraceFormat.BIG_DECIMAL);
+      writeString(data, value.toString());
+    } else if (value instanceof Duration) {
+      data.writeByte(TraceFormat.DURATION);
+      writeString(data, value.toString());
+    } else if (value instanceof Enum<?>) {
+      data.writeByte(TraceFormat.ENUM);
+      writeString(data, ((Enum<?>) value).getDeclaringClass().getName());
+      writeString(data, ((Enum<?>) value).name());
+    } else if (value instanceof FormulaType<?>) {
+      data.writeByte(TraceFormat.TYPE);
+      writeType(data, (FormulaType<?>) value);
+    } else if (value instanceof Collection<?>) {
+      data.writeByte(value instanceof Set<?> ? TraceFormat.SET : TraceFormat.LIST);
+      data.writeInt(((Collection<?>) value).size());
+      for (Object element : (Collection<?>) value) {
+        writeValue(data, element, handles);
+      }
+    } else if (value instanceof int[]) {
+      data.writeByte(TraceFormat.INT_ARRAY);
+      data.writeInt(((int[]) value).length);
+      for (int element : (int[]) value) {
+        data.writeInt(element);
+      }
+    } else if (value instanceof Object[]) {
+      data.writeByte(TraceFormat.ARRAY);
+      writeString(data, value.getClass().getComponentType().getName());
+      data.writeInt(((Object[]) value).length);
+      for (Object element : (Object[]) value) {
+        writeValue(data, element, handles);
+      }
+    } else if (value instanceof AllSatCallback<?> || value instanceof AllSatPolarityCallback<?>) {
+      data.writeByte(TraceFormat.CALLBACK);
+    } else {
+      throw new UnsupportedValueException();
+    }
+  }
+
+  /**
+   * Record the SMT-LIB representation of a formula that is unknown to the trace.
+   * The definition is written directly, because other threads may reference it as soon as
+   * it is known.
+   */
+  private int define(Object formula) throws IOException, UnsupportedValueException {
+    if (!(formula instanceof BooleanFormula)) {
+      throw new UnsupportedValueException();
+    }
+    String dump = delegate.getFormulaManager().dumpFormula((BooleanFormula) formula).toString();
+    int id = newId();
+    synchronized (out) {
+      out.writeByte(TraceFormat.DEFINE);
+      out.writeInt(id);
+      writeString(out, dump);
+    }
+    Integer previous = formulaIds.putIfAbsent(formula, id);
+    return previous == null ? id : previous;
+  }
+
+  /** Write the result and assign ids to all contained objects. */
+  private void writeResult(DataOutputStream data, @Nullable Object result, boolean isHandle)
+      throws IOException {
+    if (result == null) {
+      data.writeByte(TraceFormat.NULL);
+      return;
+    }
+    Integer id = null;
+    if (result instanceof TraceWrapper) {
+      id = ((TraceWrapper) result).getId();
+    } else if (result instanceof Formula || result instanceof FunctionDeclaration) {
+      id = formulaIds.computeIfAbsent(result, k -> newId());
+    } else if (isHandle) {
+      id = handleIds.computeIfAbsent(result, k -> newId());
+    }
+    if (id != null) {
+      data.writeByte(TraceFormat.REF);
+      data.writeInt(id);
+    } else if (result instanceof List<?> && containsFormulas((List<?>) result)) {
+      data.writeByte(TraceFormat.LIST);
+      data.writeInt(((List<?>) result).size());
+      for (Object element : (List<?>) result) {
+        writeResult(data, element, false);
+      }
+    } else if (result instanceof Optional<?>) {
+      data.writeByte(TraceFormat.OPTIONAL);
+      data.writeBoolean(((Optional<?>) result).isPresent());
+      if (((Optional<?>) result).isPresent()) {
+        writeResult(data, ((Optional<?>) result).get(), false);
+      }
+    } else if (result instanceof Map<?, ?> && containsFormulas(((Map<?, ?>) result).values())) {
+      data.writeByte(TraceFormat.MAP);
+      data.writeInt(((Map<?, ?>) result).size());
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) result).entrySet()) {
+        writeString(data, String.valueOf(entry.getKey()));
+        writeResult(data, entry.getValue(), false);
+      }
+    } else {
+      data.writeByte(TraceFormat.OTHER);
+    }
+  }
+
+  private static boolean containsFormulas(Collection<?> values) {
+    if (values.isEmpty()) {
+      return false;
+    }
+    Object first = values.iterator().next();
+    return first instanceof Formula || first instanceof FunctionDeclaration;
+  }
+
+  /**
+   * Finish the trace.
+   *
+   * @throws UncheckedIOException if writing the trace failed at some point
+   */
+  void close() {
+    synchronized (out) {
+      try {
+        out.close();
+      } catch (IOException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+    IOException e = failure;
+    if (e != null) {
+      throw new UncheckedIOException("Could not write trace", e);
+    }
+  }
+
+  private static final class UnsupportedValueException extends Exception {
+    private static final long serialVersionUID = 1L;
+  }
+}
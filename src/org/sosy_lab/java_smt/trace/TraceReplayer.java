@@ -0,0 +1,357 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sosy_lab.java_smt.trace.TraceFormat.classForName;
+import static org.sosy_lab.java_smt.trace.TraceFormat.readString;
+import static org.sosy_lab.java_smt.trace.TraceFormat.readType;
+
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment.AllSatCallback;
+import org.sosy_lab.java_smt.api.ProverEnvironment.AllSatPolarityCallback;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * TraceReplayer executes a trace written by {@link TraceRecorder}
+ * on a given solver context, which may use a different solver than the recorded one,
+ * and measures the duration of each call.
+ *
+ * <p>Calls that refer to objects that could not be reproduced
+ * (e.g., results of skipped calls) are skipped, too.
+ * Calls of {@link org.sosy_lab.java_smt.api.ProverEnvironment#allSat} and
+ * {@link org.sosy_lab.java_smt.api.ProverEnvironment#allSatPolarities}
+ * are replayed with a callback that ignores the models.
+ * The given context is not closed by the replay.
+ * Instances are not thread-safe.
+ */
+public final class TraceReplayer {
+
+  /** Marker for recorded results that are not bound to an id. */
+  private static final Object NONE = new Object();
+
+  private final SolverContext target;
+  private final Map<Integer, Object> objects = new HashMap<>();
+  private final List<Method> methods = new ArrayList<>();
+  private final List<String> methodNames = new ArrayList<>();
+
+  /** Set while decoding the arguments of a call, if a referenced object is missing. */
+  private boolean missingReference = false;
+
+  public TraceReplayer(SolverContext pTarget) {
+    target = checkNotNull(pTarget);
+  }
+
+  /**
+   * Replay the given trace.
+   *
+   * @throws IOException if the trace cannot be read or refers to unknown classes or methods
+   */
+  public ReplayResult replay(Path trace) throws IOException, InterruptedException {
+    objects.clear();
+    methods.clear();
+    methodNames.clear();
+    objects.put(TraceFormat.CONTEXT_ID, target);
+    ReplayResult result = new ReplayResult(methodNames);
+
+    try (InputStream stream = Files.newInputStream(trace);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16))) {
+      if (in.readLong() != TraceFormat.MAGIC) {
+        throw new IOException("Not a JavaSMT trace: " + trace);
+      }
+      int tag;
+      while ((tag = in.read()) >= 0) {
+        if (Thread.interrupted()) {
+          throw new InterruptedException();
+        }
+        switch (tag) {
+          case TraceFormat.METHOD:
+            readMethod(in);
+            break;
+          case TraceFormat.CALL:
+            replayCall(in, result);
+            break;
+          case TraceFormat.DEFINE:
+            int id = in.readInt();
+            objects.put(id, target.getFormulaManager().parse(readString(in)));
+            break;
+          case TraceFormat.SKIPPED:
+            result.addSkipped(in.readInt(), in.readLong());
+            break;
+          default:
+            throw new IOException("Invalid record in trace: " + tag);
+        }
+      }
+    }
+    return result;
+  }
+
+  private void readMethod(DataInputStream in) throws IOException {
+    int id = in.readInt();
+    String className = readString(in);
+    String name = readString(in);
+    Class<?>[] parameterTypes = new Class<?>[in.readInt()];
+    try {
+      for (int i = 0; i < parameterTypes.length; i++) {
+        parameterTypes[i] = classForName(readString(in));
+      }
+      Class<?> cls = Class.forName(className);
+      methods.add(id, cls.getMethod(name, parameterTypes));
+      methodNames.add(id, cls.getSimpleName() + "." + name);
+    } catch (ClassNotFoundException | NoSuchMethodException e) {
+      throw new IOException("Trace refers to unknown method " + className + "." + name, e);
+    }
+  }
+
+  private void replayCall(DataInputStream in, ReplayResult result) throws IOException {
+    missingReference = false;
+    Object targetObject = lookup(in.readInt());
+    int methodId = in.readInt();
+    Method method = methods.get(methodId);
+    Object[] args = new Object[in.readInt()];
+    for (int i = 0; i < args.length; i++) {
+      args[i] = readValue(in);
+    }
+    Object recordedResult = readResult(in);
+    long recordedNanos = in.readLong();
+
+    if (isContextClose(targetObject, method)) {
+      return; // the context belongs to the caller
+    }
+    if (missingReference) {
+      result.addSkipped(methodId, recordedNanos);
+      return;
+    }
+
+    Object actualResult;
+    long start = System.nanoTime();
+    try {
+      actualResult = method.invoke(targetObject, args);
+    } catch (InvocationTargetException | IllegalAccessException | IllegalArgumentException e) {
+      result.addFailed(methodId, recordedNanos);
+      return;
+    }
+    result.add(methodId, recordedNanos, System.nanoTime() - start);
+    bind(recordedResult, actualResult);
+  }
+
+  private boolean isContextClose(Object targetObject, Method method) {
+    return targetObject == target && method.getName().equals("close");
+  }
+
+  private @Nullable Object lookup(int id) {
+    Object object = objects.get(id);
+    if (object == null) {
+      missingReference = true;
+    }
+    return object;
+  }
+
+  private @Nullable Object readValue(DataInputStream in) throws IOException {
+    byte tag = in.readByte();
+    switch (tag) {
+      case TraceFormat.NULL:
+        return null;
+      case TraceFormat.REF:
+        return lookup(in.readInt());
+      case TraceFormat.BOOLEAN:
+        return in.readBoolean();
+      case TraceFormat.INT:
+        return in.readInt();
+      case TraceFormat.LONG:
+        return in.readLong();
+      case TraceFormat.DOUBLE:
+        return in.readDouble();
+      case TraceFormat.STRING:
+        return readString(in);
+      case TraceFormat.BIG_INTEGER:
+        return new BigInteger(readString(in));
+      case TraceFormat.RATIONAL:
+        return Rational.ofString(readString(in));
+      case TraceFormat.BIG_DECIMAL:
+        return new BigDecimal(readString(in));
+      case TraceFormat.DURATION:
+        return Duration.parse(readString(in));
+      case TraceFormat.ENUM:
+        return readEnum(readString(in), readString(in));
+      case TraceFormat.TYPE:
+        return readType(in);
+      case TraceFormat.LIST:
+        {
+          int size = in.readInt();
+          List<Object> list = new ArrayList<>(size);
+          for (int i = 0; i < size; i++) {
+            list.add(readValue(in));
+          }
+          return list;
+        }
+      case TraceFormat.SET:
+        {
+          int size = in.readInt();
+          Set<Object> set = new LinkedHashSet<>(size);
+          for (int i = 0; i < size; i++) {
+            set.add(readValue(in));
+          }
+          return set;
+        }
+      case TraceFormat.INT_ARRAY:
+        {
+          int[] array = new int[in.readInt()];
+          for (int i = 0; i < array.length; i++) {
+            array[i] = in.readInt();
+          }
+          return array;
+        }
+      case TraceFormat.ARRAY:
+        {
+          Class<?> componentType = loadClass(readString(in));
+          int size = in.readInt();
+          Object array = Array.newInstance(componentType, size);
+          for (int i = 0; i < size; i++) {
+            Array.set(array, i, readValue(in));
+          }
+          return array;
+        }
+      case TraceFormat.CALLBACK:
+        return new IgnoringCallback();
+      default:
+        throw new IOException("Invalid value in trace: " + tag);
+    }
+  }
+
+  private static Object readEnum(String className, String name) throws IOException {
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Object value = Enum.valueOf((Class) loadClass(className), name);
+    return value;
+  }
+
+  private static Class<?> loadClass(String name) throws IOException {
+    try {
+      return classForName(name);
+    } catch (ClassNotFoundException e) {
+      throw new IOException("Trace refers to unknown class " + name, e);
+    }
+  }
+
+  /** Read the recorded result as a tree of ids, lists, optionals, and maps. */
+  private static Object readResult(DataInputStream in) throws IOException {
+    byte tag = in.readByte();
+    switch (tag) {
+      case TraceFormat.NULL:
+      case TraceFormat.OTHER:
+        return NONE;
+      case TraceFormat.EXCEPTION:
+        readString(in);
+        return NONE;
+      case TraceFormat.REF:
+        return in.readInt(); // the id
+      case TraceFormat.LIST:
+        {
+          int size = in.readInt();
+          List<Object> list = new ArrayList<>(size);
+          for (int i = 0; i < size; i++) {
+            list.add(readResult(in));
+          }
+          return list;
+        }
+      case TraceFormat.OPTIONAL:
+        return in.readBoolean() ? Optional.of(readResult(in)) : Optional.empty();
+      case TraceFormat.MAP:
+        {
+          int size = in.readInt();
+          Map<String, Object> map = new LinkedHashMap<>(size);
+          for (int i = 0; i < size; i++) {
+            map.put(readString(in), readResult(in));
+          }
+          return map;
+        }
+      default:
+        throw new IOException("Invalid result in trace: " + tag);
+    }
+  }
+
+  /** Assign the ids of the recorded result to the objects of the actual result. */
+  private void bind(Object recorded, @Nullable Object actual) {
+    if (actual == null) {
+      return;
+    }
+    if (recorded instanceof Integer) {
+      objects.put((Integer) recorded, actual);
+    } else if (recorded instanceof List<?> && actual instanceof Collection<?>) {
+      Iterator<?> it = ((Collection<?>) actual).iterator();
+      for (Object element : (List<?>) recorded) {
+        if (!it.hasNext()) {
+          break;
+        }
+        bind(element, it.next());
+      }
+    } else if (recorded instanceof Optional<?> && actual instanceof Optional<?>) {
+      if (((Optional<?>) recorded).isPresent() && ((Optional<?>) actual).isPresent()) {
+        bind(((Optional<?>) recorded).get(), ((Optional<?>) actual).get());
+      }
+    } else if (recorded instanceof Map<?, ?> && actual instanceof Map<?, ?>) {
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) recorded).entrySet()) {
+        bind(entry.getValue(), ((Map<?, ?>) actual).get(entry.getKey()));
+      }
+    }
+  }
+
+  private static final class IgnoringCallback
+      implements AllSatCallback<Void>, AllSatPolarityCallback<Void> {
+
+    @Override
+    public void apply(List<BooleanFormula> model) {}
+
+    @Override
+    public void apply(BitSet values, BitSet assigned) {}
+
+    @Override
+    public Void getResult() {
+      return null;
+    }
+  }
+}
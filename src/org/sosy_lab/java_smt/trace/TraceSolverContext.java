@@ -0,0 +1,111 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+/**
+ * Wraps a {@link SolverContext} and records all calls on it, its formula manager,
+ * and the prover environments created by it.
+ * Closing the context completes the trace.
+ */
+final class TraceSolverContext extends TraceWrapper implements SolverContext {
+
+  private static final TracedMethod GET_FORMULA_MANAGER = method("getFormulaManager");
+  private static final TracedMethod NEW_PROVER_ENVIRONMENT =
+      method("newProverEnvironment", ProverOptions[].class);
+  private static final TracedMethod NEW_PROVER_ENVIRONMENT_WITH_INTERPOLATION =
+      method("newProverEnvironmentWithInterpolation");
+  private static final TracedMethod NEW_OPTIMIZATION_PROVER_ENVIRONMENT =
+      method("newOptimizationProverEnvironment");
+  private static final TracedMethod GET_VERSION = method("getVersion");
+  private static final TracedMethod GET_SOLVER_NAME = method("getSolverName");
+  private static final TracedMethod CLOSE = method("close");
+
+  private final SolverContext delegate;
+  private final FormulaManager formulaManager;
+
+  TraceSolverContext(SolverContext pDelegate, TraceRecorder pRecorder) {
+    super(pRecorder, TraceFormat.CONTEXT_ID);
+    delegate = checkNotNull(pDelegate);
+    formulaManager = new TraceFormulaManager(delegate.getFormulaManager(), pRecorder);
+  }
+
+  private static TracedMethod method(String name, Class<?>... parameterTypes) {
+    return TracedMethod.of(SolverContext.class, name, parameterTypes);
+  }
+
+  @Override
+  public FormulaManager getFormulaManager() {
+    return call(GET_FORMULA_MANAGER, () -> formulaManager);
+  }
+
+  @Override
+  public ProverEnvironment newProverEnvironment(ProverOptions... options) {
+    return call(
+        NEW_PROVER_ENVIRONMENT,
+        () -> new TraceProverEnvironment(delegate.newProverEnvironment(options), getRecorder()),
+        (Object) options);
+  }
+
+  @Override
+  public InterpolatingProverEnvironment<?> newProverEnvironmentWithInterpolation() {
+    return call(
+        NEW_PROVER_ENVIRONMENT_WITH_INTERPOLATION,
+        () ->
+            new TraceInterpolatingProverEnvironment<>(
+                delegate.newProverEnvironmentWithInterpolation(), getRecorder()));
+  }
+
+  @Override
+  public OptimizationProverEnvironment newOptimizationProverEnvironment() {
+    return call(
+        NEW_OPTIMIZATION_PROVER_ENVIRONMENT,
+        () ->
+            new TraceOptimizationProverEnvironment(
+                delegate.newOptimizationProverEnvironment(), getRecorder()));
+  }
+
+  @Override
+  public String getVersion() {
+    return call(GET_VERSION, () -> delegate.getVersion());
+  }
+
+  @Override
+  public Solvers getSolverName() {
+    return call(GET_SOLVER_NAME, () -> delegate.getSolverName());
+  }
+
+  @Override
+  public void close() {
+    try {
+      run(CLOSE, () -> delegate.close());
+    } finally {
+      getRecorder().close();
+    }
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FormulaType;
+import org.sosy_lab.java_smt.api.FunctionDeclaration;
+import org.sosy_lab.java_smt.api.UFManager;
+
+import java.util.List;
+
+/**
+ * Wraps a {@link UFManager} and records all calls.
+ */
+final class TraceUFManager extends TraceWrapper implements UFManager {
+
+  private static final TracedMethod DECLARE_UF =
+      method("declareUF", String.class, FormulaType.class, List.class);
+  private static final TracedMethod DECLARE_UF_ARRAY =
+      method("declareUF", String.class, FormulaType.class, FormulaType[].class);
+  private static final TracedMethod CALL_UF =
+      method("callUF", FunctionDeclaration.class, List.class);
+  private static final TracedMethod CALL_UF_ARRAY =
+      method("callUF", FunctionDeclaration.class, Formula[].class);
+  private static final TracedMethod DECLARE_AND_CALL_UF =
+      method("declareAndCallUF", String.class, FormulaType.class, List.class);
+  private static final TracedMethod DECLARE_AND_CALL_UF_ARRAY =
+      method("declareAndCallUF", String.class, FormulaType.class, Formula[].class);
+
+  private final UFManager delegate;
+
+  TraceUFManager(UFManager pDelegate, TraceRecorder pRecorder) {
+    super(pRecorder);
+    delegate = checkNotNull(pDelegate);
+  }
+
+  private static TracedMethod method(String name, Class<?>... parameterTypes) {
+    return TracedMethod.of(UFManager.class, name, parameterTypes);
+  }
+
+  @Override
+  public <T extends Formula> FunctionDeclaration<T> declareUF(
+      String name, FormulaType<T> returnType, List<FormulaType<?>> args) {
+    return call(
+        DECLARE_UF, () -> delegate.declareUF(name, returnType, args), name, returnType, args);
+  }
+
+  @Override
+  public <T extends Formula> FunctionDeclaration<T> declareUF(
+      String name, FormulaType<T> returnType, FormulaType<?>... args) {
+    return call(
+        DECLARE_UF_ARRAY,
+        () -> delegate.declareUF(name, returnType, args),
+        name,
+        returnType,
+        (Object) args);
+  }
+
+  @Override
+  public <T extends Formula> T callUF(
+      FunctionDeclaration<T> funcType, List<? extends Formula> args) {
+    return call(CALL_UF, () -> delegate.callUF(funcType, args), funcType, args);
+  }
+
+  @Override
+  public <T extends Formula> T callUF(FunctionDeclaration<T> funcType, Formula... args) {
+    return call(CALL_UF_ARRAY, () -> delegate.callUF(funcType, args), funcType, (Object) args);
+  }
+
+  @Override
+  public <T extends Formula> T declareAndCallUF(
+      String name, FormulaType<T> pReturnType, List<Formula> pArgs) {
+    return call(
+        DECLARE_AND_CALL_UF,
+        () -> delegate.declareAndCallUF(name, pReturnType, pArgs),
+        name,
+        pReturnType,
+        pArgs);
+  }
+
+  @Override
+  public <T extends Formula> T declareAndCallUF(
+      String name, FormulaType<T> pReturnType, Formula... pArgs) {
+    return call(
+        DECLARE_AND_CALL_UF_ARRAY,
+        () -> delegate.declareAndCallUF(name, pReturnType, pArgs),
+        name,
+        pReturnType,
+        (Object) pArgs);
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * Common base of the wrappers that record all calls on the objects of a traced context.
+ * Each wrapper has its own id in the trace.
+ */
+abstract class TraceWrapper {
+
+  private final TraceRecorder recorder;
+  private final int id;
+
+  TraceWrapper(TraceRecorder pRecorder) {
+    this(pRecorder, pRecorder.newId());
+  }
+
+  TraceWrapper(TraceRecorder pRecorder, int pId) {
+    recorder = checkNotNull(pRecorder);
+    id = pId;
+  }
+
+  final TraceRecorder getRecorder() {
+    return recorder;
+  }
+
+  final int getId() {
+    return id;
+  }
+
+  /** Execute and record a call on this object. */
+  final <R, E extends Exception> R call(TracedMethod method, Call<R, E> body, Object... args)
+      throws E {
+    return recorder.call(id, method, body, args);
+  }
+
+  /** Execute and record a call without result on this object. */
+  @SuppressWarnings("CheckReturnValue")
+  final <E extends Exception> void run(TracedMethod method, Run<E> body, Object... args)
+      throws E {
+    recorder.call(
+        id,
+        method,
+        () -> {
+          body.run();
+          return null;
+        },
+        args);
+  }
+
+  /** Execute and record a call of the solver, which may fail or be interrupted. */
+  final <R> R solve(TracedMethod method, SolverCall<R> body, Object... args)
+      throws SolverException, InterruptedException {
+    return recorder.solve(id, method, body, args);
+  }
+
+  interface Call<R, E extends Exception> {
+    R call() throws E;
+  }
+
+  interface Run<E extends Exception> {
+    void run() throws E;
+  }
+
+  interface SolverCall<R> {
+    R call() throws SolverException, InterruptedException;
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.trace;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+
+/**
+ * A method of the API that is recorded in the trace.
+ * The wrappers create one instance per method when they are initialized,
+ * such that recording a call does not need any reflection.
+ */
+final class TracedMethod {
+
+  private final Method method;
+
+  /** Whether the parameter refers to the solver-specific handles of a prover. */
+  private final boolean[] handleParameters;
+
+  /** Whether the result is a solver-specific handle of a prover. */
+  private final boolean handleResult;
+
+  private TracedMethod(Method pMethod) {
+    method = pMethod;
+    Type[] types = method.getGenericParameterTypes();
+    handleParameters = new boolean[types.length];
+    for (int i = 0; i < types.length; i++) {
+      handleParameters[i] = containsClassTypeVariable(types[i]);
+    }
+    handleResult = isClassTypeVariable(method.getGenericReturnType());
+  }
+
+  /**
+   * Look up a method of an API interface.
+   *
+   * @throws AssertionError if the method does not exist, i.e., the wrapper is out of date
+   */
+  static TracedMethod of(Class<?> iface, String name, Class<?>... parameterTypes) {
+    try {
+      return new TracedMethod(iface.getMethod(name, parameterTypes));
+    } catch (NoSuchMethodException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  Method getMethod() {
+    return method;
+  }
+
+  boolean isHandleParameter(int index) {
+    return handleParameters[index];
+  }
+
+  boolean isHandleResult() {
+    return handleResult;
+  }
+
+  /** Whether the type is the type parameter of a class, e.g., the {@code T} of a prover. */
+  private static boolean isClassTypeVariable(Type type) {
+    return type instanceof TypeVariable<?>
+        && ((TypeVariable<?>) type).getGenericDeclaration() instanceof Class<?>;
+  }
+
+  private static boolean containsClassTypeVariable(Type type) {
+    if (isClassTypeVariable(type)) {
+      return true;
+    } else if (type instanceof ParameterizedType) {
+      for (Type argument : ((ParameterizedType) type).getActualTypeArguments()) {
+        if (containsClassTypeVariable(argument)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return method.getDeclaringClass().getSimpleName() + "." + method.getName();
+  }
+}
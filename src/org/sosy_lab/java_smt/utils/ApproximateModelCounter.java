@@ -0,0 +1,160 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.utils;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * ApproximateModelCounter estimates the number of satisfying assignments
+ * to a set of boolean predicates with random XOR constraints.
+ *
+ * <p>Each random XOR constraint halves the solution space in expectation.
+ * The counter adds XOR constraints until the number of remaining solutions
+ * is at most the given threshold, counts these solutions exactly with blocking clauses,
+ * and multiplies the result by 2^(number of XOR constraints).
+ * The final estimate is the median over several iterations.
+ * If the model count does not exceed the threshold, the exact count is returned.
+ *
+ * <p>The prover passed to {@link #countModels} has to be created with
+ * {@link ProverOptions#GENERATE_MODELS}.
+ * Its stack is restored after counting.
+ */
+public class ApproximateModelCounter {
+
+  private final BooleanFormulaManager bmgr;
+  private final Random random;
+  private final int threshold;
+  private final int iterations;
+
+  ApproximateModelCounter(FormulaManager pFmgr, long pSeed, int pThreshold, int pIterations) {
+    checkArgument(pThreshold > 0, "threshold must be positive");
+    checkArgument(pIterations > 0, "number of iterations must be positive");
+    bmgr = pFmgr.getBooleanFormulaManager();
+    random = new Random(pSeed);
+    threshold = pThreshold;
+    iterations = pIterations;
+  }
+
+  /**
+   * Estimate the number of satisfying assignments of the given prover
+   * projected onto the given predicates.
+   */
+  public BigInteger countModels(ProverEnvironment prover, List<BooleanFormula> projection)
+      throws InterruptedException, SolverException {
+    int exact = boundedCount(prover, projection);
+    if (exact <= threshold) {
+      return BigInteger.valueOf(exact);
+    }
+
+    List<BigInteger> estimates = new ArrayList<>(iterations);
+    for (int i = 0; i < iterations; i++) {
+      BigInteger estimate = estimate(prover, projection);
+      if (estimate != null) {
+        estimates.add(estimate);
+      }
+    }
+    if (estimates.isEmpty()) {
+      // all iterations ended with too strong hashes, the count is small
+      return BigInteger.valueOf(exact);
+    }
+    Collections.sort(estimates);
+    return estimates.get(estimates.size() / 2);
+  }
+
+  /**
+   * Add XOR constraints one at a time until at most {@link #threshold} solutions remain.
+   * The constraints of one iteration are kept incrementally on the stack.
+   *
+   * @return the estimate, or null if the hashes removed all solutions
+   */
+  private BigInteger estimate(ProverEnvironment prover, List<BooleanFormula> projection)
+      throws InterruptedException, SolverException {
+    int hashes = 0;
+    try {
+      while (hashes < projection.size()) {
+        prover.push(randomXor(projection));
+        hashes++;
+        int count = boundedCount(prover, projection);
+        if (count == 0) {
+          return null;
+        }
+        if (count <= threshold) {
+          return BigInteger.valueOf(count).shiftLeft(hashes);
+        }
+      }
+      return null;
+    } finally {
+      for (int i = 0; i < hashes; i++) {
+        prover.pop();
+      }
+    }
+  }
+
+  /** Create a random parity constraint over a random subset of the predicates. */
+  private BooleanFormula randomXor(List<BooleanFormula> projection) {
+    BooleanFormula xor = bmgr.makeBoolean(random.nextBoolean());
+    for (BooleanFormula p : projection) {
+      if (random.nextBoolean()) {
+        xor = bmgr.xor(xor, p);
+      }
+    }
+    return xor;
+  }
+
+  /**
+   * Count solutions with blocking clauses, but stop after {@link #threshold} + 1 solutions.
+   */
+  private int boundedCount(ProverEnvironment prover, List<BooleanFormula> projection)
+      throws InterruptedException, SolverException {
+    int count = 0;
+    prover.push();
+    try {
+      while (count <= threshold && !prover.isUnsat()) {
+        count++;
+        List<BooleanFormula> blocking = new ArrayList<>(projection.size());
+        try (Model model = prover.getModel()) {
+          for (BooleanFormula p : projection) {
+            // unassigned predicates can be chosen freely, we pick false
+            Boolean value = model.evaluate(p);
+            blocking.add(value != null && value ? bmgr.not(p) : p);
+          }
+        }
+        prover.addConstraint(bmgr.or(blocking));
+      }
+    } finally {
+      prover.pop();
+    }
+    return count;
+  }
+}
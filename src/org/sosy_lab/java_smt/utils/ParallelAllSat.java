@@ -0,0 +1,332 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.utils;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.ProverEnvironment.AllSatCallback;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ParallelAllSat distributes an AllSAT query over several solver contexts.
+ *
+ * <p>The search space is split into cubes, i.e., assignments to a prefix
+ * of the important predicates. Each cube is enumerated by a worker thread
+ * with {@link ProverEnvironment#allSat} over the remaining predicates.
+ * Every worker owns one {@link SolverContext} (native solvers are not thread-safe),
+ * the query is translated into all worker contexts before the workers start.
+ * A cube whose satisfiability check takes at least a threshold
+ * is split again on the next predicate, such that idle workers get new work.
+ * Workers block on a shared queue of cubes, and are stopped by one poison pill per worker
+ * as soon as all cubes are finished or one worker failed.
+ *
+ * <p>The models are reported in terms of the formulas of the original context,
+ * and calls to the {@link AllSatCallback} are serialized.
+ * The order in which models are reported is not deterministic.
+ */
+public class ParallelAllSat {
+
+  private final FormulaManager sourceManager;
+  private final ImmutableList<SolverContext> workerContexts;
+  private final int initialSplitDepth;
+  private final long resplitThresholdMillis;
+
+  ParallelAllSat(
+      FormulaManager pSourceManager,
+      List<SolverContext> pWorkerContexts,
+      int pInitialSplitDepth,
+      long pResplitThresholdMillis) {
+    checkArgument(!pWorkerContexts.isEmpty(), "at least one worker context is required");
+    checkArgument(pInitialSplitDepth >= 0, "split depth must not be negative");
+    checkArgument(pResplitThresholdMillis >= 0, "threshold must not be negative");
+    sourceManager = checkNotNull(pSourceManager);
+    workerContexts = ImmutableList.copyOf(pWorkerContexts);
+    initialSplitDepth = pInitialSplitDepth;
+    resplitThresholdMillis = pResplitThresholdMillis;
+  }
+
+  /**
+   * Enumerate all satisfying assignments of the important predicates for the given query.
+   *
+   * @param query the constraints, created with the source formula manager
+   * @param callback receives the models, created with the source formula manager
+   * @param important the predicates to enumerate, created with the source formula manager
+   * @return the result of {@link AllSatCallback#getResult()}
+   */
+  public <R> R allSat(
+      BooleanFormula query, AllSatCallback<R> callback, List<BooleanFormula> important)
+      throws InterruptedException, SolverException {
+    ImmutableList<BooleanFormula> sourceImportant = ImmutableList.copyOf(important);
+    BooleanFormulaManager sourceBmgr = sourceManager.getBooleanFormulaManager();
+    List<BooleanFormula> sourceNegated = new ArrayList<>(sourceImportant.size());
+    for (BooleanFormula f : sourceImportant) {
+      sourceNegated.add(sourceBmgr.not(f));
+    }
+
+    // Translation reads the source context, thus it is done sequentially in this thread.
+    List<Worker<R>> workers = new ArrayList<>(workerContexts.size());
+    for (SolverContext context : workerContexts) {
+      FormulaManager mgr = context.getFormulaManager();
+      List<BooleanFormula> translated = new ArrayList<>(sourceImportant.size());
+      for (BooleanFormula f : sourceImportant) {
+        translated.add(mgr.translateFrom(f, sourceManager));
+      }
+      workers.add(
+          new Worker<>(
+              context,
+              mgr.translateFrom(query, sourceManager),
+              translated,
+              sourceImportant,
+              sourceNegated,
+              callback));
+    }
+
+    BlockingQueue<Cube> queue = new LinkedBlockingQueue<>();
+    AtomicInteger pending = new AtomicInteger();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    for (Cube cube : Cube.initialCubes(Math.min(initialSplitDepth, sourceImportant.size()))) {
+      pending.incrementAndGet();
+      queue.add(cube);
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(workers.size());
+    try {
+      List<Future<?>> futures = new ArrayList<>(workers.size());
+      for (Worker<R> worker : workers) {
+        futures.add(executor.submit(() -> worker.run(queue, pending, failure)));
+      }
+      // wait for all workers, they stop each other after a failure
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (ExecutionException e) {
+      failure.compareAndSet(null, e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    Throwable t = failure.get();
+    if (t != null) {
+      Throwables.propagateIfPossible(t, SolverException.class, InterruptedException.class);
+      throw new AssertionError(t);
+    }
+    return callback.getResult();
+  }
+
+  /** An assignment to the first {@link #size()} important predicates. */
+  private static final class Cube {
+
+    /** The poison pill that tells a worker to stop. */
+    private static final Cube STOP = new Cube(new boolean[0]);
+
+    private final boolean[] polarities;
+
+    private Cube(boolean[] pPolarities) {
+      polarities = pPolarities;
+    }
+
+    static List<Cube> initialCubes(int depth) {
+      List<Cube> cubes = new ArrayList<>(1 << depth);
+      cubes.add(new Cube(new boolean[0]));
+      for (int i = 0; i < depth; i++) {
+        List<Cube> next = new ArrayList<>(cubes.size() * 2);
+        for (Cube cube : cubes) {
+          next.add(cube.extend(true));
+          next.add(cube.extend(false));
+        }
+        cubes = next;
+      }
+      return cubes;
+    }
+
+    int size() {
+      return polarities.length;
+    }
+
+    boolean get(int i) {
+      return polarities[i];
+    }
+
+    Cube extend(boolean polarity) {
+      boolean[] extended = new boolean[polarities.length + 1];
+      System.arraycopy(polarities, 0, extended, 0, polarities.length);
+      extended[polarities.length] = polarity;
+      return new Cube(extended);
+    }
+  }
+
+  private final class Worker<R> {
+
+    private final SolverContext context;
+    private final BooleanFormula query;
+    private final List<BooleanFormula> important;
+    private final List<BooleanFormula> negated;
+    private final List<BooleanFormula> sourceImportant;
+    private final List<BooleanFormula> sourceNegated;
+    private final AllSatCallback<R> callback;
+
+    // created lazily in the worker thread
+    private Map<BooleanFormula, BooleanFormula> toSource;
+
+    Worker(
+        SolverContext pContext,
+        BooleanFormula pQuery,
+        List<BooleanFormula> pImportant,
+        List<BooleanFormula> pSourceImportant,
+        List<BooleanFormula> pSourceNegated,
+        AllSatCallback<R> pCallback) {
+      context = pContext;
+      query = pQuery;
+      important = pImportant;
+      negated = new ArrayList<>(pImportant.size());
+      sourceImportant = pSourceImportant;
+      sourceNegated = pSourceNegated;
+      callback = pCallback;
+    }
+
+    Void run(BlockingQueue<Cube> queue, AtomicInteger pending, AtomicReference<Throwable> failure)
+        throws InterruptedException, SolverException {
+      boolean stopped = false;
+      try {
+        initLiterals();
+        try (ProverEnvironment prover = context.newProverEnvironment()) {
+          prover.addConstraint(query);
+          while (true) {
+            Cube cube = queue.take();
+            if (cube == Cube.STOP || failure.get() != null) {
+              stopped = true;
+              return null;
+            }
+            try {
+              solveCube(prover, cube, queue, pending);
+            } finally {
+              if (pending.decrementAndGet() == 0) {
+                stopAll(queue);
+              }
+            }
+          }
+        }
+      } catch (InterruptedException | SolverException | RuntimeException e) {
+        failure.compareAndSet(null, e);
+        throw e;
+      } finally {
+        if (!stopped) {
+          // the other workers would wait forever for the cubes of this worker
+          stopAll(queue);
+        }
+      }
+    }
+
+    private void stopAll(BlockingQueue<Cube> queue) {
+      for (int i = 0; i < workerContexts.size(); i++) {
+        queue.add(Cube.STOP);
+      }
+    }
+
+    private void initLiterals() {
+      BooleanFormulaManager bmgr = context.getFormulaManager().getBooleanFormulaManager();
+      toSource = new HashMap<>();
+      for (int i = 0; i < important.size(); i++) {
+        BooleanFormula neg = bmgr.not(important.get(i));
+        negated.add(neg);
+        toSource.put(important.get(i), sourceImportant.get(i));
+        toSource.put(neg, sourceNegated.get(i));
+      }
+    }
+
+    /** Enumerate the models of one cube, or split the cube if it is too expensive. */
+    private void solveCube(
+        ProverEnvironment prover, Cube cube, BlockingQueue<Cube> queue, AtomicInteger pending)
+        throws InterruptedException, SolverException {
+      prover.push();
+      try {
+        List<BooleanFormula> prefix = new ArrayList<>(important.size());
+        for (int i = 0; i < cube.size(); i++) {
+          prover.addConstraint(cube.get(i) ? important.get(i) : negated.get(i));
+          prefix.add(cube.get(i) ? sourceImportant.get(i) : sourceNegated.get(i));
+        }
+
+        long start = System.nanoTime();
+        if (prover.isUnsat()) {
+          return;
+        }
+        if (cube.size() == important.size()) {
+          synchronized (callback) {
+            callback.apply(prefix);
+          }
+          return;
+        }
+        if (System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(resplitThresholdMillis)) {
+          // the children are counted as pending before the parent is finished
+          pending.addAndGet(2);
+          queue.add(cube.extend(true));
+          queue.add(cube.extend(false));
+          return;
+        }
+
+        ImmutableList<BooleanFormula> prefixList = ImmutableList.copyOf(prefix);
+        prover.allSat(
+            new AllSatCallback<Void>() {
+              @Override
+              public void apply(List<BooleanFormula> model) {
+                List<BooleanFormula> sourceModel = new ArrayList<>(prefixList);
+                for (BooleanFormula literal : model) {
+                  sourceModel.add(checkNotNull(toSource.get(literal), literal));
+                }
+                synchronized (callback) {
+                  callback.apply(sourceModel);
+                }
+              }
+
+              @Override
+              public Void getResult() {
+                return null;
+              }
+            },
+            important.subList(cube.size(), important.size()));
+      } finally {
+        prover.pop();
+      }
+    }
+  }
+}
@@ -19,7 +19,14 @@
  */
 package org.sosy_lab.java_smt.utils;
 
+import com.google.common.math.IntMath;
+
+import org.sosy_lab.java_smt.api.BasicProverEnvironment;
 import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+import java.math.RoundingMode;
+import java.util.List;
 
 /**
  * Central entry point for all utility classes.
@@ -36,4 +43,82 @@ public class SolverUtils {
   public static UfElimination ufElimination(FormulaManager pFormulaManager) {
     return new UfElimination(pFormulaManager);
   }
+
+  /**
+   * Creates a new {@link ParallelAllSat} instance that splits the search space
+   * into at least twice as many cubes as there are workers
+   * and re-splits cubes whose satisfiability check takes at least 100ms.
+   * @param pFormulaManager the {@link FormulaManager} of the query and the important predicates
+   * @param pWorkerContexts one context per worker thread,
+   *     not to be used by anybody else during the AllSAT query
+   * @return a new {@link ParallelAllSat} instance
+   */
+  public static ParallelAllSat parallelAllSat(
+      FormulaManager pFormulaManager, List<SolverContext> pWorkerContexts) {
+    int cubes = 2 * pWorkerContexts.size();
+    int depth = cubes == 0 ? 0 : IntMath.log2(cubes, RoundingMode.CEILING);
+    return new ParallelAllSat(pFormulaManager, pWorkerContexts, depth, 100);
+  }
+
+  /**
+   * Creates a new {@link ParallelAllSat} instance.
+   * @param pFormulaManager the {@link FormulaManager} of the query and the important predicates
+   * @param pWorkerContexts one context per worker thread,
+   *     not to be used by anybody else during the AllSAT query
+   * @param pInitialSplitDepth the number of predicates used for the initial cubes
+   * @param pResplitThresholdMillis cubes whose satisfiability check takes at least this long
+   *     are split again, with 0 every satisfiable cube is split down to single models
+   * @return a new {@link ParallelAllSat} instance
+   */
+  public static ParallelAllSat parallelAllSat(
+      FormulaManager pFormulaManager,
+      List<SolverContext> pWorkerContexts,
+      int pInitialSplitDepth,
+      long pResplitThresholdMillis) {
+    return new ParallelAllSat(
+        pFormulaManager, pWorkerContexts, pInitialSplitDepth, pResplitThresholdMillis);
+  }
+
+  /**
+   * Creates a new {@link ApproximateModelCounter} instance
+   * with a threshold of 72 solutions per cell and 9 iterations.
+   * @param pFormulaManager the {@link FormulaManager} used for creating hash constraints
+   * @param pSeed the seed for choosing the random hash constraints
+   * @return a new {@link ApproximateModelCounter} instance
+   */
+  public static ApproximateModelCounter approximateModelCounter(
+      FormulaManager pFormulaManager, long pSeed) {
+    return new ApproximateModelCounter(pFormulaManager, pSeed, 72, 9);
+  }
+
+  /**
+   * Creates a new {@link ApproximateModelCounter} instance.
+   * @param pFormulaManager the {@link FormulaManager} used for creating hash constraints
+   * @param pSeed the seed for choosing the random hash constraints
+   * @param pThreshold the maximal number of solutions that is counted exactly
+   * @param pIterations the number of estimates, of which the median is returned
+   * @return a new {@link ApproximateModelCounter} instance
+   */
+  public static ApproximateModelCounter approximateModelCounter(
+      FormulaManager pFormulaManager, long pSeed, int pThreshold, int pIterations) {
+    return new ApproximateModelCounter(pFormulaManager, pSeed, pThreshold, pIterations);
+  }
+
+  /**
+   * Creates a new {@link ValueEnumerator} instance.
+   * @param pFormulaManager the {@link FormulaManager} used for creating blocking clauses
+   * @return a new {@link ValueEnumerator} instance
+   */
+  public static ValueEnumerator valueEnumerator(FormulaManager pFormulaManager) {
+    return new ValueEnumerator(pFormulaManager);
+  }
+
+  /**
+   * Creates a new {@link StatisticsTracker} instance.
+   * @param pProver the prover whose statistics are tracked
+   * @return a new {@link StatisticsTracker} instance
+   */
+  public static StatisticsTracker statisticsTracker(BasicProverEnvironment<?> pProver) {
+    return new StatisticsTracker(pProver);
+  }
 }
@@ -0,0 +1,74 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.utils;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.sosy_lab.java_smt.api.BasicProverEnvironment;
+
+import java.util.Map.Entry;
+
+/**
+ * StatisticsTracker computes the changes of the statistics of a prover
+ * between two calls of {@link #delta()},
+ * e.g., the number of conflicts of the last satisfiability check.
+ *
+ * <p>Only the previous statistics are stored,
+ * thus a call costs as much as {@link BasicProverEnvironment#getStatistics()}
+ * plus a linear pass over the values.
+ */
+public class StatisticsTracker {
+
+  private final BasicProverEnvironment<?> prover;
+  private ImmutableMap<String, Object> last = ImmutableMap.of();
+
+  StatisticsTracker(BasicProverEnvironment<?> pProver) {
+    prover = checkNotNull(pProver);
+  }
+
+  /**
+   * Return the statistics that changed since the last call (or since the creation
+   * of this tracker). Integral values are returned as difference to the previous value,
+   * floating-point values as difference, too, and all other values as they are.
+   * Statistics that did not change are omitted.
+   */
+  public ImmutableMap<String, Object> delta() {
+    ImmutableMap<String, Object> current = prover.getStatistics();
+    ImmutableMap.Builder<String, Object> builder = ImmutableMap.builder();
+    for (Entry<String, Object> entry : current.entrySet()) {
+      Object value = entry.getValue();
+      Object previous = last.get(entry.getKey());
+      if (value.equals(previous)) {
+        continue;
+      }
+      if (value instanceof Long && previous instanceof Long) {
+        builder.put(entry.getKey(), (Long) value - (Long) previous);
+      } else if (value instanceof Double && previous instanceof Double) {
+        builder.put(entry.getKey(), (Double) value - (Double) previous);
+      } else {
+        builder.put(entry.getKey(), value);
+      }
+    }
+    last = current;
+    return builder.build();
+  }
+}
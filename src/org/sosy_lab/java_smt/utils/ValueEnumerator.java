@@ -0,0 +1,176 @@
+/*
+ *  JavaSMT is an API wrapper for a collection of SMT solvers.
+ *  This file is part of JavaSMT.
+ *
+ *  Copyright (C) 2007-2016  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.java_smt.utils;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.BitvectorFormula;
+import org.sosy_lab.java_smt.api.BitvectorFormulaManager;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.FormulaType;
+import org.sosy_lab.java_smt.api.FormulaType.BitvectorType;
+import org.sosy_lab.java_smt.api.IntegerFormulaManager;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.NumeralFormula;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.NumeralFormulaManager;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.RationalFormulaManager;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ValueEnumerator enumerates the feasible values of a list of terms,
+ * e.g., integer or bitvector terms, for which {@link ProverEnvironment#allSat}
+ * is not applicable.
+ *
+ * <p>After each solution a blocking clause is added, which is a disjunction
+ * of one disequality per term. All blocking clauses are added on a single
+ * additional stack level of the given prover, which is removed afterwards.
+ * Supported are boolean, integer, rational and bitvector terms.
+ *
+ * <p>The prover passed to {@link #enumerateValues} has to be created with
+ * {@link ProverOptions#GENERATE_MODELS}.
+ */
+public class ValueEnumerator {
+
+  /**
+   * Interface for the {@link #enumerateValues} callback.
+   */
+  public interface ValuesCallback {
+
+    /**
+     * Callback for each solution.
+     * The values are given in the order of the enumerated terms,
+     * {@code null} if the solver did not assign a value (any value is feasible).
+     * The list is only valid during the call.
+     */
+    void apply(List<Object> values);
+  }
+
+  private final FormulaManager fmgr;
+  private final BooleanFormulaManager bmgr;
+
+  ValueEnumerator(FormulaManager pFmgr) {
+    fmgr = pFmgr;
+    bmgr = pFmgr.getBooleanFormulaManager();
+  }
+
+  /**
+   * Enumerate distinct value tuples of the given terms that are feasible
+   * with the current stack of the prover.
+   *
+   * @param prover the prover, its stack is restored afterwards
+   * @param terms the terms whose values are enumerated
+   * @param limit the maximal number of solutions to enumerate
+   * @param callback receives each solution as soon as it is found
+   * @return the number of enumerated solutions,
+   *     if less than {@code limit} then all solutions were enumerated
+   * @throws IllegalArgumentException if a term has an unsupported type,
+   *     this is checked before the prover is used
+   */
+  public int enumerateValues(
+      ProverEnvironment prover, List<? extends Formula> terms, int limit, ValuesCallback callback)
+      throws InterruptedException, SolverException {
+    checkArgument(limit >= 0, "limit must not be negative");
+    FormulaType<?>[] types = new FormulaType<?>[terms.size()];
+    for (int i = 0; i < types.length; i++) {
+      types[i] = fmgr.getFormulaType(terms.get(i));
+      checkArgument(
+          types[i].isBooleanType()
+              || types[i].isIntegerType()
+              || types[i].isRationalType()
+              || types[i].isBitvectorType(),
+          "Value enumeration is not supported for type %s",
+          types[i]);
+    }
+    Object[] values = new Object[terms.size()];
+    List<Object> valuesView = Collections.unmodifiableList(Arrays.asList(values));
+    List<BooleanFormula> disequalities = new ArrayList<>(terms.size());
+
+    int count = 0;
+    prover.push();
+    try {
+      while (count < limit && !prover.isUnsat()) {
+        count++;
+        try (Model model = prover.getModel()) {
+          for (int i = 0; i < values.length; i++) {
+            values[i] = model.evaluate(terms.get(i));
+          }
+        }
+        callback.apply(valuesView);
+
+        disequalities.clear();
+        for (int i = 0; i < values.length; i++) {
+          if (values[i] != null) {
+            disequalities.add(bmgr.not(makeAssignment(terms.get(i), types[i], values[i])));
+          }
+        }
+        if (disequalities.isEmpty()) {
+          break; // every value is feasible, this is the only solution
+        }
+        prover.addConstraint(bmgr.or(disequalities));
+      }
+    } finally {
+      prover.pop();
+    }
+    return count;
+  }
+
+  /** Create the formula {@code term = value}. */
+  private BooleanFormula makeAssignment(Formula term, FormulaType<?> type, Object value) {
+    if (type.isBooleanType()) {
+      return bmgr.equivalence((BooleanFormula) term, bmgr.makeBoolean((Boolean) value));
+    } else if (type.isIntegerType()) {
+      IntegerFormulaManager imgr = fmgr.getIntegerFormulaManager();
+      return imgr.equal((IntegerFormula) term, makeNumber(imgr, value));
+    } else if (type.isRationalType()) {
+      RationalFormulaManager rmgr = fmgr.getRationalFormulaManager();
+      return rmgr.equal((NumeralFormula) term, makeNumber(rmgr, value));
+    } else if (type.isBitvectorType()) {
+      BitvectorFormulaManager bvmgr = fmgr.getBitvectorFormulaManager();
+      int size = ((BitvectorType) type).getSize();
+      return bvmgr.equal((BitvectorFormula) term, bvmgr.makeBitvector(size, (BigInteger) value));
+    } else {
+      throw new AssertionError("unexpected type " + type);
+    }
+  }
+
+  private static <T extends NumeralFormula> T makeNumber(
+      NumeralFormulaManager<?, T> mgr, Object value) {
+    if (value instanceof BigInteger) {
+      return mgr.makeNumber((BigInteger) value);
+    } else if (value instanceof Rational) {
+      return mgr.makeNumber((Rational) value);
+    } else {
+      return mgr.makeNumber(String.valueOf(value));
+    }
+  }
+}